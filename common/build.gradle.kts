@@ -3,6 +3,7 @@ plugins {
 	id("io.spring.dependency-management")
 	id("banka4.test-conventions")
 	id("banka4.code-style-conventions")
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "rs.banka4"
@@ -24,6 +25,8 @@ dependencies {
 	annotationProcessor("org.projectlombok:lombok")
 	api("org.springframework.security:spring-security-core")
 	api("org.springframework:spring-web")
+	api("io.micrometer:micrometer-core")
+	compileOnly("jakarta.servlet:jakarta.servlet-api")
 
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
 	implementation("org.springdoc:springdoc-openapi-starter-webmvc-api:2.8.5")
@@ -39,6 +42,10 @@ dependencies {
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
+jmh {
+	jmhVersion = "1.37"
+}
+
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
@@ -0,0 +1,93 @@
+package rs.banka4.rafeisen.common.utils.jwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import java.time.Duration;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rs.banka4.rafeisen.common.security.AuthenticatedBankUserAuthentication;
+import rs.banka4.rafeisen.common.security.AuthenticatedBankUserPrincipal;
+import rs.banka4.rafeisen.common.security.Privilege;
+import rs.banka4.rafeisen.common.security.UserType;
+
+/**
+ * What the user-service and stock-service auth filters do per request, once the bearer prefix is
+ * stripped: parse the token, then build the authentication. Compares {@link JwtUtil} with and
+ * without a {@link VerifiedTokenCache}. Run with {@code ./gradlew :common:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(
+    iterations = 3,
+    time = 1
+)
+@Measurement(
+    iterations = 5,
+    time = 1
+)
+@Fork(1)
+public class JwtFilterPathBenchmark {
+    private JwtUtil uncached;
+    private JwtUtil cached;
+    private UnverifiedToken token;
+
+    @Setup
+    public void setUp() {
+        final SecretKey key = Keys.hmacShaKeyFor(new byte[64]);
+        final var parser =
+            Jwts.parser()
+                .verifyWith(key)
+                .build();
+        uncached = new JwtUtil(parser);
+        cached = new JwtUtil(parser, new VerifiedTokenCache(10_000, Duration.ofMinutes(5)));
+
+        final var accessToken =
+            new VerifiedAccessToken(
+                UserType.EMPLOYEE,
+                UUID.randomUUID(),
+                EnumSet.of(Privilege.ADMIN, Privilege.SUPERVISOR, Privilege.AGENT)
+            );
+        token =
+            new UnverifiedToken(
+                Jwts.builder()
+                    .claims(accessToken.getClaims())
+                    .expiration(new Date(System.currentTimeMillis() + 3_600_000))
+                    .signWith(key)
+                    .compact()
+            );
+    }
+
+    @Benchmark
+    public AuthenticatedBankUserAuthentication uncached() throws JwtParseFailed {
+        return authenticate(uncached);
+    }
+
+    @Benchmark
+    public AuthenticatedBankUserAuthentication cached() throws JwtParseFailed {
+        return authenticate(cached);
+    }
+
+    private AuthenticatedBankUserAuthentication authenticate(JwtUtil jwtUtil)
+        throws JwtParseFailed {
+        final var vat = (VerifiedAccessToken) jwtUtil.parseToken(token);
+        return new AuthenticatedBankUserAuthentication(
+            new AuthenticatedBankUserPrincipal(vat.getRole(), vat.getSub()),
+            token.rawJwt(),
+            vat.getPrivileges()
+        );
+    }
+}
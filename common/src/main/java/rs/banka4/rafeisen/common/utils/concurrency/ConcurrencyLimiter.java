@@ -0,0 +1,104 @@
+package rs.banka4.rafeisen.common.utils.concurrency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admits requests while fewer than the {@link GradientConcurrencyLimit} are in flight, and sheds
+ * them otherwise. Requests of each {@link RequestPriority} may only fill their share of the limit,
+ * so that low priority requests are shed well before critical ones.
+ *
+ * <p>
+ * Bind it to a {@link MeterRegistry} to publish {@code banka4.concurrency.limit},
+ * {@code banka4.concurrency.inflight} and {@code banka4.concurrency.shed} (by {@code priority}).
+ * </p>
+ */
+public class ConcurrencyLimiter implements MeterBinder {
+    /**
+     * A request that was admitted. Exactly one of {@link #release()} and {@link #ignore()} must be
+     * called once it is done.
+     */
+    public final class Permit {
+        private final long startNanos = System.nanoTime();
+        private final int inflightAtStart;
+
+        private Permit(int inflightAtStart) {
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        /** Frees the permit, and feeds the request's latency into the limit. */
+        public void release() {
+            inflight.decrementAndGet();
+            limit.onSample(System.nanoTime() - startNanos, inflightAtStart);
+        }
+
+        /** Frees the permit without a sample, for requests whose latency says nothing of load. */
+        public void ignore() {
+            inflight.decrementAndGet();
+        }
+    }
+
+    private final GradientConcurrencyLimit limit;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final Map<RequestPriority, LongAdder> shed = new EnumMap<>(RequestPriority.class);
+
+    public ConcurrencyLimiter(GradientConcurrencyLimit limit) {
+        this.limit = limit;
+        for (final var priority : RequestPriority.values())
+            shed.put(priority, new LongAdder());
+    }
+
+    /**
+     * @return a permit for the request, or {@code null} if it should be shed.
+     */
+    public Permit tryAcquire(RequestPriority priority) {
+        final var allowed = Math.max(1, (int) (limit.getLimit() * priority.share()));
+        while (true) {
+            final var current = inflight.get();
+            if (current >= allowed) {
+                shed.get(priority)
+                    .increment();
+                return null;
+            }
+            if (inflight.compareAndSet(current, current + 1)) return new Permit(current + 1);
+        }
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("banka4.concurrency.limit", limit, GradientConcurrencyLimit::getLimit)
+            .description("Estimated number of requests that can be served at once")
+            .register(registry);
+        Gauge.builder("banka4.concurrency.inflight", inflight, AtomicInteger::get)
+            .description("Requests currently being served")
+            .register(registry);
+        shed.forEach(
+            (priority, count) -> FunctionCounter.builder(
+                "banka4.concurrency.shed",
+                count,
+                LongAdder::sum
+            )
+                .description("Requests turned away because the service was saturated")
+                .tag(
+                    "priority",
+                    priority.name()
+                        .toLowerCase()
+                )
+                .register(registry)
+        );
+    }
+}
@@ -0,0 +1,89 @@
+package rs.banka4.rafeisen.common.utils.concurrency;
+
+/**
+ * Estimates how many requests a service can serve at once from the latencies it observes.
+ *
+ * <p>
+ * Follows the gradient approach: a long-term average of latency stands in for the latency of an
+ * unloaded service, and a short-term average for the current one. While the two agree, the limit
+ * grows by a small queue allowance per update; as queueing pushes the short-term latency up, their
+ * ratio (the gradient) falls below one and the limit shrinks in proportion. The long-term average
+ * is pulled down quickly once latency recovers, so that a past spike does not keep the limit
+ * inflated.
+ * </p>
+ *
+ * <p>
+ * The limit only grows while at least half of it is in use, so that a lightly loaded service does
+ * not drift up to {@code maxLimit} without having been tested there.
+ * </p>
+ */
+public class GradientConcurrencyLimit {
+    private static final int LONG_WINDOW = 600;
+    private static final int SHORT_WINDOW = 10;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private double estimatedLimit;
+    private double longRttNanos;
+    private double shortRttNanos;
+    private long samples;
+    private volatile int limit;
+
+    /**
+     * @param tolerance how much the current latency may exceed the long-term one before the limit
+     *        starts shrinking, e.g. {@code 1.5}
+     */
+    public GradientConcurrencyLimit(
+        int initialLimit,
+        int minLimit,
+        int maxLimit,
+        double tolerance
+    ) {
+        if (minLimit < 1 || maxLimit < minLimit)
+            throw new IllegalArgumentException("Need 1 <= minLimit <= maxLimit");
+        if (tolerance < 1) throw new IllegalArgumentException("tolerance must be at least 1");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * @return the current concurrency limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Records the latency of a completed request.
+     *
+     * @param rttNanos how long the request took
+     * @param inflight how many requests were in flight when it started, itself included
+     */
+    public synchronized void onSample(long rttNanos, int inflight) {
+        rttNanos = Math.max(1, rttNanos);
+        samples++;
+        /* Plain averages while warming up, so that the first samples are not over-weighted. */
+        longRttNanos += (rttNanos - longRttNanos) / Math.min(samples, LONG_WINDOW);
+        shortRttNanos += (rttNanos - shortRttNanos) / Math.min(samples, SHORT_WINDOW);
+
+        /* Latency has recovered from a spike; don't let the spike keep the baseline high. */
+        if (longRttNanos / shortRttNanos > 2) longRttNanos *= 0.95;
+
+        if (inflight < estimatedLimit / 2) return;
+
+        final var gradient =
+            Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+        final var queueAllowance = Math.sqrt(estimatedLimit);
+        final var target = estimatedLimit * gradient + queueAllowance;
+        final var smoothed = estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING;
+
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+        limit = (int) estimatedLimit;
+    }
+}
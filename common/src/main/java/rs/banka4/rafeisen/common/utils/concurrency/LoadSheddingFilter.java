@@ -0,0 +1,117 @@
+package rs.banka4.rafeisen.common.utils.concurrency;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Filter that turns requests away with {@code 503 Service Unavailable} and a {@code Retry-After}
+ * while the service is serving as many requests as its {@link ConcurrencyLimiter} allows. Low
+ * priority requests are turned away first; see {@link RequestPriority}.
+ * <p>
+ * Asynchronous requests, such as streamed exports, hold their permit until they complete, fail or
+ * time out, and do not count towards the latency estimate. Requests the rules exempt, such as
+ * health checks, are never shed.
+ */
+public class LoadSheddingFilter extends OncePerRequestFilter {
+    /** Same shape as the bodies produced by the error handler. */
+    private static final String OVERLOADED_BODY =
+        "{\"failed\":true,\"code\":\"ServiceOverloaded\"}";
+
+    private final ConcurrencyLimiter limiter;
+    private final RequestPriorityRules priorities;
+    private final int retryAfterSeconds;
+
+    public LoadSheddingFilter(
+        ConcurrencyLimiter limiter,
+        RequestPriorityRules priorities,
+        int retryAfterSeconds
+    ) {
+        this.limiter = limiter;
+        this.priorities = priorities;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return priorities.isExempt(request);
+    }
+
+    @Override
+    protected void doFilterInternal(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        FilterChain filterChain
+    ) throws ServletException,
+        IOException {
+        final var permit = limiter.tryAcquire(priorities.priorityOf(request));
+        if (permit == null) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Integer.toString(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter()
+                .write(OVERLOADED_BODY);
+            return;
+        }
+
+        var sampled = false;
+        var async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext()
+                    .addListener(new AsyncPermitListener(permit));
+                async = true;
+            } else sampled = true;
+        } finally {
+            if (sampled) permit.release();
+            else if (!async) permit.ignore();
+        }
+    }
+
+    /** Gives up the permit of an asynchronous request once it is over, whichever way it ends. */
+    private static final class AsyncPermitListener implements AsyncListener {
+        private final ConcurrencyLimiter.Permit permit;
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        private AsyncPermitListener(ConcurrencyLimiter.Permit permit) {
+            this.permit = permit;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            end();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            end();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            end();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            /* Listeners are dropped when a request goes async again; stay on it. */
+            event.getAsyncContext()
+                .addListener(this);
+        }
+
+        private void end() {
+            /* An error or timeout is followed by completion; give the permit up only once. */
+            if (ended.compareAndSet(false, true)) permit.ignore();
+        }
+    }
+}
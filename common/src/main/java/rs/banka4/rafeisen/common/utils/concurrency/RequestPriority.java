@@ -0,0 +1,27 @@
+package rs.banka4.rafeisen.common.utils.concurrency;
+
+/**
+ * How important a request is to keep serving when the service is saturated. Each priority may fill
+ * only a share of the concurrency limit, so that lower priorities are shed first and always leave
+ * room for the higher ones.
+ */
+public enum RequestPriority {
+    /** Reads that can be retried later at no cost, e.g. browsing and history queries. */
+    LOW(0.5),
+    NORMAL(0.8),
+    /** Money movement and the verification it depends on. */
+    CRITICAL(1.0);
+
+    private final double share;
+
+    RequestPriority(double share) {
+        this.share = share;
+    }
+
+    /**
+     * @return the fraction of the concurrency limit that requests of this priority may fill.
+     */
+    public double share() {
+        return share;
+    }
+}
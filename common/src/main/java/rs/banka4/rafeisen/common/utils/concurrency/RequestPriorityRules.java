@@ -0,0 +1,67 @@
+package rs.banka4.rafeisen.common.utils.concurrency;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * Assigns a {@link RequestPriority} to requests by method and path. The first matching rule wins;
+ * requests no rule matches are {@link RequestPriority#NORMAL}. Exempt paths, such as health checks,
+ * are never shed.
+ */
+public class RequestPriorityRules {
+    private record Rule(
+        HttpMethod method,
+        PathPattern pattern,
+        RequestPriority priority
+    ) {
+    }
+
+    private final List<Rule> rules = new ArrayList<>();
+    private final List<PathPattern> exempt = new ArrayList<>();
+
+    /**
+     * Adds a rule.
+     *
+     * @param method method to match, or {@code null} for any
+     * @param pattern path pattern, e.g. {@code /transaction/**}
+     * @return {@code this}
+     */
+    public RequestPriorityRules rule(HttpMethod method, String pattern, RequestPriority priority) {
+        rules.add(new Rule(method, PathPatternParser.defaultInstance.parse(pattern), priority));
+        return this;
+    }
+
+    /**
+     * Exempts requests to {@code pattern} from load shedding, e.g. {@code /actuator/**}, so that
+     * health checks keep answering while the service is saturated.
+     *
+     * @return {@code this}
+     */
+    public RequestPriorityRules exempt(String pattern) {
+        exempt.add(PathPatternParser.defaultInstance.parse(pattern));
+        return this;
+    }
+
+    public boolean isExempt(HttpServletRequest request) {
+        if (exempt.isEmpty()) return false;
+
+        final var path = PathContainer.parsePath(request.getRequestURI());
+        for (final var pattern : exempt)
+            if (pattern.matches(path)) return true;
+        return false;
+    }
+
+    public RequestPriority priorityOf(HttpServletRequest request) {
+        final var path = PathContainer.parsePath(request.getRequestURI());
+        for (final var rule : rules) {
+            if (rule.method != null && !rule.method.matches(request.getMethod())) continue;
+            if (rule.pattern.matches(path)) return rule.priority;
+        }
+        return RequestPriority.NORMAL;
+    }
+}
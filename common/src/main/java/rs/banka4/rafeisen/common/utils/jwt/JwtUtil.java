@@ -3,12 +3,23 @@ package rs.banka4.rafeisen.common.utils.jwt;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwt;
 import io.jsonwebtoken.JwtParser;
-import lombok.RequiredArgsConstructor;
 
-/** Effectively a JWT parser helper function. */
-@RequiredArgsConstructor
+/**
+ * Effectively a JWT parser helper function. If given a {@link VerifiedTokenCache}, tokens that
+ * were already verified are served from it until they expire.
+ */
 public class JwtUtil {
     private final JwtParser jwtParser;
+    private final VerifiedTokenCache cache;
+
+    public JwtUtil(JwtParser jwtParser) {
+        this(jwtParser, null);
+    }
+
+    public JwtUtil(JwtParser jwtParser, VerifiedTokenCache cache) {
+        this.jwtParser = jwtParser;
+        this.cache = cache;
+    }
 
     /**
      * Given an unverified token, verifies and validates it, returning a proper, parsed token.
@@ -16,6 +27,14 @@ public class JwtUtil {
      * @throws JwtParseFailed If it is not possible to parse this token. The is included.
      */
     public VerifiedToken parseToken(UnverifiedToken unverifiedToken) throws JwtParseFailed {
+        if (cache == null) return verify(unverifiedToken);
+
+        final var cached = cache.get(unverifiedToken.rawJwt());
+        if (cached != null) return cached;
+        return verify(unverifiedToken);
+    }
+
+    private VerifiedToken verify(UnverifiedToken unverifiedToken) throws JwtParseFailed {
         final Jwt<?, Claims> jwt;
         try {
             jwt = jwtParser.parseSignedClaims(unverifiedToken.rawJwt());
@@ -34,9 +53,18 @@ public class JwtUtil {
             throw new JwtParseFailed("Failed to get JWT type", e);
         }
 
-        return switch (type) {
-        case ACCESS -> new VerifiedAccessToken(jwt.getPayload());
-        case REFRESH -> new VerifiedRefreshToken(jwt.getPayload());
-        };
+        final VerifiedToken token =
+            switch (type) {
+            case ACCESS -> new VerifiedAccessToken(jwt.getPayload());
+            case REFRESH -> new VerifiedRefreshToken(jwt.getPayload());
+            };
+
+        if (cache != null) {
+            final var exp =
+                jwt.getPayload()
+                    .getExpiration();
+            cache.put(unverifiedToken.rawJwt(), token, exp == null ? null : exp.toInstant());
+        }
+        return token;
     }
 }
@@ -0,0 +1,60 @@
+package rs.banka4.rafeisen.common.utils.jwt;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 digest of a raw JWT, for looking tokens up without keeping or comparing the tokens
+ * themselves. Held as four longs so that it hashes and compares cheaply.
+ */
+public record TokenDigest(
+    long a,
+    long b,
+    long c,
+    long d
+) {
+    private static final MessageDigest SHA_256;
+
+    static {
+        try {
+            SHA_256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public static TokenDigest of(String rawJwt) {
+        final MessageDigest digest;
+        try {
+            digest = (MessageDigest) SHA_256.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        return fromBytes(digest.digest(rawJwt.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @param bytes a 32-byte digest, as returned by {@link #toBytes()}
+     */
+    public static TokenDigest fromBytes(byte[] bytes) {
+        if (bytes.length != 32) throw new IllegalArgumentException("Not a SHA-256 digest");
+        final var buffer = ByteBuffer.wrap(bytes);
+        return new TokenDigest(
+            buffer.getLong(),
+            buffer.getLong(),
+            buffer.getLong(),
+            buffer.getLong()
+        );
+    }
+
+    public byte[] toBytes() {
+        return ByteBuffer.allocate(32)
+            .putLong(a)
+            .putLong(b)
+            .putLong(c)
+            .putLong(d)
+            .array();
+    }
+}
@@ -7,7 +7,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -24,7 +23,10 @@ import rs.banka4.rafeisen.common.security.UserType;
     makeFinal = true
 )
 public class VerifiedAccessToken extends VerifiedToken {
-    /** Permissions the user has. */
+    /**
+     * Permissions the user has. Parsed tokens are cached and shared between requests, so this set
+     * is never handed out; see {@link #getPrivileges()}.
+     */
     private final EnumSet<Privilege> privileges;
 
     /**
@@ -32,7 +34,7 @@ public class VerifiedAccessToken extends VerifiedToken {
      */
     public VerifiedAccessToken(UserType role, UUID userId, EnumSet<Privilege> privileges) {
         super(role, userId, JwtTokenType.ACCESS);
-        this.privileges = privileges;
+        this.privileges = EnumSet.copyOf(privileges);
     }
 
     /**
@@ -41,35 +43,33 @@ public class VerifiedAccessToken extends VerifiedToken {
     public VerifiedAccessToken(Claims claims) throws JwtParseFailed {
         super(claims, JwtTokenType.ACCESS);
         try {
-            final var privClaim = claims.get("privileges");
-            if (
-                privClaim instanceof List<?> privileges
-                    && privileges.stream()
-                        .allMatch(x -> x instanceof String)
-            ) {
-
-                this.privileges =
-                    privileges.isEmpty()
-                        ? EnumSet.noneOf(Privilege.class)
-                        : EnumSet.copyOf(
-                            privileges.stream()
-                                .map(x -> (String) x)
-                                .map(Privilege::valueOf)
-                                .collect(Collectors.toSet())
-                        );
-            } else {
+            if (!(claims.get("privileges") instanceof List<?> privClaim))
                 throw new IllegalArgumentException("Privilege not a list of strings");
+
+            final var parsed = EnumSet.noneOf(Privilege.class);
+            for (final var privilege : privClaim) {
+                if (!(privilege instanceof String name))
+                    throw new IllegalArgumentException("Privilege not a list of strings");
+                parsed.add(Privilege.valueOf(name));
             }
+            this.privileges = parsed;
         } catch (Exception e) {
             throw new JwtParseFailed("Invalid token privileges", e);
         }
     }
 
+    /**
+     * @return a copy of the permissions the user has, which the caller is free to modify.
+     */
+    public EnumSet<Privilege> getPrivileges() {
+        return EnumSet.copyOf(privileges);
+    }
+
     @Override
     public Map<String, ?> getClaims() {
         final var result = new HashMap<String, Object>();
         result.putAll(super.populateBaseClaims());
-        if (result.put("privileges", privileges) != null)
+        if (result.put("privileges", getPrivileges()) != null)
             throw new AssertionError("privileges in base token??");
         return Collections.unmodifiableMap(result);
     }
@@ -0,0 +1,119 @@
+package rs.banka4.rafeisen.common.utils.jwt;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of tokens that already passed verification, so that a client sending the same
+ * token on every request pays for the HMAC check and claims parsing only once.
+ *
+ * <p>
+ * Entries are keyed by the {@link TokenDigest} of the raw JWT, so raw tokens are never retained, and
+ * are served until the token's {@code exp}, but for no longer than {@code maxTtl}. When the cache
+ * is full, expired entries are swept; if that frees nothing, arbitrary entries are evicted. The
+ * cached {@link VerifiedToken} instances are shared between requests and must not be modified.
+ * </p>
+ *
+ * <p>
+ * Bind it to a {@link MeterRegistry} to publish {@code banka4.jwt.cache.requests} (by
+ * {@code result}, {@code hit} or {@code miss}) and {@code banka4.jwt.cache.size}.
+ * </p>
+ */
+public class VerifiedTokenCache implements MeterBinder {
+    private record Entry(
+        VerifiedToken token,
+        long expiresAtMillis
+    ) {
+    }
+
+    private final Map<TokenDigest, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long maxTtlMillis;
+    private final Clock clock;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public VerifiedTokenCache(int maxEntries, Duration maxTtl) {
+        this(maxEntries, maxTtl, Clock.systemUTC());
+    }
+
+    public VerifiedTokenCache(int maxEntries, Duration maxTtl, Clock clock) {
+        if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be positive");
+        this.maxEntries = maxEntries;
+        this.maxTtlMillis = maxTtl.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * @return the verified form of {@code rawJwt}, or {@code null} if it is not cached or expired.
+     */
+    public VerifiedToken get(String rawJwt) {
+        final var key = TokenDigest.of(rawJwt);
+        final var entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMillis() <= clock.millis()) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.token();
+    }
+
+    /**
+     * Caches {@code token}, the verified form of {@code rawJwt}, until {@code expiresAt}.
+     *
+     * @param expiresAt the token's {@code exp}, or {@code null} if it has none
+     */
+    public void put(String rawJwt, VerifiedToken token, Instant expiresAt) {
+        final long now = clock.millis();
+        long expiresAtMillis = now + maxTtlMillis;
+        if (expiresAt != null)
+            expiresAtMillis = Math.min(expiresAtMillis, expiresAt.toEpochMilli());
+        if (expiresAtMillis <= now) return;
+
+        if (entries.size() >= maxEntries) makeRoom(now);
+        entries.put(TokenDigest.of(rawJwt), new Entry(token, expiresAtMillis));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void makeRoom(long now) {
+        entries.values()
+            .removeIf(entry -> entry.expiresAtMillis() <= now);
+        final var it =
+            entries.keySet()
+                .iterator();
+        /* Drop a tenth at a time, so that a full cache does not evict on every insert. */
+        int toDrop = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        while (toDrop-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("banka4.jwt.cache.requests", hits, LongAdder::sum)
+            .tag("result", "hit")
+            .register(registry);
+        FunctionCounter.builder("banka4.jwt.cache.requests", misses, LongAdder::sum)
+            .tag("result", "miss")
+            .register(registry);
+        Gauge.builder("banka4.jwt.cache.size", entries, Map::size)
+            .register(registry);
+    }
+}
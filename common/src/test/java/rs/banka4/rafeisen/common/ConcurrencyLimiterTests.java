@@ -0,0 +1,70 @@
+package rs.banka4.rafeisen.common;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import rs.banka4.rafeisen.common.utils.concurrency.ConcurrencyLimiter;
+import rs.banka4.rafeisen.common.utils.concurrency.GradientConcurrencyLimit;
+import rs.banka4.rafeisen.common.utils.concurrency.RequestPriority;
+
+public class ConcurrencyLimiterTests {
+    private static final long MILLI = 1_000_000L;
+
+    @Test
+    void testLowPriorityIsShedBeforeCritical() {
+        final var limiter = new ConcurrencyLimiter(new GradientConcurrencyLimit(10, 1, 100, 1.5));
+        final List<ConcurrencyLimiter.Permit> permits = new ArrayList<>();
+
+        /* Low priority may fill half of the limit. */
+        for (int i = 0; i < 5; i++)
+            permits.add(limiter.tryAcquire(RequestPriority.LOW));
+        assertThat(permits).doesNotContainNull();
+        assertThat(limiter.tryAcquire(RequestPriority.LOW)).isNull();
+
+        /* Critical requests still get the rest. */
+        for (int i = 0; i < 5; i++)
+            assertThat(limiter.tryAcquire(RequestPriority.CRITICAL)).isNotNull();
+        assertThat(limiter.tryAcquire(RequestPriority.CRITICAL)).isNull();
+        assertThat(limiter.getInflight()).isEqualTo(10);
+
+        permits.forEach(ConcurrencyLimiter.Permit::ignore);
+        assertThat(limiter.getInflight()).isEqualTo(5);
+        assertThat(limiter.tryAcquire(RequestPriority.LOW)).isNull();
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyHolds() {
+        final var limit = new GradientConcurrencyLimit(10, 1, 100, 1.5);
+
+        for (int i = 0; i < 100; i++)
+            limit.onSample(10 * MILLI, limit.getLimit());
+
+        assertThat(limit.getLimit()).isGreaterThan(10);
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+        final var limit = new GradientConcurrencyLimit(50, 1, 100, 1.5);
+        for (int i = 0; i < 600; i++)
+            limit.onSample(10 * MILLI, 5);
+        final var before = limit.getLimit();
+
+        /* Requests queue up: latency climbs well past the tolerance. */
+        for (int i = 0; i < 50; i++)
+            limit.onSample(100 * MILLI, before);
+
+        assertThat(limit.getLimit()).isLessThan(before / 2);
+    }
+
+    @Test
+    void testLimitIsNotRaisedWhileMostlyIdle() {
+        final var limit = new GradientConcurrencyLimit(20, 1, 100, 1.5);
+
+        for (int i = 0; i < 100; i++)
+            limit.onSample(10 * MILLI, 2);
+
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+}
@@ -0,0 +1,167 @@
+package rs.banka4.rafeisen.common;
+
+import static org.assertj.core.api.Assertions.*;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import rs.banka4.rafeisen.common.security.Privilege;
+import rs.banka4.rafeisen.common.security.UserType;
+import rs.banka4.rafeisen.common.utils.jwt.JwtParseFailed;
+import rs.banka4.rafeisen.common.utils.jwt.JwtUtil;
+import rs.banka4.rafeisen.common.utils.jwt.UnverifiedToken;
+import rs.banka4.rafeisen.common.utils.jwt.VerifiedAccessToken;
+import rs.banka4.rafeisen.common.utils.jwt.VerifiedTokenCache;
+
+public class VerifiedTokenCacheTests {
+    private static final byte[] TERRIBLE_SECRET = new byte[64];
+    private static final Instant NOW = Instant.parse("2025-03-01T12:00:00Z");
+
+    private final VerifiedAccessToken accessToken =
+        new VerifiedAccessToken(
+            UserType.EMPLOYEE,
+            UUID.fromString("a4bf370e-2129-4116-9243-0c4ead0fe43e"),
+            EnumSet.of(Privilege.ADMIN)
+        );
+
+    private static Clock at(Instant instant) {
+        return Clock.fixed(instant, ZoneOffset.UTC);
+    }
+
+    @Test
+    public void test_cached_token_is_returned_without_verification() throws JwtParseFailed {
+        final var cache = new VerifiedTokenCache(100, Duration.ofMinutes(5));
+        final var meters = new SimpleMeterRegistry();
+        cache.bindTo(meters);
+        final var jwtUtil =
+            new JwtUtil(
+                Jwts.parser()
+                    .verifyWith(Keys.hmacShaKeyFor(TERRIBLE_SECRET))
+                    .build(),
+                cache
+            );
+        final var raw =
+            Jwts.builder()
+                .claims(accessToken.getClaims())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(TERRIBLE_SECRET))
+                .compact();
+
+        final var first = jwtUtil.parseToken(new UnverifiedToken(raw));
+        final var second = jwtUtil.parseToken(new UnverifiedToken(raw));
+
+        assertThat(first).isEqualTo(accessToken);
+        assertThat(second).isSameAs(first);
+        assertThat(
+            meters.get("banka4.jwt.cache.requests")
+                .tag("result", "hit")
+                .functionCounter()
+                .count()
+        ).isEqualTo(1.0);
+        assertThat(
+            meters.get("banka4.jwt.cache.requests")
+                .tag("result", "miss")
+                .functionCounter()
+                .count()
+        ).isEqualTo(1.0);
+    }
+
+    @Test
+    public void test_cached_token_privileges_cannot_be_changed() throws JwtParseFailed {
+        final var cache = new VerifiedTokenCache(100, Duration.ofMinutes(5));
+        final var jwtUtil =
+            new JwtUtil(
+                Jwts.parser()
+                    .verifyWith(Keys.hmacShaKeyFor(TERRIBLE_SECRET))
+                    .build(),
+                cache
+            );
+        final var raw =
+            Jwts.builder()
+                .claims(accessToken.getClaims())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(TERRIBLE_SECRET))
+                .compact();
+
+        final var first = (VerifiedAccessToken) jwtUtil.parseToken(new UnverifiedToken(raw));
+        first.getPrivileges()
+            .add(Privilege.TRADE);
+        final var second = (VerifiedAccessToken) jwtUtil.parseToken(new UnverifiedToken(raw));
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.getPrivileges()).containsExactly(Privilege.ADMIN);
+    }
+
+    @Test
+    public void test_entries_are_keyed_by_raw_token() {
+        final var cache = new VerifiedTokenCache(100, Duration.ofMinutes(5), at(NOW));
+        cache.put("token", accessToken, NOW.plusSeconds(30));
+
+        assertThat(cache.get("token")).isSameAs(accessToken);
+        assertThat(cache.get("other")).isNull();
+    }
+
+    @Test
+    public void test_entry_is_served_until_exp_only() {
+        final var clock = new MutableClock(NOW);
+        final var cache = new VerifiedTokenCache(100, Duration.ofMinutes(5), clock);
+        cache.put("token", accessToken, NOW.plusSeconds(30));
+
+        clock.now = NOW.plusSeconds(29);
+        assertThat(cache.get("token")).isSameAs(accessToken);
+        clock.now = NOW.plusSeconds(30);
+        assertThat(cache.get("token")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    public void test_entry_without_exp_is_capped_by_max_ttl() {
+        final var clock = new MutableClock(NOW);
+        final var cache = new VerifiedTokenCache(100, Duration.ofMinutes(5), clock);
+        cache.put("token", accessToken, null);
+
+        clock.now = NOW.plus(Duration.ofMinutes(5));
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    public void test_cache_stays_bounded() {
+        final var cache = new VerifiedTokenCache(10, Duration.ofMinutes(5), at(NOW));
+        for (int i = 0; i < 100; i++) cache.put("token-" + i, accessToken, null);
+
+        assertThat(cache.size()).isLessThanOrEqualTo(10);
+        assertThat(cache.get("token-99")).isSameAs(accessToken);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package rs.banka4.notification_service.email.template;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Compares the old per-message renderer (classpath read plus one {@code String.replace} per
+ * parameter) against {@link EmailTemplateRegistry}. Run with {@code ./gradlew
+ * :notification-service:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(
+    iterations = 3,
+    time = 1
+)
+@Measurement(
+    iterations = 5,
+    time = 1
+)
+@Fork(1)
+public class EmailTemplateBenchmark {
+    @Param({
+        "loan-installment-paid", "account-activation"
+    })
+    public String topic;
+
+    @Param({
+        "html", "txt"
+    })
+    public String format;
+
+    private EmailTemplateRegistry registry;
+    private Map<String, Object> params;
+
+    @Setup
+    public void setUp() {
+        registry = new EmailTemplateRegistry();
+        params = new HashMap<>();
+        params.put("firstName", "John");
+        params.put("loanNumber", 1234567L);
+        params.put("installmentAmount", "1500.00");
+        params.put("currency_code", "RSD");
+        params.put("date", "01.01.2025");
+        params.put("verificationCode", "1b4f0e98-5161-4a7c-8b8a-0b6ddf0e9a27");
+        params.put("baseUrl", "https://banka4.example");
+    }
+
+    @Benchmark
+    public String legacyRenderer() throws IOException {
+        String body =
+            StreamUtils.copyToString(
+                new ClassPathResource("templates/" + topic + "." + format).getInputStream(),
+                StandardCharsets.UTF_8
+            );
+        for (Map.Entry<String, Object> entry : params.entrySet()) {
+            body =
+                body.replace(
+                    "{{" + entry.getKey() + "}}",
+                    entry.getValue()
+                        .toString()
+                );
+        }
+        return body;
+    }
+
+    @Benchmark
+    public String compiledRenderer() {
+        return registry.render(topic, format, params::get);
+    }
+}
@@ -1,33 +1,60 @@
 package rs.banka4.notification_service.email;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StreamUtils;
+import rs.banka4.notification_service.email.config.RabbitMQConfig;
+import rs.banka4.notification_service.email.delivery.InboundMessage;
+import rs.banka4.notification_service.email.delivery.SmtpTransportPool;
+import rs.banka4.notification_service.email.digest.DigestRouter;
+import rs.banka4.notification_service.email.digest.Digests;
+import rs.banka4.notification_service.email.retry.RetryRouter;
+import rs.banka4.notification_service.email.template.EmailTemplateRegistry;
 
 @Service
 public class EmailService {
     private static final Logger LOGGER = LoggerFactory.getLogger(EmailService.class);
     private final Optional<JavaMailSender> emailSender;
+    private final EmailTemplateRegistry templateRegistry;
+    private final SmtpTransportPool transportPool;
+    private final RetryRouter retryRouter;
+    private final DigestRouter digestRouter;
+    private final ObjectMapper objectMapper;
     private final String baseUrl;
 
     public EmailService(
         @Autowired(required = false) JavaMailSender emailSender,
+        EmailTemplateRegistry templateRegistry,
+        SmtpTransportPool transportPool,
+        RetryRouter retryRouter,
+        DigestRouter digestRouter,
+        ObjectMapper objectMapper,
         @Value("${app.base-url:BASEURL}") String baseUrl
     ) {
         this.emailSender = Optional.ofNullable(emailSender);
+        this.templateRegistry = templateRegistry;
+        this.transportPool = transportPool;
+        this.retryRouter = retryRouter;
+        this.digestRouter = digestRouter;
+        this.objectMapper = objectMapper;
         this.baseUrl = baseUrl;
     }
 
@@ -41,58 +68,285 @@ public class EmailService {
         );
         if (emailSender.isPresent()) {
             var sender = emailSender.get();
-            MimeMessage message = sender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(textBody, htmlBody);
-            sender.send(message);
+            sender.send(createMessage(sender, to, subject, htmlBody, textBody));
         } else {
             LOGGER.warn("Mailer not configured - not sending mail");
         }
     }
 
-    @RabbitListener(queues = "${rabbitmq.queue.email.name}")
-    public void processEmailMessage(EmailDetailDto emailDetailDto) throws MessagingException {
-        String to = emailDetailDto.recipient();
+    /**
+     * Renders a batch of notifications and sends them over a single pooled SMTP connection.
+     * Digestible topics are handed to the {@link DigestRouter} instead and sent by
+     * {@link #processDigests}. Messages that fail, whether while rendering or sending, are handed
+     * to {@link RetryRouter} individually, so one bad message never holds up or redelivers the
+     * rest of the batch. Every message is acknowledged once it has been sent, held or rerouted.
+     */
+    @RabbitListener(
+        queues = "${rabbitmq.queue.email.name}",
+        containerFactory = RabbitMQConfig.EMAIL_LISTENER_CONTAINER_FACTORY,
+        ackMode = "MANUAL"
+    )
+    public void processEmailMessages(List<Message> batch, Channel channel) {
+        if (emailSender.isEmpty()) {
+            LOGGER.warn("Mailer not configured - not sending {} mails", batch.size());
+            for (Message message : batch)
+                settle(new InboundMessage(message, channel), null);
+            return;
+        }
+
+        var sender = emailSender.get();
+        Outgoing outgoing = new Outgoing(batch.size());
+        for (Message message : batch) {
+            InboundMessage inbound = new InboundMessage(message, channel);
+            try {
+                EmailDetailDto emailDetailDto =
+                    objectMapper.readValue(message.getBody(), EmailDetailDto.class);
+                /* Retries were held once already; don't delay them again. */
+                if (
+                    RetryRouter.retryCount(message) == 0
+                        && digestRouter.accepts(emailDetailDto.topic())
+                        && hold(inbound)
+                ) continue;
+                outgoing.add(createNotification(sender, emailDetailDto), List.of(inbound));
+            } catch (IOException | RuntimeException | MessagingException e) {
+                settle(inbound, e);
+            }
+        }
+        send(sender, outgoing);
+    }
+
+    /**
+     * Parks a digestible notification on the hold queue and acknowledges it.
+     *
+     * @return {@code false} if it could not be held, in which case it should be sent right away.
+     */
+    private boolean hold(InboundMessage inbound) {
+        try {
+            digestRouter.hold(inbound.message());
+        } catch (AmqpException e) {
+            LOGGER.warn("Could not hold notification for a digest, sending it now", e);
+            return false;
+        }
+        settle(inbound, null);
+        return true;
+    }
+
+    /**
+     * Sends the notifications released from the hold queue at the end of a digest window, one
+     * email per recipient. A recipient with a single notification gets it as a regular email.
+     */
+    @RabbitListener(
+        queues = "#{digestRouter.digestQueue()}",
+        containerFactory = RabbitMQConfig.DIGEST_LISTENER_CONTAINER_FACTORY,
+        ackMode = "MANUAL"
+    )
+    public void processDigests(List<Message> batch, Channel channel) {
+        if (emailSender.isEmpty()) {
+            LOGGER.warn("Mailer not configured - not sending {} digested mails", batch.size());
+            for (Message message : batch)
+                settle(new InboundMessage(message, channel), null);
+            return;
+        }
+
+        var sender = emailSender.get();
+        List<Digested> digested = new ArrayList<>(batch.size());
+        for (Message message : batch) {
+            InboundMessage inbound = new InboundMessage(message, channel);
+            try {
+                digested.add(
+                    new Digested(
+                        objectMapper.readValue(message.getBody(), EmailDetailDto.class),
+                        inbound
+                    )
+                );
+            } catch (IOException | RuntimeException e) {
+                settle(inbound, e);
+            }
+        }
+
+        List<List<Digested>> groups =
+            digestRouter.group(
+                digested,
+                entry -> entry.details()
+                    .recipient()
+            );
+        Outgoing outgoing = new Outgoing(groups.size());
+        for (List<Digested> group : groups)
+            prepareDigest(sender, group, outgoing);
+        send(sender, outgoing);
+    }
+
+    /**
+     * A notification released for a digest, and the message it came in.
+     */
+    private record Digested(
+        EmailDetailDto details,
+        InboundMessage source
+    ) {
+    }
+
+    private void prepareDigest(JavaMailSender sender, List<Digested> group, Outgoing outgoing) {
+        List<InboundMessage> sources =
+            group.stream()
+                .map(Digested::source)
+                .toList();
+        try {
+            if (group.size() == 1)
+                outgoing.add(
+                    createNotification(
+                        sender,
+                        group.get(0)
+                            .details()
+                    ),
+                    sources
+                );
+            else outgoing.add(createDigest(sender, group), sources);
+        } catch (RuntimeException | MessagingException e) {
+            for (InboundMessage source : sources)
+                settle(source, e);
+        }
+    }
+
+    private MimeMessage createNotification(JavaMailSender sender, EmailDetailDto emailDetailDto)
+        throws MessagingException {
         String subject = setSubject(emailDetailDto.topic());
         String htmlBody = generateEmailBody(emailDetailDto, "html");
         String textBody = generateEmailBody(emailDetailDto, "txt");
-        sendEmail(to, subject, htmlBody, textBody);
+        LOGGER.debug(
+            "Sending email with subject {}\nHTML:\n{}\n\nTXT:\n{}",
+            subject,
+            htmlBody,
+            textBody
+        );
+        return createMessage(sender, emailDetailDto.recipient(), subject, htmlBody, textBody);
     }
 
-    public String generateEmailBody(EmailDetailDto emailDetailDto, String format) {
-        String templateName = emailDetailDto.topic();
-        String template = loadEmailTemplate(templateName, format);
-
-        String body = template;
-        emailDetailDto.params()
-            .put("baseUrl", baseUrl);
-        for (
-            Map.Entry<String, Object> entry : emailDetailDto.params()
-                .entrySet()
-        ) {
-            body =
-                body.replace(
-                    "{{" + entry.getKey() + "}}",
-                    entry.getValue()
-                        .toString()
-                );
+    private MimeMessage createDigest(JavaMailSender sender, List<Digested> entries)
+        throws MessagingException {
+        List<String> htmlParts = new ArrayList<>(entries.size());
+        List<String> textParts = new ArrayList<>(entries.size());
+        for (Digested entry : entries) {
+            htmlParts.add(generateEmailBody(entry.details(), "html"));
+            textParts.add(generateEmailBody(entry.details(), "txt"));
+        }
+        String recipient =
+            entries.get(0)
+                .details()
+                .recipient();
+        LOGGER.debug("Sending digest of {} notifications to {}", entries.size(), recipient);
+        return createMessage(
+            sender,
+            recipient,
+            Subjects.DIGEST.getSubject(),
+            Digests.html(htmlParts),
+            Digests.text(textParts)
+        );
+    }
+
+    /**
+     * Messages to send, each with the inbound messages it settles.
+     */
+    private record Outgoing(
+        List<MimeMessage> messages,
+        List<List<InboundMessage>> sources
+    ) {
+        Outgoing(int capacity) {
+            this(new ArrayList<>(capacity), new ArrayList<>(capacity));
+        }
+
+        void add(MimeMessage message, List<InboundMessage> settles) {
+            messages.add(message);
+            sources.add(settles);
+        }
+    }
+
+    private void send(JavaMailSender sender, Outgoing outgoing) {
+        List<MimeMessage> messages = outgoing.messages();
+        if (messages.isEmpty()) return;
+
+        boolean[] failed = new boolean[messages.size()];
+        deliver(sender, messages, (index, cause) -> {
+            failed[index] = true;
+            for (
+                InboundMessage source : outgoing.sources()
+                    .get(index)
+            ) settle(source, cause);
+        });
+        for (int i = 0; i < messages.size(); i++) {
+            if (failed[i]) continue;
+            for (
+                InboundMessage source : outgoing.sources()
+                    .get(i)
+            ) settle(source, null);
         }
+    }
 
-        return body;
+    /**
+     * Acknowledges {@code source}, first rerouting it through {@link RetryRouter} if it failed. If
+     * that is not possible the message is requeued.
+     */
+    private void settle(InboundMessage source, Exception failure) {
+        try {
+            if (failure != null) retryRouter.reject(source.message(), failure);
+            source.ack();
+        } catch (AmqpException | IOException e) {
+            LOGGER.error("Could not settle notification, requeueing it", e);
+            try {
+                source.requeue();
+            } catch (IOException | RuntimeException requeueFailure) {
+                LOGGER.error("Could not requeue notification", requeueFailure);
+            }
+        }
     }
 
-    public String loadEmailTemplate(String templateName, String format) {
-        ClassPathResource resource =
-            new ClassPathResource("templates/" + templateName + "." + format);
+    private void deliver(
+        JavaMailSender sender,
+        List<MimeMessage> messages,
+        SmtpTransportPool.FailureHandler onFailure
+    ) {
+        if (transportPool.isEnabled()) {
+            transportPool.send(messages, onFailure);
+            return;
+        }
+
         try {
-            return StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            throw new RuntimeException("Error loading email template " + templateName, e);
+            sender.send(messages.toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            Map<Object, Exception> failed = e.getFailedMessages();
+            for (int i = 0; i < messages.size(); i++) {
+                Exception cause = failed.isEmpty() ? e : failed.get(messages.get(i));
+                if (cause != null) onFailure.failed(i, cause);
+            }
+        } catch (MailException e) {
+            for (int i = 0; i < messages.size(); i++)
+                onFailure.failed(i, e);
         }
     }
 
+    private static MimeMessage createMessage(
+        JavaMailSender sender,
+        String to,
+        String subject,
+        String htmlBody,
+        String textBody
+    ) throws MessagingException {
+        MimeMessage message = sender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(textBody, htmlBody);
+        return message;
+    }
+
+    public String generateEmailBody(EmailDetailDto emailDetailDto, String format) {
+        final var params = emailDetailDto.params();
+        return templateRegistry.render(
+            emailDetailDto.topic(),
+            format,
+            name -> "baseUrl".equals(name) ? baseUrl : params.get(name)
+        );
+    }
+
     private String setSubject(String topic) {
         // In future maybe we have more than two html for sending email
         return switch (topic) {
@@ -8,7 +8,8 @@ public enum Subjects {
     PASSWORD_RESET("Reset password"),
     LOAN_PENALTY("Loan penalty"),
     LOAN_INSTALLMENT_PAID("Loan installment paid"),
-    LOAN_INSTALLMENT_PAYMENT_DENIED("Loan installment payment denied");
+    LOAN_INSTALLMENT_PAYMENT_DENIED("Loan installment payment denied"),
+    DIGEST("Updates on your account");
 
 
     private final String subject;
@@ -1,15 +1,26 @@
 package rs.banka4.notification_service.email.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import rs.banka4.notification_service.email.digest.DigestRouter;
+import rs.banka4.notification_service.email.retry.RetryTiers;
 
 @Configuration
 public class RabbitMQConfig {
+    public static final String EMAIL_LISTENER_CONTAINER_FACTORY = "emailListenerContainerFactory";
+    public static final String DIGEST_LISTENER_CONTAINER_FACTORY =
+        "digestListenerContainerFactory";
 
     @Value("${rabbitmq.queue.email.name}")
     private String emailQueue;
@@ -37,8 +48,48 @@ public class RabbitMQConfig {
             .with(emailRoutingKey);
     }
 
+    /**
+     * Delay queues and the dead-letter queue. Messages expiring from a delay queue are
+     * dead-lettered back onto the main queue through the default exchange.
+     */
     @Bean
-    public AmqpTemplate amqpTemplate(ConnectionFactory connectionFactory) {
+    public Declarables emailRetryQueues(RetryTiers retryTiers) {
+        List<Declarable> queues = new ArrayList<>();
+        for (RetryTiers.Tier tier : retryTiers.tiers()) {
+            Duration delay = tier.delay();
+            queues.add(
+                QueueBuilder.durable(tier.queue())
+                    .ttl(Math.toIntExact(delay.toMillis()))
+                    .deadLetterExchange("")
+                    .deadLetterRoutingKey(retryTiers.mainQueue())
+                    .build()
+            );
+        }
+        queues.add(
+            QueueBuilder.durable(retryTiers.deadLetterQueue())
+                .build()
+        );
+        return new Declarables(queues);
+    }
+
+    /**
+     * The digest hold queue, and the queue held notifications are dead-lettered onto once their
+     * per-message TTL runs out.
+     */
+    @Bean
+    public Declarables emailDigestQueues(DigestRouter digestRouter) {
+        return new Declarables(
+            QueueBuilder.durable(digestRouter.holdQueue())
+                .deadLetterExchange("")
+                .deadLetterRoutingKey(digestRouter.digestQueue())
+                .build(),
+            QueueBuilder.durable(digestRouter.digestQueue())
+                .build()
+        );
+    }
+
+    @Bean
+    public RabbitTemplate amqpTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(converter());
         return rabbitTemplate;
@@ -48,4 +99,50 @@ public class RabbitMQConfig {
     public Jackson2JsonMessageConverter converter() {
         return new Jackson2JsonMessageConverter();
     }
+
+    /**
+     * Batching listener for outgoing email. Consumer count, prefetch and batch size come from
+     * {@code spring.rabbitmq.listener.simple.*}; consumers run on virtual threads since they spend
+     * nearly all of their time waiting on SMTP. Unacknowledged messages are bounded by prefetch
+     * times consumers, so a backlog stays on the broker instead of in memory.
+     */
+    @Bean(EMAIL_LISTENER_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory emailListenerContainerFactory(
+        SimpleRabbitListenerContainerFactoryConfigurer configurer,
+        ConnectionFactory connectionFactory
+    ) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("email-consumer-");
+        executor.setVirtualThreads(true);
+        factory.setTaskExecutor(executor);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        return factory;
+    }
+
+    /**
+     * Batching listener for released digests. A single consumer takes up to
+     * {@code banka4.notifications.digest.batch-size} messages at once, so that the notifications a
+     * window releases for one recipient mostly land in the same batch.
+     */
+    @Bean(DIGEST_LISTENER_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory digestListenerContainerFactory(
+        SimpleRabbitListenerContainerFactoryConfigurer configurer,
+        ConnectionFactory connectionFactory,
+        @Value("${banka4.notifications.digest.batch-size:200}") int batchSize
+    ) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("email-digest-");
+        executor.setVirtualThreads(true);
+        factory.setTaskExecutor(executor);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setConcurrentConsumers(1);
+        factory.setMaxConcurrentConsumers(1);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(batchSize);
+        return factory;
+    }
 }
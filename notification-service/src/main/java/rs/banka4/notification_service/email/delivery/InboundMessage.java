@@ -0,0 +1,28 @@
+package rs.banka4.notification_service.email.delivery;
+
+import com.rabbitmq.client.Channel;
+import java.io.IOException;
+import org.springframework.amqp.core.Message;
+
+/**
+ * A consumed, not yet acknowledged, message together with the channel it has to be acknowledged
+ * on.
+ */
+public record InboundMessage(
+    Message message,
+    Channel channel
+) {
+    private long deliveryTag() {
+        return message.getMessageProperties()
+            .getDeliveryTag();
+    }
+
+    public void ack() throws IOException {
+        channel.basicAck(deliveryTag(), false);
+    }
+
+    /** Returns the message to the queue. */
+    public void requeue() throws IOException {
+        channel.basicNack(deliveryTag(), false, true);
+    }
+}
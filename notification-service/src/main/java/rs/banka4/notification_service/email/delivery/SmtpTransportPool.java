@@ -0,0 +1,186 @@
+package rs.banka4.notification_service.email.delivery;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+/**
+ * A bounded pool of connected SMTP transports. {@link JavaMailSenderImpl} opens and closes a
+ * connection for every {@code send} call; this keeps up to {@code maxConnections} of them open and
+ * sends whole batches over one connection.
+ *
+ * <p>
+ * Borrowing blocks while all connections are in use, which is what throttles listener consumers
+ * when SMTP is slower than the queue. Idle transports are checked with {@link
+ * Transport#isConnected()} (an SMTP {@code NOOP}) before reuse, since servers drop idle sessions.
+ * </p>
+ *
+ * <p>
+ * The pool is disabled when no {@link JavaMailSenderImpl} is configured; callers then fall back
+ * to {@link JavaMailSender#send(MimeMessage...)}.
+ * </p>
+ */
+@Component
+public class SmtpTransportPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+    private final JavaMailSenderImpl mailSender;
+    private final BlockingQueue<Transport> idle = new LinkedBlockingQueue<>();
+    private final Semaphore permits;
+    private final Duration borrowTimeout;
+
+    public SmtpTransportPool(
+        @Autowired(required = false) JavaMailSender mailSender,
+        @Value("${banka4.mail.pool.max-connections:8}") int maxConnections,
+        @Value("${banka4.mail.pool.borrow-timeout:PT30S}") Duration borrowTimeout
+    ) {
+        this.mailSender = mailSender instanceof JavaMailSenderImpl impl ? impl : null;
+        this.permits = new Semaphore(maxConnections, true);
+        this.borrowTimeout = borrowTimeout;
+    }
+
+    public boolean isEnabled() {
+        return mailSender != null;
+    }
+
+    /**
+     * Reports a message that could not be delivered, by its index in the batch.
+     */
+    @FunctionalInterface
+    public interface FailureHandler {
+        void failed(int index, Exception cause);
+    }
+
+    /**
+     * Sends {@code messages} over one pooled connection. Messages the server rejects are reported
+     * to {@code onFailure} and skipped. If the connection itself breaks, the remaining messages are
+     * retried once on a fresh connection; if that fails too, or no connection can be obtained,
+     * every message not yet sent is reported.
+     */
+    public void send(List<MimeMessage> messages, FailureHandler onFailure) {
+        int next = 0;
+        boolean retried = false;
+        while (next < messages.size()) {
+            final Transport transport;
+            try {
+                transport = borrow();
+            } catch (MailSendException e) {
+                failRemaining(next, messages.size(), e, onFailure);
+                return;
+            }
+
+            boolean healthy = false;
+            try {
+                for (; next < messages.size(); next++) {
+                    try {
+                        sendOne(transport, messages.get(next));
+                    } catch (SendFailedException e) {
+                        onFailure.failed(next, e);
+                    }
+                }
+                healthy = true;
+            } catch (MessagingException e) {
+                if (retried) {
+                    failRemaining(next, messages.size(), e, onFailure);
+                    return;
+                }
+                LOGGER.warn("SMTP connection failed, retrying on a fresh one", e);
+                retried = true;
+            } finally {
+                release(transport, healthy);
+            }
+        }
+    }
+
+    private static void failRemaining(
+        int from,
+        int to,
+        Exception cause,
+        FailureHandler onFailure
+    ) {
+        for (int i = from; i < to; i++)
+            onFailure.failed(i, cause);
+    }
+
+    private static void sendOne(Transport transport, MimeMessage message)
+        throws MessagingException {
+        message.saveChanges();
+        transport.sendMessage(message, message.getAllRecipients());
+    }
+
+    private Transport borrow() {
+        try {
+            if (!permits.tryAcquire(borrowTimeout.toMillis(), TimeUnit.MILLISECONDS))
+                throw new MailSendException("Timed out waiting for an SMTP connection");
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                .interrupt();
+            throw new MailSendException("Interrupted waiting for an SMTP connection", e);
+        }
+
+        try {
+            Transport transport;
+            while ((transport = idle.poll()) != null) {
+                if (transport.isConnected()) return transport;
+                closeQuietly(transport);
+            }
+            return connect();
+        } catch (MessagingException e) {
+            permits.release();
+            throw new MailSendException("Could not connect to SMTP server", e);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Transport connect() throws MessagingException {
+        final var protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : "smtp";
+        final var transport =
+            mailSender.getSession()
+                .getTransport(protocol);
+        transport.connect(
+            mailSender.getHost(),
+            mailSender.getPort(),
+            mailSender.getUsername(),
+            mailSender.getPassword()
+        );
+        return transport;
+    }
+
+    private void release(Transport transport, boolean healthy) {
+        if (!healthy || !idle.offer(transport)) closeQuietly(transport);
+        permits.release();
+    }
+
+    private static void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            LOGGER.debug("Error closing SMTP transport", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        Transport transport;
+        while ((transport = idle.poll()) != null)
+            closeQuietly(transport);
+    }
+}
@@ -0,0 +1,131 @@
+package rs.banka4.notification_service.email.digest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds digestible notifications on the broker until the current digest window ends, so that a
+ * recipient who gets several of them in a short time receives one email.
+ *
+ * <p>
+ * A digestible notification is copied onto the hold queue with an expiration that runs out at the
+ * next multiple of {@code window}, after which the original is acknowledged. Everything held
+ * within one window thus expires at the same moment and is dead-lettered onto the digest queue
+ * together, where it is grouped by recipient. Expirations never decrease in arrival order, so the
+ * head of the hold queue is always the first to expire, as RabbitMQ requires of per-message TTLs.
+ * </p>
+ *
+ * <p>
+ * Nothing waits unacknowledged or in memory: held notifications neither take up listener prefetch
+ * nor get lost on restart.
+ * </p>
+ */
+@Component
+public class DigestRouter {
+    private final AmqpTemplate amqpTemplate;
+    private final Set<String> topics;
+    private final long windowMillis;
+    private final int maxEntries;
+    private final String holdQueue;
+    private final String digestQueue;
+    private final LongSupplier clock;
+
+    @Autowired
+    public DigestRouter(
+        AmqpTemplate amqpTemplate,
+        @Value("${rabbitmq.queue.email.name}") String mainQueue,
+        @Value(
+            "${banka4.notifications.digest.topics:loan-installment-paid,loan-installment-payment-denied,loan-penalty}"
+        ) Set<String> topics,
+        @Value("${banka4.notifications.digest.window:PT60S}") Duration window,
+        @Value("${banka4.notifications.digest.max-entries:20}") int maxEntries
+    ) {
+        this(amqpTemplate, mainQueue, topics, window, maxEntries, System::currentTimeMillis);
+    }
+
+    public DigestRouter(
+        AmqpTemplate amqpTemplate,
+        String mainQueue,
+        Set<String> topics,
+        Duration window,
+        int maxEntries,
+        LongSupplier clock
+    ) {
+        this.amqpTemplate = amqpTemplate;
+        this.topics = new HashSet<>(topics);
+        this.windowMillis = window.toMillis();
+        this.maxEntries = maxEntries;
+        this.holdQueue = mainQueue + ".digest.hold";
+        this.digestQueue = mainQueue + ".digest";
+        this.clock = clock;
+    }
+
+    /**
+     * @return whether notifications of this topic are held for a digest. Always {@code false} if
+     *         the window is zero.
+     */
+    public boolean accepts(String topic) {
+        return windowMillis > 0 && topics.contains(topic);
+    }
+
+    /**
+     * Copies {@code message} onto the hold queue, to be released at the end of the current window.
+     * The caller acknowledges the original once this returns.
+     */
+    public void hold(Message message) {
+        final long expiresIn = windowMillis - Math.floorMod(clock.getAsLong(), windowMillis);
+        final var held =
+            MessageBuilder.fromMessage(message)
+                .setExpiration(Long.toString(expiresIn))
+                .build();
+        /* Default exchange, routed by queue name. */
+        amqpTemplate.send("", holdQueue, held);
+    }
+
+    /**
+     * Splits {@code items} into one group per recipient, in order of first appearance. Recipients
+     * with more than {@code max-entries} items get several groups.
+     */
+    public <T> List<List<T>> group(List<T> items, Function<T, String> recipient) {
+        final Map<String, List<T>> byRecipient = new LinkedHashMap<>();
+        for (final T item : items) {
+            byRecipient.computeIfAbsent(
+                recipient.apply(item)
+                    .toLowerCase(Locale.ROOT),
+                r -> new ArrayList<>()
+            )
+                .add(item);
+        }
+
+        final List<List<T>> groups = new ArrayList<>(byRecipient.size());
+        for (final var group : byRecipient.values()) {
+            for (int i = 0; i < group.size(); i += maxEntries)
+                groups.add(group.subList(i, Math.min(i + maxEntries, group.size())));
+        }
+        return groups;
+    }
+
+    /** Queue digestible notifications wait on until their window ends. */
+    public String holdQueue() {
+        return holdQueue;
+    }
+
+    /** Queue held notifications are released onto once their window ends. */
+    public String digestQueue() {
+        return digestQueue;
+    }
+}
@@ -0,0 +1,49 @@
+package rs.banka4.notification_service.email.digest;
+
+import java.util.List;
+
+/**
+ * Combines individually rendered notifications into the body of a single digest email.
+ */
+public final class Digests {
+    private static final String TEXT_SEPARATOR = "\n----------------------------------------\n\n";
+    private static final String HTML_SEPARATOR = "\n<hr>\n";
+
+    private Digests() {
+    }
+
+    public static String text(List<String> parts) {
+        return String.join(TEXT_SEPARATOR, parts);
+    }
+
+    /**
+     * Keeps the document around the first part (its head and styles, which all templates share)
+     * and places the {@code <body>} contents of every part inside it.
+     */
+    public static String html(List<String> parts) {
+        final var first = parts.get(0);
+        final int bodyOpen = bodyContentStart(first);
+        final int bodyClose = first.lastIndexOf("</body>");
+        if (bodyOpen < 0 || bodyClose < bodyOpen) return String.join(HTML_SEPARATOR, parts);
+
+        final var out = new StringBuilder(first.length() * parts.size());
+        out.append(first, 0, bodyOpen);
+        for (int i = 0; i < parts.size(); i++) {
+            if (i > 0) out.append(HTML_SEPARATOR);
+            final var part = parts.get(i);
+            final int start = bodyContentStart(part);
+            final int end = part.lastIndexOf("</body>");
+            if (start < 0 || end < start) out.append(part);
+            else out.append(part, start, end);
+        }
+        out.append(first, bodyClose, first.length());
+        return out.toString();
+    }
+
+    private static int bodyContentStart(String html) {
+        final int tag = html.indexOf("<body");
+        if (tag < 0) return -1;
+        final int end = html.indexOf('>', tag);
+        return end < 0 ? -1 : end + 1;
+    }
+}
@@ -0,0 +1,91 @@
+package rs.banka4.notification_service.email.retry;
+
+import com.rabbitmq.client.GetResponse;
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint for the notification dead-letter queue, at
+ * {@code /actuator/deadletters}. {@code GET} returns queue depths per tier, {@code POST} with an
+ * optional {@code limit} moves dead letters back onto the main queue with their retry count reset.
+ *
+ * <p>
+ * This lives on the actuator rather than a public controller since it is an operator tool.
+ * </p>
+ */
+@Component
+@Endpoint(id = "deadletters")
+public class DeadLetterEndpoint {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeadLetterEndpoint.class);
+    private static final int DEFAULT_REPLAY_LIMIT = 1000;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final RetryTiers retryTiers;
+    private final RetryQueueMetrics retryQueueMetrics;
+
+    public DeadLetterEndpoint(
+        RabbitTemplate rabbitTemplate,
+        RetryTiers retryTiers,
+        RetryQueueMetrics retryQueueMetrics
+    ) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.retryTiers = retryTiers;
+        this.retryQueueMetrics = retryQueueMetrics;
+    }
+
+    @ReadOperation
+    public Map<String, Long> depths() {
+        retryQueueMetrics.refresh();
+        return retryQueueMetrics.depths();
+    }
+
+    @WriteOperation
+    public Map<String, Integer> replay(@Nullable Integer limit) {
+        final int max = limit != null ? limit : DEFAULT_REPLAY_LIMIT;
+        final Integer replayed = rabbitTemplate.execute(channel -> {
+            int count = 0;
+            while (count < max) {
+                final GetResponse response =
+                    channel.basicGet(retryTiers.deadLetterQueue(), false);
+                if (response == null) break;
+
+                final var properties = response.getProps();
+                final Map<String, Object> headers =
+                    properties.getHeaders() != null
+                        ? new HashMap<>(properties.getHeaders())
+                        : new HashMap<>();
+                headers.remove(RetryTiers.RETRY_COUNT_HEADER);
+                headers.remove(RetryTiers.FAILURE_HEADER);
+                headers.remove("x-death");
+
+                /* Publish before ack: a crash in between duplicates rather than loses. */
+                channel.basicPublish(
+                    "",
+                    retryTiers.mainQueue(),
+                    properties.builder()
+                        .headers(headers)
+                        .build(),
+                    response.getBody()
+                );
+                channel.basicAck(
+                    response.getEnvelope()
+                        .getDeliveryTag(),
+                    false
+                );
+                count++;
+            }
+            return count;
+        });
+
+        LOGGER.info("Replayed {} dead-lettered notifications", replayed);
+        return Map.of("replayed", replayed != null ? replayed : 0);
+    }
+}
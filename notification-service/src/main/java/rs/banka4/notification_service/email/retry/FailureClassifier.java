@@ -0,0 +1,33 @@
+package rs.banka4.notification_service.email.retry;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.AddressException;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+/**
+ * Decides whether a failed notification is worth retrying. Anything that will fail the same way
+ * again (a malformed payload, an unknown topic, an address the server rejected) is permanent and
+ * goes straight to the dead-letter queue; everything else, typically SMTP or network trouble, is
+ * retried.
+ */
+public final class FailureClassifier {
+    private FailureClassifier() {
+    }
+
+    public static boolean isPermanent(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (
+                t instanceof IllegalArgumentException
+                    || t instanceof JsonProcessingException
+                    || t instanceof MessageConversionException
+                    || t instanceof AddressException
+            ) return true;
+            if (t instanceof SendFailedException sfe) {
+                final var invalid = sfe.getInvalidAddresses();
+                return invalid != null && invalid.length > 0;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,73 @@
+package rs.banka4.notification_service.email.retry;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the depth of the main, delay and dead-letter queues as the
+ * {@code banka4.notifications.queue.depth} gauge, tagged by queue and tier. Depths are polled from
+ * the broker on a schedule rather than on every scrape.
+ */
+@Component
+public class RetryQueueMetrics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetryQueueMetrics.class);
+
+    private final AmqpAdmin amqpAdmin;
+    /** Queue name to depth, in tier order. */
+    private final Map<String, AtomicLong> depths = new LinkedHashMap<>();
+
+    public RetryQueueMetrics(
+        AmqpAdmin amqpAdmin,
+        RetryTiers retryTiers,
+        MeterRegistry meterRegistry
+    ) {
+        this.amqpAdmin = amqpAdmin;
+        register(meterRegistry, retryTiers.mainQueue(), "main");
+        for (final var tier : retryTiers.tiers())
+            register(meterRegistry, tier.queue(), "retry");
+        register(meterRegistry, retryTiers.deadLetterQueue(), "dead-letter");
+    }
+
+    private void register(MeterRegistry meterRegistry, String queue, String tier) {
+        final var depth = new AtomicLong();
+        depths.put(queue, depth);
+        Gauge.builder("banka4.notifications.queue.depth", depth, AtomicLong::get)
+            .description("Messages waiting in a notification queue")
+            .tag("queue", queue)
+            .tag("tier", tier)
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${banka4.notifications.metrics.refresh-interval:PT15S}")
+    public void refresh() {
+        for (final var entry : depths.entrySet()) {
+            try {
+                final var info = amqpAdmin.getQueueInfo(entry.getKey());
+                if (info != null)
+                    entry.getValue()
+                        .set(info.getMessageCount());
+            } catch (AmqpException e) {
+                LOGGER.debug("Could not read depth of {}", entry.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * @return the last polled depth of every queue, in tier order.
+     */
+    public Map<String, Long> depths() {
+        final Map<String, Long> snapshot = new LinkedHashMap<>();
+        depths.forEach((queue, depth) -> snapshot.put(queue, depth.get()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+}
@@ -0,0 +1,65 @@
+package rs.banka4.notification_service.email.retry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves a failed notification to the next delay queue, or to the dead-letter queue once the tiers
+ * are exhausted or the failure is permanent. The attempt number travels in the
+ * {@value RetryTiers#RETRY_COUNT_HEADER} header.
+ */
+@Component
+public class RetryRouter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetryRouter.class);
+    private static final int MAX_FAILURE_HEADER_LENGTH = 1000;
+
+    private final AmqpTemplate amqpTemplate;
+    private final RetryTiers retryTiers;
+
+    public RetryRouter(AmqpTemplate amqpTemplate, RetryTiers retryTiers) {
+        this.amqpTemplate = amqpTemplate;
+        this.retryTiers = retryTiers;
+    }
+
+    public void reject(Message message, Exception cause) {
+        final int attempt = retryCount(message);
+        final var tiers = retryTiers.tiers();
+        final String target;
+        if (FailureClassifier.isPermanent(cause) || attempt >= tiers.size()) {
+            target = retryTiers.deadLetterQueue();
+            LOGGER.error("Dead-lettering notification after {} retries", attempt, cause);
+        } else {
+            target =
+                tiers.get(attempt)
+                    .queue();
+            LOGGER.warn("Notification failed, retry {} via {}", attempt + 1, target, cause);
+        }
+
+        final var routed =
+            MessageBuilder.fromMessage(message)
+                .setHeader(RetryTiers.RETRY_COUNT_HEADER, attempt + 1)
+                .setHeader(RetryTiers.FAILURE_HEADER, describe(cause))
+                .build();
+        /* Default exchange, routed by queue name. */
+        amqpTemplate.send("", target, routed);
+    }
+
+    public static int retryCount(Message message) {
+        final Object count =
+            message.getMessageProperties()
+                .getHeader(RetryTiers.RETRY_COUNT_HEADER);
+        return count instanceof Number n ? n.intValue() : 0;
+    }
+
+    private static String describe(Exception cause) {
+        final var description = cause.getClass()
+            .getName() + ": " + cause.getMessage();
+        return description.length() > MAX_FAILURE_HEADER_LENGTH
+            ? description.substring(0, MAX_FAILURE_HEADER_LENGTH)
+            : description;
+    }
+}
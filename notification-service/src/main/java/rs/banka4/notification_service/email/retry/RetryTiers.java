@@ -0,0 +1,62 @@
+package rs.banka4.notification_service.email.retry;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Names of the notification queue, its delay queues and its dead-letter queue.
+ *
+ * <p>
+ * Each delay queue holds messages for its TTL and then dead-letters them back onto the main queue.
+ * Queue names include the delay, since RabbitMQ refuses to redeclare a queue with a different
+ * TTL; changing the delays creates new queues rather than breaking startup.
+ * </p>
+ */
+@Component
+public class RetryTiers {
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+    public static final String FAILURE_HEADER = "x-failure";
+
+    public record Tier(
+        String queue,
+        Duration delay
+    ) {
+    }
+
+    private final String mainQueue;
+    private final List<Tier> tiers;
+    private final String deadLetterQueue;
+
+    public RetryTiers(
+        @Value("${rabbitmq.queue.email.name}") String mainQueue,
+        @Value("${banka4.notifications.retry.delays:10s,1m,10m}") List<Duration> delays
+    ) {
+        this.mainQueue = mainQueue;
+        this.tiers =
+            delays.stream()
+                .map(delay -> new Tier(mainQueue + ".retry." + format(delay), delay))
+                .toList();
+        this.deadLetterQueue = mainQueue + ".dlq";
+    }
+
+    private static String format(Duration delay) {
+        final long seconds = delay.toSeconds();
+        if (seconds % 3600 == 0) return seconds / 3600 + "h";
+        if (seconds % 60 == 0) return seconds / 60 + "m";
+        return seconds + "s";
+    }
+
+    public String mainQueue() {
+        return mainQueue;
+    }
+
+    public List<Tier> tiers() {
+        return tiers;
+    }
+
+    public String deadLetterQueue() {
+        return deadLetterQueue;
+    }
+}
@@ -0,0 +1,77 @@
+package rs.banka4.notification_service.email.template;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * An email template split into literal text and {@code {{name}}} placeholders. Parsing happens
+ * once; rendering is then a single append pass with no intermediate strings.
+ *
+ * <p>
+ * Placeholders without a value are written back verbatim, which is what the previous
+ * {@code String.replace}-based renderer did.
+ * </p>
+ */
+public final class EmailTemplate {
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    /** {@code literals.length == names.length + 1}; literal {@code i} precedes name {@code i}. */
+    private final String[] literals;
+    private final String[] names;
+    private final int literalLength;
+
+    private EmailTemplate(String[] literals, String[] names) {
+        this.literals = literals;
+        this.names = names;
+        int length = 0;
+        for (final var literal : literals)
+            length += literal.length();
+        this.literalLength = length;
+    }
+
+    public static EmailTemplate compile(String source) {
+        final List<String> literals = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+
+        int literalStart = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, literalStart)) >= 0) {
+            final int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) break;
+
+            literals.add(source.substring(literalStart, open));
+            names.add(source.substring(open + OPEN.length(), close));
+            literalStart = close + CLOSE.length();
+        }
+        literals.add(source.substring(literalStart));
+
+        return new EmailTemplate(literals.toArray(String[]::new), names.toArray(String[]::new));
+    }
+
+    /**
+     * Appends the rendered template to {@code out}.
+     *
+     * @param params looks up the value of a placeholder, or returns {@code null} if it has none
+     */
+    public void renderTo(StringBuilder out, Function<String, ?> params) {
+        out.ensureCapacity(out.length() + literalLength + names.length * 16);
+        for (int i = 0; i < names.length; i++) {
+            out.append(literals[i]);
+            final Object value = params.apply(names[i]);
+            if (value != null) out.append(value);
+            else out.append(OPEN)
+                .append(names[i])
+                .append(CLOSE);
+        }
+        out.append(literals[names.length]);
+    }
+
+    /**
+     * @return placeholder names in order of appearance, duplicates included.
+     */
+    public List<String> placeholders() {
+        return List.of(names);
+    }
+}
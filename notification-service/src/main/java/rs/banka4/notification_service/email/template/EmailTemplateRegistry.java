@@ -0,0 +1,84 @@
+package rs.banka4.notification_service.email.template;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Every {@code templates/*.html} and {@code templates/*.txt} on the classpath, compiled at
+ * startup. Templates are looked up by topic and format, e.g. {@code ("loan-penalty", "html")}.
+ */
+@Component
+public class EmailTemplateRegistry {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmailTemplateRegistry.class);
+    private static final String[] FORMATS = {
+        "html", "txt"
+    };
+    /** Builders that grew past this are not kept around for reuse. */
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private final Map<String, EmailTemplate> templates;
+    private final ThreadLocal<StringBuilder> buffers =
+        ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    public EmailTemplateRegistry() {
+        this(new PathMatchingResourcePatternResolver());
+    }
+
+    public EmailTemplateRegistry(ResourcePatternResolver resolver) {
+        final Map<String, EmailTemplate> compiled = new HashMap<>();
+        for (final var format : FORMATS) {
+            try {
+                for (final Resource resource : resolver.getResources(
+                    "classpath*:templates/*." + format
+                )) {
+                    final var source =
+                        StreamUtils.copyToString(
+                            resource.getInputStream(),
+                            StandardCharsets.UTF_8
+                        );
+                    compiled.put(resource.getFilename(), EmailTemplate.compile(source));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error loading email templates", e);
+            }
+        }
+        this.templates = Map.copyOf(compiled);
+        LOGGER.info("Compiled {} email templates", templates.size());
+    }
+
+    /**
+     * @throws IllegalArgumentException if there is no such template.
+     */
+    public EmailTemplate get(String topic, String format) {
+        final var template = templates.get(topic + "." + format);
+        if (template == null)
+            throw new IllegalArgumentException(
+                "Error loading email template " + topic + "." + format
+            );
+        return template;
+    }
+
+    /**
+     * Renders a template into this thread's reusable buffer.
+     */
+    public String render(String topic, String format, Function<String, ?> params) {
+        final var template = get(topic, format);
+        final var buffer = buffers.get();
+        buffer.setLength(0);
+        template.renderTo(buffer, params);
+        final var result = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) buffers.remove();
+        return result;
+    }
+}
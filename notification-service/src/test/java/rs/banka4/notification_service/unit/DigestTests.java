@@ -0,0 +1,141 @@
+package rs.banka4.notification_service.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import rs.banka4.notification_service.email.digest.DigestRouter;
+import rs.banka4.notification_service.email.digest.Digests;
+
+public class DigestTests {
+    private long now;
+    private AmqpTemplate amqpTemplate;
+    private DigestRouter digestRouter;
+
+    @BeforeEach
+    void setUp() {
+        now = 0;
+        amqpTemplate = mock(AmqpTemplate.class);
+        digestRouter =
+            new DigestRouter(
+                amqpTemplate,
+                "notification-queue",
+                Set.of("loan-penalty"),
+                Duration.ofSeconds(60),
+                3,
+                () -> now
+            );
+    }
+
+    @Test
+    void testOnlyConfiguredTopicsAreDigested() {
+        assertTrue(digestRouter.accepts("loan-penalty"));
+        assertFalse(digestRouter.accepts("password-reset"));
+        assertFalse(
+            new DigestRouter(
+                amqpTemplate,
+                "notification-queue",
+                Set.of("loan-penalty"),
+                Duration.ZERO,
+                3,
+                () -> 0
+            ).accepts("loan-penalty")
+        );
+    }
+
+    @Test
+    void testHeldMessagesExpireWhenTheWindowEnds() {
+        now = Duration.ofSeconds(90)
+            .toMillis();
+        digestRouter.hold(new Message(new byte[0], new MessageProperties()));
+        now = Duration.ofSeconds(119)
+            .toMillis();
+        digestRouter.hold(new Message(new byte[0], new MessageProperties()));
+        now = Duration.ofSeconds(120)
+            .toMillis();
+        digestRouter.hold(new Message(new byte[0], new MessageProperties()));
+
+        ArgumentCaptor<Message> held = ArgumentCaptor.forClass(Message.class);
+        verify(amqpTemplate, times(3)).send(
+            eq(""),
+            eq("notification-queue.digest.hold"),
+            held.capture()
+        );
+        assertEquals(
+            List.of("30000", "1000", "60000"),
+            held.getAllValues()
+                .stream()
+                .map(
+                    message -> message.getMessageProperties()
+                        .getExpiration()
+                )
+                .toList()
+        );
+    }
+
+    @Test
+    void testGroupsPerRecipientInOrderOfFirstAppearance() {
+        List<List<String>> groups =
+            digestRouter.group(
+                List.of("a@example.com", "b@example.com", "A@example.com"),
+                Function.identity()
+            );
+
+        assertEquals(
+            List.of(List.of("a@example.com", "A@example.com"), List.of("b@example.com")),
+            groups
+        );
+    }
+
+    @Test
+    void testLargeGroupsAreSplit() {
+        List<List<String>> groups =
+            digestRouter.group(Collections.nCopies(7, "a"), Function.identity());
+
+        assertEquals(
+            List.of(3, 3, 1),
+            groups.stream()
+                .map(List::size)
+                .toList()
+        );
+    }
+
+    @Test
+    void testHtmlDigestKeepsOneDocument() {
+        String html =
+            Digests.html(
+                List.of(
+                    "<html><head><style>x</style></head><body class=\"b\"><p>one</p></body></html>",
+                    "<html><head><style>x</style></head><body class=\"b\"><p>two</p></body></html>"
+                )
+            );
+
+        assertEquals(
+            "<html><head><style>x</style></head><body class=\"b\"><p>one</p>\n<hr>\n<p>two</p></body></html>",
+            html
+        );
+    }
+
+    @Test
+    void testTextDigestJoinsParts() {
+        String text = Digests.text(List.of("one", "two"));
+
+        assertTrue(text.startsWith("one\n"));
+        assertTrue(text.endsWith("\ntwo"));
+    }
+}
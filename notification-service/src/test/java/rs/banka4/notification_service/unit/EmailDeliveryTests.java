@@ -0,0 +1,290 @@
+package rs.banka4.notification_service.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import rs.banka4.notification_service.email.EmailService;
+import rs.banka4.notification_service.email.delivery.SmtpTransportPool;
+import rs.banka4.notification_service.email.digest.DigestRouter;
+import rs.banka4.notification_service.email.retry.RetryRouter;
+import rs.banka4.notification_service.email.retry.RetryTiers;
+import rs.banka4.notification_service.email.template.EmailTemplateRegistry;
+
+public class EmailDeliveryTests {
+    private JavaMailSenderImpl mailSender;
+    private Session session;
+    private SmtpTransportPool.FailureHandler failureHandler;
+
+    @BeforeEach
+    void setUp() throws MessagingException {
+        failureHandler = mock(SmtpTransportPool.FailureHandler.class);
+        mailSender = mock(JavaMailSenderImpl.class);
+        session = mock(Session.class);
+        when(mailSender.getSession()).thenReturn(session);
+        when(mailSender.getHost()).thenReturn("smtp.example.com");
+        when(mailSender.getPort()).thenReturn(587);
+    }
+
+    private static MimeMessage newMessage() throws MessagingException {
+        MimeMessage message = new MimeMessage(Session.getInstance(new Properties()));
+        message.setText("body");
+        return message;
+    }
+
+    @Test
+    void testBatchIsSentOverOneConnection() throws MessagingException {
+        Transport transport = mock(Transport.class);
+        when(session.getTransport("smtp")).thenReturn(transport);
+        when(transport.isConnected()).thenReturn(true);
+        SmtpTransportPool pool = new SmtpTransportPool(mailSender, 2, Duration.ofSeconds(1));
+
+        pool.send(List.of(newMessage(), newMessage(), newMessage()), failureHandler);
+        pool.send(List.of(newMessage()), failureHandler);
+
+        verify(session, times(1)).getTransport("smtp");
+        verify(transport, times(1)).connect("smtp.example.com", 587, null, null);
+        verify(transport, times(4)).sendMessage(any(), any());
+        verify(transport, never()).close();
+        verify(failureHandler, never()).failed(anyInt(), any());
+    }
+
+    @Test
+    void testRejectedAddressDoesNotFailBatch() throws MessagingException {
+        Transport transport = mock(Transport.class);
+        when(session.getTransport("smtp")).thenReturn(transport);
+        MimeMessage rejected = newMessage();
+        SendFailedException rejection = new SendFailedException("rejected");
+        doThrow(rejection).when(transport)
+            .sendMessage(rejected, null);
+        SmtpTransportPool pool = new SmtpTransportPool(mailSender, 1, Duration.ofSeconds(1));
+
+        pool.send(List.of(rejected, newMessage()), failureHandler);
+
+        verify(transport, times(2)).sendMessage(any(), any());
+        verify(failureHandler).failed(0, rejection);
+        verify(failureHandler, never()).failed(eq(1), any());
+    }
+
+    @Test
+    void testBrokenConnectionIsReplacedOnce() throws MessagingException {
+        Transport broken = mock(Transport.class);
+        Transport fresh = mock(Transport.class);
+        when(session.getTransport("smtp")).thenReturn(broken, fresh);
+        MimeMessage first = newMessage();
+        MimeMessage second = newMessage();
+        doThrow(new MessagingException("connection reset")).when(broken)
+            .sendMessage(second, null);
+        SmtpTransportPool pool = new SmtpTransportPool(mailSender, 1, Duration.ofSeconds(1));
+
+        pool.send(List.of(first, second), failureHandler);
+
+        verify(failureHandler, never()).failed(anyInt(), any());
+        verify(broken).sendMessage(first, null);
+        verify(broken).close();
+        verify(fresh).sendMessage(second, null);
+        verify(fresh, never()).sendMessage(first, null);
+    }
+
+    @Test
+    void testConnectFailureIsReported() throws MessagingException {
+        Transport transport = mock(Transport.class);
+        when(session.getTransport("smtp")).thenReturn(transport);
+        doThrow(new MessagingException("refused")).when(transport)
+            .connect("smtp.example.com", 587, null, null);
+        SmtpTransportPool pool = new SmtpTransportPool(mailSender, 1, Duration.ofMillis(10));
+
+        pool.send(List.of(newMessage(), newMessage()), failureHandler);
+        /* The permit must have been returned. */
+        pool.send(List.of(newMessage()), failureHandler);
+
+        verify(transport, times(2)).connect("smtp.example.com", 587, null, null);
+        verify(failureHandler, times(2)).failed(eq(0), any(MailSendException.class));
+        verify(failureHandler).failed(eq(1), any(MailSendException.class));
+    }
+
+    private static Message amqpMessage(long deliveryTag, String body) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        return new Message(body.getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+    private static Message amqpMessage(long deliveryTag, String recipient, String topic) {
+        return amqpMessage(
+            deliveryTag,
+            "{\"recipient\":\""
+                + recipient
+                + "\",\"topic\":\""
+                + topic
+                + "\",\"params\":{\"firstName\":\"John\",\"verificationCode\":\"123\"}}"
+        );
+    }
+
+    private EmailService emailService(
+        JavaMailSender sender,
+        RetryRouter retryRouter,
+        DigestRouter digestRouter
+    ) {
+        when(sender.createMimeMessage()).thenAnswer(
+            invocation -> new MimeMessage(Session.getInstance(new Properties()))
+        );
+        return new EmailService(
+            sender,
+            new EmailTemplateRegistry(),
+            new SmtpTransportPool(sender, 1, Duration.ofSeconds(1)),
+            retryRouter,
+            digestRouter,
+            new ObjectMapper(),
+            "https://example.com"
+        );
+    }
+
+    @Test
+    void testFailedMessagesAreRoutedIndividually() throws IOException {
+        JavaMailSender sender = mock(JavaMailSender.class);
+        RetryRouter retryRouter = mock(RetryRouter.class);
+        Channel channel = mock(Channel.class);
+        EmailService emailService =
+            emailService(
+                sender,
+                retryRouter,
+                digestRouter(mock(AmqpTemplate.class), Set.of())
+            );
+
+        Message good = amqpMessage(1, "a@example.com", "account-activation");
+        Message unknownTopic = amqpMessage(2, "b@example.com", "no-such-topic");
+        Message malformed = amqpMessage(3, "not json");
+        emailService.processEmailMessages(List.of(good, unknownTopic, malformed), channel);
+
+        verify(sender).send(any(MimeMessage[].class));
+        verify(retryRouter).reject(eq(unknownTopic), any(IllegalArgumentException.class));
+        verify(retryRouter).reject(eq(malformed), any(JsonProcessingException.class));
+        verify(retryRouter, never()).reject(eq(good), any());
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(2, false);
+        verify(channel).basicAck(3, false);
+    }
+
+    private static DigestRouter digestRouter(AmqpTemplate amqpTemplate, Set<String> topics) {
+        return new DigestRouter(
+            amqpTemplate,
+            "notification-queue",
+            topics,
+            Duration.ofSeconds(60),
+            20,
+            System::currentTimeMillis
+        );
+    }
+
+    @Test
+    void testDigestibleMessagesAreHeldAndAcknowledged() throws Exception {
+        JavaMailSender sender = mock(JavaMailSender.class);
+        AmqpTemplate amqpTemplate = mock(AmqpTemplate.class);
+        Channel channel = mock(Channel.class);
+        EmailService emailService =
+            emailService(
+                sender,
+                mock(RetryRouter.class),
+                digestRouter(amqpTemplate, Set.of("account-activation"))
+            );
+
+        Message digestible = amqpMessage(1, "a@example.com", "account-activation");
+        Message retried = amqpMessage(2, "a@example.com", "account-activation");
+        retried.getMessageProperties()
+            .setHeader(RetryTiers.RETRY_COUNT_HEADER, 1);
+        Message regular = amqpMessage(3, "a@example.com", "password-reset");
+        emailService.processEmailMessages(List.of(digestible, retried, regular), channel);
+
+        /* Only the first waits for a digest; retries and other topics go out right away. */
+        verify(amqpTemplate).send(eq(""), eq("notification-queue.digest.hold"), any());
+        ArgumentCaptor<MimeMessage[]> sent = ArgumentCaptor.forClass(MimeMessage[].class);
+        verify(sender).send(sent.capture());
+        assertEquals(2, sent.getValue().length);
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(2, false);
+        verify(channel).basicAck(3, false);
+    }
+
+    @Test
+    void testMessagesThatCannotBeHeldAreSentRightAway() throws Exception {
+        JavaMailSender sender = mock(JavaMailSender.class);
+        AmqpTemplate amqpTemplate = mock(AmqpTemplate.class);
+        doThrow(new AmqpConnectException(new IOException("broker down"))).when(amqpTemplate)
+            .send(any(), any(), any());
+        Channel channel = mock(Channel.class);
+        EmailService emailService =
+            emailService(
+                sender,
+                mock(RetryRouter.class),
+                digestRouter(amqpTemplate, Set.of("account-activation"))
+            );
+
+        emailService.processEmailMessages(
+            List.of(amqpMessage(1, "a@example.com", "account-activation")),
+            channel
+        );
+
+        verify(sender).send(any(MimeMessage[].class));
+        verify(channel).basicAck(1, false);
+    }
+
+    @Test
+    void testReleasedDigestsAreCoalescedPerRecipient() throws Exception {
+        JavaMailSender sender = mock(JavaMailSender.class);
+        Channel channel = mock(Channel.class);
+        EmailService emailService =
+            emailService(
+                sender,
+                mock(RetryRouter.class),
+                digestRouter(mock(AmqpTemplate.class), Set.of("account-activation"))
+            );
+
+        emailService.processDigests(
+            List.of(
+                amqpMessage(1, "a@example.com", "account-activation"),
+                amqpMessage(2, "b@example.com", "account-activation"),
+                amqpMessage(3, "A@example.com", "account-activation")
+            ),
+            channel
+        );
+
+        ArgumentCaptor<MimeMessage[]> sent = ArgumentCaptor.forClass(MimeMessage[].class);
+        verify(sender).send(sent.capture());
+        assertEquals(2, sent.getValue().length);
+        assertEquals("Updates on your account", sent.getValue()[0].getSubject());
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(2, false);
+        verify(channel).basicAck(3, false);
+    }
+}
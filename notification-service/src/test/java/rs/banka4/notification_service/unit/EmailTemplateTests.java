@@ -0,0 +1,85 @@
+package rs.banka4.notification_service.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import rs.banka4.notification_service.email.template.EmailTemplate;
+import rs.banka4.notification_service.email.template.EmailTemplateRegistry;
+
+public class EmailTemplateTests {
+
+    private static String render(EmailTemplate template, Map<String, ?> params) {
+        StringBuilder out = new StringBuilder();
+        template.renderTo(out, params::get);
+        return out.toString();
+    }
+
+    @Test
+    void testCompileSplitsLiteralsAndPlaceholders() {
+        EmailTemplate template = EmailTemplate.compile("Dear {{firstName}}, code {{code}}.");
+
+        assertEquals(List.of("firstName", "code"), template.placeholders());
+        assertEquals(
+            "Dear John, code 123456.",
+            render(template, Map.of("firstName", "John", "code", 123456))
+        );
+    }
+
+    @Test
+    void testRepeatedAndAdjacentPlaceholders() {
+        EmailTemplate template = EmailTemplate.compile("{{a}}{{b}}{{a}}");
+
+        assertEquals("xyx", render(template, Map.of("a", "x", "b", "y")));
+    }
+
+    @Test
+    void testMissingParameterIsLeftVerbatim() {
+        EmailTemplate template = EmailTemplate.compile("Hi {{firstName}} {{lastName}}");
+
+        assertEquals("Hi John {{lastName}}", render(template, Map.of("firstName", "John")));
+    }
+
+    @Test
+    void testUnterminatedPlaceholderIsLiteral() {
+        EmailTemplate template = EmailTemplate.compile("a {{b}} c {{d");
+
+        assertEquals(List.of("b"), template.placeholders());
+        assertEquals("a B c {{d", render(template, Map.of("b", "B")));
+    }
+
+    @Test
+    void testRegistryLoadsBundledTemplates() {
+        EmailTemplateRegistry registry = new EmailTemplateRegistry();
+
+        String text =
+            registry.render(
+                "loan-penalty",
+                "txt",
+                Map.of(
+                    "firstName",
+                    "John",
+                    "loanNumber",
+                    42L,
+                    "penalty",
+                    "0.05",
+                    "date",
+                    "01.01.2025"
+                )::get
+            );
+
+        assertTrue(text.startsWith("Dear John,"));
+        assertTrue(text.contains("Loan number: 42"));
+        assertFalse(text.contains("{{"));
+        assertTrue(
+            registry.get("account-activation", "html")
+                .placeholders()
+                .contains("baseUrl")
+        );
+        assertThrows(IllegalArgumentException.class, () -> registry.get("no-such-topic", "txt"));
+    }
+}
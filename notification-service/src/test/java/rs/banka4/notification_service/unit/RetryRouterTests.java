@@ -0,0 +1,104 @@
+package rs.banka4.notification_service.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.InternetAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.mail.MailSendException;
+import rs.banka4.notification_service.email.retry.FailureClassifier;
+import rs.banka4.notification_service.email.retry.RetryRouter;
+import rs.banka4.notification_service.email.retry.RetryTiers;
+
+public class RetryRouterTests {
+    private AmqpTemplate amqpTemplate;
+    private RetryRouter retryRouter;
+
+    @BeforeEach
+    void setUp() {
+        amqpTemplate = mock(AmqpTemplate.class);
+        RetryTiers retryTiers =
+            new RetryTiers(
+                "notification-queue",
+                List.of(Duration.ofSeconds(10), Duration.ofMinutes(1), Duration.ofMinutes(10))
+            );
+        retryRouter = new RetryRouter(amqpTemplate, retryTiers);
+    }
+
+    private static Message message(int retryCount) {
+        MessageProperties properties = new MessageProperties();
+        if (retryCount > 0) properties.setHeader(RetryTiers.RETRY_COUNT_HEADER, retryCount);
+        return new Message("{}".getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+    private Message routedTo(String queue) {
+        ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        verify(amqpTemplate).send(eq(""), eq(queue), captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    void testTransientFailureGoesToNextTier() {
+        retryRouter.reject(message(0), new MailSendException("connection refused"));
+        assertEquals(1, RetryRouter.retryCount(routedTo("notification-queue.retry.10s")));
+    }
+
+    @Test
+    void testRetryCountSelectsTier() {
+        retryRouter.reject(message(2), new MailSendException("connection refused"));
+        assertEquals(3, RetryRouter.retryCount(routedTo("notification-queue.retry.10m")));
+    }
+
+    @Test
+    void testExhaustedRetriesAreDeadLettered() {
+        retryRouter.reject(message(3), new MailSendException("connection refused"));
+        Message routed = routedTo("notification-queue.dlq");
+        assertTrue(
+            routed.getMessageProperties()
+                .<String>getHeader(RetryTiers.FAILURE_HEADER)
+                .contains("connection refused")
+        );
+    }
+
+    @Test
+    void testPermanentFailureSkipsRetries() {
+        retryRouter.reject(message(0), new IllegalArgumentException("unsupported topic x"));
+        routedTo("notification-queue.dlq");
+    }
+
+    @Test
+    void testClassifier() throws Exception {
+        assertTrue(FailureClassifier.isPermanent(new IllegalArgumentException()));
+        assertTrue(
+            FailureClassifier.isPermanent(
+                new SendFailedException(
+                    "rejected",
+                    null,
+                    null,
+                    null,
+                    InternetAddress.parse("nobody@example.com")
+                )
+            )
+        );
+        assertFalse(FailureClassifier.isPermanent(new SendFailedException("try later")));
+        assertFalse(FailureClassifier.isPermanent(new MailSendException("timeout")));
+        assertTrue(
+            FailureClassifier.isPermanent(
+                new MailSendException("wrapped", new IllegalArgumentException())
+            )
+        );
+    }
+}
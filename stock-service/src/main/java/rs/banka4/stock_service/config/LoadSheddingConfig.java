@@ -0,0 +1,70 @@
+package rs.banka4.stock_service.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import rs.banka4.rafeisen.common.utils.concurrency.ConcurrencyLimiter;
+import rs.banka4.rafeisen.common.utils.concurrency.GradientConcurrencyLimit;
+import rs.banka4.rafeisen.common.utils.concurrency.LoadSheddingFilter;
+import rs.banka4.rafeisen.common.utils.concurrency.RequestPriority;
+import rs.banka4.rafeisen.common.utils.concurrency.RequestPriorityRules;
+
+/**
+ * Sheds load when the service is saturated. Orders and transfers are critical; browsing listings
+ * and securities goes first.
+ */
+@Configuration
+@ConditionalOnProperty(
+    name = "banka4.load-shedding.enabled",
+    havingValue = "true",
+    matchIfMissing = true
+)
+public class LoadSheddingConfig {
+    @Bean
+    public ConcurrencyLimiter concurrencyLimiter(
+        @Value("${banka4.load-shedding.initial-limit:50}") int initialLimit,
+        @Value("${banka4.load-shedding.min-limit:10}") int minLimit,
+        @Value("${banka4.load-shedding.max-limit:200}") int maxLimit,
+        @Value("${banka4.load-shedding.tolerance:1.5}") double tolerance,
+        ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        final var limiter =
+            new ConcurrencyLimiter(
+                new GradientConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance)
+            );
+        meterRegistry.ifAvailable(limiter::bindTo);
+        return limiter;
+    }
+
+    /**
+     * Runs ahead of Spring Security, so that shed requests cost next to nothing.
+     */
+    @Bean
+    public FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilter(
+        ConcurrencyLimiter concurrencyLimiter,
+        @Value("${banka4.load-shedding.retry-after-seconds:1}") int retryAfterSeconds
+    ) {
+        final var priorities =
+            new RequestPriorityRules()
+                /* Health checks must answer most when the service is saturated. */
+                .exempt("/actuator/**")
+                .rule(HttpMethod.POST, "/orders/**", RequestPriority.CRITICAL)
+                .rule(HttpMethod.PUT, "/stocks/transfer", RequestPriority.CRITICAL)
+                .rule(HttpMethod.GET, "/listings/**", RequestPriority.LOW)
+                .rule(HttpMethod.GET, "/securities/**", RequestPriority.LOW)
+                .rule(HttpMethod.GET, "/exchanges/**", RequestPriority.LOW)
+                .rule(null, "/docs/**", RequestPriority.LOW);
+        final var registration =
+            new FilterRegistrationBean<>(
+                new LoadSheddingFilter(concurrencyLimiter, priorities, retryAfterSeconds)
+            );
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -3,11 +3,15 @@ package rs.banka4.stock_service.security;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import javax.crypto.SecretKey;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import rs.banka4.rafeisen.common.utils.jwt.JwtUtil;
+import rs.banka4.rafeisen.common.utils.jwt.VerifiedTokenCache;
 
 @Configuration
 public class JwtConfig {
@@ -19,11 +23,23 @@ public class JwtConfig {
     }
 
     @Bean
-    public JwtUtil jwtUtil() {
+    public VerifiedTokenCache verifiedTokenCache(
+        @Value("${banka4.jwt.cache.max-entries:10000}") int maxEntries,
+        @Value("${banka4.jwt.cache.max-ttl:PT5M}") Duration maxTtl,
+        ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        final var cache = new VerifiedTokenCache(maxEntries, maxTtl);
+        meterRegistry.ifAvailable(cache::bindTo);
+        return cache;
+    }
+
+    @Bean
+    public JwtUtil jwtUtil(VerifiedTokenCache verifiedTokenCache) {
         return new JwtUtil(
             Jwts.parser()
                 .verifyWith(verificationKey)
-                .build()
+                .build(),
+            verifiedTokenCache
         );
     }
 }
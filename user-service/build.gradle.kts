@@ -29,6 +29,7 @@ repositories {
 dependencies {
 	implementation(project(":common"))
 
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
 	implementation("org.springframework.boot:spring-boot-starter-security")
 	implementation("org.springframework.boot:spring-boot-starter-validation")
@@ -46,6 +47,7 @@ dependencies {
 	implementation("org.springdoc:springdoc-openapi-starter-webmvc-api:2.8.5")
 	implementation("org.springdoc:springdoc-openapi-starter-common:2.8.5")
 	implementation("dev.samstevens.totp:totp-spring-boot-starter:1.7.1")
+	implementation("commons-codec:commons-codec")
 
 	implementation("com.squareup.retrofit2:retrofit:2.11.0")
 	implementation("com.squareup.retrofit2:converter-jackson:2.11.0")
@@ -4,6 +4,7 @@ import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -12,6 +13,7 @@ public class RabbitMqConfig {
     public static final String EXCHANGE_NAME = "notification-queue";
     public static final String QUEUE_NAME = "notification-queue";
     public static final String ROUTING_KEY = "notification-queue";
+    public static final String REVOCATIONS_EXCHANGE_NAME = "token-revocations";
 
     @Bean
     public TopicExchange notificationExchange() {
@@ -34,6 +36,38 @@ public class RabbitMqConfig {
             .with(ROUTING_KEY);
     }
 
+    @Bean
+    @ConditionalOnProperty(
+        name = "banka4.revocations.feed",
+        havingValue = "rabbit"
+    )
+    public FanoutExchange tokenRevocationExchange() {
+        return new FanoutExchange(REVOCATIONS_EXCHANGE_NAME);
+    }
+
+    /** Each instance needs its own copy of every revocation, hence a private, anonymous queue. */
+    @Bean
+    @ConditionalOnProperty(
+        name = "banka4.revocations.feed",
+        havingValue = "rabbit"
+    )
+    public AnonymousQueue tokenRevocationQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    @ConditionalOnProperty(
+        name = "banka4.revocations.feed",
+        havingValue = "rabbit"
+    )
+    public Binding tokenRevocationBinding(
+        AnonymousQueue tokenRevocationQueue,
+        FanoutExchange tokenRevocationExchange
+    ) {
+        return BindingBuilder.bind(tokenRevocationQueue)
+            .to(tokenRevocationExchange);
+    }
+
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
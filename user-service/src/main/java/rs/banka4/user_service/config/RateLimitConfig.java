@@ -0,0 +1,42 @@
+package rs.banka4.user_service.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import rs.banka4.user_service.utils.ratelimit.InMemoryRateLimitBackend;
+import rs.banka4.user_service.utils.ratelimit.JdbcRateLimitBackend;
+import rs.banka4.user_service.utils.ratelimit.RateLimitBackend;
+import rs.banka4.user_service.utils.ratelimit.RateLimitProperties;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+    @Bean
+    @ConditionalOnProperty(
+        name = "banka4.rate-limit.backend",
+        havingValue = "memory",
+        matchIfMissing = true
+    )
+    public RateLimitBackend inMemoryRateLimitBackend() {
+        return new InMemoryRateLimitBackend();
+    }
+
+    /** Shares limits between instances. */
+    @Bean
+    @ConditionalOnProperty(
+        name = "banka4.rate-limit.backend",
+        havingValue = "jdbc"
+    )
+    public RateLimitBackend jdbcRateLimitBackend(
+        JdbcTemplate jdbcTemplate,
+        RateLimitProperties properties
+    ) {
+        return new JdbcRateLimitBackend(
+            jdbcTemplate,
+            properties.prefetch(),
+            properties.fallbackPeriod()
+        );
+    }
+}
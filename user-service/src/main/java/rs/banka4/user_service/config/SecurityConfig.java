@@ -27,6 +27,7 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final RateLimitingFilter rateLimitingFilter;
+    private final UserRateLimitingFilter userRateLimitingFilter;
     private final ExceptionHandlingFilter exceptionHandlingFilter;
     private final AuthenticationProvider authenticationProvider;
     private final InvalidRouteFilter invalidRouteFilter;
@@ -67,9 +68,11 @@ public class SecurityConfig {
             .sessionManagement(ses -> ses.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authenticationProvider(authenticationProvider)
             .addFilterBefore(exceptionHandlingFilter, UsernamePasswordAuthenticationFilter.class)
-            .addFilterBefore(rateLimitingFilter, UsernamePasswordAuthenticationFilter.class)
             .addFilterBefore(invalidRouteFilter, UsernamePasswordAuthenticationFilter.class)
-            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+            /* Per IP before authentication, so that floods never reach token verification. */
+            .addFilterBefore(rateLimitingFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterAfter(userRateLimitingFilter, JwtAuthenticationFilter.class);
 
         return httpSecurity.build();
     }
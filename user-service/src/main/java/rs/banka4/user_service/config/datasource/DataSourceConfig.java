@@ -0,0 +1,77 @@
+package rs.banka4.user_service.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Primary/replica data source setup.
+ *
+ * <p>
+ * The primary pool is configured through the usual {@code spring.datasource.*} properties. A
+ * replica pool is created when {@code banka4.datasource.replica.jdbc-url} is set; its pool settings
+ * are bound from {@code banka4.datasource.replica.*} like any other {@link HikariDataSource}.
+ * Without a replica, read-only work goes to the primary pool, so local setups need no extra
+ * configuration.
+ * </p>
+ *
+ * <p>
+ * Both pools are named ({@code primary}, {@code replica}), so their Hikari metrics are reported
+ * per pool.
+ * </p>
+ */
+@Configuration
+public class DataSourceConfig {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource =
+            properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("banka4.datasource.replica")
+    @ConditionalOnProperty("banka4.datasource.replica.jdbc-url")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+        @Qualifier("primaryDataSource") DataSource primaryDataSource,
+        @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+        MeterRegistry meterRegistry
+    ) {
+        DataSource replica = replicaDataSource.getIfAvailable();
+        if (replica == null) {
+            LOGGER.info("No read replica configured, read-only transactions use the primary");
+            replica = primaryDataSource;
+        }
+
+        ReadReplicaRoutingDataSource routingDataSource =
+            new ReadReplicaRoutingDataSource(primaryDataSource, replica, meterRegistry);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,11 @@
+package rs.banka4.user_service.config.datasource;
+
+/**
+ * Connection pools {@link ReadReplicaRoutingDataSource} routes between.
+ */
+public enum DataSourceRole {
+    /** Read-write primary database. */
+    PRIMARY,
+    /** Read replica, used by read-only transactions. */
+    REPLICA
+}
@@ -0,0 +1,66 @@
+package rs.banka4.user_service.config.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections requested by {@code @Transactional(readOnly = true)} work to the replica pool
+ * and everything else to the primary.
+ *
+ * <p>
+ * The read-only flag of a Spring transaction is only set after the transaction manager has begun
+ * the transaction, so this data source must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which defers fetching
+ * the physical connection until the first statement.
+ * </p>
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private final Map<DataSourceRole, Counter> routedConnections =
+        new EnumMap<>(DataSourceRole.class);
+
+    public ReadReplicaRoutingDataSource(
+        DataSource primary,
+        DataSource replica,
+        MeterRegistry meterRegistry
+    ) {
+        setTargetDataSources(
+            Map.of(
+                DataSourceRole.PRIMARY,
+                primary,
+                DataSourceRole.REPLICA,
+                replica
+            )
+        );
+        setDefaultTargetDataSource(primary);
+
+        for (DataSourceRole role : DataSourceRole.values()) {
+            routedConnections.put(
+                role,
+                Counter.builder("banka4.datasource.routed.connections")
+                    .description("Connections handed out by the read/write routing data source")
+                    .tag(
+                        "target",
+                        role.name()
+                            .toLowerCase()
+                    )
+                    .register(meterRegistry)
+            );
+        }
+    }
+
+    @Override
+    protected DataSourceRole determineCurrentLookupKey() {
+        final var role =
+            TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? DataSourceRole.REPLICA
+                : DataSourceRole.PRIMARY;
+        routedConnections.get(role)
+            .increment();
+        return role;
+    }
+}
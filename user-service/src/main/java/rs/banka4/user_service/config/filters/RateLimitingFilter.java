@@ -1,50 +1,47 @@
 package rs.banka4.user_service.config.filters;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Bucket4j;
-import io.github.bucket4j.Refill;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.time.Duration;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import rs.banka4.rafeisen.common.exceptions.RateLimitExceeded;
+import rs.banka4.user_service.utils.ratelimit.RateLimitBackend;
+import rs.banka4.user_service.utils.ratelimit.RateLimitPolicy;
+import rs.banka4.user_service.utils.ratelimit.RateLimitProperties;
 
 /**
- * Filter that applies rate limiting to incoming requests based on the client's IP address. This
- * filter ensures that a client cannot exceed a predefined number of requests within a specified
- * time period.
+ * Filter that applies rate limiting to incoming requests, per client IP address. This filter
+ * ensures that a client cannot exceed a predefined number of requests within a specified time
+ * period. It runs before authentication, so that floods are turned away before any token is
+ * verified; {@link UserRateLimitingFilter} limits authenticated users after it.
  * <p>
- * The rate limiting is implemented using a token bucket algorithm provided by the Bucket4j library.
- * Each client is assigned a bucket that refills at a fixed rate, and tokens are consumed with each
- * request.
+ * The client IP is the remote address of the connection. Behind a reverse proxy, the container
+ * resolves it from {@code X-Forwarded-For} only for hops it trusts (see
+ * {@code server.forward-headers-strategy}); the header is never read here, since any client can
+ * send one.
  * <p>
- * The filter uses a Guava cache to store the buckets for each client IP address. The cache entries
- * expire after one hour of inactivity.
+ * The rate limiting is implemented using a token bucket algorithm. Each client is assigned a bucket
+ * that refills at a fixed rate, and tokens are consumed with each request. Limits can be set per
+ * route; see {@link RateLimitProperties}.
  * <p>
+ * The buckets are kept by a {@link RateLimitBackend}: either in this instance's memory, or in the
+ * database, shared by all instances.
  *
  * @see OncePerRequestFilter
- * @see Bucket4j
- * @see Cache
+ * @see RateLimitBackend
+ * @see UserRateLimitingFilter
  */
 @Component
 public class RateLimitingFilter extends OncePerRequestFilter {
+    private final RateLimitBackend backend;
+    private final RateLimitPolicy policy;
 
-    private final Cache<String, Bucket> cache;
-
-    public RateLimitingFilter() {
-        this.cache =
-            CacheBuilder.newBuilder()
-                .expireAfterAccess(1, TimeUnit.HOURS)
-                .build();
+    public RateLimitingFilter(RateLimitBackend backend, RateLimitProperties properties) {
+        this.backend = backend;
+        this.policy = new RateLimitPolicy(properties);
     }
 
     /**
@@ -64,38 +61,11 @@ public class RateLimitingFilter extends OncePerRequestFilter {
         FilterChain filterChain
     ) throws ServletException,
         IOException {
-        String ip = getClientIP(request);
-        Bucket bucket;
-        try {
-            bucket = cache.get(ip, () -> newBucket(ip));
-        } catch (ExecutionException e) {
-            throw new ServletException("Internal server error", e);
-        }
-
-        if (bucket.tryConsume(1)) {
-            filterChain.doFilter(request, response);
-        } else {
-            throw new RateLimitExceeded();
-        }
-    }
+        final var limits = policy.limitsFor(request);
 
-    private String getClientIP(HttpServletRequest request) {
-        String xfHeader = request.getHeader("X-Forwarded-For");
-        if (xfHeader == null) {
-            return request.getRemoteAddr();
-        }
-        return xfHeader.split(",")[0];
-    }
+        final var ipKey = "ip:" + limits.name() + ":" + request.getRemoteAddr();
+        if (!backend.tryConsume(ipKey, limits.perIp())) throw new RateLimitExceeded();
 
-    /**
-     * Creates a new token bucket for the given key (client IP address).
-     *
-     * @param key the key for the bucket, typically the client's IP address
-     * @return a new token bucket
-     */
-    private Bucket newBucket(String key) {
-        return Bucket4j.builder()
-            .addLimit(Bandwidth.classic(100, Refill.intervally(100, Duration.ofMinutes(1))))
-            .build();
+        filterChain.doFilter(request, response);
     }
 }
@@ -0,0 +1,66 @@
+package rs.banka4.user_service.config.filters;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import rs.banka4.rafeisen.common.exceptions.RateLimitExceeded;
+import rs.banka4.rafeisen.common.security.AuthenticatedBankUserPrincipal;
+import rs.banka4.user_service.utils.ratelimit.RateLimitBackend;
+import rs.banka4.user_service.utils.ratelimit.RateLimitPolicy;
+import rs.banka4.user_service.utils.ratelimit.RateLimitProperties;
+
+/**
+ * Filter that applies rate limiting to authenticated requests, per user, so that a user cannot
+ * spread requests over many addresses. It runs after {@link JwtAuthenticationFilter}; the per-IP
+ * limit of {@link RateLimitingFilter} has already been applied by then.
+ *
+ * @see RateLimitingFilter
+ */
+@Component
+public class UserRateLimitingFilter extends OncePerRequestFilter {
+    private final RateLimitBackend backend;
+    private final RateLimitPolicy policy;
+
+    public UserRateLimitingFilter(RateLimitBackend backend, RateLimitProperties properties) {
+        this.backend = backend;
+        this.policy = new RateLimitPolicy(properties);
+    }
+
+    /**
+     * Filters the incoming request to apply rate limiting based on the authenticated user, if any.
+     * If the user exceeds the rate limit, a {@link RateLimitExceeded} exception is thrown.
+     *
+     * @param request the incoming HTTP request
+     * @param response the HTTP response that will be sent back to the client
+     * @param filterChain the chain of filters to be applied after this filter
+     * @throws ServletException if a servlet-related error occurs during the filtering process
+     * @throws IOException if an I/O error occurs during request or response handling
+     */
+    @Override
+    public void doFilterInternal(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        FilterChain filterChain
+    ) throws ServletException,
+        IOException {
+        final var limits = policy.limitsFor(request);
+        final var authentication =
+            SecurityContextHolder.getContext()
+                .getAuthentication();
+        if (
+            limits.perUser() != null
+                && authentication != null
+                && authentication.getPrincipal() instanceof AuthenticatedBankUserPrincipal user
+        ) {
+            final var userKey = "user:" + limits.name() + ":" + user.userId();
+            if (!backend.tryConsume(userKey, limits.perUser())) throw new RateLimitExceeded();
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -41,6 +41,17 @@ public class LoanController implements LoanDocumentation {
         return ResponseEntity.ok(response);
     }
 
+    @Override
+    @GetMapping("/{loanNumber}/schedule")
+    public ResponseEntity<AmortizationScheduleDto> getScheduleForLoan(
+        Authentication auth,
+        @PathVariable Long loanNumber
+    ) {
+        return ResponseEntity.ok(
+            loanInstallmentService.getScheduleForLoan(loanNumber, (String) auth.getCredentials())
+        );
+    }
+
     @Override
     @PostMapping
     public ResponseEntity<Void> createLoanApplication(
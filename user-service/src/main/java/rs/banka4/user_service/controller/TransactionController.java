@@ -7,16 +7,24 @@ import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import rs.banka4.user_service.controller.docs.TransactionApiDocumentation;
 import rs.banka4.user_service.domain.transaction.db.TransactionStatus;
+import rs.banka4.user_service.domain.transaction.dtos.BulkPaymentResultDto;
+import rs.banka4.user_service.domain.transaction.dtos.CreateBulkPaymentDto;
 import rs.banka4.user_service.domain.transaction.dtos.CreatePaymentDto;
 import rs.banka4.user_service.domain.transaction.dtos.CreateTransferDto;
 import rs.banka4.user_service.domain.transaction.dtos.TransactionDto;
+import rs.banka4.user_service.domain.transaction.dtos.TransactionExportFormat;
+import rs.banka4.user_service.domain.transaction.dtos.TransactionHistoryPageDto;
 import rs.banka4.user_service.service.abstraction.TransactionService;
+import rs.banka4.user_service.service.impl.TransactionExportService;
 
 @RestController
 @RequestMapping("/transaction")
@@ -24,6 +32,7 @@ import rs.banka4.user_service.service.abstraction.TransactionService;
 public class TransactionController implements TransactionApiDocumentation {
 
     private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
 
     @Override
     @PostMapping("/payment")
@@ -48,6 +57,17 @@ public class TransactionController implements TransactionApiDocumentation {
         return ResponseEntity.ok(transactionDto);
     }
 
+    @Override
+    @PostMapping("/payment/bulk")
+    public ResponseEntity<BulkPaymentResultDto> createBulkPayment(
+        Authentication authentication,
+        @RequestBody @Valid CreateBulkPaymentDto createBulkPaymentDto
+    ) {
+        return ResponseEntity.ok(
+            transactionService.createBulkPayment(authentication, createBulkPaymentDto)
+        );
+    }
+
     @Override
     @GetMapping("/search")
     public ResponseEntity<Page<TransactionDto>> getAllTransactionsForClient(
@@ -72,6 +92,63 @@ public class TransactionController implements TransactionApiDocumentation {
         return ResponseEntity.ok(transactions);
     }
 
+    @Override
+    @GetMapping("/history")
+    public ResponseEntity<TransactionHistoryPageDto> getTransactionHistory(
+        Authentication auth,
+        @RequestParam(required = false) TransactionStatus status,
+        @RequestParam(required = false) BigDecimal amount,
+        @RequestParam(required = false) LocalDate date,
+        @RequestParam(required = false) String accountNumber,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "10") int size
+    ) {
+        return ResponseEntity.ok(
+            transactionService.getTransactionHistoryForClient(
+                auth.getCredentials()
+                    .toString(),
+                status,
+                amount,
+                date,
+                accountNumber,
+                cursor,
+                size
+            )
+        );
+    }
+
+    @Override
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+        Authentication auth,
+        @RequestParam String accountNumber,
+        @RequestParam(required = false) TransactionStatus status,
+        @RequestParam(required = false) BigDecimal amount,
+        @RequestParam(required = false) LocalDate date,
+        @RequestParam(defaultValue = "CSV") TransactionExportFormat format
+    ) {
+        StreamingResponseBody body =
+            transactionExportService.export(
+                auth.getCredentials()
+                    .toString(),
+                accountNumber,
+                status,
+                amount,
+                date,
+                format
+            );
+        return ResponseEntity.ok()
+            .contentType(format.getMediaType())
+            .header(
+                HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment()
+                    .filename("transactions-" + accountNumber + "." + format.getFileExtension())
+                    .build()
+                    .toString()
+            )
+            .body(body);
+    }
+
     @Override
     @GetMapping("/{id}")
     public ResponseEntity<TransactionDto> getTransactionById(
@@ -103,4 +180,21 @@ public class TransactionController implements TransactionApiDocumentation {
         return ResponseEntity.ok(transactions);
     }
 
+    @Override
+    @GetMapping("/transfer-history/cursor")
+    public ResponseEntity<TransactionHistoryPageDto> getTransferHistory(
+        Authentication auth,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "10") int size
+    ) {
+        return ResponseEntity.ok(
+            transactionService.getTransferHistoryForClient(
+                auth.getCredentials()
+                    .toString(),
+                cursor,
+                size
+            )
+        );
+    }
+
 }
@@ -12,6 +12,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import rs.banka4.user_service.domain.loan.db.LoanStatus;
 import rs.banka4.user_service.domain.loan.db.LoanType;
+import rs.banka4.user_service.domain.loan.dtos.AmortizationScheduleDto;
 import rs.banka4.user_service.domain.loan.dtos.LoanApplicationDto;
 import rs.banka4.user_service.domain.loan.dtos.LoanApplicationResponseDto;
 import rs.banka4.user_service.domain.loan.dtos.LoanInformationDto;
@@ -251,4 +252,36 @@ public interface LoanDocumentation {
         int size
     );
 
+    @Operation(
+        summary = "GET Loan Amortization Schedule",
+        description = "Allows a client to view the full amortization schedule of one of their loans: "
+            + "every installment with its due date, the parts of it that repay principal and pay "
+            + "interest, and the balance remaining after it. "
+            + "Loans that are not approved yet are scheduled as if approved today.",
+        security = @SecurityRequirement(name = "bearerAuth"),
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Schedule computed successfully",
+                content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = AmortizationScheduleDto.class)
+                )
+            ),
+            @ApiResponse(
+                responseCode = "401",
+                description = "Unauthorized: Client authentication failed",
+                content = @Content
+            ),
+            @ApiResponse(
+                responseCode = "404",
+                description = "Not Found: Incorrect loan number is provided",
+                content = @Content
+            )
+        }
+    )
+    ResponseEntity<AmortizationScheduleDto> getScheduleForLoan(
+        Authentication auth,
+        @Parameter(description = "Number of the loan") Long loanNumber
+    );
 }
@@ -14,10 +14,16 @@ import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import rs.banka4.user_service.domain.transaction.db.TransactionStatus;
+import rs.banka4.user_service.domain.transaction.dtos.BulkPaymentResultDto;
+import rs.banka4.user_service.domain.transaction.dtos.CreateBulkPaymentDto;
 import rs.banka4.user_service.domain.transaction.dtos.CreatePaymentDto;
 import rs.banka4.user_service.domain.transaction.dtos.CreateTransferDto;
 import rs.banka4.user_service.domain.transaction.dtos.TransactionDto;
+import rs.banka4.user_service.domain.transaction.dtos.TransactionExportFormat;
+import rs.banka4.user_service.domain.transaction.dtos.TransactionHistoryPageDto;
+import rs.banka4.user_service.exceptions.InvalidCursor;
 import rs.banka4.user_service.exceptions.account.AccountNotFound;
 import rs.banka4.user_service.exceptions.account.NotAccountOwner;
 import rs.banka4.user_service.exceptions.transaction.ClientCannotPayToOwnAccount;
@@ -103,6 +109,39 @@ public interface TransactionApiDocumentation {
         @Valid CreateTransferDto createTransferDto
     );
 
+    @Operation(
+        summary = "Create a bulk payment order",
+        description = "Executes many payments from one account (e.g. payroll) under a single TOTP "
+            + "authorization. Each payment is executed or rejected on its own; the response "
+            + "reports the outcome of every payment in submission order.",
+        security = @SecurityRequirement(name = "bearerAuth"),
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Order processed, see per-payment results",
+                content = @Content(schema = @Schema(implementation = BulkPaymentResultDto.class))
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Bad request - Invalid data"
+            ),
+            @ApiResponse(
+                responseCode = "403",
+                description = "Not account owner",
+                content = @Content(schema = @Schema(implementation = NotAccountOwner.class))
+            ),
+            @ApiResponse(
+                responseCode = "404",
+                description = "Source account not found",
+                content = @Content(schema = @Schema(implementation = AccountNotFound.class))
+            )
+        }
+    )
+    ResponseEntity<BulkPaymentResultDto> createBulkPayment(
+        Authentication authentication,
+        @Valid CreateBulkPaymentDto createBulkPaymentDto
+    );
+
     @Operation(
         summary = "Get Client Payments",
         description = "Retrieves the list of payments for the authenticated client. Requires authentication.",
@@ -133,6 +172,72 @@ public interface TransactionApiDocumentation {
         @Parameter(description = "Number of employees per page") int size
     );
 
+    @Operation(
+        summary = "Get Client Payment History",
+        description = "Retrieves the payments of the authenticated client, newest first, one page "
+            + "at a time. Pass the returned nextCursor to get the following page; every page "
+            + "costs the same to load regardless of how far back it is.",
+        security = @SecurityRequirement(name = "bearerAuth"),
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Successfully retrieved payments",
+                content = @Content(
+                    schema = @Schema(implementation = TransactionHistoryPageDto.class)
+                )
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Bad request - Invalid cursor",
+                content = @Content(schema = @Schema(implementation = InvalidCursor.class))
+            ),
+            @ApiResponse(
+                responseCode = "401",
+                description = "Unauthorized - Token errors"
+            )
+        }
+    )
+    ResponseEntity<TransactionHistoryPageDto> getTransactionHistory(
+        Authentication auth,
+        @Parameter(description = "Payment status") TransactionStatus status,
+        @Parameter(description = "Payment amount") BigDecimal amount,
+        @Parameter(description = "Payments on date") LocalDate date,
+        @Parameter(description = "Account number") String accountNumber,
+        @Parameter(description = "Cursor from the previous page, omit for the first page") String cursor,
+        @Parameter(description = "Number of payments per page, at most 100") int size
+    );
+
+    @Operation(
+        summary = "Export Account Transactions",
+        description = "Streams the full transaction history of an account, oldest first, as CSV "
+            + "or newline-delimited JSON. Clients can only export their own accounts.",
+        security = @SecurityRequirement(name = "bearerAuth"),
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Export stream"
+            ),
+            @ApiResponse(
+                responseCode = "403",
+                description = "Not account owner",
+                content = @Content(schema = @Schema(implementation = NotAccountOwner.class))
+            ),
+            @ApiResponse(
+                responseCode = "404",
+                description = "Account not found",
+                content = @Content(schema = @Schema(implementation = AccountNotFound.class))
+            )
+        }
+    )
+    ResponseEntity<StreamingResponseBody> exportTransactions(
+        Authentication auth,
+        @Parameter(description = "Account number") String accountNumber,
+        @Parameter(description = "Payment status") TransactionStatus status,
+        @Parameter(description = "Payment amount") BigDecimal amount,
+        @Parameter(description = "Payments on date") LocalDate date,
+        @Parameter(description = "Export format") TransactionExportFormat format
+    );
+
     @Operation(
         summary = "Get Transaction by ID",
         description = "Retrieves the transaction with the provided ID.",
@@ -178,4 +283,34 @@ public interface TransactionApiDocumentation {
         @Parameter(description = "Page number") int page,
         @Parameter(description = "Number of transfers per page") int size
     );
+
+    @Operation(
+        summary = "Get Client Transfer History",
+        description = "Retrieves the transfers of the authenticated client, newest first, one page "
+            + "at a time. Pass the returned nextCursor to get the following page.",
+        security = @SecurityRequirement(name = "bearerAuth"),
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Successfully retrieved transfers",
+                content = @Content(
+                    schema = @Schema(implementation = TransactionHistoryPageDto.class)
+                )
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Bad request - Invalid cursor",
+                content = @Content(schema = @Schema(implementation = InvalidCursor.class))
+            ),
+            @ApiResponse(
+                responseCode = "401",
+                description = "Unauthorized - Token errors"
+            )
+        }
+    )
+    ResponseEntity<TransactionHistoryPageDto> getTransferHistory(
+        Authentication auth,
+        @Parameter(description = "Cursor from the previous page, omit for the first page") String cursor,
+        @Parameter(description = "Number of transfers per page, at most 100") int size
+    );
 }
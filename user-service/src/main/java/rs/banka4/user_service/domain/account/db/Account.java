@@ -6,6 +6,7 @@ import java.time.LocalDate;
 import java.util.Objects;
 import java.util.UUID;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.proxy.HibernateProxy;
 import rs.banka4.rafeisen.common.currency.CurrencyCode;
 import rs.banka4.user_service.domain.company.db.Company;
@@ -20,6 +21,9 @@ import rs.banka4.user_service.domain.user.employee.db.Employee;
 @Setter
 @RequiredArgsConstructor
 @Table(name = "accounts")
+/* Balances are also updated in SQL by the ledger projectors; only write back what changed. */
+@DynamicUpdate
+@EntityListeners(BankAccountDirectoryListener.class)
 public class Account {
 
     @Id
@@ -0,0 +1,45 @@
+package rs.banka4.user_service.domain.account.db;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import rs.banka4.user_service.service.impl.BankAccountServiceImpl;
+
+/**
+ * Invalidates the cached bank account directory in {@link BankAccountServiceImpl} whenever a
+ * company account is created or removed, once the change is committed.
+ */
+@Component
+public class BankAccountDirectoryListener {
+    private final ObjectProvider<BankAccountServiceImpl> bankAccountService;
+
+    public BankAccountDirectoryListener(ObjectProvider<BankAccountServiceImpl> bankAccountService) {
+        this.bankAccountService = bankAccountService;
+    }
+
+    @PostPersist
+    @PostRemove
+    void onCompanyAccountChange(Account account) {
+        if (account.getCompany() == null) return;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate();
+                }
+            }
+        );
+    }
+
+    private void invalidate() {
+        bankAccountService.ifAvailable(BankAccountServiceImpl::invalidateBankAccountDirectory);
+    }
+}
@@ -0,0 +1,31 @@
+package rs.banka4.user_service.domain.account.db;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One slice of the not-yet-rolled-up balance movements of a bank-owned {@link Account}. Movements
+ * on bank accounts are spread over several of these rows instead of updating the account row
+ * directly, so concurrent payments do not all queue on the same row lock. The deltas are
+ * periodically folded into {@link Account#getBalance()}.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "bank_account_shards")
+public class BankAccountShard {
+    @EmbeddedId
+    private BankAccountShardId id;
+
+    @Column(nullable = false)
+    private BigDecimal balanceDelta;
+}
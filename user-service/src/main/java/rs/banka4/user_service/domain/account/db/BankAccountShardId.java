@@ -0,0 +1,26 @@
+package rs.banka4.user_service.domain.account.db;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class BankAccountShardId implements Serializable {
+    @Column(
+        name = "account_id",
+        nullable = false
+    )
+    private UUID accountId;
+
+    @Column(nullable = false)
+    private int shard;
+}
@@ -0,0 +1,9 @@
+package rs.banka4.user_service.domain.account.db;
+
+/**
+ * Side of a {@link LedgerEntry}. A debit takes money out of an account, a credit puts it in.
+ */
+public enum LedgerDirection {
+    DEBIT,
+    CREDIT
+}
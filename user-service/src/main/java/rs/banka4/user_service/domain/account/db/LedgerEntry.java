@@ -0,0 +1,89 @@
+package rs.banka4.user_service.domain.account.db;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import rs.banka4.rafeisen.common.currency.CurrencyCode;
+
+/**
+ * One side of an immutable double-entry journal record. Every movement of money is appended as a
+ * debit and a credit of the same amount and currency, sharing a {@code journalId}.
+ *
+ * <p>
+ * Entries are never changed after insertion, except for {@code projectedAt}, which marks the entry
+ * as folded into {@link Account#getBalance()} by the ledger projector.
+ * </p>
+ */
+@Entity
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "ledger_entries")
+public class LedgerEntry {
+    @Id
+    @GeneratedValue(
+        strategy = GenerationType.SEQUENCE,
+        generator = "ledger_entries_seq"
+    )
+    @SequenceGenerator(
+        name = "ledger_entries_seq",
+        sequenceName = "ledger_entries_seq",
+        allocationSize = 50
+    )
+    private Long id;
+
+    @Column(
+        nullable = false,
+        updatable = false
+    )
+    private UUID journalId;
+
+    @Column(
+        nullable = false,
+        updatable = false
+    )
+    private UUID accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(
+        nullable = false,
+        updatable = false
+    )
+    private LedgerDirection direction;
+
+    @Column(
+        nullable = false,
+        updatable = false
+    )
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(
+        nullable = false,
+        updatable = false
+    )
+    private CurrencyCode.Code currency;
+
+    @Column(
+        nullable = false,
+        updatable = false
+    )
+    private LocalDateTime createdAt;
+
+    @Column(updatable = false)
+    private LocalDateTime projectedAt;
+}
@@ -0,0 +1,30 @@
+package rs.banka4.user_service.domain.account.db;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Running total of outgoing payments from an account within a single {@link SpendPeriod}. Kept up
+ * to date in the same transaction as the payment, so that daily and monthly limit checks are a
+ * primary-key lookup rather than a sum over the account history.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "account_spend_counters")
+public class SpendCounter {
+    @EmbeddedId
+    private SpendCounterId id;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+}
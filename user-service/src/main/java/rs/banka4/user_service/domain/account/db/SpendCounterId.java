@@ -0,0 +1,40 @@
+package rs.banka4.user_service.domain.account.db;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class SpendCounterId implements Serializable {
+    @Column(
+        name = "account_id",
+        nullable = false
+    )
+    private UUID accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(
+        nullable = false,
+        length = 10
+    )
+    private SpendPeriod period;
+
+    @Column(nullable = false)
+    private LocalDate periodStart;
+
+    public static SpendCounterId of(UUID accountId, SpendPeriod period, LocalDate date) {
+        return new SpendCounterId(accountId, period, period.startOf(date));
+    }
+}
@@ -0,0 +1,21 @@
+package rs.banka4.user_service.domain.account.db;
+
+import java.time.LocalDate;
+
+/**
+ * Window over which outgoing payments are summed up for limit checks.
+ */
+public enum SpendPeriod {
+    DAY,
+    MONTH;
+
+    /**
+     * @return the first day of the period {@code date} falls in.
+     */
+    public LocalDate startOf(LocalDate date) {
+        return switch (this) {
+        case DAY -> date;
+        case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+}
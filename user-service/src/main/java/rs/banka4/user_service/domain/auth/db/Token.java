@@ -1,59 +0,0 @@
-package rs.banka4.user_service.domain.auth.db;
-
-import jakarta.persistence.*;
-import java.util.Objects;
-import java.util.UUID;
-import lombok.*;
-import org.hibernate.proxy.HibernateProxy;
-
-@Entity(name = "tokens")
-@Getter
-@Setter
-@RequiredArgsConstructor
-@AllArgsConstructor
-@Builder
-public class Token {
-
-    @Id
-    @Builder.Default
-    private UUID id = UUID.randomUUID();
-
-    @Column(unique = true)
-    private String token;
-
-    @Builder.Default
-    public boolean valid = Boolean.FALSE;
-
-    @Override
-    public final boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null) return false;
-        Class<?> oEffectiveClass =
-            o instanceof HibernateProxy
-                ? ((HibernateProxy) o).getHibernateLazyInitializer()
-                    .getPersistentClass()
-                : o.getClass();
-        Class<?> thisEffectiveClass =
-            this instanceof HibernateProxy
-                ? ((HibernateProxy) this).getHibernateLazyInitializer()
-                    .getPersistentClass()
-                : this.getClass();
-        if (thisEffectiveClass != oEffectiveClass) return false;
-        Token token = (Token) o;
-        return getId() != null && Objects.equals(getId(), token.getId());
-    }
-
-    @Override
-    public final int hashCode() {
-        return this instanceof HibernateProxy
-            ? ((HibernateProxy) this).getHibernateLazyInitializer()
-                .getPersistentClass()
-                .hashCode()
-            : getClass().hashCode();
-    }
-
-    @Override
-    public String toString() {
-        return "Token{" + "id='" + id + '\'' + ", token='" + token + '\'' + '}';
-    }
-}
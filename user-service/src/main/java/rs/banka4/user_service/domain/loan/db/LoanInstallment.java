@@ -25,6 +25,8 @@ public class LoanInstallment {
     private Loan loan;
 
     private BigDecimal installmentAmount;
+    /** Part of {@link #installmentAmount} that repays principal, if the loan has a schedule. */
+    private BigDecimal principalAmount;
     private BigDecimal interestRateAmount;
     private LocalDate expectedDueDate;
     private LocalDate actualDueDate;
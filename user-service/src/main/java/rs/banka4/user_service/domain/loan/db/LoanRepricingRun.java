@@ -0,0 +1,65 @@
+package rs.banka4.user_service.domain.loan.db;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Audit record of one repricing of variable-rate loans: the interest rate variant that was applied
+ * and how many loans and unpaid installments it changed.
+ */
+@Entity
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "loan_repricing_runs")
+public class LoanRepricingRun {
+    @Id
+    @Builder.Default
+    private UUID id = UUID.randomUUID();
+
+    @Column(
+        nullable = false,
+        updatable = false
+    )
+    private String runKey;
+
+    @Column(
+        nullable = false,
+        updatable = false
+    )
+    private BigDecimal interestRateVariant;
+
+    @Column(
+        nullable = false,
+        updatable = false
+    )
+    private int loansRepriced;
+
+    @Column(
+        nullable = false,
+        updatable = false
+    )
+    private int installmentsRepriced;
+
+    @Column(
+        nullable = false,
+        updatable = false
+    )
+    private LocalDateTime startedAt;
+
+    @Column(
+        nullable = false,
+        updatable = false
+    )
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,33 @@
+package rs.banka4.user_service.domain.loan.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record AmortizationPeriodDto(
+    @Schema(
+        description = "Number of the installment, starting from 1",
+        example = "1"
+    ) int number,
+    @Schema(
+        description = "Date the installment is due",
+        example = "2025-04-01"
+    ) LocalDate dueDate,
+    @Schema(
+        description = "Amount to be paid in this installment",
+        example = "8606.64"
+    ) BigDecimal installment,
+    @Schema(
+        description = "Part of the installment that repays the principal",
+        example = "8064.97"
+    ) BigDecimal principal,
+    @Schema(
+        description = "Part of the installment that pays interest",
+        example = "541.67"
+    ) BigDecimal interest,
+    @Schema(
+        description = "Principal still owed after this installment",
+        example = "91935.03"
+    ) BigDecimal remainingBalance
+) {
+}
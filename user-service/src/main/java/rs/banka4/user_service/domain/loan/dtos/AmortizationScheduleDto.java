@@ -0,0 +1,22 @@
+package rs.banka4.user_service.domain.loan.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import java.util.List;
+
+public record AmortizationScheduleDto(
+    @Schema(
+        description = "Regular monthly installment",
+        example = "8606.64"
+    ) BigDecimal monthlyInstallment,
+    @Schema(
+        description = "Interest paid over the whole loan",
+        example = "3279.68"
+    ) BigDecimal totalInterest,
+    @Schema(
+        description = "Total of all installments",
+        example = "103279.68"
+    ) BigDecimal totalRepayment,
+    @Schema(description = "Installments in order of due date") List<AmortizationPeriodDto> periods
+) {
+}
@@ -0,0 +1,70 @@
+package rs.banka4.user_service.domain.notification.db;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * A message waiting to be published to RabbitMQ. {@code payload} holds the JSON body exactly as it
+ * will be sent, and {@code payloadType} the class name the JSON message converter would have put
+ * in the type header.
+ */
+@Entity
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "notification_outbox")
+public class OutboxMessage {
+    @Id
+    @GeneratedValue(
+        strategy = GenerationType.SEQUENCE,
+        generator = "notification_outbox_seq"
+    )
+    @SequenceGenerator(
+        name = "notification_outbox_seq",
+        sequenceName = "notification_outbox_seq",
+        allocationSize = 50
+    )
+    private Long id;
+
+    @Column(
+        nullable = false,
+        updatable = false
+    )
+    private String exchange;
+
+    @Column(
+        nullable = false,
+        updatable = false
+    )
+    private String routingKey;
+
+    @Column(
+        nullable = false,
+        updatable = false
+    )
+    private String payloadType;
+
+    @Column(
+        nullable = false,
+        updatable = false,
+        columnDefinition = "TEXT"
+    )
+    private String payload;
+
+    @Column(
+        nullable = false,
+        updatable = false
+    )
+    private LocalDateTime createdAt;
+}
@@ -6,6 +6,7 @@ import java.util.Objects;
 import java.util.UUID;
 import lombok.*;
 import org.hibernate.proxy.HibernateProxy;
+import org.springframework.data.domain.Persistable;
 import rs.banka4.user_service.domain.account.db.Account;
 
 @Entity
@@ -15,7 +16,7 @@ import rs.banka4.user_service.domain.account.db.Account;
 @Setter
 @RequiredArgsConstructor
 @Table(name = "transactions")
-public class Transaction {
+public class Transaction implements Persistable<UUID> {
 
     @Id
     @Builder.Default
@@ -123,6 +124,28 @@ public class Transaction {
     @Builder.Default
     private boolean isTransfer = false;
 
+    /**
+     * Transactions are only ever inserted once, with an application-assigned ID. Tracking that here
+     * lets {@code save} go straight to {@code persist} instead of issuing a {@code SELECT} to decide
+     * between insert and merge, which also keeps inserts eligible for JDBC batching.
+     */
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean newEntity = true;
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,39 @@
+package rs.banka4.user_service.domain.transaction.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.math.BigDecimal;
+
+@Schema(description = "A single payment within a bulk payment order")
+public record BulkPaymentItemDto(
+    @Schema(
+        description = "To account number",
+        example = "102-394438340549"
+    )
+    @NotBlank String toAccount,
+    @Schema(
+        description = "From amount",
+        example = "1.00"
+    )
+    @NotNull
+    @Positive BigDecimal fromAmount,
+    @Schema(
+        description = "Recipient name",
+        example = "Pera Perić"
+    ) String recipient,
+    @Schema(
+        description = "Payment code (3-digit, e.g., 2xx)",
+        example = "240"
+    ) String paymentCode,
+    @Schema(
+        description = "Reference number",
+        example = "1176926"
+    ) String referenceNumber,
+    @Schema(
+        description = "Payment purpose (optional)",
+        example = "Zarada za mart"
+    ) String paymentPurpose
+) {
+}
@@ -0,0 +1,17 @@
+package rs.banka4.user_service.domain.transaction.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of a single payment within a bulk payment order")
+public record BulkPaymentItemResultDto(
+    @Schema(
+        description = "Index of the payment in the submitted order",
+        example = "0"
+    ) int index,
+    @Schema(description = "Created transaction, if the payment was executed") TransactionDto transaction,
+    @Schema(
+        description = "Error code, if the payment was rejected",
+        example = "InsufficientFunds"
+    ) String errorCode
+) {
+}
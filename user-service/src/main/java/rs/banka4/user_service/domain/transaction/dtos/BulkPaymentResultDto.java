@@ -0,0 +1,18 @@
+package rs.banka4.user_service.domain.transaction.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Outcome of a bulk payment order")
+public record BulkPaymentResultDto(
+    @Schema(
+        description = "Number of executed payments",
+        example = "998"
+    ) int executed,
+    @Schema(
+        description = "Number of rejected payments",
+        example = "2"
+    ) int rejected,
+    @Schema(description = "Per-payment outcomes, in submission order") List<BulkPaymentItemResultDto> results
+) {
+}
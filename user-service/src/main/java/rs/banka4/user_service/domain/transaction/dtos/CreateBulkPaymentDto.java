@@ -0,0 +1,27 @@
+package rs.banka4.user_service.domain.transaction.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+@Schema(description = "DTO for submitting many payments from one account at once, e.g. payroll")
+public record CreateBulkPaymentDto(
+    @Schema(
+        description = "From account number, shared by all payments",
+        example = "102-39443942389"
+    )
+    @NotBlank String fromAccount,
+    @Schema(description = "Payments to execute, in order")
+    @NotEmpty
+    @Size(max = CreateBulkPaymentDto.MAX_PAYMENTS)
+    List<@Valid @NotNull BulkPaymentItemDto> payments,
+    @NotBlank(message = "TOTP code content is required")
+    @NotNull(message = "TOTP code cannot be null") String otpCode
+) {
+    /** Upper bound on the size of a single bulk order, to bound lock set and request size. */
+    public static final int MAX_PAYMENTS = 5000;
+}
@@ -0,0 +1,27 @@
+package rs.banka4.user_service.domain.transaction.dtos;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Output formats of the transaction export endpoint.
+ */
+public enum TransactionExportFormat {
+    CSV(new MediaType("text", "csv"), "csv"),
+    NDJSON(new MediaType("application", "x-ndjson"), "ndjson");
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    TransactionExportFormat(MediaType mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+}
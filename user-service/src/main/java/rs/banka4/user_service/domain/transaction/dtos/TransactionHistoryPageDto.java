@@ -0,0 +1,14 @@
+package rs.banka4.user_service.domain.transaction.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "One page of a transaction history, newest first")
+public record TransactionHistoryPageDto(
+    @Schema(description = "Transactions on this page") List<TransactionDto> content,
+    @Schema(
+        description = "Cursor of the next page, or null if this is the last page",
+        example = "MjAyNS0wMy0xNVQxMDozMDowMHw1ZjZkYjA5ZS0wNjQzLTQ5NjUtYjBjMy0xZmQ0YzQ4YjY4MzM"
+    ) String nextCursor
+) {
+}
@@ -0,0 +1,11 @@
+package rs.banka4.user_service.exceptions;
+
+import java.util.Map;
+import org.springframework.http.HttpStatus;
+import rs.banka4.rafeisen.common.exceptions.BaseApiException;
+
+public class InvalidCursor extends BaseApiException {
+    public InvalidCursor(String cursor) {
+        super(HttpStatus.BAD_REQUEST, Map.of("cursor", cursor));
+    }
+}
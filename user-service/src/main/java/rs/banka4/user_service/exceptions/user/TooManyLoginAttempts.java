@@ -0,0 +1,10 @@
+package rs.banka4.user_service.exceptions.user;
+
+import org.springframework.http.HttpStatus;
+import rs.banka4.rafeisen.common.exceptions.BaseApiException;
+
+public class TooManyLoginAttempts extends BaseApiException {
+    public TooManyLoginAttempts() {
+        super(HttpStatus.TOO_MANY_REQUESTS, null);
+    }
+}
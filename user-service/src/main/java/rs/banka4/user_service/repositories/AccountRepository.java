@@ -1,16 +1,21 @@
 package rs.banka4.user_service.repositories;
 
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import rs.banka4.user_service.domain.account.db.Account;
 import rs.banka4.user_service.domain.company.db.Company;
 import rs.banka4.user_service.domain.user.client.db.Client;
+import rs.banka4.user_service.utils.UuidOrder;
 
 @Repository
 public interface AccountRepository extends
@@ -27,4 +32,33 @@ public interface AccountRepository extends
     List<Account> findAllByCompany(@Param("company") Company company);
 
     boolean existsByClient(Client client);
+
+    /**
+     * Locks all the given accounts for writing in a single statement. Rows are locked in ID order,
+     * which single payments match by sorting with {@link UuidOrder#UNSIGNED}, so bulk and single
+     * payments cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber IN :accountNumbers ORDER BY a.id")
+    List<Account> lockAllByAccountNumberIn(
+        @Param("accountNumbers") Collection<String> accountNumbers
+    );
+
+    /**
+     * Locks the accounts that the given loan installments are paid from, in ID order, like
+     * {@link #lockAllByAccountNumberIn}. Locking them before the installments are loaded means the
+     * balances a job debits are read under the lock, not from a snapshot another worker may be
+     * debiting at the same time.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(
+        """
+            SELECT a FROM Account a
+             WHERE a.id IN (
+                SELECT l.account.id FROM LoanInstallment li JOIN li.loan l WHERE li.id IN :ids
+             )
+             ORDER BY a.id
+            """
+    )
+    List<Account> lockAllByLoanInstallmentIdIn(@Param("ids") Collection<UUID> installmentIds);
 }
@@ -0,0 +1,76 @@
+package rs.banka4.user_service.repositories;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import rs.banka4.user_service.domain.account.db.BankAccountShard;
+import rs.banka4.user_service.domain.account.db.BankAccountShardId;
+
+@Repository
+public interface BankAccountShardRepository extends
+    JpaRepository<BankAccountShard, BankAccountShardId> {
+    /**
+     * Atomically adds {@code delta} to the given shard, creating it if needed.
+     */
+    @Modifying
+    @Query(
+        value = """
+            INSERT INTO bank_account_shards (account_id, shard, balance_delta)
+            VALUES (:accountId, :shard, :delta)
+            ON CONFLICT (account_id, shard)
+            DO UPDATE SET balance_delta = bank_account_shards.balance_delta + EXCLUDED.balance_delta
+            """,
+        nativeQuery = true
+    )
+    void addDelta(
+        @Param("accountId") UUID accountId,
+        @Param("shard") int shard,
+        @Param("delta") BigDecimal delta
+    );
+
+    /**
+     * @return the sum of all deltas for the given account that were not rolled up yet.
+     */
+    @Query(
+        "SELECT COALESCE(SUM(s.balanceDelta), 0) FROM BankAccountShard s WHERE s.id.accountId = :accountId"
+    )
+    BigDecimal getPendingDelta(@Param("accountId") UUID accountId);
+
+    /**
+     * Folds all non-zero shard deltas into their account balances and resets them, in a single
+     * statement. Shards that a writer holds are skipped and left for the next roll-up, so the roll-up
+     * never waits on writers, nor they on it for longer than it takes to drain one shard.
+     *
+     * @return the number of accounts whose balance changed.
+     */
+    @Modifying
+    @Query(
+        value = """
+            WITH pending AS (
+                SELECT account_id, shard, balance_delta
+                  FROM bank_account_shards
+                 WHERE balance_delta <> 0
+                 ORDER BY account_id, shard
+                   FOR UPDATE SKIP LOCKED
+            ), drained AS (
+                UPDATE bank_account_shards s
+                   SET balance_delta = s.balance_delta - p.balance_delta
+                  FROM pending p
+                 WHERE s.account_id = p.account_id AND s.shard = p.shard
+                RETURNING p.account_id, p.balance_delta
+            )
+            UPDATE accounts a
+               SET balance = a.balance + d.total
+              FROM (SELECT account_id, SUM(balance_delta) AS total
+                      FROM drained
+                     GROUP BY account_id) d
+             WHERE a.id = d.account_id
+            """,
+        nativeQuery = true
+    )
+    int rollUp();
+}
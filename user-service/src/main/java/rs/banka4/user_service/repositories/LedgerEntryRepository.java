@@ -0,0 +1,118 @@
+package rs.banka4.user_service.repositories;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import rs.banka4.user_service.domain.account.db.LedgerEntry;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+    List<LedgerEntry> findAllByJournalId(UUID journalId);
+
+    /**
+     * @return the balance of the account as recorded by the journal, i.e. credits minus debits.
+     */
+    @Query(
+        """
+            SELECT COALESCE(SUM(
+                       CASE WHEN e.direction = rs.banka4.user_service.domain.account.db.LedgerDirection.CREDIT
+                            THEN e.amount ELSE -e.amount END
+                   ), 0)
+              FROM LedgerEntry e
+             WHERE e.accountId = :accountId
+            """
+    )
+    BigDecimal sumByAccountId(@Param("accountId") UUID accountId);
+
+    /**
+     * @return the part of {@link #sumByAccountId(UUID)} not yet folded into the account balance.
+     */
+    @Query(
+        """
+            SELECT COALESCE(SUM(
+                       CASE WHEN e.direction = rs.banka4.user_service.domain.account.db.LedgerDirection.CREDIT
+                            THEN e.amount ELSE -e.amount END
+                   ), 0)
+              FROM LedgerEntry e
+             WHERE e.accountId = :accountId AND e.projectedAt IS NULL
+            """
+    )
+    BigDecimal sumPendingByAccountId(@Param("accountId") UUID accountId);
+
+    /**
+     * Locks up to {@code batchSize} unprojected entries, oldest first. Entries locked by a
+     * concurrent projector are skipped.
+     *
+     * @return the IDs of the locked entries.
+     */
+    @Query(
+        value = """
+            SELECT id
+              FROM ledger_entries
+             WHERE projected_at IS NULL
+             ORDER BY id
+             LIMIT :batchSize
+               FOR UPDATE SKIP LOCKED
+            """,
+        nativeQuery = true
+    )
+    List<Long> lockNextBatch(@Param("batchSize") int batchSize);
+
+    /**
+     * Locks the accounts the given entries post to, in ID order, which is the order payments lock
+     * accounts in as well.
+     *
+     * @return the IDs of the locked accounts.
+     */
+    @Query(
+        value = """
+            SELECT a.id
+              FROM accounts a
+             WHERE a.id IN (SELECT e.account_id
+                              FROM ledger_entries e
+                             WHERE e.id IN (:entryIds))
+             ORDER BY a.id
+               FOR UPDATE
+            """,
+        nativeQuery = true
+    )
+    List<UUID> lockAccountsOf(@Param("entryIds") List<Long> entryIds);
+
+    /**
+     * Folds the given entries into their account balances and marks them as projected, in a single
+     * statement. Debits were already held out of the available balance when they were appended, so
+     * only credits are added to it here. The caller must hold the locks taken by
+     * {@link #lockNextBatch(int)} and {@link #lockAccountsOf(List)}.
+     *
+     * @return the number of accounts whose balance changed.
+     */
+    @Modifying
+    @Query(
+        value = """
+            WITH marked AS (
+                UPDATE ledger_entries e
+                   SET projected_at = now()
+                 WHERE e.id IN (:entryIds)
+                RETURNING e.account_id, e.direction, e.amount
+            )
+            UPDATE accounts a
+               SET balance = a.balance + t.balance_delta,
+                   available_balance = a.available_balance + t.available_delta
+              FROM (SELECT account_id,
+                           SUM(CASE WHEN direction = 'CREDIT' THEN amount ELSE -amount END)
+                               AS balance_delta,
+                           SUM(CASE WHEN direction = 'CREDIT' THEN amount ELSE 0 END)
+                               AS available_delta
+                      FROM marked
+                     GROUP BY account_id) t
+             WHERE a.id = t.account_id
+            """,
+        nativeQuery = true
+    )
+    int project(@Param("entryIds") List<Long> entryIds);
+}
@@ -1,13 +1,16 @@
 package rs.banka4.user_service.repositories;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import rs.banka4.user_service.domain.loan.db.Loan;
 import rs.banka4.user_service.domain.loan.db.LoanInstallment;
 import rs.banka4.user_service.domain.loan.db.PaymentStatus;
 
@@ -15,26 +18,85 @@ import rs.banka4.user_service.domain.loan.db.PaymentStatus;
 public interface LoanInstallmentRepository extends
     JpaRepository<rs.banka4.user_service.domain.loan.db.LoanInstallment, UUID>,
     JpaSpecificationExecutor<LoanInstallment> {
-    List<LoanInstallment> findByExpectedDueDateAndPaymentStatus(
-        LocalDate date,
-        PaymentStatus status
-    );
-
-    List<LoanInstallment> findByPaymentStatusAndExpectedDueDate(
+    List<LoanInstallment> findByPaymentStatusAndExpectedDueDateIsLessThan(
         PaymentStatus status,
         LocalDate date
     );
 
-    List<LoanInstallment> findByPaymentStatusAndExpectedDueDateIsLessThan(
-        PaymentStatus status,
+    /**
+     * The first installment of {@code loan} due after {@code date}. Loans approved with a full
+     * amortization schedule have one until their last installment.
+     */
+    Optional<LoanInstallment> findFirstByLoanAndExpectedDueDateAfterOrderByExpectedDueDateAsc(
+        Loan loan,
         LocalDate date
     );
 
+    /**
+     * Keyset page of IDs of installments with the given status due between {@code from} and
+     * {@code to} (inclusive), with IDs greater than {@code after} and at most {@code upTo}, ordered
+     * by ID. Does not lock.
+     */
+    @Query(
+        value = """
+            SELECT li.id
+              FROM loan_installments li
+             WHERE li.payment_status = :status
+               AND li.expected_due_date BETWEEN :from AND :to
+               AND li.id > :after
+               AND li.id <= :upTo
+             ORDER BY li.id
+             LIMIT :limit
+            """,
+        nativeQuery = true
+    )
+    List<UUID> findIdsAfter(
+        @Param("status") String status,
+        @Param("from") LocalDate from,
+        @Param("to") LocalDate to,
+        @Param("after") UUID after,
+        @Param("upTo") UUID upTo,
+        @Param("limit") int limit
+    );
+
+    /**
+     * Locks those of {@code ids} that still match the selection. Rows locked by a concurrent run
+     * are skipped rather than waited on.
+     */
     @Query(
-        "SELECT li FROM LoanInstallment li WHERE li.paymentStatus = :status AND li.expectedDueDate > :threshold"
+        value = """
+            SELECT li.id
+              FROM loan_installments li
+             WHERE li.id IN (:ids)
+               AND li.payment_status = :status
+               AND li.expected_due_date BETWEEN :from AND :to
+               FOR UPDATE SKIP LOCKED
+            """,
+        nativeQuery = true
     )
-    List<LoanInstallment> findRecentDelayedInstallments(
-        @Param("status") PaymentStatus status,
-        @Param("threshold") LocalDate threshold
+    List<UUID> lockClaimable(
+        @Param("ids") Collection<UUID> ids,
+        @Param("status") String status,
+        @Param("from") LocalDate from,
+        @Param("to") LocalDate to
     );
+
+    /**
+     * Loads installments together with everything the loan jobs touch, in one query.
+     */
+    @Query(
+        """
+            SELECT li FROM LoanInstallment li
+              JOIN FETCH li.loan l
+              LEFT JOIN FETCH l.interestRate
+              JOIN FETCH l.account a
+              JOIN FETCH a.currency
+              LEFT JOIN FETCH a.client
+              LEFT JOIN FETCH a.company
+              LEFT JOIN FETCH a.employee
+             WHERE li.id IN :ids
+             ORDER BY li.id
+            """
+    )
+    List<LoanInstallment> findAllWithLoanByIdIn(@Param("ids") Collection<UUID> ids);
 }
@@ -0,0 +1,27 @@
+package rs.banka4.user_service.repositories;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import rs.banka4.user_service.domain.notification.db.OutboxMessage;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+    /**
+     * Locks the oldest {@code batchSize} messages. Rows locked by another relay are skipped, so
+     * several instances can drain the outbox at once without publishing a message twice.
+     */
+    @Query(
+        value = """
+            SELECT *
+              FROM notification_outbox
+             ORDER BY id
+             LIMIT :batchSize
+               FOR UPDATE SKIP LOCKED
+            """,
+        nativeQuery = true
+    )
+    List<OutboxMessage> lockNextBatch(@Param("batchSize") int batchSize);
+}
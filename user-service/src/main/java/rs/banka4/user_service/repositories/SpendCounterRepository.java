@@ -0,0 +1,35 @@
+package rs.banka4.user_service.repositories;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import rs.banka4.user_service.domain.account.db.SpendCounter;
+import rs.banka4.user_service.domain.account.db.SpendCounterId;
+
+@Repository
+public interface SpendCounterRepository extends JpaRepository<SpendCounter, SpendCounterId> {
+    /**
+     * Atomically adds {@code amount} to the counter for the given period, creating it if needed.
+     */
+    @Modifying
+    @Query(
+        value = """
+            INSERT INTO account_spend_counters (account_id, period, period_start, amount)
+            VALUES (:accountId, :period, :periodStart, :amount)
+            ON CONFLICT (account_id, period, period_start)
+            DO UPDATE SET amount = account_spend_counters.amount + EXCLUDED.amount
+            """,
+        nativeQuery = true
+    )
+    void increment(
+        @Param("accountId") UUID accountId,
+        @Param("period") String period,
+        @Param("periodStart") LocalDate periodStart,
+        @Param("amount") BigDecimal amount
+    );
+}
@@ -1,11 +0,0 @@
-package rs.banka4.user_service.repositories;
-
-import java.util.Optional;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
-import rs.banka4.user_service.domain.auth.db.Token;
-
-@Repository
-public interface TokenRepository extends JpaRepository<Token, String> {
-    Optional<Token> findByToken(String token);
-}
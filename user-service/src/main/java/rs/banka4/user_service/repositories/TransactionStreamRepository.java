@@ -0,0 +1,21 @@
+package rs.banka4.user_service.repositories;
+
+import java.util.stream.Stream;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import rs.banka4.user_service.domain.transaction.db.Transaction;
+
+public interface TransactionStreamRepository {
+    /**
+     * Streams every transaction matching {@code specification} in {@code sort} order from a
+     * server-side cursor, so rows are fetched from the database in batches as the stream is
+     * consumed rather than all at once.
+     *
+     * <p>
+     * The stream must be consumed and closed within the transaction that opened it. Returned
+     * entities are read-only and stay attached to the persistence context until the caller detaches
+     * them.
+     * </p>
+     */
+    Stream<Transaction> streamAll(Specification<Transaction> specification, Sort sort);
+}
@@ -0,0 +1,33 @@
+package rs.banka4.user_service.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import rs.banka4.user_service.domain.transaction.db.Transaction;
+
+public class TransactionStreamRepositoryImpl implements TransactionStreamRepository {
+    private static final int FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Transaction> streamAll(Specification<Transaction> specification, Sort sort) {
+        final var criteriaBuilder = entityManager.getCriteriaBuilder();
+        final var query = criteriaBuilder.createQuery(Transaction.class);
+        final var root = query.from(Transaction.class);
+
+        final var predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) query.where(predicate);
+        query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+
+        return entityManager.createQuery(query)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultStream();
+    }
+}
@@ -3,17 +3,20 @@ package rs.banka4.user_service.security;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import rs.banka4.rafeisen.common.security.AuthenticatedBankUserAuthentication;
 import rs.banka4.rafeisen.common.security.AuthenticatedBankUserPrincipal;
 import rs.banka4.user_service.repositories.ClientRepository;
 import rs.banka4.user_service.repositories.EmployeeRepository;
+import rs.banka4.user_service.utils.passwords.PasswordHasher;
 
 @RequiredArgsConstructor
 @Component
@@ -21,7 +24,8 @@ public class BankUserAuthProvider implements AuthenticationProvider {
     private static final Logger LOGGER = LoggerFactory.getLogger(BankUserAuthProvider.class);
     private final ClientRepository clientRepository;
     private final EmployeeRepository employeeRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final LoginAttemptLimiter loginAttemptLimiter;
 
     @Override
     public Authentication authenticate(Authentication maybeAuth) throws AuthenticationException {
@@ -32,6 +36,9 @@ public class BankUserAuthProvider implements AuthenticationProvider {
             );
 
         final var principal = auth.getPrincipal();
+        final var clientAddress = clientAddress();
+        loginAttemptLimiter.checkNotLocked(principal.userType(), principal.email(), clientAddress);
+
         final var maybeUser = switch (principal.userType()) {
         /* DO NOT ADD A DEFAULT CASE. */
         case CLIENT -> clientRepository.findByEmail(principal.email());
@@ -39,6 +46,10 @@ public class BankUserAuthProvider implements AuthenticationProvider {
         };
         if (!maybeUser.isPresent()) {
             LOGGER.debug("Failed to find user {} by email", principal);
+            /*
+             * Not counted: there is no account to protect, and guesses at unknown emails would
+             * evict the counts of real ones. The per-IP rate limit covers them.
+             */
             throw new UsernameNotFoundException("User %s not found".formatted(principal));
         }
         final var user = maybeUser.get();
@@ -47,10 +58,16 @@ public class BankUserAuthProvider implements AuthenticationProvider {
          * TODO(arsen): Need to deal with "timing attacks", and to allow password upgrading, if
          * anyone cares. I doubt anyone does, to be frank.
          */
-        if (!passwordEncoder.matches(auth.getCredentials(), user.getPassword())) {
+        if (!passwordHasher.matches(auth.getCredentials(), user.getPassword())) {
             LOGGER.debug("User {} provided incorrect password", principal);
+            loginAttemptLimiter.recordFailure(
+                principal.userType(),
+                principal.email(),
+                clientAddress
+            );
             throw new BadCredentialsException("Incorrect password");
         }
+        loginAttemptLimiter.recordSuccess(principal.userType(), principal.email(), clientAddress);
 
         return new AuthenticatedBankUserAuthentication(
             new AuthenticatedBankUserPrincipal(principal.userType(), user.getId()),
@@ -59,6 +76,15 @@ public class BankUserAuthProvider implements AuthenticationProvider {
         );
     }
 
+    /** Address of the client logging in, or {@code null} outside of a request. */
+    @Nullable
+    private static String clientAddress() {
+        final var attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) return null;
+        return servletAttributes.getRequest()
+            .getRemoteAddr();
+    }
+
     @Override
     public boolean supports(Class<?> authentication) {
         return PreAuthBankUserAuthentication.class.equals(authentication);
@@ -0,0 +1,137 @@
+package rs.banka4.user_service.security;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.time.Duration;
+import java.util.Locale;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import rs.banka4.rafeisen.common.security.UserType;
+import rs.banka4.user_service.exceptions.user.TooManyLoginAttempts;
+
+/**
+ * Counts failed logins per account and client address, in memory, and locks the account out for
+ * that address after {@code max-failures} of them, so that guessing at a password is turned away
+ * before it reaches the database or the password hash. Failures are also counted per account
+ * across all addresses, and after {@code max-account-failures} of those the account is locked out
+ * everywhere, so that spreading guesses over many addresses does not get around the limit.
+ *
+ * <p>
+ * The {@code lockout} period runs from the first failure, so an attack cannot keep an account
+ * locked by failing again, and an attacker at one address does not lock the owner out at another
+ * until the much higher account-wide limit is reached. A successful login clears the count for its
+ * address only. Only failures against existing accounts should be recorded: counts are kept per
+ * instance, for at most {@code max-accounts} keys at once, and guesses at unknown emails must not
+ * evict real counts.
+ * </p>
+ */
+@Component
+public class LoginAttemptLimiter {
+    private record Failures(
+        int count,
+        long firstNanos
+    ) {
+    }
+
+    private final int maxFailures;
+    private final int maxAccountFailures;
+    private final long lockoutNanos;
+    private final Ticker ticker;
+    private final Cache<String, Failures> failures;
+    private final Cache<String, Failures> accountFailures;
+
+    @Autowired
+    public LoginAttemptLimiter(
+        @Value("${banka4.login.max-failures:5}") int maxFailures,
+        @Value("${banka4.login.max-account-failures:50}") int maxAccountFailures,
+        @Value("${banka4.login.lockout:PT15M}") Duration lockout,
+        @Value("${banka4.login.max-accounts:100000}") long maxAccounts
+    ) {
+        this(maxFailures, maxAccountFailures, lockout, maxAccounts, Ticker.systemTicker());
+    }
+
+    public LoginAttemptLimiter(
+        int maxFailures,
+        int maxAccountFailures,
+        Duration lockout,
+        long maxAccounts,
+        Ticker ticker
+    ) {
+        this.maxFailures = maxFailures;
+        this.maxAccountFailures = maxAccountFailures;
+        this.lockoutNanos = lockout.toNanos();
+        this.ticker = ticker;
+        this.failures = newCounts(lockout, maxAccounts, ticker);
+        this.accountFailures = newCounts(lockout, maxAccounts, ticker);
+    }
+
+    private static Cache<String, Failures> newCounts(
+        Duration lockout,
+        long maxAccounts,
+        Ticker ticker
+    ) {
+        return CacheBuilder.newBuilder()
+            /* Only frees memory; the window itself is timed from the first failure. */
+            .expireAfterWrite(lockout)
+            .maximumSize(maxAccounts)
+            .ticker(ticker)
+            .build();
+    }
+
+    /**
+     * @param clientAddress address the login comes from, or {@code null} if unknown
+     * @throws TooManyLoginAttempts if the account is locked out for {@code clientAddress}, or
+     *         everywhere
+     */
+    public void checkNotLocked(UserType userType, String email, @Nullable String clientAddress) {
+        if (
+            isLocked(failures.getIfPresent(key(userType, email, clientAddress)), maxFailures)
+                || isLocked(
+                    accountFailures.getIfPresent(accountKey(userType, email)),
+                    maxAccountFailures
+                )
+        ) throw new TooManyLoginAttempts();
+    }
+
+    /**
+     * Records a failed login to an existing account.
+     */
+    public void recordFailure(UserType userType, String email, @Nullable String clientAddress) {
+        count(failures, key(userType, email, clientAddress));
+        count(accountFailures, accountKey(userType, email));
+    }
+
+    public void recordSuccess(UserType userType, String email, @Nullable String clientAddress) {
+        failures.invalidate(key(userType, email, clientAddress));
+    }
+
+    private void count(Cache<String, Failures> counts, String key) {
+        counts.asMap()
+            .compute(
+                key,
+                (k, current) -> current == null || isOver(current)
+                    ? new Failures(1, ticker.read())
+                    : new Failures(current.count() + 1, current.firstNanos())
+            );
+    }
+
+    private boolean isLocked(@Nullable Failures current, int limit) {
+        return current != null && !isOver(current) && current.count() >= limit;
+    }
+
+    private boolean isOver(Failures failures) {
+        return ticker.read() - failures.firstNanos() >= lockoutNanos;
+    }
+
+    private static String key(UserType userType, String email, @Nullable String clientAddress) {
+        return accountKey(userType, email) + "@" + clientAddress;
+    }
+
+    private static String accountKey(UserType userType, String email) {
+        return userType + ":" + String.valueOf(email)
+            .toLowerCase(Locale.ROOT);
+    }
+}
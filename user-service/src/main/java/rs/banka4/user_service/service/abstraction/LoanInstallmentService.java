@@ -1,6 +1,7 @@
 package rs.banka4.user_service.service.abstraction;
 
 import org.springframework.data.domain.Page;
+import rs.banka4.user_service.domain.loan.dtos.AmortizationScheduleDto;
 import rs.banka4.user_service.domain.loan.dtos.LoanInstallmentDto;
 
 public interface LoanInstallmentService {
@@ -10,4 +11,6 @@ public interface LoanInstallmentService {
         int size,
         String auth
     );
+
+    AmortizationScheduleDto getScheduleForLoan(Long loanNumber, String auth);
 }
@@ -1,10 +1,14 @@
 package rs.banka4.user_service.service.abstraction;
 
-import java.util.Optional;
-import rs.banka4.user_service.domain.auth.db.Token;
+import java.time.Instant;
 
 public interface TokenService {
-    void invalidateToken(String token);
+    /**
+     * Revokes {@code token} until {@code expiresAt}, after which it is rejected as expired anyway.
+     *
+     * @throws rs.banka4.rafeisen.common.exceptions.jwt.RefreshTokenRevoked if it already was
+     */
+    void invalidateToken(String token, Instant expiresAt);
 
-    Optional<Token> findByToken(String token);
+    boolean isRevoked(String token);
 }
@@ -7,9 +7,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import rs.banka4.user_service.domain.transaction.db.TransactionStatus;
+import rs.banka4.user_service.domain.transaction.dtos.BulkPaymentResultDto;
+import rs.banka4.user_service.domain.transaction.dtos.CreateBulkPaymentDto;
 import rs.banka4.user_service.domain.transaction.dtos.CreatePaymentDto;
 import rs.banka4.user_service.domain.transaction.dtos.CreateTransferDto;
 import rs.banka4.user_service.domain.transaction.dtos.TransactionDto;
+import rs.banka4.user_service.domain.transaction.dtos.TransactionHistoryPageDto;
 
 public interface TransactionService {
     TransactionDto createTransaction(
@@ -22,6 +25,11 @@ public interface TransactionService {
         CreateTransferDto createTransferDto
     );
 
+    BulkPaymentResultDto createBulkPayment(
+        Authentication authentication,
+        CreateBulkPaymentDto createBulkPaymentDto
+    );
+
     Page<TransactionDto> getAllTransactionsForClient(
         String token,
         TransactionStatus paymentStatus,
@@ -31,7 +39,19 @@ public interface TransactionService {
         PageRequest pageRequest
     );
 
+    TransactionHistoryPageDto getTransactionHistoryForClient(
+        String token,
+        TransactionStatus paymentStatus,
+        BigDecimal amount,
+        LocalDate paymentDate,
+        String accountNumber,
+        String cursor,
+        int size
+    );
+
     TransactionDto getTransactionById(String token, UUID transactionId);
 
     Page<TransactionDto> getAllTransfersForClient(String token, PageRequest pageRequest);
+
+    TransactionHistoryPageDto getTransferHistoryForClient(String token, String cursor, int size);
 }
@@ -1,6 +1,5 @@
 package rs.banka4.user_service.service.impl;
 
-import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.*;
@@ -15,6 +14,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import rs.banka4.rafeisen.common.currency.CurrencyCode;
 import rs.banka4.rafeisen.common.utils.specification.SpecificationCombinator;
 import rs.banka4.user_service.domain.account.db.Account;
@@ -58,6 +58,7 @@ public class AccountServiceImpl implements AccountService {
     private final JwtService jwtService;
 
 
+    @Transactional(readOnly = true)
     @Override
     public Set<AccountDto> getAccountsForClient(String token) {
         UUID userId = jwtService.extractUserId(token);
@@ -73,6 +74,7 @@ public class AccountServiceImpl implements AccountService {
             .collect(Collectors.toSet());
     }
 
+    @Transactional(readOnly = true)
     @Override
     public AccountDto getAccount(String token, String accountNumber) {
         UUID userId = jwtService.extractUserId(token);
@@ -141,6 +143,7 @@ public class AccountServiceImpl implements AccountService {
         }
     }
 
+    @Transactional(readOnly = true)
     @Override
     public ResponseEntity<Page<AccountDto>> getAll(
         Authentication auth,
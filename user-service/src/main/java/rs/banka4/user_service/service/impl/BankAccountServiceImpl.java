@@ -1,8 +1,17 @@
 package rs.banka4.user_service.service.impl;
 
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
@@ -29,6 +38,7 @@ import rs.banka4.user_service.service.abstraction.JwtService;
 @RequiredArgsConstructor
 public class BankAccountServiceImpl implements BankAccountService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(BankAccountServiceImpl.class);
     private static final String BANK_COMPANY_NAME = "Raffeisen Bank";
 
     private final CompanyRepository companyRepository;
@@ -36,6 +46,23 @@ public class BankAccountServiceImpl implements BankAccountService {
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
     private final JwtService jwtService;
+    private final BankLedgerService bankLedgerService;
+
+    /**
+     * Currency to bank account ID, {@code null} when invalidated, with the number of
+     * invalidations so far. A rebuild publishes its map only if no invalidation happened while it
+     * ran, so that a rebuild cannot bring back what an invalidation dropped.
+     */
+    private record Directory(
+        long generation,
+        Map<CurrencyCode.Code, UUID> accounts
+    ) {
+    }
+
+    private final AtomicReference<Directory> bankAccountDirectory =
+        new AtomicReference<>(new Directory(0, null));
+    /** ID of the bank's own company. {@code null} until first resolved. */
+    private volatile UUID bankCompanyId;
 
     public List<Account> getBankAccounts() {
         Company bank =
@@ -45,17 +72,111 @@ public class BankAccountServiceImpl implements BankAccountService {
         return accountRepository.findAllByCompany(bank);
     }
 
+    /**
+     * Resolves the bank's account for {@code currency} with a single primary-key lookup, using the
+     * cached currency &rarr; account ID directory.
+     *
+     * @throws AccountNotFound if the bank has no account in the given currency.
+     */
     public Account getBankAccountForCurrency(CurrencyCode.Code currency) {
-        return getBankAccounts().stream()
-            .filter(
-                account -> account.getCurrency()
-                    .getCode()
-                    == currency
-            )
-            .findFirst()
-            .orElseThrow(
-                () -> new AccountNotFound("Bank account for currency " + currency + " not found")
+        UUID accountId = getBankAccountDirectory().get(currency);
+        if (accountId == null) {
+            /* Possibly created since the directory was built. */
+            invalidateBankAccountDirectory();
+            accountId = getBankAccountDirectory().get(currency);
+        }
+        if (accountId == null) throw bankAccountNotFound(currency);
+
+        return accountRepository.findById(accountId)
+            .orElseThrow(() -> {
+                invalidateBankAccountDirectory();
+                return bankAccountNotFound(currency);
+            });
+    }
+
+    private static AccountNotFound bankAccountNotFound(CurrencyCode.Code currency) {
+        return new AccountNotFound("Bank account for currency " + currency + " not found");
+    }
+
+    /**
+     * @return an immutable currency &rarr; bank account ID map, building it if it was invalidated.
+     */
+    public Map<CurrencyCode.Code, UUID> getBankAccountDirectory() {
+        final var current = bankAccountDirectory.get();
+        if (current.accounts() != null) return current.accounts();
+
+        final var built = new EnumMap<CurrencyCode.Code, UUID>(CurrencyCode.Code.class);
+        for (Account account : getBankAccounts()) {
+            built.putIfAbsent(
+                account.getCurrency()
+                    .getCode(),
+                account.getId()
             );
+        }
+        final var directory = Collections.unmodifiableMap(built);
+        /* If invalidated meanwhile, this map may already be stale: use it, but do not keep it. */
+        bankAccountDirectory.compareAndSet(
+            current,
+            new Directory(current.generation(), directory)
+        );
+        return directory;
+    }
+
+    /**
+     * @return whether {@code account} is owned by the bank, whether or not it is the one listed in
+     *         the directory for its currency.
+     */
+    public boolean isBankAccount(Account account) {
+        final var company = account.getCompany();
+        return company != null
+            && company.getId()
+                .equals(getBankCompanyId());
+    }
+
+    private UUID getBankCompanyId() {
+        var id = bankCompanyId;
+        if (id != null) return id;
+
+        id =
+            companyRepository.findByName(BANK_COMPANY_NAME)
+                .orElseThrow(() -> new CompanyNotFound(BANK_COMPANY_NAME))
+                .getId();
+        bankCompanyId = id;
+        return id;
+    }
+
+    /**
+     * Drops the cached bank account directory. It is rebuilt on next use.
+     */
+    public void invalidateBankAccountDirectory() {
+        bankAccountDirectory.updateAndGet(
+            directory -> new Directory(directory.generation() + 1, null)
+        );
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpBankAccountDirectory() {
+        try {
+            getBankAccountDirectory();
+        } catch (CompanyNotFound e) {
+            LOGGER.debug("Bank company not present yet, bank account directory stays cold");
+        }
+    }
+
+    /**
+     * Credits a bank-owned account through the {@link BankLedgerService} sub-ledger rather than by
+     * updating the account row.
+     */
+    public void creditBankAccount(Account bankAccount, BigDecimal amount) {
+        bankLedgerService.post(bankAccount, amount);
+    }
+
+    /**
+     * Debits a bank-owned account through the {@link BankLedgerService} sub-ledger rather than by
+     * updating the account row.
+     */
+    public void debitBankAccount(Account bankAccount, BigDecimal amount) {
+        bankLedgerService.post(bankAccount, amount.negate());
     }
 
     public Page<TransactionDto> getAllTransactionsForBank(
@@ -0,0 +1,129 @@
+package rs.banka4.user_service.service.impl;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import rs.banka4.user_service.domain.account.db.Account;
+import rs.banka4.user_service.repositories.BankAccountShardRepository;
+import rs.banka4.user_service.utils.UuidOrder;
+
+/**
+ * Sharded sub-ledger for the bank's own accounts.
+ *
+ * <p>
+ * Every FX payment, fee and loan installment moves money on one of a handful of bank-owned
+ * accounts. Instead of updating those account rows, movements are recorded as deltas on one of
+ * {@code banka4.bank-ledger.shards} shard rows per account and folded into the account balance by
+ * {@link #rollUp()}. Within a transaction, deltas are buffered per account and written right
+ * before commit, in account ID order, so each transaction holds each shard lock only briefly and
+ * always acquires them in the same order. The roll-up locks shards in that order too, and skips the
+ * ones a writer holds.
+ * </p>
+ *
+ * <p>
+ * Until a roll-up runs, {@link Account#getBalance()} of a bank account lags behind by
+ * {@link #getPendingDelta(Account)}.
+ * </p>
+ */
+@Service
+public class BankLedgerService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BankLedgerService.class);
+
+    private final BankAccountShardRepository shardRepository;
+    private final int shardCount;
+
+    public BankLedgerService(
+        BankAccountShardRepository shardRepository,
+        @Value("${banka4.bank-ledger.shards:16}") int shardCount
+    ) {
+        this.shardRepository = shardRepository;
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * Records a balance change on a bank-owned account. Positive deltas credit, negative deltas
+     * debit.
+     */
+    public void post(Account bankAccount, BigDecimal delta) {
+        if (delta.signum() == 0) return;
+        final var accountId = bankAccount.getId();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            shardRepository.addDelta(accountId, shardFor(accountId), delta);
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        var pending = (Map<UUID, BigDecimal>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            final var buffer = new TreeMap<UUID, BigDecimal>(UuidOrder.UNSIGNED);
+            TransactionSynchronizationManager.bindResource(this, buffer);
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void beforeCommit(boolean readOnly) {
+                        buffer.forEach((id, sum) -> {
+                            if (sum.signum() != 0)
+                                shardRepository.addDelta(id, shardFor(id), sum);
+                        });
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(
+                            BankLedgerService.this
+                        );
+                    }
+                }
+            );
+            pending = buffer;
+        }
+        pending.merge(accountId, delta, BigDecimal::add);
+    }
+
+    /**
+     * @return balance movements on {@code bankAccount} that are not yet reflected in its balance.
+     */
+    public BigDecimal getPendingDelta(Account bankAccount) {
+        return shardRepository.getPendingDelta(bankAccount.getId());
+    }
+
+    /**
+     * @return the balance of {@code bankAccount} including movements not rolled up yet.
+     */
+    public BigDecimal getReportedBalance(Account bankAccount) {
+        return bankAccount.getBalance()
+            .add(getPendingDelta(bankAccount));
+    }
+
+    /**
+     * Folds all pending shard deltas into the bank account balances.
+     */
+    @Scheduled(fixedDelayString = "${banka4.bank-ledger.rollup-interval:PT5S}")
+    @Transactional
+    public void rollUp() {
+        final var updated = shardRepository.rollUp();
+        if (updated > 0) LOGGER.debug("Rolled up bank ledger shards into {} accounts", updated);
+    }
+
+    private int shardFor(UUID accountId) {
+        /* Spread concurrent writers over shards, but keep a given thread on a stable shard. */
+        return Math.floorMod(
+            31 * accountId.hashCode()
+                + Long.hashCode(
+                    Thread.currentThread()
+                        .threadId()
+                ),
+            shardCount
+        );
+    }
+}
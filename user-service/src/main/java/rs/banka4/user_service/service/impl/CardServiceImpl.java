@@ -1,6 +1,5 @@
 package rs.banka4.user_service.service.impl;
 
-import jakarta.transaction.Transactional;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -15,6 +14,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import rs.banka4.rafeisen.common.utils.specification.SpecificationCombinator;
 import rs.banka4.user_service.domain.account.db.Account;
 import rs.banka4.user_service.domain.card.db.Card;
@@ -180,6 +180,7 @@ public class CardServiceImpl implements CardService {
     }
 
 
+    @Transactional(readOnly = true)
     @Override
     public ResponseEntity<Page<CardDto>> clientSearchCards(
         String token,
@@ -221,6 +222,7 @@ public class CardServiceImpl implements CardService {
     }
 
     // Private functions
+    @Transactional(readOnly = true)
     @Override
     public ResponseEntity<Page<CardDto>> employeeSearchCards(
         String token,
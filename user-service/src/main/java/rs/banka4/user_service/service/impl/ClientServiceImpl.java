@@ -7,7 +7,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import rs.banka4.rafeisen.common.security.AuthenticatedBankUserAuthentication;
 import rs.banka4.rafeisen.common.security.Privilege;
@@ -31,6 +30,7 @@ import rs.banka4.user_service.security.PreAuthBankUserAuthentication;
 import rs.banka4.user_service.security.UnauthenticatedBankUserPrincipal;
 import rs.banka4.user_service.service.abstraction.ClientService;
 import rs.banka4.user_service.service.abstraction.JwtService;
+import rs.banka4.user_service.utils.passwords.PasswordHasher;
 import rs.banka4.user_service.utils.specification.ClientSpecification;
 
 @Service
@@ -40,7 +40,7 @@ public class ClientServiceImpl implements ClientService {
     private final UserService userService;
     private final ClientRepository clientRepository;
     private final AuthenticationManager authenticationManager;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final UserTotpSecretRepository userTotpSecretRepository;
     private final JwtService jwtService;
 
@@ -241,7 +241,7 @@ public class ClientServiceImpl implements ClientService {
     @Override
     public void activateClientAccount(Client client, String password) {
         client.setEnabled(true);
-        client.setPassword(passwordEncoder.encode(password));
+        client.setPassword(passwordHasher.encode(password));
         clientRepository.save(client);
     }
 }
@@ -16,8 +16,8 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 import retrofit2.Response;
 import retrofit2.Retrofit;
@@ -42,6 +42,7 @@ import rs.banka4.user_service.security.PreAuthBankUserAuthentication;
 import rs.banka4.user_service.security.UnauthenticatedBankUserPrincipal;
 import rs.banka4.user_service.service.abstraction.EmployeeService;
 import rs.banka4.user_service.service.abstraction.JwtService;
+import rs.banka4.user_service.utils.passwords.PasswordHasher;
 import rs.banka4.user_service.utils.specification.EmployeeSpecification;
 
 @Service
@@ -52,7 +53,7 @@ public class EmployeeServiceImpl implements EmployeeService {
     private final AuthenticationManager authenticationManager;
     private final EmployeeRepository employeeRepository;
     private final JwtService jwtService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final UserService userService;
     private final RestTemplate restTemplate;
     private final Retrofit stockServiceRetrofit;
@@ -87,6 +88,7 @@ public class EmployeeServiceImpl implements EmployeeService {
         return new LoginResponseDto(accessToken, refreshToken);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public EmployeeResponseDto getMe(String authorization) {
         String token = authorization.replace("Bearer ", "");
@@ -169,6 +171,7 @@ public class EmployeeServiceImpl implements EmployeeService {
         userService.sendVerificationEmail(employee.getFirstName(), employee.getEmail());
     }
 
+    @Transactional(readOnly = true)
     public ResponseEntity<Page<EmployeeDto>> getAll(
         String firstName,
         String lastName,
@@ -213,6 +216,7 @@ public class EmployeeServiceImpl implements EmployeeService {
         return ResponseEntity.ok(dtos);
     }
 
+    @Transactional(readOnly = true)
     public ResponseEntity<Page<EmployeeDto>> getAllActuaries(
         String firstName,
         String lastName,
@@ -283,7 +287,7 @@ public class EmployeeServiceImpl implements EmployeeService {
     public void activateEmployeeAccount(Employee employee, String password) {
         employee.setEnabled(true);
         employee.setActive(true);
-        employee.setPassword(passwordEncoder.encode(password));
+        employee.setPassword(passwordHasher.encode(password));
         employeeRepository.save(employee);
     }
 
@@ -400,6 +404,7 @@ public class EmployeeServiceImpl implements EmployeeService {
         }
     }
 
+    @Transactional(readOnly = true)
     @Override
     public EmployeeResponseDto getEmployeeById(UUID id) {
         Employee employee =
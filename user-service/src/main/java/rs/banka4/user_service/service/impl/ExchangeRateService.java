@@ -1,16 +1,25 @@
 package rs.banka4.user_service.service.impl;
 
+import jakarta.annotation.PreDestroy;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Map;
-import lombok.RequiredArgsConstructor;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import rs.banka4.rafeisen.common.currency.CurrencyCode;
-import rs.banka4.user_service.domain.exchange.dtos.ExchangeRate;
 import rs.banka4.user_service.domain.exchange.dtos.ExchangeRateDto;
+import rs.banka4.user_service.utils.exchange.ExchangeRateMatrix;
 
 /**
  * Service for handling exchange rate operations.
@@ -19,14 +28,43 @@ import rs.banka4.user_service.domain.exchange.dtos.ExchangeRateDto;
  * This service fetches exchange rates from an external service and provides methods for currency
  * conversion and fee calculation.
  * </p>
+ *
+ * <p>
+ * Rates are kept in an in-process {@link ExchangeRateMatrix} snapshot. Once the snapshot is older
+ * than {@code banka4.exchange-rates.ttl}, readers keep getting the stale snapshot while a single
+ * background refresh fetches a new one, so conversions never wait on the exchange office except
+ * for the very first one, if the startup warm-up did not succeed.
+ * </p>
  */
 @Service
-@RequiredArgsConstructor
 public class ExchangeRateService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExchangeRateService.class);
 
     private static final BigDecimal BANK_FEE = BigDecimal.valueOf(1.5);
 
     private final RestTemplate restTemplate;
+    private final String exchangeRateUrl;
+    private final long ttlMillis;
+
+    private final AtomicReference<ExchangeRateMatrix> snapshot = new AtomicReference<>();
+    private final AtomicBoolean refreshInFlight = new AtomicBoolean();
+    private final ExecutorService refreshExecutor =
+        Executors.newSingleThreadExecutor(
+            Thread.ofPlatform()
+                .name("exchange-rate-refresh")
+                .daemon()
+                .factory()
+        );
+
+    public ExchangeRateService(
+        RestTemplate restTemplate,
+        @Value("${banka4.exchange-rates.url:http://exchange_office:8000/exchange-rate}") String exchangeRateUrl,
+        @Value("${banka4.exchange-rates.ttl:PT5M}") Duration ttl
+    ) {
+        this.restTemplate = restTemplate;
+        this.exchangeRateUrl = exchangeRateUrl;
+        this.ttlMillis = ttl.toMillis();
+    }
 
     /**
      * Fetches the latest exchange rates from the external exchange rate service.
@@ -36,12 +74,73 @@ public class ExchangeRateService {
      *         unavailable.
      */
     public ExchangeRateDto getExchangeRates() {
-        String url = "http://exchange_office:8000/exchange-rate";
         ResponseEntity<ExchangeRateDto> response =
-            restTemplate.exchange(url, HttpMethod.GET, null, ExchangeRateDto.class);
+            restTemplate.exchange(exchangeRateUrl, HttpMethod.GET, null, ExchangeRateDto.class);
         return response.getBody();
     }
 
+    /**
+     * Returns the current rate snapshot. Only blocks on the exchange office if no snapshot has
+     * been loaded yet; a stale snapshot is returned as-is and revalidated in the background.
+     *
+     * @return the current {@link ExchangeRateMatrix}.
+     * @throws org.springframework.web.client.RestClientException if no snapshot exists yet and the
+     *         external service is unavailable.
+     */
+    public ExchangeRateMatrix getRateMatrix() {
+        final var current = snapshot.get();
+        if (current == null) return refresh();
+
+        if (System.currentTimeMillis() - current.fetchedAtMillis() >= ttlMillis)
+            refreshInBackground();
+        return current;
+    }
+
+    /**
+     * Synchronously fetches a new rate table and publishes it as the current snapshot.
+     *
+     * @return the freshly published snapshot.
+     */
+    public ExchangeRateMatrix refresh() {
+        final var matrix =
+            ExchangeRateMatrix.from(getExchangeRates(), System.currentTimeMillis());
+        snapshot.set(matrix);
+        return matrix;
+    }
+
+    private void refreshInBackground() {
+        /* Single-flight: only one revalidation at a time, everyone else keeps the stale copy. */
+        if (!refreshInFlight.compareAndSet(false, true)) return;
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh();
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Failed to refresh exchange rates, serving stale snapshot", e);
+                } finally {
+                    refreshInFlight.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshInFlight.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Warms the snapshot up once the application is ready, so that the first payment does not pay
+     * for the round-trip to the exchange office.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refreshInBackground();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
     /**
      * Converts an amount from one currency to another based on exchange rates.
      *
@@ -61,31 +160,15 @@ public class ExchangeRateService {
      * @param from the source currency code.
      * @param to the target currency code.
      * @return the converted amount rounded to two decimal places.
-     * @throws NullPointerException if exchange rates are not available for the given currencies.
-     * @throws IllegalArgumentException if an invalid currency code is provided.
+     * @throws IllegalArgumentException if exchange rates are not available for the given
+     *         currencies.
      */
     public BigDecimal convertCurrency(
         BigDecimal amount,
         CurrencyCode.Code from,
         CurrencyCode.Code to
     ) {
-        ExchangeRateDto exchangeRateDto = getExchangeRates();
-        Map<CurrencyCode.Code, ExchangeRate> exchangeRates = exchangeRateDto.exchanges();
-
-        if (from.equals(CurrencyCode.Code.RSD)) {
-            return amount.divide(
-                exchangeRates.get(to)
-                    .buy(),
-                2,
-                RoundingMode.HALF_UP
-            );
-        } else if (to.equals(CurrencyCode.Code.RSD)) {
-            return amount.multiply(
-                exchangeRates.get(from)
-                    .sell()
-            );
-        }
-        return BigDecimal.ZERO;
+        return getRateMatrix().convert(amount, from, to);
     }
 
     /**
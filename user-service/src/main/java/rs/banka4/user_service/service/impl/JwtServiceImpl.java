@@ -1,8 +1,13 @@
 package rs.banka4.user_service.service.impl;
 
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.UUID;
 import javax.crypto.SecretKey;
@@ -18,6 +23,7 @@ import rs.banka4.rafeisen.common.utils.jwt.UnverifiedToken;
 import rs.banka4.rafeisen.common.utils.jwt.VerifiedAccessToken;
 import rs.banka4.rafeisen.common.utils.jwt.VerifiedRefreshToken;
 import rs.banka4.rafeisen.common.utils.jwt.VerifiedToken;
+import rs.banka4.rafeisen.common.utils.jwt.VerifiedTokenCache;
 import rs.banka4.user_service.domain.user.User;
 import rs.banka4.user_service.service.abstraction.JwtService;
 import rs.banka4.user_service.service.abstraction.TokenService;
@@ -27,6 +33,7 @@ public class JwtServiceImpl implements JwtService {
     private static final Logger LOGGER = LoggerFactory.getLogger(JwtServiceImpl.class);
     private final TokenService tokenService;
     private final JwtUtil jwtParser;
+    private final JwtParser expiryParser;
     private final SecretKey jwtKey;
     private final int jwtRefreshExpirationMs;
     private final int jwtExpirationMs;
@@ -35,18 +42,22 @@ public class JwtServiceImpl implements JwtService {
         @Value("${jwt.secret.key}") String secretKey,
         @Value("${jwt.expiration}") int jwtExpiration,
         @Value("${jwt.refresh.token.expiration}") int refreshExpiration,
-        TokenService tokenService
+        @Value("${banka4.jwt.cache.max-entries:10000}") int cacheMaxEntries,
+        @Value("${banka4.jwt.cache.max-ttl:PT5M}") Duration cacheMaxTtl,
+        TokenService tokenService,
+        MeterRegistry meterRegistry
     ) {
         this.jwtExpirationMs = jwtExpiration;
         this.jwtRefreshExpirationMs = refreshExpiration;
         this.tokenService = tokenService;
         this.jwtKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
-        this.jwtParser =
-            new JwtUtil(
-                Jwts.parser()
-                    .verifyWith(jwtKey)
-                    .build()
-            );
+        this.expiryParser =
+            Jwts.parser()
+                .verifyWith(jwtKey)
+                .build();
+        final var cache = new VerifiedTokenCache(cacheMaxEntries, cacheMaxTtl);
+        cache.bindTo(meterRegistry);
+        this.jwtParser = new JwtUtil(expiryParser, cache);
     }
 
     @Override
@@ -80,13 +91,27 @@ public class JwtServiceImpl implements JwtService {
 
     @Override
     public boolean isTokenInvalidated(String token) {
-        return tokenService.findByToken(token)
-            .isPresent();
+        return tokenService.isRevoked(token);
     }
 
     @Override
     public void invalidateToken(String token) {
-        tokenService.invalidateToken(token);
+        /* Only tokens that would otherwise still be accepted need revoking, and only until then. */
+        final Date expiration;
+        try {
+            expiration =
+                expiryParser.parseSignedClaims(token)
+                    .getPayload()
+                    .getExpiration();
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new ExpiredJwt();
+        }
+        final var expiresAt =
+            expiration != null
+                ? expiration.toInstant()
+                : Instant.now()
+                    .plusMillis(jwtRefreshExpirationMs);
+        tokenService.invalidateToken(token, expiresAt);
     }
 
     @Override
@@ -0,0 +1,164 @@
+package rs.banka4.user_service.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.banka4.user_service.domain.account.db.Account;
+import rs.banka4.user_service.domain.account.db.LedgerDirection;
+import rs.banka4.user_service.domain.account.db.LedgerEntry;
+import rs.banka4.user_service.repositories.LedgerEntryRepository;
+
+/**
+ * Append-only double-entry ledger for payments, transfers and loan disbursements and repayments.
+ *
+ * <p>
+ * {@link #transfer(Account, Account, BigDecimal)} appends a debit and a credit entry instead of
+ * updating both balances. The debited client account has the amount held out of its
+ * {@link Account#getAvailableBalance() available balance} immediately, which is what funds checks
+ * look at. Settled balances ({@link Account#getBalance()}, and the available balance for credits)
+ * are folded in from the journal in batches by {@link #project()}.
+ * </p>
+ *
+ * <p>
+ * Legs on bank-owned accounts are recorded in the journal for audit, but their balances are
+ * maintained by the {@link BankLedgerService} shards, so those entries are appended as already
+ * projected.
+ * </p>
+ */
+@Service
+public class LedgerService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LedgerService.class);
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BankAccountServiceImpl bankAccountService;
+    private final TransactionTemplate transactionTemplate;
+    private final int projectionBatchSize;
+
+    public LedgerService(
+        LedgerEntryRepository ledgerEntryRepository,
+        BankAccountServiceImpl bankAccountService,
+        PlatformTransactionManager transactionManager,
+        @Value("${banka4.ledger.projection-batch-size:500}") int projectionBatchSize
+    ) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.bankAccountService = bankAccountService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.projectionBatchSize = projectionBatchSize;
+    }
+
+    /**
+     * Moves {@code amount} from {@code debitAccount} to {@code creditAccount}. Both accounts must be
+     * in the same currency, and the caller must hold the row lock on {@code debitAccount} if it is
+     * a client account.
+     *
+     * @return the journal ID shared by the two appended entries.
+     */
+    public UUID transfer(Account debitAccount, Account creditAccount, BigDecimal amount) {
+        final var currency =
+            debitAccount.getCurrency()
+                .getCode();
+        if (
+            currency
+                != creditAccount.getCurrency()
+                    .getCode()
+        ) {
+            throw new IllegalArgumentException(
+                "Ledger transfer between " + currency + " and " + creditAccount.getCurrency()
+            );
+        }
+
+        final var journalId = UUID.randomUUID();
+        if (amount.signum() == 0) return journalId;
+
+        final var now = LocalDateTime.now();
+        ledgerEntryRepository.saveAll(
+            List.of(
+                post(journalId, debitAccount, LedgerDirection.DEBIT, amount, now),
+                post(journalId, creditAccount, LedgerDirection.CREDIT, amount, now)
+            )
+        );
+        return journalId;
+    }
+
+    private LedgerEntry post(
+        UUID journalId,
+        Account account,
+        LedgerDirection direction,
+        BigDecimal amount,
+        LocalDateTime now
+    ) {
+        final boolean bankAccount = bankAccountService.isBankAccount(account);
+        if (bankAccount) {
+            if (direction == LedgerDirection.DEBIT)
+                bankAccountService.debitBankAccount(account, amount);
+            else bankAccountService.creditBankAccount(account, amount);
+        } else if (direction == LedgerDirection.DEBIT) {
+            /* Hold the funds until the projector settles the debit. */
+            account.setAvailableBalance(
+                account.getAvailableBalance()
+                    .subtract(amount)
+            );
+        }
+
+        return LedgerEntry.builder()
+            .journalId(journalId)
+            .accountId(account.getId())
+            .direction(direction)
+            .amount(amount)
+            .currency(
+                account.getCurrency()
+                    .getCode()
+            )
+            .createdAt(now)
+            .projectedAt(bankAccount ? now : null)
+            .build();
+    }
+
+    /**
+     * @return movements on {@code account} that are not yet reflected in its balance.
+     */
+    public BigDecimal getPendingDelta(Account account) {
+        return ledgerEntryRepository.sumPendingByAccountId(account.getId());
+    }
+
+    /**
+     * Recomputes the balance of {@code account} from the journal alone. Only movements recorded
+     * through the ledger are included, so this is meant for audits and reconciliation rather than
+     * as a replacement for {@link Account#getBalance()}.
+     */
+    public BigDecimal replayBalance(Account account) {
+        return ledgerEntryRepository.sumByAccountId(account.getId());
+    }
+
+    /**
+     * Folds pending journal entries into the account balances until none are left. Each batch
+     * commits on its own, and locks its accounts in ID order before updating them, so the
+     * projector never holds more than one batch worth of account locks and cannot deadlock with
+     * payments, which lock accounts in the same order.
+     */
+    @Scheduled(fixedDelayString = "${banka4.ledger.projection-interval:PT1S}")
+    public void project() {
+        int accounts = 0;
+        Integer updated;
+        while (
+            (updated = transactionTemplate.execute(status -> projectBatch())) != null
+                && updated > 0
+        ) accounts += updated;
+        if (accounts > 0) LOGGER.debug("Projected ledger entries into {} account balances", accounts);
+    }
+
+    private int projectBatch() {
+        final List<Long> batch = ledgerEntryRepository.lockNextBatch(projectionBatchSize);
+        if (batch.isEmpty()) return 0;
+        ledgerEntryRepository.lockAccountsOf(batch);
+        return ledgerEntryRepository.project(batch);
+    }
+}
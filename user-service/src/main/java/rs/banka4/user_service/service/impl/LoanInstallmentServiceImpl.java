@@ -1,11 +1,14 @@
 package rs.banka4.user_service.service.impl;
 
+import java.time.LocalDate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import rs.banka4.rafeisen.common.exceptions.jwt.Unauthorized;
+import rs.banka4.user_service.domain.loan.db.Loan;
 import rs.banka4.user_service.domain.loan.db.LoanInstallment;
+import rs.banka4.user_service.domain.loan.dtos.AmortizationScheduleDto;
 import rs.banka4.user_service.domain.loan.dtos.LoanInstallmentDto;
 import rs.banka4.user_service.domain.loan.mapper.LoanMapper;
 import rs.banka4.user_service.domain.loan.specification.LoanSpecification;
@@ -16,6 +19,7 @@ import rs.banka4.user_service.repositories.LoanInstallmentRepository;
 import rs.banka4.user_service.repositories.LoanRepository;
 import rs.banka4.user_service.service.abstraction.JwtService;
 import rs.banka4.user_service.service.abstraction.LoanInstallmentService;
+import rs.banka4.user_service.utils.loans.AmortizationEngine;
 
 @RequiredArgsConstructor
 @Service
@@ -24,6 +28,7 @@ public class LoanInstallmentServiceImpl implements LoanInstallmentService {
     private final LoanInstallmentRepository loanInstallmentRepository;
     private final JwtService jwtService;
     private final ClientRepository clientRepository;
+    private final AmortizationEngine amortizationEngine;
 
     @Override
     public Page<LoanInstallmentDto> getInstallmentsForLoan(
@@ -32,6 +37,33 @@ public class LoanInstallmentServiceImpl implements LoanInstallmentService {
         int size,
         String auth
     ) {
+        var loan = findOwnLoan(loanNumber, auth);
+
+        Page<LoanInstallment> pages =
+            loanInstallmentRepository.findAll(
+                LoanSpecification.findPaidAndNextUpcomingInstallment(loan.getId()),
+                PageRequest.of(page, size)
+            );
+
+        return pages.map(LoanMapper.INSTANCE::toDto);
+    }
+
+    /**
+     * The amortization schedule of the loan: its installments, split into principal and interest,
+     * with the balance after each. Approved loans are scheduled from their agreement date, loans
+     * still being processed as if approved today.
+     */
+    @Override
+    public AmortizationScheduleDto getScheduleForLoan(Long loanNumber, String auth) {
+        var loan = findOwnLoan(loanNumber, auth);
+        var start =
+            loan.getAgreementDate() != null
+                ? loan.getAgreementDate()
+                : LocalDate.now();
+        return amortizationEngine.scheduleFor(loan, start.plusMonths(1));
+    }
+
+    private Loan findOwnLoan(Long loanNumber, String auth) {
         ensureClientRole(auth);
         var clientId = jwtService.extractUserId(auth);
         var client =
@@ -47,14 +79,7 @@ public class LoanInstallmentServiceImpl implements LoanInstallmentService {
         ) {
             throw new Unauthorized(auth);
         }
-
-        Page<LoanInstallment> pages =
-            loanInstallmentRepository.findAll(
-                LoanSpecification.findPaidAndNextUpcomingInstallment(loan.getId()),
-                PageRequest.of(page, size)
-            );
-
-        return pages.map(LoanMapper.INSTANCE::toDto);
+        return loan;
     }
 
     private void ensureClientRole(String auth) {
@@ -1,6 +1,5 @@
 package rs.banka4.user_service.service.impl;
 
-import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
@@ -21,6 +20,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import rs.banka4.rafeisen.common.exceptions.jwt.Unauthorized;
 import rs.banka4.rafeisen.common.utils.specification.SpecificationCombinator;
 import rs.banka4.user_service.domain.account.db.Account;
@@ -51,6 +51,7 @@ import rs.banka4.user_service.service.abstraction.AccountService;
 import rs.banka4.user_service.service.abstraction.ClientService;
 import rs.banka4.user_service.service.abstraction.JwtService;
 import rs.banka4.user_service.service.abstraction.LoanService;
+import rs.banka4.user_service.utils.loans.AmortizationEngine;
 import rs.banka4.user_service.utils.loans.LoanRateScheduler;
 
 
@@ -67,9 +68,10 @@ public class LoanServiceImpl implements LoanService {
     private final JwtService jwtService;
     private final LoanInstallmentRepository loanInstallmentRepository;
     private final BankAccountServiceImpl bankAccountService;
+    private final LedgerService ledgerService;
     private final TransactionServiceImpl transactionService;
-    private final AccountRepository accountRepository;
     private final UserService userService;
+    private final AmortizationEngine amortizationEngine;
 
     /**
      * Creates a new loan request for the given loan application.
@@ -149,6 +151,7 @@ public class LoanServiceImpl implements LoanService {
         newLoan.setInterestRate(interestRate);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public ResponseEntity<Page<LoanInformationDto>> getAllLoans(
         String token,
@@ -165,6 +168,7 @@ public class LoanServiceImpl implements LoanService {
         return ResponseEntity.ok(loanPage.map(LoanMapper.INSTANCE::toDto));
     }
 
+    @Transactional(readOnly = true)
     @Override
     public ResponseEntity<Page<LoanApplicationResponseDto>> getAllLoansProcessing(
         String token,
@@ -196,6 +200,7 @@ public class LoanServiceImpl implements LoanService {
      * @throws NoLoansOnAccount if the client has no active accounts
      * @throws NullPageRequest if the page request is null
      */
+    @Transactional(readOnly = true)
     @Override
     public ResponseEntity<Page<LoanInformationDto>> getMyLoans(
         String token,
@@ -274,9 +279,22 @@ public class LoanServiceImpl implements LoanService {
         loan.get()
             .setAgreementDate(LocalDate.now());
 
+        var schedule =
+            amortizationEngine.scheduleFor(
+                loan.get(),
+                loan.get()
+                    .getNextInstallmentDate()
+            );
+        loan.get()
+            .setMonthlyInstallment(schedule.monthlyInstallment());
+        loan.get()
+            .setRemainingDebt(schedule.totalRepayment());
+
         loanRepository.save(loan.get());
 
-        makeLoanInstallmentFromLoan(loan.get());
+        loanInstallmentRepository.saveAll(
+            amortizationEngine.plannedInstallments(loan.get(), schedule)
+        );
 
         Account bankAccount =
             bankAccountService.getBankAccountForCurrency(
@@ -292,17 +310,7 @@ public class LoanServiceImpl implements LoanService {
             loan.get()
                 .getAmount();
 
-        bankAccount.setBalance(
-            bankAccount.getBalance()
-                .subtract(loanAmount)
-        );
-        userAccount.setBalance(
-            userAccount.getBalance()
-                .add(loanAmount)
-        );
-
-        accountRepository.save(bankAccount);
-        accountRepository.save(userAccount);
+        ledgerService.transfer(bankAccount, userAccount, loanAmount);
 
         transactionService.createBankTransferTransaction(
             bankAccount,
@@ -312,26 +320,6 @@ public class LoanServiceImpl implements LoanService {
         );
     }
 
-    private void makeLoanInstallmentFromLoan(Loan loan) {
-        var loneInstallment = new LoanInstallment();
-        var interest =
-            loan.getInterestRate() == null
-                ? null
-                : loan.getInterestRate()
-                    .getFixedRate();
-
-        loneInstallment.setLoan(loan);
-        loneInstallment.setInstallmentAmount(loan.getMonthlyInstallment());
-        loneInstallment.setExpectedDueDate(
-            LocalDate.now()
-                .plusMonths(1)
-        );
-        loneInstallment.setInterestRateAmount(interest);
-        loneInstallment.setPaymentStatus(PaymentStatus.UNPAID);
-
-        loanInstallmentRepository.save(loneInstallment);
-    }
-
     private void ensureEmployeeRole(String auth) {
         var role = jwtService.extractRole(auth);
         if (!role.equalsIgnoreCase("employee")) throw new Unauthorized(auth);
@@ -0,0 +1,49 @@
+package rs.banka4.user_service.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDateTime;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import rs.banka4.user_service.config.RabbitMqConfig;
+import rs.banka4.user_service.domain.auth.dtos.NotificationTransferDto;
+import rs.banka4.user_service.domain.notification.db.OutboxMessage;
+import rs.banka4.user_service.repositories.OutboxMessageRepository;
+
+/**
+ * Queues notifications for publishing as part of the caller's transaction. The message is only
+ * published by {@link rs.banka4.user_service.utils.notifications.OutboxRelay} once that
+ * transaction commits, so a rollback never produces an email, and broker latency never extends
+ * the time row locks are held.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationOutbox {
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(NotificationTransferDto message) {
+        final String payload;
+        try {
+            payload = objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Notification is not serializable", e);
+        }
+
+        outboxMessageRepository.save(
+            OutboxMessage.builder()
+                .exchange(RabbitMqConfig.EXCHANGE_NAME)
+                .routingKey(RabbitMqConfig.ROUTING_KEY)
+                .payloadType(
+                    message.getClass()
+                        .getName()
+                )
+                .payload(payload)
+                .createdAt(LocalDateTime.now())
+                .build()
+        );
+    }
+}
@@ -1,36 +1,110 @@
 package rs.banka4.user_service.service.impl;
 
-import java.util.Optional;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import rs.banka4.rafeisen.common.exceptions.jwt.RefreshTokenRevoked;
-import rs.banka4.user_service.domain.auth.db.Token;
-import rs.banka4.user_service.repositories.TokenRepository;
+import rs.banka4.rafeisen.common.utils.jwt.TokenDigest;
 import rs.banka4.user_service.service.abstraction.TokenService;
+import rs.banka4.user_service.utils.tokens.Revocation;
+import rs.banka4.user_service.utils.tokens.RevocationFeed;
+import rs.banka4.user_service.utils.tokens.TokenRevocationIndex;
 
+/**
+ * Keeps revoked tokens in the {@code revoked_tokens} table, by digest and only until they expire,
+ * and answers revocation checks from an in-memory {@link TokenRevocationIndex}.
+ *
+ * <p>
+ * The index is loaded on startup, and revocations made on other instances reach it through the
+ * {@link RevocationFeed}. A periodic purge deletes expired rows and reloads the index from the
+ * table, which both sheds expired entries and catches up on anything the feed dropped.
+ * </p>
+ */
 @Service
-@RequiredArgsConstructor
 public class TokenServiceImpl implements TokenService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenServiceImpl.class);
 
-    private final TokenRepository tokenRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final RevocationFeed revocationFeed;
+    private final TokenRevocationIndex index;
+
+    public TokenServiceImpl(
+        JdbcTemplate jdbcTemplate,
+        RevocationFeed revocationFeed,
+        @Value("${banka4.revocations.index.capacity:10000}") int capacity,
+        @Value("${banka4.revocations.index.false-positive-rate:0.001}") double falsePositiveRate
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.revocationFeed = revocationFeed;
+        this.index = new TokenRevocationIndex(capacity, falsePositiveRate);
+    }
+
+    @PostConstruct
+    public void load() {
+        revocationFeed.subscribe(
+            revocation -> index.add(revocation.digest(), revocation.expiresAtMillis())
+        );
+        reload();
+    }
 
     @Override
-    public void invalidateToken(String token) {
-        Token invalidatedToken =
-            Token.builder()
-                .token(token)
-                .build();
-        Optional<Token> optionalToken = tokenRepository.findByToken(token);
-
-        if (optionalToken.isPresent()) {
-            throw new RefreshTokenRevoked();
-        }
-
-        tokenRepository.save(invalidatedToken);
+    public void invalidateToken(String token, Instant expiresAt) {
+        final var digest = TokenDigest.of(token);
+        final var inserted =
+            jdbcTemplate.update(
+                """
+                INSERT INTO revoked_tokens (digest, expires_at, revoked_at)
+                VALUES (?, ?, now())
+                ON CONFLICT (digest) DO NOTHING
+                """,
+                digest.toBytes(),
+                Timestamp.from(expiresAt)
+            );
+        if (inserted == 0) throw new RefreshTokenRevoked();
+
+        index.add(digest, expiresAt.toEpochMilli());
+        revocationFeed.publish(new Revocation(digest, expiresAt.toEpochMilli()));
     }
 
     @Override
-    public Optional<Token> findByToken(String token) {
-        return tokenRepository.findByToken(token);
+    public boolean isRevoked(String token) {
+        return index.isRevoked(TokenDigest.of(token));
+    }
+
+    /**
+     * Deletes revocations of tokens that have expired since, and reloads the index.
+     */
+    @Scheduled(
+        fixedDelayString = "${banka4.revocations.purge-interval:PT10M}",
+        initialDelayString = "${banka4.revocations.purge-interval:PT10M}"
+    )
+    public void purgeExpired() {
+        final var purged =
+            jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at < now()");
+        reload();
+        LOGGER.debug("Purged {} expired token revocations, {} remain", purged, index.size());
+    }
+
+    private void reload() {
+        final Map<TokenDigest, Long> revoked = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT digest, expires_at FROM revoked_tokens WHERE expires_at >= now()",
+            rs -> {
+                revoked.put(
+                    TokenDigest.fromBytes(rs.getBytes("digest")),
+                    rs.getTimestamp("expires_at")
+                        .getTime()
+                );
+            }
+        );
+        index.rebuild(revoked, System.currentTimeMillis());
     }
 }
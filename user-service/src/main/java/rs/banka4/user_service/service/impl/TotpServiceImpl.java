@@ -1,16 +1,18 @@
 package rs.banka4.user_service.service.impl;
 
-import dev.samstevens.totp.code.CodeGenerator;
-import dev.samstevens.totp.code.DefaultCodeGenerator;
-import dev.samstevens.totp.code.DefaultCodeVerifier;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import dev.samstevens.totp.code.HashingAlgorithm;
-import dev.samstevens.totp.exceptions.CodeGenerationException;
 import dev.samstevens.totp.secret.DefaultSecretGenerator;
 import dev.samstevens.totp.secret.SecretGenerator;
-import dev.samstevens.totp.time.SystemTimeProvider;
-import dev.samstevens.totp.time.TimeProvider;
+import java.time.Duration;
 import java.util.UUID;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import rs.banka4.rafeisen.common.security.AuthenticatedBankUserAuthentication;
@@ -26,20 +28,59 @@ import rs.banka4.user_service.repositories.EmployeeRepository;
 import rs.banka4.user_service.repositories.UserTotpSecretRepository;
 import rs.banka4.user_service.service.abstraction.JwtService;
 import rs.banka4.user_service.service.abstraction.TotpService;
-
+import rs.banka4.user_service.utils.totp.TotpCodeGenerator;
+
+/**
+ * Verifies codes without reading the database in the common case: active secrets are cached,
+ * decoded, for a short while, and each user's last accepted time step is remembered so that a code
+ * cannot be used twice. Both are local to this instance; the cache is dropped for a user whenever
+ * their secret changes here, and another instance may keep accepting the old secret for at most
+ * {@code banka4.totp.secret-cache-ttl}.
+ */
 @Service
-@RequiredArgsConstructor
 public class TotpServiceImpl implements TotpService {
 
     private static final int SECRET_LENGTH = 32;
     private static final int TIME_PERIOD = 30;
     private static final int CODE_LENGTH = 6;
     private static final HashingAlgorithm ALGORITHM = HashingAlgorithm.SHA1;
+    /** Accept codes from one step either side of now, for clock drift; as DefaultCodeVerifier. */
+    private static final int ALLOWED_DRIFT = 1;
+
+    private record CachedSecret(
+        byte[] key,
+        boolean active
+    ) {
+    }
 
     private final JwtService jwtService;
     private final UserTotpSecretRepository repository;
     private final ClientRepository clientRepository;
     private final EmployeeRepository employeeRepository;
+    private final Cache<UUID, CachedSecret> secrets;
+    /* A code is good for 2 * ALLOWED_DRIFT + 1 steps; an entry idle for longer guards nothing. */
+    private final Cache<UUID, Long> lastUsedSteps =
+        CacheBuilder.newBuilder()
+            .expireAfterWrite((ALLOWED_DRIFT * 2L + 1) * TIME_PERIOD, TimeUnit.SECONDS)
+            .build();
+
+    public TotpServiceImpl(
+        JwtService jwtService,
+        UserTotpSecretRepository repository,
+        ClientRepository clientRepository,
+        EmployeeRepository employeeRepository,
+        @Value("${banka4.totp.secret-cache-ttl:PT1M}") Duration secretCacheTtl
+    ) {
+        this.jwtService = jwtService;
+        this.repository = repository;
+        this.clientRepository = clientRepository;
+        this.employeeRepository = employeeRepository;
+        this.secrets =
+            CacheBuilder.newBuilder()
+                .expireAfterWrite(secretCacheTtl)
+                .maximumSize(100_000)
+                .build();
+    }
 
     @Override
     public void verifyNewAuthenticator(Authentication auth, String code) {
@@ -48,19 +89,20 @@ public class TotpServiceImpl implements TotpService {
             ((AuthenticatedBankUserAuthentication) auth).getPrincipal()
                 .userId();
         UserTotpSecret totp = getTotpSecretByUserId(userId);
-        validateTotpCode(totp, code);
+        validateTotpCode(userId, totp, code);
         totp.setIsActive(true);
         repository.save(totp);
+        secrets.invalidate(userId);
     }
 
     @Override
     public boolean validate(String authorization, String code) {
         final var userId = jwtService.extractUserId(authorization);
-        UserTotpSecret totp = getTotpSecretByUserId(userId);
-        if (!totp.getIsActive()) {
+        final var secret = getCachedSecret(userId);
+        if (!secret.active()) {
             throw new NotActiveTotpException();
         }
-        return isCodeValid(totp.getSecret(), code);
+        return isCodeValid(userId, secret.key(), code);
     }
 
     @Override
@@ -96,6 +138,7 @@ public class TotpServiceImpl implements TotpService {
         secret.setSecret(newSecret);
         secret.setIsActive(false);
         repository.save(secret);
+        secrets.invalidate(userId);
 
         return new RegenerateAuthenticatorResponseDto(
             createTotpUrl("RAFeisen", email, newSecret),
@@ -115,37 +158,57 @@ public class TotpServiceImpl implements TotpService {
     @Override
     public String generateCode(String authorization) {
         final var userId = jwtService.extractUserId(authorization);
-        UserTotpSecret totp = getTotpSecretByUserId(userId);
-        return generateCodeFromSecret(totp.getSecret());
+        return TotpCodeGenerator.generate(getCachedSecret(userId).key(), currentStep());
     }
 
 
     // --- Private helper methods ---
 
-    private String generateCodeFromSecret(String secret) {
-        TimeProvider timeProvider = new SystemTimeProvider();
-        CodeGenerator codeGenerator = new DefaultCodeGenerator(ALGORITHM);
-        long currentBucket = timeProvider.getTime() / TIME_PERIOD;
-        try {
-            return codeGenerator.generate(secret, currentBucket);
-        } catch (CodeGenerationException e) {
-            throw new RuntimeException(e);
-        }
+    private static long currentStep() {
+        return System.currentTimeMillis() / 1000 / TIME_PERIOD;
     }
 
-    private boolean isCodeValid(String secret, String code) {
-        TimeProvider timeProvider = new SystemTimeProvider();
-        CodeGenerator codeGenerator = new DefaultCodeGenerator(ALGORITHM);
-        DefaultCodeVerifier validator = new DefaultCodeVerifier(codeGenerator, timeProvider);
-        return validator.isValidCode(secret, code);
+    /**
+     * Checks {@code code}, and consumes it: a code is only accepted if it is for a later time step
+     * than the last code accepted for the user.
+     */
+    private boolean isCodeValid(UUID userId, byte[] key, String code) {
+        final var step = TotpCodeGenerator.findStep(key, code, currentStep(), ALLOWED_DRIFT);
+        if (step < 0) return false;
+
+        final var accepted = new AtomicBoolean();
+        lastUsedSteps.asMap()
+            .compute(userId, (id, previous) -> {
+                if (previous != null && previous >= step) return previous;
+                accepted.set(true);
+                return step;
+            });
+        return accepted.get();
     }
 
-    private void validateTotpCode(UserTotpSecret totp, String code) {
-        if (!isCodeValid(totp.getSecret(), code)) {
+    private void validateTotpCode(UUID userId, UserTotpSecret totp, String code) {
+        if (!isCodeValid(userId, TotpCodeGenerator.decodeSecret(totp.getSecret()), code)) {
             throw new NotValidTotpException();
         }
     }
 
+    private CachedSecret getCachedSecret(UUID userId) {
+        try {
+            return secrets.get(userId, () -> toCachedSecret(getTotpSecretByUserId(userId)));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            /* The loader only throws API exceptions, such as NoTotpException. */
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static CachedSecret toCachedSecret(UserTotpSecret totp) {
+        return new CachedSecret(
+            TotpCodeGenerator.decodeSecret(totp.getSecret()),
+            Boolean.TRUE.equals(totp.getIsActive())
+        );
+    }
+
     private UserTotpSecret getTotpSecretByUserId(UUID userId) {
         return repository.findByClient_Id(userId)
             .or(() -> repository.findByEmployee_Id(userId))
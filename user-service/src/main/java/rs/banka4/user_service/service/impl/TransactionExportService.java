@@ -0,0 +1,256 @@
+package rs.banka4.user_service.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import rs.banka4.rafeisen.common.utils.specification.SpecificationCombinator;
+import rs.banka4.user_service.domain.account.db.Account;
+import rs.banka4.user_service.domain.transaction.db.Transaction;
+import rs.banka4.user_service.domain.transaction.db.TransactionStatus;
+import rs.banka4.user_service.domain.transaction.dtos.TransactionDto;
+import rs.banka4.user_service.domain.transaction.dtos.TransactionExportFormat;
+import rs.banka4.user_service.domain.transaction.mapper.TransactionMapper;
+import rs.banka4.user_service.exceptions.account.AccountNotFound;
+import rs.banka4.user_service.exceptions.account.NotAccountOwner;
+import rs.banka4.user_service.repositories.AccountRepository;
+import rs.banka4.user_service.repositories.TransactionRepository;
+import rs.banka4.user_service.service.abstraction.JwtService;
+import rs.banka4.user_service.utils.specification.PaymentSpecification;
+
+/**
+ * Exports the full transaction history of an account as CSV or NDJSON.
+ *
+ * <p>
+ * Rows are read from a server-side cursor (see
+ * {@link TransactionRepository#streamAll(Specification, Sort)}) and written to the response as
+ * they arrive. Each entity is detached once written, and the persistence context is cleared
+ * periodically, so heap usage stays flat regardless of the history size.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+    private static final int CLEAR_INTERVAL = 1000;
+    private static final Sort EXPORT_ORDER =
+        Sort.by(
+            Sort.Order.asc("paymentDateTime"),
+            Sort.Order.asc("id")
+        );
+    private static final String[] CSV_HEADER = {
+        "id",
+        "transactionNumber",
+        "fromAccount",
+        "toAccount",
+        "fromAmount",
+        "fromCurrency",
+        "toAmount",
+        "toCurrency",
+        "feeAmount",
+        "feeCurrency",
+        "recipient",
+        "paymentCode",
+        "referenceNumber",
+        "paymentPurpose",
+        "paymentDateTime",
+        "status"
+    };
+
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final JwtService jwtService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final BankAccountServiceImpl bankAccountService;
+
+    /**
+     * Checks that the caller may export {@code accountNumber} and prepares the export. Clients may
+     * only export their own accounts; employees may export any account. As in the transaction
+     * history, internal fee, conversion and bank transfer rows are left out for clients other than
+     * the bank's owner.
+     *
+     * @return a body that writes the export when the response is sent, in its own read-only
+     *         transaction.
+     * @throws AccountNotFound if the account does not exist.
+     * @throws NotAccountOwner if a client requests an account they do not own.
+     */
+    public StreamingResponseBody export(
+        String token,
+        String accountNumber,
+        TransactionStatus status,
+        BigDecimal amount,
+        LocalDate date,
+        TransactionExportFormat format
+    ) {
+        Account account =
+            accountRepository.findAccountByAccountNumber(accountNumber)
+                .orElseThrow(AccountNotFound::new);
+
+        boolean hideSpecialTransactions = false;
+        if ("client".equalsIgnoreCase(jwtService.extractRole(token))) {
+            UUID userId = jwtService.extractUserId(token);
+            if (
+                account.getClient() == null
+                    || !userId.equals(
+                        account.getClient()
+                            .getId()
+                    )
+            ) {
+                throw new NotAccountOwner();
+            }
+            hideSpecialTransactions =
+                !userId.equals(
+                    bankAccountService.getBankOwner()
+                        .getId()
+                );
+        }
+
+        SpecificationCombinator<Transaction> combinator = new SpecificationCombinator<>();
+        combinator.and(
+            PaymentSpecification.hasFromAccount(account)
+                .or(PaymentSpecification.hasToAccount(account))
+        );
+        if (status != null) combinator.and(PaymentSpecification.hasStatus(status));
+        if (amount != null) combinator.and(PaymentSpecification.hasAmount(amount));
+        if (date != null) combinator.and(PaymentSpecification.hasDate(date));
+        if (hideSpecialTransactions) combinator.and(PaymentSpecification.isNotSpecialTransaction());
+        Specification<Transaction> filter = combinator.build();
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        return outputStream -> {
+            try {
+                transactionTemplate.executeWithoutResult(
+                    transaction -> write(filter, format, outputStream)
+                );
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    /**
+     * Writes all transactions matching {@code filter} to {@code outputStream}. Must run inside a
+     * transaction.
+     */
+    public void write(
+        Specification<Transaction> filter,
+        TransactionExportFormat format,
+        OutputStream outputStream
+    ) {
+        Writer writer =
+            new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+        try (
+            Stream<Transaction> transactions =
+                transactionRepository.streamAll(filter, EXPORT_ORDER)
+        ) {
+            if (format == TransactionExportFormat.CSV) writeCsvRow(writer, CSV_HEADER);
+
+            long written = 0;
+            for (var iterator = transactions.iterator(); iterator.hasNext();) {
+                Transaction transaction = iterator.next();
+                TransactionDto dto = TransactionMapper.INSTANCE.toDto(transaction);
+                entityManager.detach(transaction);
+
+                if (format == TransactionExportFormat.CSV) writeCsvRow(writer, toCsvRow(dto));
+                else {
+                    writer.write(objectMapper.writeValueAsString(dto));
+                    writer.write('\n');
+                }
+
+                /* Drop the accounts and currencies the rows pulled in, too. */
+                if (++written % CLEAR_INTERVAL == 0) entityManager.clear();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String[] toCsvRow(TransactionDto dto) {
+        return new String[] {
+            Objects.toString(dto.id(), ""),
+            Objects.toString(dto.transactionNumber(), ""),
+            Objects.toString(dto.fromAccount(), ""),
+            Objects.toString(dto.toAccount(), ""),
+            dto.fromAmount() == null
+                ? ""
+                : dto.fromAmount()
+                    .toPlainString(),
+            Objects.toString(dto.fromCurrency(), ""),
+            dto.toAmount() == null
+                ? ""
+                : dto.toAmount()
+                    .toPlainString(),
+            Objects.toString(dto.toCurrency(), ""),
+            dto.feeAmount() == null
+                ? ""
+                : dto.feeAmount()
+                    .toPlainString(),
+            Objects.toString(dto.feeCurrency(), ""),
+            text(dto.recipient()),
+            text(dto.paymentCode()),
+            text(dto.referenceNumber()),
+            text(dto.paymentPurpose()),
+            Objects.toString(dto.paymentDateTime(), ""),
+            Objects.toString(dto.status(), "")
+        };
+    }
+
+    /**
+     * Free text entered by users. Text that a spreadsheet would evaluate as a formula is prefixed
+     * with {@code '}, so it is shown as typed.
+     */
+    private static String text(String value) {
+        if (value == null || value.isEmpty()) return "";
+        return switch (value.charAt(0)) {
+        case '=', '+', '-', '@', '\t', '\r' -> "'" + value;
+        default -> value;
+        };
+    }
+
+    private static void writeCsvRow(Writer writer, String[] fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) writer.write(',');
+            writeCsvField(writer, fields[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    /* RFC 4180: quote fields containing separators, quotes or line breaks; double inner quotes. */
+    private static void writeCsvField(Writer writer, String field) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < field.length() && !quote; i++) {
+            char c = field.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(field);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(field.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
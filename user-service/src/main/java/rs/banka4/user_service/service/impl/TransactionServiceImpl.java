@@ -2,7 +2,6 @@ package rs.banka4.user_service.service.impl;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.LockModeType;
-import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -10,21 +9,32 @@ import java.util.*;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import rs.banka4.rafeisen.common.currency.CurrencyCode;
+import rs.banka4.rafeisen.common.exceptions.BaseApiException;
 import rs.banka4.rafeisen.common.utils.specification.SpecificationCombinator;
 import rs.banka4.user_service.domain.account.db.Account;
+import rs.banka4.user_service.domain.account.db.SpendCounter;
+import rs.banka4.user_service.domain.account.db.SpendCounterId;
+import rs.banka4.user_service.domain.account.db.SpendPeriod;
 import rs.banka4.user_service.domain.currency.db.Currency;
 import rs.banka4.user_service.domain.transaction.db.MonetaryAmount;
 import rs.banka4.user_service.domain.transaction.db.Transaction;
 import rs.banka4.user_service.domain.transaction.db.TransactionStatus;
+import rs.banka4.user_service.domain.transaction.dtos.BulkPaymentItemDto;
+import rs.banka4.user_service.domain.transaction.dtos.BulkPaymentItemResultDto;
+import rs.banka4.user_service.domain.transaction.dtos.BulkPaymentResultDto;
+import rs.banka4.user_service.domain.transaction.dtos.CreateBulkPaymentDto;
 import rs.banka4.user_service.domain.transaction.dtos.CreatePaymentDto;
 import rs.banka4.user_service.domain.transaction.dtos.CreateTransactionDto;
 import rs.banka4.user_service.domain.transaction.dtos.CreateTransferDto;
 import rs.banka4.user_service.domain.transaction.dtos.TransactionDto;
+import rs.banka4.user_service.domain.transaction.dtos.TransactionHistoryPageDto;
 import rs.banka4.user_service.domain.transaction.mapper.TransactionMapper;
 import rs.banka4.user_service.domain.user.client.db.Client;
 import rs.banka4.user_service.domain.user.client.db.ClientContact;
@@ -38,23 +48,35 @@ import rs.banka4.user_service.exceptions.user.UserNotFound;
 import rs.banka4.user_service.repositories.AccountRepository;
 import rs.banka4.user_service.repositories.ClientContactRepository;
 import rs.banka4.user_service.repositories.ClientRepository;
+import rs.banka4.user_service.repositories.SpendCounterRepository;
 import rs.banka4.user_service.repositories.TransactionRepository;
 import rs.banka4.user_service.service.abstraction.JwtService;
 import rs.banka4.user_service.service.abstraction.TotpService;
 import rs.banka4.user_service.service.abstraction.TransactionService;
+import rs.banka4.user_service.utils.UuidOrder;
+import rs.banka4.user_service.utils.pagination.HistoryCursor;
 import rs.banka4.user_service.utils.specification.PaymentSpecification;
 
 @Service
 @RequiredArgsConstructor
 public class TransactionServiceImpl implements TransactionService {
+    private static final int BULK_CHUNK_SIZE = 50;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final Sort HISTORY_ORDER =
+        Sort.by(
+            Sort.Order.desc("paymentDateTime"),
+            Sort.Order.desc("id")
+        );
 
     private final AccountRepository accountRepository;
     private final ClientRepository clientRepository;
     private final TransactionRepository transactionRepository;
     private final ClientContactRepository clientContactRepository;
+    private final SpendCounterRepository spendCounterRepository;
     private final TotpService totpService;
     private final ExchangeRateService exchangeRateService;
     private final BankAccountServiceImpl bankAccountServiceImpl;
+    private final LedgerService ledgerService;
     private final JwtService jwtService;
     private final EntityManager entityManager;
 
@@ -99,6 +121,7 @@ public class TransactionServiceImpl implements TransactionService {
                 createPaymentDto.fromAmount(),
                 createPaymentDto
             );
+        recordSpend(fromAccount, createPaymentDto.fromAmount());
 
         if (createPaymentDto.saveRecipient()) {
             ClientContact clientContact =
@@ -149,6 +172,122 @@ public class TransactionServiceImpl implements TransactionService {
         return TransactionMapper.INSTANCE.toDto(transaction);
     }
 
+    /**
+     * Executes a bulk payment order, e.g. payroll, under a single TOTP authorization.
+     *
+     * <p>
+     * All involved accounts are locked up front in one statement, in the same ID order
+     * {@link #lockAccounts(String...)} uses. Payments are then applied in chunks of
+     * {@value #BULK_CHUNK_SIZE}, flushing after each chunk so the resulting inserts are sent as
+     * JDBC batches. A payment that fails is rejected on its own and does not affect the rest of
+     * the order; its error code is reported in the per-item result. Since
+     * {@link #processTransaction} resolves every leg before it writes anything, a rejected payment
+     * leaves nothing behind.
+     * </p>
+     */
+    @Override
+    @Transactional
+    public BulkPaymentResultDto createBulkPayment(
+        Authentication authentication,
+        CreateBulkPaymentDto createBulkPaymentDto
+    ) {
+        Client client = getClient(authentication);
+
+        if (!verifyClient(authentication, createBulkPaymentDto.otpCode())) {
+            throw new NotValidTotpException();
+        }
+
+        List<BulkPaymentItemDto> payments = createBulkPaymentDto.payments();
+        Set<String> accountNumbers = new HashSet<>();
+        accountNumbers.add(createBulkPaymentDto.fromAccount());
+        for (BulkPaymentItemDto payment : payments) {
+            accountNumbers.add(payment.toAccount());
+        }
+
+        Map<String, Account> lockedAccounts =
+            accountRepository.lockAllByAccountNumberIn(accountNumbers)
+                .stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, acc -> acc));
+
+        Account fromAccount = lockedAccounts.get(createBulkPaymentDto.fromAccount());
+        if (fromAccount == null) throw new AccountNotFound();
+
+        validateAccountActive(fromAccount);
+        validateClientAccountOwnership(client, fromAccount);
+
+        LocalDate today = LocalDate.now();
+        BigDecimal spentToday = getSpent(fromAccount, SpendPeriod.DAY, today);
+        BigDecimal spentThisMonth = getSpent(fromAccount, SpendPeriod.MONTH, today);
+        BigDecimal executedTotal = BigDecimal.ZERO;
+
+        List<BulkPaymentItemResultDto> results = new ArrayList<>(payments.size());
+        int executed = 0;
+        for (int i = 0; i < payments.size(); i++) {
+            BulkPaymentItemDto payment = payments.get(i);
+            BigDecimal amount = payment.fromAmount();
+            try {
+                Account toAccount = lockedAccounts.get(payment.toAccount());
+                if (toAccount == null) throw new AccountNotFound();
+                if (fromAccount.equals(toAccount)) throw new ClientCannotTransferToSameAccount();
+                if (
+                    fromAccount.getClient() != null
+                        && fromAccount.getClient()
+                            .equals(toAccount.getClient())
+                ) {
+                    throw new ClientCannotPayToOwnAccount();
+                }
+                validateSufficientFunds(fromAccount, amount.add(BigDecimal.ONE));
+                validateLimits(fromAccount, spentToday.add(amount), spentThisMonth.add(amount));
+
+                Transaction transaction =
+                    processTransaction(
+                        fromAccount,
+                        toAccount,
+                        amount,
+                        new CreatePaymentDto(
+                            fromAccount.getAccountNumber(),
+                            toAccount.getAccountNumber(),
+                            amount,
+                            payment.recipient(),
+                            false,
+                            payment.paymentCode(),
+                            payment.referenceNumber(),
+                            payment.paymentPurpose(),
+                            createBulkPaymentDto.otpCode()
+                        )
+                    );
+
+                spentToday = spentToday.add(amount);
+                spentThisMonth = spentThisMonth.add(amount);
+                executedTotal = executedTotal.add(amount);
+                executed++;
+                results.add(
+                    new BulkPaymentItemResultDto(
+                        i,
+                        TransactionMapper.INSTANCE.toDto(transaction),
+                        null
+                    )
+                );
+            } catch (BaseApiException e) {
+                results.add(
+                    new BulkPaymentItemResultDto(
+                        i,
+                        null,
+                        e.getClass()
+                            .getSimpleName()
+                    )
+                );
+            }
+
+            if ((i + 1) % BULK_CHUNK_SIZE == 0) entityManager.flush();
+        }
+
+        if (executed > 0) recordSpend(fromAccount, executedTotal);
+
+        return new BulkPaymentResultDto(executed, payments.size() - executed, results);
+    }
+
+    @Transactional(readOnly = true)
     @Override
     public Page<TransactionDto> getAllTransactionsForClient(
         String token,
@@ -157,6 +296,40 @@ public class TransactionServiceImpl implements TransactionService {
         LocalDate paymentDate,
         String accountNumber,
         PageRequest pageRequest
+    ) {
+        Page<Transaction> transactions =
+            transactionRepository.findAll(
+                clientTransactionFilter(token, paymentStatus, amount, paymentDate, accountNumber),
+                pageRequest
+            );
+
+        return transactions.map(TransactionMapper.INSTANCE::toDto);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public TransactionHistoryPageDto getTransactionHistoryForClient(
+        String token,
+        TransactionStatus paymentStatus,
+        BigDecimal amount,
+        LocalDate paymentDate,
+        String accountNumber,
+        String cursor,
+        int size
+    ) {
+        return seek(
+            clientTransactionFilter(token, paymentStatus, amount, paymentDate, accountNumber),
+            cursor,
+            size
+        );
+    }
+
+    private Specification<Transaction> clientTransactionFilter(
+        String token,
+        TransactionStatus paymentStatus,
+        BigDecimal amount,
+        LocalDate paymentDate,
+        String accountNumber
     ) {
         SpecificationCombinator<Transaction> combinator = new SpecificationCombinator<>();
 
@@ -185,12 +358,10 @@ public class TransactionServiceImpl implements TransactionService {
 
         combinator.and(PaymentSpecification.isNotTransfer());
 
-        Page<Transaction> transactions =
-            transactionRepository.findAll(combinator.build(), pageRequest);
-
-        return transactions.map(TransactionMapper.INSTANCE::toDto);
+        return combinator.build();
     }
 
+    @Transactional(readOnly = true)
     @Override
     public TransactionDto getTransactionById(String token, UUID transactionId) {
         Transaction transaction =
@@ -202,38 +373,73 @@ public class TransactionServiceImpl implements TransactionService {
         return TransactionMapper.INSTANCE.toDto(transaction);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public Page<TransactionDto> getAllTransfersForClient(String token, PageRequest pageRequest) {
+        Page<Transaction> transfers =
+            transactionRepository.findAll(
+                clientTransferFilter(token),
+                pageRequest.withSort(HISTORY_ORDER)
+            );
+
+        return transfers.map(TransactionMapper.INSTANCE::toDto);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public TransactionHistoryPageDto getTransferHistoryForClient(
+        String token,
+        String cursor,
+        int size
+    ) {
+        return seek(clientTransferFilter(token), cursor, size);
+    }
+
+    private Specification<Transaction> clientTransferFilter(String token) {
         UUID clientId = jwtService.extractUserId(token);
         Client client =
             clientRepository.findById(clientId)
                 .orElseThrow(() -> new UserNotFound(clientId.toString()));
 
-        Page<Transaction> transactions =
-            transactionRepository.findAllByFromAccount_ClientAndIsTransferTrue(client, pageRequest);
+        return PaymentSpecification.isFromClient(client)
+            .and(PaymentSpecification.isTransfer())
+            .and(PaymentSpecification.isNotSpecialTransaction());
+    }
 
-        List<Transaction> filteredTransactions =
-            transactions.stream()
-                .filter(
-                    transaction -> !transaction.getReferenceNumber()
-                        .startsWith("CONV-")
-                        && !transaction.getReferenceNumber()
-                            .startsWith("TRF-")
-                        && !transaction.getReferenceNumber()
-                            .startsWith("FEE-")
-                )
-                .sorted(
-                    (t1, t2) -> t2.getPaymentDateTime()
-                        .compareTo(t1.getPaymentDateTime())
-                )
-                .collect(Collectors.toList());
+    /**
+     * Reads one page of {@code filter} in {@link #HISTORY_ORDER}, starting after {@code cursor}.
+     * Fetches one row more than requested to find out whether there is a next page, so no count
+     * query is needed.
+     */
+    private TransactionHistoryPageDto seek(
+        Specification<Transaction> filter,
+        String cursor,
+        int size
+    ) {
+        final int limit = Math.clamp(size, 1, MAX_HISTORY_PAGE_SIZE);
+        List<Transaction> transactions =
+            transactionRepository.findBy(
+                filter.and(PaymentSpecification.isAfterCursor(HistoryCursor.decode(cursor))),
+                query -> query.sortBy(HISTORY_ORDER)
+                    .limit(limit + 1)
+                    .all()
+            );
+
+        String nextCursor = null;
+        if (transactions.size() > limit) {
+            transactions = transactions.subList(0, limit);
+            Transaction last = transactions.get(limit - 1);
+            nextCursor = new HistoryCursor(last.getPaymentDateTime(), last.getId()).encode();
+        }
 
-        return new PageImpl<>(filteredTransactions, pageRequest, filteredTransactions.size()).map(
-            TransactionMapper.INSTANCE::toDto
+        return new TransactionHistoryPageDto(
+            transactions.stream()
+                .map(TransactionMapper.INSTANCE::toDto)
+                .toList(),
+            nextCursor
         );
     }
 
-
     // Private methods
     private Client getClient(Authentication authentication) {
         UUID clientId =
@@ -263,7 +469,7 @@ public class TransactionServiceImpl implements TransactionService {
 
     private void validateSufficientFunds(Account fromAccount, BigDecimal amount) {
         if (
-            fromAccount.getBalance()
+            fromAccount.getAvailableBalance()
                 .subtract(amount)
                 .compareTo(BigDecimal.ZERO)
                 < 0
@@ -272,36 +478,57 @@ public class TransactionServiceImpl implements TransactionService {
         }
     }
 
+    /**
+     * Checks the payment against the account limits using the running {@link SpendCounter}s. The
+     * caller must hold the row lock on {@code fromAccount}, which serializes this read with the
+     * matching {@link #recordSpend(Account, BigDecimal)}.
+     */
     private void validateDailyAndMonthlyLimit(Account fromAccount, BigDecimal amount) {
-        BigDecimal dailyLimit = fromAccount.getDailyLimit();
-        BigDecimal monthlyLimit = fromAccount.getMonthlyLimit();
-
-        BigDecimal totalDailyTransactions =
-            transactionRepository.getTotalDailyTransactions(fromAccount.getId(), LocalDate.now());
-        BigDecimal totalMonthlyTransactions =
-            transactionRepository.getTotalMonthlyTransactions(
-                fromAccount.getId(),
-                LocalDate.now()
-                    .getMonthValue()
-            );
+        LocalDate today = LocalDate.now();
+        BigDecimal totalDailyTransactions = getSpent(fromAccount, SpendPeriod.DAY, today);
+        BigDecimal totalMonthlyTransactions = getSpent(fromAccount, SpendPeriod.MONTH, today);
+
+        validateLimits(
+            fromAccount,
+            totalDailyTransactions.add(amount),
+            totalMonthlyTransactions.add(amount)
+        );
+    }
 
+    private void validateLimits(Account account, BigDecimal dailyTotal, BigDecimal monthlyTotal) {
         if (
-            totalDailyTransactions.add(amount)
-                .compareTo(dailyLimit)
+            dailyTotal.compareTo(account.getDailyLimit())
                 > 0
         ) {
             throw new ExceededDailyLimit();
         }
 
         if (
-            totalMonthlyTransactions.add(amount)
-                .compareTo(monthlyLimit)
+            monthlyTotal.compareTo(account.getMonthlyLimit())
                 > 0
         ) {
             throw new ExceededMonthlyLimit();
         }
     }
 
+    private BigDecimal getSpent(Account account, SpendPeriod period, LocalDate date) {
+        return spendCounterRepository.findById(SpendCounterId.of(account.getId(), period, date))
+            .map(SpendCounter::getAmount)
+            .orElse(BigDecimal.ZERO);
+    }
+
+    private void recordSpend(Account account, BigDecimal amount) {
+        LocalDate today = LocalDate.now();
+        for (SpendPeriod period : SpendPeriod.values()) {
+            spendCounterRepository.increment(
+                account.getId(),
+                period.name(),
+                period.startOf(today),
+                amount
+            );
+        }
+    }
+
     private boolean verifyClient(Authentication authentication, String otpCode) {
         return totpService.validate(
             authentication.getCredentials()
@@ -324,6 +551,16 @@ public class TransactionServiceImpl implements TransactionService {
      * currency conversions and fee calculations. It supports transactions between accounts with the
      * same currency, as well as transactions involving different currencies.
      * </p>
+     * <p>
+     * Every leg is appended to the {@link LedgerService} journal. The debited amount is held out of
+     * the available balance of {@code fromAccount} right away; booked balances follow once the
+     * ledger projector runs.
+     * </p>
+     * <p>
+     * Fees, rates and bank accounts are all resolved, and every row built, before the first leg is
+     * posted, so a payment that fails part of the way leaves no legs or rows behind, even when the
+     * caller carries on with the same transaction, as bulk payments do.
+     * </p>
      *
      * @param fromAccount the account from which the funds will be debited
      * @param toAccount the account to which the funds will be credited
@@ -338,6 +575,7 @@ public class TransactionServiceImpl implements TransactionService {
         BigDecimal amount,
         CreateTransactionDto createTransactionDto
     ) {
+        final var postings = new Postings();
         BigDecimal fee = BigDecimal.ZERO;
         // Same -> Same
         if (
@@ -348,14 +586,7 @@ public class TransactionServiceImpl implements TransactionService {
                         .getCode()
                 )
         ) {
-            fromAccount.setBalance(
-                fromAccount.getBalance()
-                    .subtract(amount)
-            );
-            toAccount.setBalance(
-                toAccount.getBalance()
-                    .add(amount)
-            );
+            postings.transfer(fromAccount, toAccount, amount);
         }
         // RSD -> Foreign
         else
@@ -364,7 +595,7 @@ public class TransactionServiceImpl implements TransactionService {
                     .getCode()
                     .equals(CurrencyCode.Code.RSD)
             ) {
-                fee = transferFromRsdToForeign(fromAccount, toAccount, amount);
+                fee = transferFromRsdToForeign(fromAccount, toAccount, amount, postings);
             } else {
                 // Foreign -> RSD
                 if (
@@ -372,11 +603,11 @@ public class TransactionServiceImpl implements TransactionService {
                         .getCode()
                         .equals(CurrencyCode.Code.RSD)
                 ) {
-                    fee = transferFromForeignToRsd(fromAccount, toAccount, amount);
+                    fee = transferFromForeignToRsd(fromAccount, toAccount, amount, postings);
                 }
                 // Foreign -> Foreign
                 else {
-                    fee = transferFromForeignToForeign(fromAccount, toAccount, amount);
+                    fee = transferFromForeignToForeign(fromAccount, toAccount, amount, postings);
                 }
             }
 
@@ -401,7 +632,8 @@ public class TransactionServiceImpl implements TransactionService {
                 );
             transaction.setTransfer(true);
         }
-        transactionRepository.save(transaction);
+        postings.record(transaction);
+        postings.write();
         return transaction;
     }
 
@@ -424,7 +656,8 @@ public class TransactionServiceImpl implements TransactionService {
     private BigDecimal transferFromRsdToForeign(
         Account fromAccount,
         Account toAccount,
-        BigDecimal amount
+        BigDecimal amount,
+        Postings postings
     ) {
         BigDecimal fee = exchangeRateService.calculateFee(amount);
 
@@ -435,15 +668,8 @@ public class TransactionServiceImpl implements TransactionService {
         // Transfer Client RSD to bank's RSD account
         Account rsdBankAccount =
             bankAccountServiceImpl.getBankAccountForCurrency(CurrencyCode.Code.RSD);
-        fromAccount.setBalance(
-            fromAccount.getBalance()
-                .subtract(amount)
-        );
-        rsdBankAccount.setBalance(
-            rsdBankAccount.getBalance()
-                .add(amount)
-        );
-        createBankTransferTransaction(
+        postings.transfer(fromAccount, rsdBankAccount, amount);
+        postings.bankTransfer(
             fromAccount,
             rsdBankAccount,
             amount,
@@ -461,15 +687,8 @@ public class TransactionServiceImpl implements TransactionService {
             );
 
         // Charge the fee
-        fromAccount.setBalance(
-            fromAccount.getBalance()
-                .subtract(fee)
-        );
-        rsdBankAccount.setBalance(
-            rsdBankAccount.getBalance()
-                .add(fee)
-        );
-        createFeeTransaction(fromAccount, rsdBankAccount, fee);
+        postings.transfer(fromAccount, rsdBankAccount, fee);
+        postings.fee(fromAccount, rsdBankAccount, fee);
 
         // Decrease the bank account in foreign currency for the full amount that the user receives
         Account foreignBankAccount =
@@ -477,17 +696,10 @@ public class TransactionServiceImpl implements TransactionService {
                 toAccount.getCurrency()
                     .getCode()
             );
-        foreignBankAccount.setBalance(
-            foreignBankAccount.getBalance()
-                .subtract(convertedAmount)
-        );
 
         // Transfer the full amount to the user
-        toAccount.setBalance(
-            toAccount.getBalance()
-                .add(convertedAmount)
-        );
-        createBankTransferTransaction(
+        postings.transfer(foreignBankAccount, toAccount, convertedAmount);
+        postings.bankTransfer(
             foreignBankAccount,
             toAccount,
             convertedAmount,
@@ -495,7 +707,7 @@ public class TransactionServiceImpl implements TransactionService {
         );
 
         // Transaction for fee & conversion
-        createConversionTransaction(rsdBankAccount, foreignBankAccount, convertedAmount);
+        postings.conversion(rsdBankAccount, foreignBankAccount, convertedAmount);
 
         return fee;
     }
@@ -519,7 +731,8 @@ public class TransactionServiceImpl implements TransactionService {
     private BigDecimal transferFromForeignToRsd(
         Account fromAccount,
         Account toAccount,
-        BigDecimal amount
+        BigDecimal amount,
+        Postings postings
     ) {
         BigDecimal fee = exchangeRateService.calculateFee(amount);
 
@@ -533,15 +746,8 @@ public class TransactionServiceImpl implements TransactionService {
                 fromAccount.getCurrency()
                     .getCode()
             );
-        fromAccount.setBalance(
-            fromAccount.getBalance()
-                .subtract(amount)
-        );
-        foreignBankAccount.setBalance(
-            foreignBankAccount.getBalance()
-                .add(amount)
-        );
-        createBankTransferTransaction(
+        postings.transfer(fromAccount, foreignBankAccount, amount);
+        postings.bankTransfer(
             fromAccount,
             foreignBankAccount,
             amount,
@@ -560,15 +766,8 @@ public class TransactionServiceImpl implements TransactionService {
         // Transfer RSD from RSD bank account to client
         Account rsdBankAccount =
             bankAccountServiceImpl.getBankAccountForCurrency(CurrencyCode.Code.RSD);
-        rsdBankAccount.setBalance(
-            rsdBankAccount.getBalance()
-                .subtract(convertedAmount)
-        );
-        toAccount.setBalance(
-            toAccount.getBalance()
-                .add(convertedAmount)
-        );
-        createBankTransferTransaction(
+        postings.transfer(rsdBankAccount, toAccount, convertedAmount);
+        postings.bankTransfer(
             rsdBankAccount,
             toAccount,
             convertedAmount,
@@ -576,18 +775,11 @@ public class TransactionServiceImpl implements TransactionService {
         );
 
         // Charge the fee
-        fromAccount.setBalance(
-            fromAccount.getBalance()
-                .subtract(fee)
-        );
-        foreignBankAccount.setBalance(
-            foreignBankAccount.getBalance()
-                .add(fee)
-        );
-        createFeeTransaction(fromAccount, foreignBankAccount, fee);
+        postings.transfer(fromAccount, foreignBankAccount, fee);
+        postings.fee(fromAccount, foreignBankAccount, fee);
 
         // Transaction for conversion
-        createConversionTransaction(foreignBankAccount, rsdBankAccount, convertedAmount);
+        postings.conversion(foreignBankAccount, rsdBankAccount, convertedAmount);
 
         return fee;
     }
@@ -611,7 +803,8 @@ public class TransactionServiceImpl implements TransactionService {
     private BigDecimal transferFromForeignToForeign(
         Account fromAccount,
         Account toAccount,
-        BigDecimal amount
+        BigDecimal amount,
+        Postings postings
     ) {
         BigDecimal fee =
             exchangeRateService.calculateFee(amount)
@@ -627,24 +820,15 @@ public class TransactionServiceImpl implements TransactionService {
                 fromAccount.getCurrency()
                     .getCode()
             );
-        fromAccount.setBalance(
-            fromAccount.getBalance()
-                .subtract(amount)
-        );
-        foreignBankAccount.setBalance(
-            foreignBankAccount.getBalance()
-                .add(amount)
-        );
-        createBankTransferTransaction(
+        postings.transfer(fromAccount, foreignBankAccount, amount);
+        postings.bankTransfer(
             fromAccount,
             foreignBankAccount,
             amount,
             "Transfer to Foreign Bank Account"
         );
 
-        // Convert ForeignFrom to RSD using the sell rate EUR Bank -> RSD Bank
-        Account rsdBankAccount =
-            bankAccountServiceImpl.getBankAccountForCurrency(CurrencyCode.Code.RSD);
+        // Price ForeignFrom in RSD using the sell rate; the cross rate is quoted through RSD
         BigDecimal amountInRSD =
             exchangeRateService.convertCurrency(
                 amount,
@@ -652,33 +836,12 @@ public class TransactionServiceImpl implements TransactionService {
                     .getCode(),
                 CurrencyCode.Code.RSD
             );
-        rsdBankAccount.setBalance(
-            rsdBankAccount.getBalance()
-                .add(amountInRSD)
-        );
-        createBankTransferTransaction(
-            foreignBankAccount,
-            rsdBankAccount,
-            amount,
-            "Transfer to RSD Bank Account"
-        );
 
         // Fee
-        fromAccount.setBalance(
-            fromAccount.getBalance()
-                .subtract(fee)
-        );
-        foreignBankAccount.setBalance(
-            foreignBankAccount.getBalance()
-                .add(fee)
-        );
-        createFeeTransaction(fromAccount, foreignBankAccount, fee);
+        postings.transfer(fromAccount, foreignBankAccount, fee);
+        postings.fee(fromAccount, foreignBankAccount, fee);
 
-        // Transfer RSD from RSD bank account to ForeignTo bank account (RSD Bank -> USD Bank)
-        rsdBankAccount.setBalance(
-            rsdBankAccount.getBalance()
-                .subtract(amountInRSD)
-        );
+        // Convert RSD to ForeignTo (RSD Bank -> USD Bank)
         BigDecimal amountInForeignTo =
             exchangeRateService.convertCurrency(
                 amountInRSD,
@@ -687,32 +850,29 @@ public class TransactionServiceImpl implements TransactionService {
                     .getCode()
             );
         Account foreignToBankAccount =
-            bankAccountServiceImpl.getBankAccountForCurrency(CurrencyCode.Code.USD);
-        foreignToBankAccount.setBalance(
-            foreignToBankAccount.getBalance()
-                .add(amountInForeignTo)
-        );
+            bankAccountServiceImpl.getBankAccountForCurrency(
+                toAccount.getCurrency()
+                    .getCode()
+            );
 
+        /*
+         * As with the other conversions, the bank keeps what it received in ForeignFrom and pays
+         * out of its ForeignTo account; the RSD leg only prices the cross rate and never touches
+         * the RSD bank account. Every leg that moves money is therefore a same-currency ledger
+         * transfer, and a single conversion row records the exchange between the two bank
+         * accounts.
+         */
         // Transfer ForeignTo from ForeignTo bank account to client (USD Bank -> USD Client)
-        foreignToBankAccount.setBalance(
-            foreignToBankAccount.getBalance()
-                .subtract(amountInForeignTo)
-        );
-        toAccount.setBalance(
-            toAccount.getBalance()
-                .add(amountInForeignTo)
-        );
-        createBankTransferTransaction(
+        postings.transfer(foreignToBankAccount, toAccount, amountInForeignTo);
+        postings.bankTransfer(
             foreignToBankAccount,
             toAccount,
             amountInForeignTo,
             "Transfer converted amount to Client"
         );
 
-        // Create a transaction for the conversion
-        createConversionTransaction(foreignBankAccount, rsdBankAccount, amountInRSD);
-        createConversionTransaction(rsdBankAccount, foreignToBankAccount, amountInRSD);
-        createConversionTransaction(foreignToBankAccount, toAccount, amountInForeignTo);
+        // Create a transaction for the conversion (EUR Bank -> USD Bank)
+        postings.conversion(foreignBankAccount, foreignToBankAccount, amount);
 
         return fee;
     }
@@ -790,26 +950,28 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
 
-    private void createFeeTransaction(Account fromAccount, Account toAccount, BigDecimal fee) {
+    private Transaction buildFeeTransaction(
+        Account fromAccount,
+        Account toAccount,
+        BigDecimal fee
+    ) {
         BigDecimal toAmount =
             convertCurrency(fee, fromAccount.getCurrency(), toAccount.getCurrency());
 
-        Transaction feeTransaction =
-            buildSpecialTransaction(
-                fromAccount,
-                toAccount,
-                fee,
-                toAmount,
-                fee,
-                "Bank Fee",
-                "289",
-                "FEE-" + UUID.randomUUID(),
-                "Transaction Fee"
-            );
-        transactionRepository.save(feeTransaction);
+        return buildSpecialTransaction(
+            fromAccount,
+            toAccount,
+            fee,
+            toAmount,
+            fee,
+            "Bank Fee",
+            "289",
+            "FEE-" + UUID.randomUUID(),
+            "Transaction Fee"
+        );
     }
 
-    private void createConversionTransaction(
+    private Transaction buildConversionTransaction(
         Account fromAccount,
         Account toAccount,
         BigDecimal amount
@@ -817,19 +979,17 @@ public class TransactionServiceImpl implements TransactionService {
         BigDecimal toAmount =
             convertCurrency(amount, fromAccount.getCurrency(), toAccount.getCurrency());
 
-        Transaction conversionTransaction =
-            buildSpecialTransaction(
-                fromAccount,
-                toAccount,
-                amount,
-                toAmount,
-                BigDecimal.ZERO,
-                "Bank Conversion",
-                "285",
-                "CONV-" + UUID.randomUUID(),
-                "Currency Conversion"
-            );
-        transactionRepository.save(conversionTransaction);
+        return buildSpecialTransaction(
+            fromAccount,
+            toAccount,
+            amount,
+            toAmount,
+            BigDecimal.ZERO,
+            "Bank Conversion",
+            "285",
+            "CONV-" + UUID.randomUUID(),
+            "Currency Conversion"
+        );
     }
 
     public void createBankTransferTransaction(
@@ -837,23 +997,32 @@ public class TransactionServiceImpl implements TransactionService {
         Account toAccount,
         BigDecimal amount,
         String purpose
+    ) {
+        transactionRepository.save(
+            buildBankTransferTransaction(fromAccount, toAccount, amount, purpose)
+        );
+    }
+
+    private Transaction buildBankTransferTransaction(
+        Account fromAccount,
+        Account toAccount,
+        BigDecimal amount,
+        String purpose
     ) {
         BigDecimal toAmount =
             convertCurrency(amount, fromAccount.getCurrency(), toAccount.getCurrency());
 
-        Transaction transaction =
-            buildSpecialTransaction(
-                fromAccount,
-                toAccount,
-                amount,
-                toAmount,
-                BigDecimal.ZERO,
-                "Bank Transfer",
-                "290",
-                "TRF-" + UUID.randomUUID(),
-                purpose
-            );
-        transactionRepository.save(transaction);
+        return buildSpecialTransaction(
+            fromAccount,
+            toAccount,
+            amount,
+            toAmount,
+            BigDecimal.ZERO,
+            "Bank Transfer",
+            "290",
+            "TRF-" + UUID.randomUUID(),
+            purpose
+        );
     }
 
     private Transaction buildSpecialTransaction(
@@ -887,7 +1056,7 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     private boolean hasEnoughFunds(Account account, BigDecimal fee) {
-        return account.getBalance()
+        return account.getAvailableBalance()
             .subtract(fee)
             .compareTo(BigDecimal.ZERO)
             >= 0;
@@ -915,11 +1084,49 @@ public class TransactionServiceImpl implements TransactionService {
                 accNum -> accountRepository.findAccountByAccountNumber(accNum)
                     .orElseThrow(AccountNotFound::new)
             )
-            .sorted(Comparator.comparing(Account::getId)) // Deadlock prevention
+            /* Deadlock prevention: the same order lockAllByAccountNumberIn locks in. */
+            .sorted(Comparator.comparing(Account::getId, UuidOrder.UNSIGNED))
             .peek(account -> {
                 entityManager.lock(account, LockModeType.PESSIMISTIC_WRITE);
                 entityManager.refresh(account); // Refresh data
             })
             .collect(Collectors.toMap(Account::getAccountNumber, acc -> acc));
     }
+
+    /**
+     * The writes of one payment, held back until all of them are known. Building a row resolves
+     * its conversion rate, so anything that can fail does so before {@link #write()}.
+     */
+    private final class Postings {
+        private final List<Runnable> writes = new ArrayList<>();
+
+        void transfer(Account debitAccount, Account creditAccount, BigDecimal amount) {
+            writes.add(() -> ledgerService.transfer(debitAccount, creditAccount, amount));
+        }
+
+        void bankTransfer(
+            Account fromAccount,
+            Account toAccount,
+            BigDecimal amount,
+            String purpose
+        ) {
+            record(buildBankTransferTransaction(fromAccount, toAccount, amount, purpose));
+        }
+
+        void fee(Account fromAccount, Account toAccount, BigDecimal fee) {
+            record(buildFeeTransaction(fromAccount, toAccount, fee));
+        }
+
+        void conversion(Account fromAccount, Account toAccount, BigDecimal amount) {
+            record(buildConversionTransaction(fromAccount, toAccount, amount));
+        }
+
+        void record(Transaction transaction) {
+            writes.add(() -> transactionRepository.save(transaction));
+        }
+
+        void write() {
+            writes.forEach(Runnable::run);
+        }
+    }
 }
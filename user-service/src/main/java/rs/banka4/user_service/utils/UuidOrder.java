@@ -0,0 +1,20 @@
+package rs.banka4.user_service.utils;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Orders UUIDs the way PostgreSQL does: unsigned, most significant bits first.
+ * {@link UUID#compareTo} compares the halves as signed longs, which disagrees with it for keys on
+ * opposite sides of {@code 8000...}. Code that locks rows in Java must sort them with this to lock
+ * in the same order as a query's {@code ORDER BY id}.
+ */
+public final class UuidOrder {
+    public static final Comparator<UUID> UNSIGNED =
+        (a, b) -> a.getMostSignificantBits() != b.getMostSignificantBits()
+            ? Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits())
+            : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+
+    private UuidOrder() {
+    }
+}
@@ -0,0 +1,113 @@
+package rs.banka4.user_service.utils.exchange;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Map;
+import rs.banka4.rafeisen.common.currency.CurrencyCode;
+import rs.banka4.user_service.domain.exchange.dtos.ExchangeRate;
+import rs.banka4.user_service.domain.exchange.dtos.ExchangeRateDto;
+
+/**
+ * Immutable snapshot of the exchange office rate table, flattened into a precomputed
+ * {@link CurrencyCode.Code} &times; {@link CurrencyCode.Code} matrix of conversion factors.
+ *
+ * <p>
+ * The exchange office quotes every currency against RSD. Factors are derived as follows:
+ * </p>
+ * <ul>
+ * <li>RSD &rarr; X: {@code 1 / buy(X)}</li>
+ * <li>X &rarr; RSD: {@code sell(X)}</li>
+ * <li>X &rarr; Y: {@code sell(X) / buy(Y)}, i.e. a cross rate through RSD</li>
+ * <li>X &rarr; X: {@code 1}</li>
+ * </ul>
+ *
+ * <p>
+ * Pairs for which the exchange office did not provide a rate are left empty, and converting them
+ * fails with an {@link IllegalArgumentException}.
+ * </p>
+ */
+public final class ExchangeRateMatrix {
+    private static final CurrencyCode.Code[] CODES = CurrencyCode.Code.values();
+    private static final MathContext FACTOR_PRECISION = MathContext.DECIMAL128;
+
+    private final BigDecimal[][] factors;
+    private final long fetchedAtMillis;
+
+    private ExchangeRateMatrix(BigDecimal[][] factors, long fetchedAtMillis) {
+        this.factors = factors;
+        this.fetchedAtMillis = fetchedAtMillis;
+    }
+
+    /**
+     * Builds a matrix out of an exchange office response.
+     *
+     * @param dto response of the exchange office
+     * @param fetchedAtMillis wall-clock time at which the response was received
+     * @return a fully populated matrix
+     */
+    public static ExchangeRateMatrix from(ExchangeRateDto dto, long fetchedAtMillis) {
+        final Map<CurrencyCode.Code, ExchangeRate> rates = dto.exchanges();
+        final var factors = new BigDecimal[CODES.length][CODES.length];
+
+        for (final var from : CODES) {
+            for (final var to : CODES) {
+                factors[from.ordinal()][to.ordinal()] = computeFactor(rates, from, to);
+            }
+        }
+
+        return new ExchangeRateMatrix(factors, fetchedAtMillis);
+    }
+
+    private static BigDecimal computeFactor(
+        Map<CurrencyCode.Code, ExchangeRate> rates,
+        CurrencyCode.Code from,
+        CurrencyCode.Code to
+    ) {
+        if (from == to) return BigDecimal.ONE;
+
+        /* Everything is quoted against RSD, so go through it. */
+        final BigDecimal toRsd;
+        if (from == CurrencyCode.Code.RSD) toRsd = BigDecimal.ONE;
+        else {
+            final var rate = rates.get(from);
+            if (rate == null || rate.sell() == null) return null;
+            toRsd = rate.sell();
+        }
+
+        if (to == CurrencyCode.Code.RSD) return toRsd;
+
+        final var rate = rates.get(to);
+        if (rate == null || rate.buy() == null || rate.buy().signum() == 0) return null;
+        return toRsd.divide(rate.buy(), FACTOR_PRECISION);
+    }
+
+    /**
+     * Converts {@code amount} from {@code from} to {@code to}.
+     *
+     * @return the converted amount rounded to two decimal places.
+     * @throws IllegalArgumentException if no rate is known for the given pair.
+     */
+    public BigDecimal convert(BigDecimal amount, CurrencyCode.Code from, CurrencyCode.Code to) {
+        return amount.multiply(factor(from, to))
+            .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * @return the multiplier that converts an amount in {@code from} into {@code to}.
+     * @throws IllegalArgumentException if no rate is known for the given pair.
+     */
+    public BigDecimal factor(CurrencyCode.Code from, CurrencyCode.Code to) {
+        final var factor = factors[from.ordinal()][to.ordinal()];
+        if (factor == null)
+            throw new IllegalArgumentException("No exchange rate for " + from + " -> " + to);
+        return factor;
+    }
+
+    /**
+     * @return wall-clock time, in milliseconds, at which the underlying rates were fetched.
+     */
+    public long fetchedAtMillis() {
+        return fetchedAtMillis;
+    }
+}
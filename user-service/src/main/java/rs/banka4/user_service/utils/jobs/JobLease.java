@@ -0,0 +1,11 @@
+package rs.banka4.user_service.utils.jobs;
+
+/**
+ * Proof that this instance holds the lease on {@code jobName}. A newer holder always has a larger
+ * {@code fencingToken}.
+ */
+public record JobLease(
+    String jobName,
+    long fencingToken
+) {
+}
@@ -0,0 +1,17 @@
+package rs.banka4.user_service.utils.jobs;
+
+/**
+ * Thrown from {@link JobLeaseService#checkFence(JobLease)} when another instance has taken over
+ * the lease, or it expired. Work done under the lease must stop.
+ */
+public class JobLeaseLostException extends IllegalStateException {
+    public JobLeaseLostException(JobLease lease) {
+        super(
+            "Lease on "
+                + lease.jobName()
+                + " with fencing token "
+                + lease.fencingToken()
+                + " is no longer held"
+        );
+    }
+}
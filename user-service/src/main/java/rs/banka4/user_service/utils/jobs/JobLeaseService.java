@@ -0,0 +1,191 @@
+package rs.banka4.user_service.utils.jobs;
+
+import jakarta.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Database-backed leases that let only one user-service instance run a scheduled job at a time.
+ *
+ * <p>
+ * A lease is taken with a single upsert on {@code job_leases} that succeeds only if the previous
+ * lease expired and the job has not already completed the requested run. All times come from the
+ * database clock, so instances with skewed clocks still agree. While a job runs, its lease is
+ * renewed in the background every third of the TTL.
+ * </p>
+ *
+ * <p>
+ * Every acquisition increments the lease's fencing token. Transactions doing work under a lease
+ * call {@link #checkFence(JobLease)}, which share-locks the lease row: a stale holder fails the
+ * check, and a new holder cannot take over while a fenced transaction is still in flight.
+ * </p>
+ */
+@Service
+public class JobLeaseService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobLeaseService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final String owner;
+    private final ScheduledExecutorService renewer =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform()
+                .name("job-lease-renewer")
+                .daemon()
+                .factory()
+        );
+
+    public JobLeaseService(
+        JdbcTemplate jdbcTemplate,
+        @Value("${banka4.jobs.lease-ttl:PT2M}") Duration ttl
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.owner =
+            ManagementFactory.getRuntimeMXBean()
+                .getName()
+                + "/"
+                + UUID.randomUUID();
+    }
+
+    /**
+     * Takes the lease on {@code jobName} unless another instance holds it or run {@code runKey}
+     * of the job already completed.
+     */
+    public Optional<JobLease> tryAcquire(String jobName, String runKey) {
+        final List<Long> tokens =
+            jdbcTemplate.queryForList(
+                """
+                    INSERT INTO job_leases (job_name, owner, fencing_token, lease_until)
+                    VALUES (?, ?, 1, now() + make_interval(secs => ?))
+                    ON CONFLICT (job_name) DO UPDATE
+                       SET owner = EXCLUDED.owner,
+                           fencing_token = job_leases.fencing_token + 1,
+                           lease_until = EXCLUDED.lease_until
+                     WHERE job_leases.lease_until < now()
+                       AND job_leases.completed_run IS DISTINCT FROM ?
+                    RETURNING fencing_token
+                    """,
+                Long.class,
+                jobName,
+                owner,
+                ttl.toSeconds(),
+                runKey
+            );
+        return tokens.isEmpty()
+            ? Optional.empty()
+            : Optional.of(new JobLease(jobName, tokens.get(0)));
+    }
+
+    /**
+     * @return {@code false} if the lease was lost.
+     */
+    public boolean renew(JobLease lease) {
+        return jdbcTemplate.update(
+            """
+                UPDATE job_leases
+                   SET lease_until = now() + make_interval(secs => ?)
+                 WHERE job_name = ? AND fencing_token = ? AND lease_until > now()
+                """,
+            ttl.toSeconds(),
+            lease.jobName(),
+            lease.fencingToken()
+        )
+            == 1;
+    }
+
+    /**
+     * Gives up the lease. If {@code completedRun} is not null, that run is recorded as done and
+     * will not be acquired again.
+     */
+    public void release(JobLease lease, String completedRun) {
+        jdbcTemplate.update(
+            """
+                UPDATE job_leases
+                   SET lease_until = now(),
+                       completed_run = COALESCE(?, completed_run)
+                 WHERE job_name = ? AND fencing_token = ?
+                """,
+            completedRun,
+            lease.jobName(),
+            lease.fencingToken()
+        );
+    }
+
+    /**
+     * Must be called inside the transaction doing the fenced work.
+     *
+     * @throws JobLeaseLostException if {@code lease} is no longer the current, unexpired lease.
+     */
+    public void checkFence(JobLease lease) {
+        final var current =
+            jdbcTemplate.queryForList(
+                """
+                    SELECT fencing_token
+                      FROM job_leases
+                     WHERE job_name = ? AND fencing_token = ? AND lease_until > now()
+                       FOR SHARE
+                    """,
+                Long.class,
+                lease.jobName(),
+                lease.fencingToken()
+            );
+        if (current.isEmpty()) throw new JobLeaseLostException(lease);
+    }
+
+    /**
+     * Runs {@code job} if this instance can take the lease on {@code jobName} for {@code runKey},
+     * keeping the lease renewed meanwhile. The run is only marked complete if {@code job} returns
+     * normally.
+     *
+     * @return whether this instance ran the job.
+     */
+    public boolean runOnce(String jobName, String runKey, Consumer<JobLease> job) {
+        final var acquired = tryAcquire(jobName, runKey);
+        if (acquired.isEmpty()) {
+            LOGGER.debug("Job {} ({}) is running or done elsewhere", jobName, runKey);
+            return false;
+        }
+
+        final var lease = acquired.get();
+        final long period = Math.max(1, ttl.toMillis() / 3);
+        final ScheduledFuture<?> renewal =
+            renewer.scheduleAtFixedRate(() -> {
+                try {
+                    if (!renew(lease)) LOGGER.warn("Lost lease on {}", jobName);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Could not renew lease on {}", jobName, e);
+                }
+            }, period, period, TimeUnit.MILLISECONDS);
+
+        boolean completed = false;
+        try {
+            job.accept(lease);
+            completed = true;
+        } catch (JobLeaseLostException e) {
+            LOGGER.warn("Job {} ({}) stopped: {}", jobName, runKey, e.getMessage());
+        } finally {
+            renewal.cancel(false);
+            release(lease, completed ? runKey : null);
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdownNow();
+    }
+}
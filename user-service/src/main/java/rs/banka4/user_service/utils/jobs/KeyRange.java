@@ -0,0 +1,39 @@
+package rs.banka4.user_service.utils.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import rs.banka4.user_service.utils.UuidOrder;
+
+/**
+ * The UUID keys greater than {@code after} and at most {@code upTo}, in PostgreSQL's UUID order
+ * (see {@link UuidOrder}).
+ */
+public record KeyRange(
+    UUID after,
+    UUID upTo
+) {
+    private static final UUID MIN = new UUID(0L, 0L);
+    private static final UUID MAX = new UUID(-1L, -1L);
+
+    /** Every key except the nil UUID. */
+    public static final KeyRange ALL = new KeyRange(MIN, MAX);
+
+    /**
+     * Splits the key space into {@code shards} contiguous ranges of equal width. Random UUIDs
+     * spread evenly over them.
+     */
+    public static List<KeyRange> split(int shards) {
+        if (shards < 1) throw new IllegalArgumentException("shards must be positive");
+
+        final long step = Long.divideUnsigned(-1L, shards);
+        final List<KeyRange> ranges = new ArrayList<>(shards);
+        UUID lower = MIN;
+        for (int i = 1; i <= shards; i++) {
+            final UUID upper = i == shards ? MAX : new UUID(step * i - 1, -1L);
+            ranges.add(new KeyRange(lower, upper));
+            lower = upper;
+        }
+        return ranges;
+    }
+}
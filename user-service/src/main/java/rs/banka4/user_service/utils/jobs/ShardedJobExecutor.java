@@ -0,0 +1,56 @@
+package rs.banka4.user_service.utils.jobs;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Splits a job into key-range shards, each leased separately through {@link JobLeaseService}.
+ * Every instance whose cron fires walks all shards, starting at a random one, and runs those it
+ * manages to lease; shards that are running or already done elsewhere are skipped. With several
+ * instances the shards are therefore shared out, and each runs exactly once per run key. A shard
+ * that fails is logged and left incomplete, to be retried on the next run, without holding up the
+ * shards after it.
+ */
+@Component
+public class ShardedJobExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardedJobExecutor.class);
+
+    private final JobLeaseService jobLeaseService;
+    private final int shardCount;
+
+    public ShardedJobExecutor(
+        JobLeaseService jobLeaseService,
+        @Value("${banka4.jobs.shards:8}") int shardCount
+    ) {
+        this.jobLeaseService = jobLeaseService;
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * @param job base job name; shard {@code i} is leased as {@code job#i}
+     * @param runKey identifies this run, e.g. the date for a daily job
+     * @param shardBody does the work for one key range, fenced by the given lease
+     */
+    public void run(String job, String runKey, BiConsumer<KeyRange, JobLease> shardBody) {
+        final var shards = KeyRange.split(shardCount);
+        final int start =
+            ThreadLocalRandom.current()
+                .nextInt(shardCount);
+        for (int k = 0; k < shardCount; k++) {
+            final int shard = (start + k) % shardCount;
+            try {
+                jobLeaseService.runOnce(
+                    job + "#" + shard,
+                    runKey,
+                    lease -> shardBody.accept(shards.get(shard), lease)
+                );
+            } catch (RuntimeException e) {
+                LOGGER.error("Shard {} of job {} ({}) failed", shard, job, runKey, e);
+            }
+        }
+    }
+}
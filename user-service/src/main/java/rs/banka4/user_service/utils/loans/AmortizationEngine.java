@@ -0,0 +1,112 @@
+package rs.banka4.user_service.utils.loans;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import rs.banka4.user_service.domain.loan.db.Loan;
+import rs.banka4.user_service.domain.loan.db.LoanInstallment;
+import rs.banka4.user_service.domain.loan.db.PaymentStatus;
+import rs.banka4.user_service.domain.loan.dtos.AmortizationPeriodDto;
+import rs.banka4.user_service.domain.loan.dtos.AmortizationScheduleDto;
+
+/**
+ * Builds the full amortization schedule of an annuity loan in one pass.
+ *
+ * <p>
+ * The regular installment comes from the annuity factor cached in {@link LoanRateUtil}. Each
+ * period's interest is the remaining balance times the monthly rate, and the rest of the
+ * installment repays principal. Amounts are rounded to cents per period, and the last installment
+ * absorbs the rounding so that the balance ends at exactly zero.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class AmortizationEngine {
+    private static final int CURRENCY_SCALE = 2;
+
+    private final LoanRateUtil loanRateUtil;
+
+    /**
+     * Schedule of {@code loan} at its base interest rate, with the first installment due on
+     * {@code firstDueDate} and one a month after that.
+     */
+    public AmortizationScheduleDto scheduleFor(Loan loan, LocalDate firstDueDate) {
+        final var monthlyRate =
+            loan.getBaseInterestRate() == null
+                ? BigDecimal.ZERO
+                : loanRateUtil.monthlyRate(loan.getBaseInterestRate(), loan.getType());
+        return schedule(loan.getAmount(), monthlyRate, loan.getRepaymentPeriod(), firstDueDate);
+    }
+
+    /**
+     * @param monthlyRate monthly interest rate, as a fraction
+     * @param term number of monthly installments
+     */
+    public AmortizationScheduleDto schedule(
+        BigDecimal principal,
+        BigDecimal monthlyRate,
+        int term,
+        LocalDate firstDueDate
+    ) {
+        if (term < 1) throw new IllegalArgumentException("Loan term must be positive");
+
+        final var installment =
+            loanRateUtil.calculateMonthly(principal, monthlyRate, BigInteger.valueOf(term))
+                .setScale(CURRENCY_SCALE, RoundingMode.HALF_UP);
+
+        final List<AmortizationPeriodDto> periods = new ArrayList<>(term);
+        var balance = principal.setScale(CURRENCY_SCALE, RoundingMode.HALF_UP);
+        var totalInterest = BigDecimal.ZERO;
+        var totalRepayment = BigDecimal.ZERO;
+        for (int number = 1; number <= term; number++) {
+            final var interest =
+                balance.multiply(monthlyRate)
+                    .setScale(CURRENCY_SCALE, RoundingMode.HALF_UP);
+            final var principalPart =
+                number == term
+                    ? balance
+                    : installment.subtract(interest)
+                        .min(balance);
+            final var amount = principalPart.add(interest);
+            balance = balance.subtract(principalPart);
+            totalInterest = totalInterest.add(interest);
+            totalRepayment = totalRepayment.add(amount);
+
+            periods.add(
+                new AmortizationPeriodDto(
+                    number,
+                    firstDueDate.plusMonths(number - 1),
+                    amount,
+                    principalPart,
+                    interest,
+                    balance
+                )
+            );
+        }
+        return new AmortizationScheduleDto(installment, totalInterest, totalRepayment, periods);
+    }
+
+    /**
+     * Unpaid installments of {@code loan}, one per period of {@code schedule}.
+     */
+    public List<LoanInstallment> plannedInstallments(Loan loan, AmortizationScheduleDto schedule) {
+        return schedule.periods()
+            .stream()
+            .map(
+                period -> LoanInstallment.builder()
+                    .loan(loan)
+                    .installmentAmount(period.installment())
+                    .principalAmount(period.principal())
+                    .interestRateAmount(loan.getBaseInterestRate())
+                    .expectedDueDate(period.dueDate())
+                    .paymentStatus(PaymentStatus.UNPAID)
+                    .build()
+            )
+            .toList();
+    }
+}
@@ -0,0 +1,291 @@
+package rs.banka4.user_service.utils.loans;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.banka4.user_service.domain.loan.db.LoanInstallment;
+import rs.banka4.user_service.repositories.AccountRepository;
+import rs.banka4.user_service.repositories.LoanInstallmentRepository;
+import rs.banka4.user_service.utils.jobs.JobLease;
+import rs.banka4.user_service.utils.jobs.JobLeaseLostException;
+import rs.banka4.user_service.utils.jobs.JobLeaseService;
+import rs.banka4.user_service.utils.jobs.KeyRange;
+
+/**
+ * Runs a loan job over a selection of installments in parallel chunks.
+ *
+ * <p>
+ * The dispatching thread pages installment IDs in key order and hands each page to a bounded
+ * worker pool. A worker processes its chunk in one transaction: it locks the rows that still match
+ * the selection with {@code FOR UPDATE SKIP LOCKED}, so that concurrent runs on other instances
+ * never process the same installment, locks the accounts they are paid from in ID order, and only
+ * then loads them with their loan, account and client in a single query, so that the action sees
+ * balances read under the account locks. If the chunk fails, its installments are retried one
+ * transaction each, so that a single bad installment does not hold back the rest.
+ * </p>
+ *
+ * <p>
+ * A run can be restricted to a {@link KeyRange} of installment IDs and fenced by a
+ * {@link JobLease}: every chunk transaction then checks the lease first, and the run stops as soon
+ * as the lease turns out to be lost, throwing {@link JobLeaseLostException}.
+ * </p>
+ *
+ * <p>
+ * Progress is published as {@code banka4.loans.jobs.installments} (by job and outcome),
+ * {@code banka4.loans.jobs.progress} (installments done in the current run) and
+ * {@code banka4.loans.jobs.duration} (per run).
+ * </p>
+ */
+@Component
+public class InstallmentJobRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstallmentJobRunner.class);
+
+    private final LoanInstallmentRepository loanInstallmentRepository;
+    private final AccountRepository accountRepository;
+    private final JobLeaseService jobLeaseService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final int maxInFlight;
+    private final ExecutorService workers;
+    private final Map<String, AtomicLong> progress = new ConcurrentHashMap<>();
+
+    public record JobResult(
+        long processed,
+        long failed,
+        Duration elapsed
+    ) {
+    }
+
+    public InstallmentJobRunner(
+        LoanInstallmentRepository loanInstallmentRepository,
+        AccountRepository accountRepository,
+        JobLeaseService jobLeaseService,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        @Value("${banka4.loans.jobs.workers:4}") int workerCount,
+        @Value("${banka4.loans.jobs.chunk-size:100}") int chunkSize
+    ) {
+        this.loanInstallmentRepository = loanInstallmentRepository;
+        this.accountRepository = accountRepository;
+        this.jobLeaseService = jobLeaseService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        /* Dispatch at most one chunk ahead per worker. */
+        this.maxInFlight = workerCount * 2;
+        this.workers =
+            Executors.newFixedThreadPool(
+                workerCount,
+                Thread.ofPlatform()
+                    .name("loan-job-", 0)
+                    .factory()
+            );
+    }
+
+    /**
+     * Applies {@code action} to every installment in {@code selection}, within a transaction, and
+     * waits for all of them to finish.
+     */
+    public JobResult run(
+        String job,
+        InstallmentSelection selection,
+        Consumer<LoanInstallment> action
+    ) {
+        return run(job, selection, KeyRange.ALL, null, action);
+    }
+
+    /**
+     * Applies {@code action} to every installment in {@code selection} whose ID lies in
+     * {@code range}, within transactions fenced by {@code lease} (if not null), and waits for all
+     * of them to finish.
+     *
+     * @throws JobLeaseLostException if {@code lease} was lost during the run. Chunks that already
+     *         committed stay committed.
+     */
+    public JobResult run(
+        String job,
+        InstallmentSelection selection,
+        KeyRange range,
+        @Nullable JobLease lease,
+        Consumer<LoanInstallment> action
+    ) {
+        final var started = System.nanoTime();
+        final var processed =
+            Counter.builder("banka4.loans.jobs.installments")
+                .tags("job", job, "outcome", "processed")
+                .register(meterRegistry);
+        final var failed =
+            Counter.builder("banka4.loans.jobs.installments")
+                .tags("job", job, "outcome", "failed")
+                .register(meterRegistry);
+        final var done = progressOf(job);
+        done.set(0);
+        final var failures = new AtomicLong();
+        final var leaseLost = new AtomicBoolean();
+
+        final var inFlight = new Semaphore(maxInFlight);
+        UUID after = range.after();
+        while (!leaseLost.get()) {
+            final List<UUID> ids =
+                loanInstallmentRepository.findIdsAfter(
+                    selection.status()
+                        .name(),
+                    selection.from(),
+                    selection.to(),
+                    after,
+                    range.upTo(),
+                    chunkSize
+                );
+            if (ids.isEmpty()) break;
+            after = ids.get(ids.size() - 1);
+
+            inFlight.acquireUninterruptibly();
+            workers.execute(() -> {
+                try {
+                    runChunk(
+                        job,
+                        selection,
+                        lease,
+                        ids,
+                        action,
+                        processed,
+                        failed,
+                        done,
+                        failures
+                    );
+                } catch (JobLeaseLostException e) {
+                    leaseLost.set(true);
+                } finally {
+                    inFlight.release();
+                }
+            });
+            if (ids.size() < chunkSize) break;
+        }
+        /* Wait for the remaining chunks. */
+        inFlight.acquireUninterruptibly(maxInFlight);
+        inFlight.release(maxInFlight);
+        if (leaseLost.get()) throw new JobLeaseLostException(lease);
+
+        final var elapsed = Duration.ofNanos(System.nanoTime() - started);
+        Timer.builder("banka4.loans.jobs.duration")
+            .tag("job", job)
+            .register(meterRegistry)
+            .record(elapsed);
+        final var result = new JobResult(done.get(), failures.get(), elapsed);
+        LOGGER.info(
+            "Loan job {} processed {} installments ({} failed) in {} ms",
+            job,
+            result.processed(),
+            result.failed(),
+            elapsed.toMillis()
+        );
+        return result;
+    }
+
+    private void runChunk(
+        String job,
+        InstallmentSelection selection,
+        @Nullable JobLease lease,
+        List<UUID> ids,
+        Consumer<LoanInstallment> action,
+        Counter processed,
+        Counter failed,
+        AtomicLong done,
+        AtomicLong failures
+    ) {
+        try {
+            final int count = processClaimed(ids, selection, lease, action);
+            processed.increment(count);
+            done.addAndGet(count);
+            return;
+        } catch (JobLeaseLostException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            LOGGER.warn(
+                "Chunk of {} installments failed in loan job {}, retrying one by one",
+                ids.size(),
+                job,
+                e
+            );
+        }
+
+        for (final var id : ids) {
+            try {
+                final int count = processClaimed(List.of(id), selection, lease, action);
+                processed.increment(count);
+                done.addAndGet(count);
+            } catch (JobLeaseLostException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                failed.increment();
+                failures.incrementAndGet();
+                LOGGER.error("Installment {} failed in loan job {}", id, job, e);
+            }
+        }
+    }
+
+    private int processClaimed(
+        List<UUID> ids,
+        InstallmentSelection selection,
+        @Nullable JobLease lease,
+        Consumer<LoanInstallment> action
+    ) {
+        final Integer count = transactionTemplate.execute(status -> {
+            if (lease != null) jobLeaseService.checkFence(lease);
+            final var claimed =
+                loanInstallmentRepository.lockClaimable(
+                    ids,
+                    selection.status()
+                        .name(),
+                    selection.from(),
+                    selection.to()
+                );
+            if (claimed.isEmpty()) return 0;
+
+            /* Several installments may share an account, and other workers may be paying it. */
+            accountRepository.lockAllByLoanInstallmentIdIn(claimed);
+
+            final var installments = loanInstallmentRepository.findAllWithLoanByIdIn(claimed);
+            installments.forEach(action);
+            return installments.size();
+        });
+        return count != null ? count : 0;
+    }
+
+    private AtomicLong progressOf(String job) {
+        return progress.computeIfAbsent(
+            job,
+            name -> meterRegistry.gauge(
+                "banka4.loans.jobs.progress",
+                Tags.of("job", name),
+                new AtomicLong()
+            )
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
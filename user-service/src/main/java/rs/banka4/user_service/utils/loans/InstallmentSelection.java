@@ -0,0 +1,18 @@
+package rs.banka4.user_service.utils.loans;
+
+import java.time.LocalDate;
+import rs.banka4.user_service.domain.loan.db.PaymentStatus;
+
+/**
+ * Installments with {@code status} whose expected due date is between {@code from} and {@code to},
+ * inclusive.
+ */
+public record InstallmentSelection(
+    PaymentStatus status,
+    LocalDate from,
+    LocalDate to
+) {
+    public static InstallmentSelection dueOn(PaymentStatus status, LocalDate date) {
+        return new InstallmentSelection(status, date, date);
+    }
+}
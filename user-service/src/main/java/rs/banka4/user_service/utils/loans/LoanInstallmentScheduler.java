@@ -3,66 +3,68 @@ package rs.banka4.user_service.utils.loans;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.time.LocalDate;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.context.ApplicationContext;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
-import rs.banka4.user_service.config.RabbitMqConfig;
 import rs.banka4.user_service.domain.account.db.Account;
 import rs.banka4.user_service.domain.auth.dtos.NotificationTransferDto;
 import rs.banka4.user_service.domain.loan.db.Loan;
 import rs.banka4.user_service.domain.loan.db.LoanInstallment;
 import rs.banka4.user_service.domain.loan.db.LoanStatus;
 import rs.banka4.user_service.domain.loan.db.PaymentStatus;
-import rs.banka4.user_service.repositories.AccountRepository;
 import rs.banka4.user_service.repositories.LoanInstallmentRepository;
 import rs.banka4.user_service.repositories.LoanRepository;
 import rs.banka4.user_service.service.impl.BankAccountServiceImpl;
+import rs.banka4.user_service.service.impl.LedgerService;
+import rs.banka4.user_service.service.impl.NotificationOutbox;
 import rs.banka4.user_service.service.impl.TransactionServiceImpl;
 import rs.banka4.user_service.utils.MessageHelper;
+import rs.banka4.user_service.utils.jobs.ShardedJobExecutor;
 
 /**
  * Service that schedules and manages loan installment payments. This service performs scheduled
  * operations related to loan installments: - Processing due installments - Retrying delayed
  * installments - Applying late payment penalties The service interacts with repositories, sends
  * notifications, and manages loan installment statuses.
+ *
+ * <p>
+ * Every job is split into key-range shards through {@link ShardedJobExecutor}, so that when
+ * several instances run, each shard of each run is processed by exactly one of them.
+ * </p>
  */
 @Service
 @RequiredArgsConstructor
 public class LoanInstallmentScheduler {
     private final LoanInstallmentRepository loanInstallmentRepository;
     private final LoanRepository loanRepository;
-    private final AccountRepository accountRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final NotificationOutbox notificationOutbox;
     private final LoanRateUtil loanRateUtil;
     private final BankAccountServiceImpl bankAccountService;
+    private final LedgerService ledgerService;
     private final TransactionServiceImpl transactionService;
-    private final ApplicationContext applicationContext;
+    private final InstallmentJobRunner installmentJobRunner;
+    private final ShardedJobExecutor shardedJobExecutor;
 
     private static final BigDecimal LATE_PAYMENT_PENALTY = new BigDecimal("0.05");
     private static final BigDecimal LEGAL_THRESHOLD = new BigDecimal("1000");
 
     /**
-     * Processes due installments every day at 1 AM. It retrieves unpaid installments that are due
-     * today and attempts to process payments. The method uses self-invocation to ensure
-     * transactional behavior.
+     * Processes due installments every day at 1 AM. Attempts to pay every unpaid installment that
+     * is due today.
      */
     @Scheduled(cron = "0 0 1 * * ?")
     public void processDueInstallments() {
-        LoanInstallmentScheduler self = applicationContext.getBean(LoanInstallmentScheduler.class);
-        List<LoanInstallment> dueInstallments =
-            loanInstallmentRepository.findByExpectedDueDateAndPaymentStatus(
-                LocalDate.now(),
-                PaymentStatus.UNPAID
-            );
-
-        for (LoanInstallment installment : dueInstallments) {
-            self.payInstallmentIfPossible(installment); // **Calls proxied method**
-        }
+        LocalDate today = LocalDate.now();
+        runSharded(
+            "process-due-installments",
+            today.toString(),
+            InstallmentSelection.dueOn(PaymentStatus.UNPAID, today),
+            this::payInstallmentIfPossible
+        );
     }
 
     /**
@@ -71,19 +73,16 @@ public class LoanInstallmentScheduler {
      */
     @Scheduled(cron = "0 0 */6 * * ?")
     public void retryDelayedInstallments() {
-        LoanInstallmentScheduler self = applicationContext.getBean(LoanInstallmentScheduler.class);
-        LocalDate overdueThreshold =
-            LocalDate.now()
-                .minusDays(3);
-        List<LoanInstallment> delayedInstallments =
-            loanInstallmentRepository.findRecentDelayedInstallments(
-                PaymentStatus.DELAYED,
-                overdueThreshold
-            );
-
-        for (LoanInstallment installment : delayedInstallments) {
-            self.payInstallmentIfPossible(installment); // **Calls proxied method**
-        }
+        LocalDate today = LocalDate.now();
+        LocalDate overdueThreshold = today.minusDays(3);
+        runSharded(
+            "retry-delayed-installments",
+            LocalDateTime.now()
+                .truncatedTo(ChronoUnit.HOURS)
+                .toString(),
+            new InstallmentSelection(PaymentStatus.DELAYED, overdueThreshold.plusDays(1), today),
+            this::payInstallmentIfPossible
+        );
     }
 
     /**
@@ -92,28 +91,51 @@ public class LoanInstallmentScheduler {
      */
     @Scheduled(cron = "0 0 0 * * ?")
     public void applyLatePaymentPenalties() {
-        LoanInstallmentScheduler self = applicationContext.getBean(LoanInstallmentScheduler.class);
-        LocalDate threshold =
-            LocalDate.now()
-                .minusDays(3);
-        List<LoanInstallment> delayedInstallments =
-            loanInstallmentRepository.findByPaymentStatusAndExpectedDueDate(
-                PaymentStatus.DELAYED,
-                threshold
-            );
+        LocalDate today = LocalDate.now();
+        LocalDate threshold = today.minusDays(3);
+        runSharded(
+            "apply-late-payment-penalties",
+            today.toString(),
+            InstallmentSelection.dueOn(PaymentStatus.DELAYED, threshold),
+            this::applyPenaltyToInstallment
+        );
+    }
 
-        for (LoanInstallment installment : delayedInstallments) {
-            self.applyPenaltyToInstallment(installment); // **Calls proxied method**
-        }
+    /**
+     * Runs {@code action} over {@code selection}, one leased key-range shard at a time.
+     *
+     * @param runKey identifies the run, so that a shard finished by one instance is not run again
+     *        by another whose cron fired later
+     */
+    private void runSharded(
+        String job,
+        String runKey,
+        InstallmentSelection selection,
+        Consumer<LoanInstallment> action
+    ) {
+        shardedJobExecutor.run(
+            job,
+            runKey,
+            (range, lease) -> installmentJobRunner.run(job, selection, range, lease, action)
+        );
+    }
+
+    /**
+     * Whether {@code installment} is the one due on the loan's due date, i.e. the last one of its
+     * amortization schedule.
+     */
+    private static boolean isLastInstallment(Loan loan, LoanInstallment installment) {
+        return loan.getDueDate() != null
+            && !installment.getExpectedDueDate()
+                .isBefore(loan.getDueDate());
     }
 
     /**
      * Applies a late payment penalty to a loan and loan installment. Sends message to client about
-     * applied penalty.
+     * applied penalty. Runs in the chunk transaction of {@link InstallmentJobRunner}.
      *
      * @param installment The loan installment to which the penalty is applied.
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     protected void applyPenaltyToInstallment(LoanInstallment installment) {
         Loan loan = installment.getLoan();
         // Apply penalty
@@ -129,7 +151,7 @@ public class LoanInstallmentScheduler {
         loanRepository.save(loan);
         loanInstallmentRepository.save(installment);
 
-        // Send notification for applied penalty
+        // Queue notification for applied penalty; sent once this transaction commits
         NotificationTransferDto message =
             MessageHelper.createLoanInstallmentPenaltyMessage(
                 loan.getAccount()
@@ -141,11 +163,7 @@ public class LoanInstallmentScheduler {
                 LocalDate.now()
             );
 
-        rabbitTemplate.convertAndSend(
-            RabbitMqConfig.EXCHANGE_NAME,
-            RabbitMqConfig.ROUTING_KEY,
-            message
-        );
+        notificationOutbox.enqueue(message);
 
         // Check if total overdue exceeds legal threshold
         if (
@@ -160,11 +178,11 @@ public class LoanInstallmentScheduler {
     /**
      * Attempts to pay a loan installment if the account has sufficient balance. If loan installment
      * is paid, next one is created in case loan is not fully paid off. Message is sent to client
-     * after successful or denied payment.
+     * after successful or denied payment. Runs in the chunk transaction of
+     * {@link InstallmentJobRunner}.
      *
      * @param installment The loan installment to be paid.
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     protected void payInstallmentIfPossible(LoanInstallment installment) {
         Loan loan = installment.getLoan();
         Account account = loan.getAccount();
@@ -176,32 +194,17 @@ public class LoanInstallmentScheduler {
                 >= 0
         ) {
 
-            // Subtract from user account and paying installment
-            account.setBalance(
-                account.getBalance()
-                    .subtract(installmentAmount)
-            );
-            account.setAvailableBalance(
-                account.getAvailableBalance()
-                    .subtract(installmentAmount)
-            );
-            accountRepository.save(account);
-            loan.setRemainingDebt(
-                loan.getRemainingDebt()
-                    .subtract(installmentAmount)
-            );
-
-            // Transfer installment amount to bank account
+            // Pay the installment to the bank account, through the ledger
             Account bankAccount =
                 bankAccountService.getBankAccountForCurrency(
                     account.getCurrency()
                         .getCode()
                 );
-            bankAccount.setBalance(
-                bankAccount.getBalance()
-                    .add(installmentAmount)
+            ledgerService.transfer(account, bankAccount, installmentAmount);
+            loan.setRemainingDebt(
+                loan.getRemainingDebt()
+                    .subtract(installmentAmount)
             );
-            accountRepository.save(bankAccount);
 
             transactionService.createBankTransferTransaction(
                 account,
@@ -210,12 +213,25 @@ public class LoanInstallmentScheduler {
                 "Loan installment payment"
             );
 
-            // In case loan is paid off.
-            if (
+            Optional<LoanInstallment> nextPlanned =
+                loanInstallmentRepository
+                    .findFirstByLoanAndExpectedDueDateAfterOrderByExpectedDueDateAsc(
+                        loan,
+                        installment.getExpectedDueDate()
+                    );
+            if (nextPlanned.isPresent()) {
+                // Loan has a full amortization schedule, the next installment already exists.
+                loan.setNextInstallmentDate(
+                    nextPlanned.get()
+                        .getExpectedDueDate()
+                );
+            } else if (
                 loan.getRemainingDebt()
                     .compareTo(BigDecimal.ZERO)
                     <= 0
+                    || isLastInstallment(loan, installment)
             ) {
+                // In case loan is paid off.
                 loan.setStatus(LoanStatus.PAID_OFF);
                 loan.setNextInstallmentDate(null);
             } else {
@@ -273,11 +289,7 @@ public class LoanInstallmentScheduler {
                         .getCode(),
                     LocalDate.now()
                 );
-            rabbitTemplate.convertAndSend(
-                RabbitMqConfig.EXCHANGE_NAME,
-                RabbitMqConfig.ROUTING_KEY,
-                message
-            );
+            notificationOutbox.enqueue(message);
         } else {
             // Mark as delayed
             installment.setPaymentStatus(PaymentStatus.DELAYED);
@@ -294,11 +306,7 @@ public class LoanInstallmentScheduler {
                         .getCode(),
                     LocalDate.now()
                 );
-            rabbitTemplate.convertAndSend(
-                RabbitMqConfig.EXCHANGE_NAME,
-                RabbitMqConfig.ROUTING_KEY,
-                message
-            );
+            notificationOutbox.enqueue(message);
         }
     }
 }
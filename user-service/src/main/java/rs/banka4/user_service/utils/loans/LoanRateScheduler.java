@@ -2,19 +2,18 @@ package rs.banka4.user_service.utils.loans;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.YearMonth;
 import java.util.Random;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import rs.banka4.user_service.domain.loan.db.Loan;
-import rs.banka4.user_service.domain.loan.db.LoanStatus;
-import rs.banka4.user_service.repositories.LoanRepository;
+import rs.banka4.user_service.utils.jobs.JobLeaseService;
 
 /**
  * Service responsible for managing and updating loan interest rates. It performs scheduled tasks
- * related to loan interest rates, including: - Applying variable interest rates to approved loans -
- * Updating the interest rate variant every month
+ * related to loan interest rates, including: - Repricing approved variable-rate loans - Updating
+ * the interest rate variant every month
  */
 @Service
 @RequiredArgsConstructor
@@ -28,33 +27,25 @@ public class LoanRateScheduler {
     @Getter
     /* TODO(arsen): destaticify. */
     private static BigDecimal interestRateVariant = generateRandomPercentage();
-    private final LoanRepository loanRepository;
+    private final VariableRateRepricer variableRateRepricer;
+    private final JobLeaseService jobLeaseService;
 
 
     /**
-     * Applies variable interest rates to all approved loans on the first day of each month. It
-     * updates the fixed rate of loans based on the base interest rate and a randomly generated
-     * variant.
+     * Reprices all approved variable-rate loans on the first day of each month, using their base
+     * interest rate and the current variant. Only one instance reprices each month, and every run
+     * is recorded in {@code loan_repricing_runs}.
      */
     @Scheduled(cron = "0 5 0 1 * *") // Cron expression for the first day of every month at midnight
     public void applyVariableRateToAllVariableLoans() {
-        var loans =
-            loanRepository.findByInterestTypeAndStatus(
-                Loan.InterestType.VARIABLE,
-                LoanStatus.APPROVED
-            );
-        if (loans.isEmpty()) {
-            return;
-        }
-        loans.get()
-            .forEach(loan -> {
-                loan.getInterestRate()
-                    .setFixedRate(
-                        loan.getBaseInterestRate()
-                            .add(interestRateVariant)
-                    );
-            });
-        loanRepository.saveAll(loans.get());
+        final var month =
+            YearMonth.now()
+                .toString();
+        jobLeaseService.runOnce(
+            "apply-variable-rates",
+            month,
+            lease -> variableRateRepricer.reprice(month, interestRateVariant, lease)
+        );
     }
 
     /**
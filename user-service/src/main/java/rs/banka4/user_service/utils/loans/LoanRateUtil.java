@@ -1,7 +1,10 @@
 package rs.banka4.user_service.utils.loans;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.math.MathContext;
 import java.math.RoundingMode;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -16,6 +19,21 @@ public class LoanRateUtil {
 
     private final BankMarginRepository bankMarginRepository;
 
+    /**
+     * Annuity factors by (monthly rate, number of installments). Loans mostly share a handful of
+     * rates and terms, so {@code (1+r)^n} is computed once per pair rather than once per loan.
+     */
+    private final Cache<AnnuityKey, AnnuityFactor> annuityFactors =
+        CacheBuilder.newBuilder()
+            .maximumSize(4096)
+            .build();
+
+    private record AnnuityKey(
+        BigDecimal monthlyInterestRate,
+        int numberOfInstallments
+    ) {
+    }
+
     /**
      * This is used for calculating new interest rates for variable rate loans
      *
@@ -31,6 +49,18 @@ public class LoanRateUtil {
     }
 
 
+    /**
+     * The monthly interest rate, as a fraction, of a loan whose base interest rate is
+     * {@code annualPercent} percent a year: {@code (annualPercent + margin) / 12 / 100}.
+     */
+    public BigDecimal monthlyRate(BigDecimal annualPercent, LoanType loanType) {
+        BankMargin bankMargin =
+            bankMarginRepository.findBankMarginByType(loanType)
+                .orElseThrow(LoanTypeNotFound::new);
+        return annualPercent.add(bankMargin.getMargin())
+            .divide(new BigDecimal(1200), 12, RoundingMode.HALF_UP);
+    }
+
     /**
      * This calculates the amount that needs to be paid per month For fixed rate loans it stays the
      * same barring any penalties for delayed payments, but for variable rate loans it should be
@@ -42,22 +72,55 @@ public class LoanRateUtil {
         BigDecimal monthlyInterestRate,
         BigInteger numberOfInstallments
     ) {
-        if (monthlyInterestRate.compareTo(BigDecimal.ZERO) == 0) {
-            return loanAmount.divide(
-                new BigDecimal(numberOfInstallments),
-                10,
-                RoundingMode.HALF_UP
+        final var factor = annuityFactor(monthlyInterestRate, numberOfInstallments);
+        return loanAmount.multiply(factor.numerator())
+            .divide(factor.denominator(), 10, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * The annuity factor {@code r(1+r)^n / ((1+r)^n - 1)}, kept as a fraction so that the monthly
+     * installment, {@code amount * numerator / denominator}, is rounded only once. For a zero rate
+     * it is {@code 1 / n}. Factors are cached by rate and term.
+     */
+    public AnnuityFactor annuityFactor(
+        BigDecimal monthlyInterestRate,
+        BigInteger numberOfInstallments
+    ) {
+        final var key =
+            new AnnuityKey(
+                monthlyInterestRate.stripTrailingZeros(),
+                numberOfInstallments.intValueExact()
             );
+        return annuityFactors.asMap()
+            .computeIfAbsent(
+                key,
+                k -> computeAnnuityFactor(monthlyInterestRate, numberOfInstallments)
+            );
+    }
+
+    private static AnnuityFactor computeAnnuityFactor(
+        BigDecimal monthlyInterestRate,
+        BigInteger numberOfInstallments
+    ) {
+        if (monthlyInterestRate.compareTo(BigDecimal.ZERO) == 0) {
+            return new AnnuityFactor(BigDecimal.ONE, new BigDecimal(numberOfInstallments));
         }
 
+        /* Exact powers grow to thousands of digits for long terms; 34 are plenty. */
         BigDecimal one = BigDecimal.ONE;
         BigDecimal ratePlusOne = one.add(monthlyInterestRate);
-        BigDecimal exponentiation = ratePlusOne.pow(numberOfInstallments.intValue());
+        BigDecimal exponentiation =
+            ratePlusOne.pow(numberOfInstallments.intValue(), MathContext.DECIMAL128);
+
+        BigDecimal numerator = monthlyInterestRate.multiply(exponentiation, MathContext.DECIMAL128);
+        BigDecimal denominator = exponentiation.subtract(one, MathContext.DECIMAL128);
 
-        BigDecimal numerator = monthlyInterestRate.multiply(exponentiation);
-        BigDecimal denominator = exponentiation.subtract(one);
+        return new AnnuityFactor(numerator, denominator);
+    }
 
-        return loanAmount.multiply(numerator)
-            .divide(denominator, 10, RoundingMode.HALF_UP);
+    public record AnnuityFactor(
+        BigDecimal numerator,
+        BigDecimal denominator
+    ) {
     }
 }
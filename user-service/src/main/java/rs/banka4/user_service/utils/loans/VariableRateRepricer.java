@@ -0,0 +1,332 @@
+package rs.banka4.user_service.utils.loans;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.banka4.user_service.domain.loan.db.LoanRepricingRun;
+import rs.banka4.user_service.domain.loan.db.LoanType;
+import rs.banka4.user_service.repositories.LoanRepricingRunRepository;
+import rs.banka4.user_service.utils.jobs.JobLease;
+import rs.banka4.user_service.utils.jobs.JobLeaseService;
+import rs.banka4.user_service.utils.jobs.KeyRange;
+
+/**
+ * Reprices all approved variable-rate loans for a new interest rate variant, a chunk of loans per
+ * statement.
+ *
+ * <p>
+ * A loan is repriced from what is still owed on it: its unpaid installments are locked, the
+ * principal parts stored on them add up to the outstanding principal, and
+ * {@link AmortizationEngine} builds a new schedule for that principal over the remaining periods
+ * at the new rate, the last period absorbing the rounding. A single {@code UPDATE ... FROM
+ * (VALUES ...)} per chunk then writes the new installments and moves each loan's monthly
+ * installment and remaining debt by the difference. Monthly rates are looked up once per (type,
+ * rate), and annuity factors are cached by {@link LoanRateUtil}, so loans that share terms share
+ * the work. Loans with an unpaid installment that has no stored principal part, i.e. ones without
+ * a full schedule, are left as they are.
+ * </p>
+ *
+ * <p>
+ * Each chunk commits on its own, after checking the run's lease, so that installments are only
+ * locked for as long as their chunk takes. A run cut short leaves some loans repriced; since the
+ * new rate and schedule depend only on the variant and the outstanding principal, running it again
+ * reprices those to the same result.
+ * </p>
+ */
+@Component
+public class VariableRateRepricer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VariableRateRepricer.class);
+
+    /**
+     * Loans per statement. Terms run up to 360 months, so a chunk stays well below the 65535 bind
+     * parameters PostgreSQL allows in one statement.
+     */
+    private static final int LOANS_PER_CHUNK = 40;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoanRateUtil loanRateUtil;
+    private final AmortizationEngine amortizationEngine;
+    private final LoanRepricingRunRepository loanRepricingRunRepository;
+    private final JobLeaseService jobLeaseService;
+    private final TransactionTemplate transactionTemplate;
+
+    public VariableRateRepricer(
+        JdbcTemplate jdbcTemplate,
+        LoanRateUtil loanRateUtil,
+        AmortizationEngine amortizationEngine,
+        LoanRepricingRunRepository loanRepricingRunRepository,
+        JobLeaseService jobLeaseService,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.loanRateUtil = loanRateUtil;
+        this.amortizationEngine = amortizationEngine;
+        this.loanRepricingRunRepository = loanRepricingRunRepository;
+        this.jobLeaseService = jobLeaseService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    private record Rate(
+        LoanType type,
+        BigDecimal annualPercent
+    ) {
+    }
+
+    private record Unpaid(
+        UUID loanId,
+        LoanType type,
+        BigDecimal baseInterestRate,
+        BigDecimal outstandingPrincipal,
+        UUID id,
+        BigDecimal amount,
+        LocalDate dueDate
+    ) {
+    }
+
+    private record Chunk(
+        UUID last,
+        int size,
+        int loans,
+        int installments
+    ) {
+    }
+
+    /**
+     * Applies {@code variant} to every approved variable-rate loan, and records the run under
+     * {@code runKey}.
+     *
+     * @param lease if not null, the lease this run must still hold when each chunk commits
+     */
+    public LoanRepricingRun reprice(String runKey, BigDecimal variant, @Nullable JobLease lease) {
+        final var startedAt = LocalDateTime.now();
+
+        final Map<Rate, BigDecimal> monthlyRates = new HashMap<>();
+        int loans = 0;
+        int installments = 0;
+        UUID after = KeyRange.ALL.after();
+        while (true) {
+            final var from = after;
+            final var chunk =
+                transactionTemplate.execute(status -> {
+                    if (lease != null) jobLeaseService.checkFence(lease);
+                    return repriceNext(from, variant, monthlyRates);
+                });
+            if (chunk == null) break;
+            after = chunk.last();
+            loans += chunk.loans();
+            installments += chunk.installments();
+            if (chunk.size() < LOANS_PER_CHUNK) break;
+        }
+
+        final int loansRepriced = loans;
+        final int installmentsRepriced = installments;
+        final var run =
+            transactionTemplate.execute(status -> {
+                if (lease != null) jobLeaseService.checkFence(lease);
+                return loanRepricingRunRepository.save(
+                    LoanRepricingRun.builder()
+                        .runKey(runKey)
+                        .interestRateVariant(variant)
+                        .loansRepriced(loansRepriced)
+                        .installmentsRepriced(installmentsRepriced)
+                        .startedAt(startedAt)
+                        .finishedAt(LocalDateTime.now())
+                        .build()
+                );
+            });
+        LOGGER.info(
+            "Repriced {} variable-rate loans and {} unpaid installments with variant {}",
+            loans,
+            installments,
+            variant
+        );
+        return run;
+    }
+
+    /**
+     * Reprices the next chunk of loans after {@code after}.
+     *
+     * @return the chunk, or {@code null} if no loans are left
+     */
+    private @Nullable Chunk repriceNext(
+        UUID after,
+        BigDecimal variant,
+        Map<Rate, BigDecimal> monthlyRates
+    ) {
+        final List<UUID> ids =
+            jdbcTemplate.queryForList(
+                """
+                    SELECT id
+                      FROM loans
+                     WHERE interest_type = 'VARIABLE'
+                       AND status = 'APPROVED'
+                       AND base_interest_rate IS NOT NULL
+                       AND id > ?
+                     ORDER BY id
+                     LIMIT ?
+                    """,
+                UUID.class,
+                after,
+                LOANS_PER_CHUNK
+            );
+        if (ids.isEmpty()) return null;
+
+        final int[] counts = repriceChunk(ids, variant, monthlyRates);
+        return new Chunk(ids.get(ids.size() - 1), ids.size(), counts[0], counts[1]);
+    }
+
+    private int[] repriceChunk(
+        List<UUID> loanIds,
+        BigDecimal variant,
+        Map<Rate, BigDecimal> monthlyRates
+    ) {
+        /*
+         * Installments being paid right now are locked by the installment job; waiting for them
+         * and re-reading their status keeps a payment from being repriced after the fact.
+         */
+        final List<Unpaid> unpaid =
+            jdbcTemplate.query(
+                """
+                    SELECT l.id AS loan_id, l.type, l.base_interest_rate,
+                           SUM(li.principal_amount) OVER (PARTITION BY l.id)
+                               AS outstanding_principal,
+                           li.id, li.installment_amount, li.expected_due_date
+                      FROM loans l
+                      JOIN loan_installments li ON li.loan_id = l.id
+                     WHERE l.id IN (%s)
+                       AND li.payment_status = 'UNPAID'
+                       AND NOT EXISTS (SELECT 1
+                                         FROM loan_installments n
+                                        WHERE n.loan_id = l.id
+                                          AND n.payment_status = 'UNPAID'
+                                          AND n.principal_amount IS NULL)
+                     ORDER BY l.id, li.expected_due_date
+                       FOR UPDATE OF li
+                    """
+                    .formatted(String.join(", ", Collections.nCopies(loanIds.size(), "?"))),
+                (rs, rowNum) -> new Unpaid(
+                    rs.getObject("loan_id", UUID.class),
+                    LoanType.valueOf(rs.getString("type")),
+                    rs.getBigDecimal("base_interest_rate"),
+                    rs.getBigDecimal("outstanding_principal"),
+                    rs.getObject("id", UUID.class),
+                    rs.getBigDecimal("installment_amount"),
+                    rs.getObject("expected_due_date", LocalDate.class)
+                ),
+                loanIds.toArray()
+            );
+        if (unpaid.isEmpty()) return new int[] {
+            0,
+            0
+        };
+
+        final Map<UUID, List<Unpaid>> byLoan =
+            unpaid.stream()
+                .collect(
+                    Collectors.groupingBy(Unpaid::loanId, LinkedHashMap::new, Collectors.toList())
+                );
+
+        final List<Object> loanArgs = new ArrayList<>(byLoan.size() * 3);
+        final List<Object> installmentArgs = new ArrayList<>(unpaid.size() * 4);
+        for (final var remaining : byLoan.values()) {
+            final var first = remaining.get(0);
+            final var newRate =
+                first.baseInterestRate()
+                    .add(variant);
+            final var schedule =
+                amortizationEngine.schedule(
+                    first.outstandingPrincipal(),
+                    monthlyRate(monthlyRates, first.type(), newRate),
+                    remaining.size(),
+                    first.dueDate()
+                );
+
+            var owedBefore = BigDecimal.ZERO;
+            for (int i = 0; i < remaining.size(); i++) {
+                final var installment = remaining.get(i);
+                owedBefore = owedBefore.add(installment.amount());
+                installmentArgs.add(installment.id());
+                final var period =
+                    schedule.periods()
+                        .get(i);
+                installmentArgs.add(period.installment());
+                installmentArgs.add(period.principal());
+                installmentArgs.add(newRate);
+            }
+            loanArgs.add(first.loanId());
+            loanArgs.add(schedule.monthlyInstallment());
+            loanArgs.add(
+                schedule.totalRepayment()
+                    .subtract(owedBefore)
+            );
+        }
+
+        final var loanRow = "(CAST(? AS UUID), CAST(? AS NUMERIC), CAST(? AS NUMERIC))";
+        final var installmentRow =
+            "(CAST(? AS UUID), CAST(? AS NUMERIC), CAST(? AS NUMERIC), CAST(? AS NUMERIC))";
+        final var sql =
+            """
+                WITH r (loan_id, monthly_installment, debt_change) AS (VALUES %s),
+                i (id, installment_amount, principal_amount, interest_rate_amount) AS (VALUES %s),
+                repriced AS (
+                    UPDATE loans l
+                       SET monthly_installment = r.monthly_installment,
+                           remaining_debt = l.remaining_debt + r.debt_change
+                      FROM r
+                     WHERE l.id = r.loan_id
+                    RETURNING l.id
+                ),
+                installments AS (
+                    UPDATE loan_installments li
+                       SET installment_amount = i.installment_amount,
+                           principal_amount = i.principal_amount,
+                           interest_rate_amount = i.interest_rate_amount
+                      FROM i
+                     WHERE li.id = i.id
+                    RETURNING li.id
+                )
+                SELECT (SELECT count(*) FROM repriced), (SELECT count(*) FROM installments)
+                """
+                .formatted(
+                    String.join(",\n", Collections.nCopies(byLoan.size(), loanRow)),
+                    String.join(",\n", Collections.nCopies(unpaid.size(), installmentRow))
+                );
+        final List<Object> args = new ArrayList<>(loanArgs.size() + installmentArgs.size());
+        args.addAll(loanArgs);
+        args.addAll(installmentArgs);
+        return jdbcTemplate.queryForObject(
+            sql,
+            (rs, rowNum) -> new int[] {
+                rs.getInt(1),
+                rs.getInt(2)
+            },
+            args.toArray()
+        );
+    }
+
+    private BigDecimal monthlyRate(
+        Map<Rate, BigDecimal> monthlyRates,
+        LoanType type,
+        BigDecimal annualPercent
+    ) {
+        return monthlyRates.computeIfAbsent(
+            new Rate(type, annualPercent.stripTrailingZeros()),
+            rate -> loanRateUtil.monthlyRate(annualPercent, type)
+        );
+    }
+}
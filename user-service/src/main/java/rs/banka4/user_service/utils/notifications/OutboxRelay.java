@@ -0,0 +1,105 @@
+package rs.banka4.user_service.utils.notifications;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.banka4.user_service.domain.notification.db.OutboxMessage;
+import rs.banka4.user_service.repositories.OutboxMessageRepository;
+
+/**
+ * Drains the notification outbox into RabbitMQ.
+ *
+ * <p>
+ * Each batch is locked, published on a single channel and then confirmed by the broker before its
+ * rows are deleted in the same transaction. If the broker nacks or does not confirm in time, the
+ * transaction rolls back and the batch is retried on the next run. Delivery is therefore
+ * at-least-once: a crash between the confirm and the commit republishes the batch.
+ * </p>
+ *
+ * <p>
+ * Requires {@code spring.rabbitmq.publisher-confirm-type=simple}.
+ * </p>
+ */
+@Service
+public class OutboxRelay {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration confirmTimeout;
+
+    public OutboxRelay(
+        OutboxMessageRepository outboxMessageRepository,
+        RabbitTemplate rabbitTemplate,
+        PlatformTransactionManager transactionManager,
+        @Value("${banka4.outbox.batch-size:100}") int batchSize,
+        @Value("${banka4.outbox.confirm-timeout:PT10S}") Duration confirmTimeout
+    ) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.confirmTimeout = confirmTimeout;
+    }
+
+    /**
+     * Publishes batches until the outbox is empty or the broker fails a batch.
+     */
+    @Scheduled(fixedDelayString = "${banka4.outbox.relay-interval:PT1S}")
+    public void relay() {
+        try {
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> relayBatch());
+            } while (published != null && published == batchSize);
+        } catch (AmqpException e) {
+            LOGGER.warn("Outbox batch was not confirmed by the broker, will retry", e);
+        }
+    }
+
+    private int relayBatch() {
+        final List<OutboxMessage> batch = outboxMessageRepository.lockNextBatch(batchSize);
+        if (batch.isEmpty()) return 0;
+
+        /* invoke() pins a single channel, which is what waitForConfirms needs. */
+        rabbitTemplate.invoke(operations -> {
+            for (final var message : batch)
+                operations.send(message.getExchange(), message.getRoutingKey(), toAmqp(message));
+            operations.waitForConfirmsOrDie(confirmTimeout.toMillis());
+            return null;
+        });
+
+        outboxMessageRepository.deleteAllInBatch(batch);
+        return batch.size();
+    }
+
+    /**
+     * Builds the same message {@code Jackson2JsonMessageConverter} would have produced for the
+     * original payload.
+     */
+    private static Message toAmqp(OutboxMessage message) {
+        return MessageBuilder.withBody(
+            message.getPayload()
+                .getBytes(StandardCharsets.UTF_8)
+        )
+            .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+            .setContentEncoding(StandardCharsets.UTF_8.name())
+            .setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, message.getPayloadType())
+            .build();
+    }
+}
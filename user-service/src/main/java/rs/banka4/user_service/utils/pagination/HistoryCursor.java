@@ -0,0 +1,55 @@
+package rs.banka4.user_service.utils.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+import rs.banka4.user_service.exceptions.InvalidCursor;
+
+/**
+ * Position in a transaction history ordered by {@code (paymentDateTime DESC, id DESC)}. The next
+ * page starts strictly after this position, so fetching it is an index seek no matter how far the
+ * client has scrolled.
+ *
+ * <p>
+ * Exposed to clients as an opaque URL-safe token; see {@link #encode()} and
+ * {@link #decode(String)}.
+ * </p>
+ */
+public record HistoryCursor(LocalDateTime paymentDateTime, UUID id) {
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        final var raw = paymentDateTime.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the decoded cursor, or {@code null} if {@code token} is {@code null} or blank, which
+     *         denotes the first page.
+     * @throws InvalidCursor if {@code token} was not produced by {@link #encode()}.
+     */
+    public static HistoryCursor decode(String token) {
+        if (token == null || token.isBlank()) return null;
+
+        try {
+            final var decoded =
+                new String(
+                    Base64.getUrlDecoder()
+                        .decode(token),
+                    StandardCharsets.UTF_8
+                );
+            final var separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0) throw new InvalidCursor(token);
+            return new HistoryCursor(
+                LocalDateTime.parse(decoded.substring(0, separator)),
+                UUID.fromString(decoded.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursor(token);
+        }
+    }
+}
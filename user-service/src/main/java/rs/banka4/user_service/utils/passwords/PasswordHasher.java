@@ -0,0 +1,161 @@
+package rs.banka4.user_service.utils.passwords;
+
+import com.google.common.base.Throwables;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import rs.banka4.user_service.exceptions.user.PasswordHashingOverloaded;
+
+/**
+ * Runs the {@link PasswordEncoder} on a small pool of its own, so that a burst of logins cannot
+ * tie up every request thread hashing passwords.
+ *
+ * <p>
+ * The pool has one thread per CPU by default, since BCrypt is CPU-bound and more threads would
+ * only make each hash slower. At most {@code queue-capacity} hashes wait for a thread; requests
+ * beyond that, and requests that would wait longer than {@code max-wait}, fail right away with
+ * {@link PasswordHashingOverloaded} instead of piling up.
+ * </p>
+ *
+ * <p>
+ * Publishes {@code banka4.passwords.hash} (by {@code operation}),
+ * {@code banka4.passwords.queue.wait}, {@code banka4.passwords.queue.depth} and
+ * {@code banka4.passwords.rejected}.
+ * </p>
+ */
+@Component
+public class PasswordHasher {
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitNanos;
+    private final Timer matchTimer;
+    private final Timer encodeTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejected;
+
+    public PasswordHasher(
+        PasswordEncoder passwordEncoder,
+        @Value("${banka4.passwords.threads:0}") int threads,
+        @Value("${banka4.passwords.queue-capacity:32}") int queueCapacity,
+        @Value("${banka4.passwords.max-wait:PT5S}") Duration maxWait,
+        MeterRegistry meterRegistry
+    ) {
+        this.passwordEncoder = passwordEncoder;
+        final var poolSize =
+            threads > 0
+                ? threads
+                : Runtime.getRuntime()
+                    .availableProcessors();
+        final var threadNumber = new AtomicInteger();
+        this.executor =
+            new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    final var thread =
+                        new Thread(task, "password-hasher-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+            );
+        this.maxWaitNanos = maxWait.toNanos();
+
+        this.matchTimer =
+            Timer.builder("banka4.passwords.hash")
+                .description("Time spent hashing passwords")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.encodeTimer =
+            Timer.builder("banka4.passwords.hash")
+                .description("Time spent hashing passwords")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.queueWaitTimer =
+            Timer.builder("banka4.passwords.queue.wait")
+                .description("Time password hashes spent waiting for a thread")
+                .register(meterRegistry);
+        this.rejected =
+            Counter.builder("banka4.passwords.rejected")
+                .description("Password hashes refused because the pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder(
+            "banka4.passwords.queue.depth",
+            executor,
+            e -> e.getQueue()
+                .size()
+        )
+            .description("Password hashes waiting for a thread")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @see PasswordEncoder#matches(CharSequence, String)
+     * @throws PasswordHashingOverloaded if the pool is saturated
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * @see PasswordEncoder#encode(CharSequence)
+     * @throws PasswordHashingOverloaded if the pool is saturated
+     */
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    private <T> T run(Timer timer, Supplier<T> hash) {
+        final var submittedAt = System.nanoTime();
+        final Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.record(hash);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingOverloaded();
+        }
+
+        try {
+            return future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            /* Still queued, most likely; don't spend a thread on an answer nobody waits for. */
+            future.cancel(false);
+            rejected.increment();
+            throw new PasswordHashingOverloaded();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread()
+                .interrupt();
+            throw new PasswordHashingOverloaded();
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
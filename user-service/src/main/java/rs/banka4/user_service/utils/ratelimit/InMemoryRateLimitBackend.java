@@ -0,0 +1,38 @@
+package rs.banka4.user_service.utils.ratelimit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.Refill;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RateLimitBackend} that keeps a Bucket4j bucket per key in this instance's memory. Buckets
+ * are dropped after an hour of inactivity.
+ */
+public class InMemoryRateLimitBackend implements RateLimitBackend {
+    private final Cache<String, Bucket> buckets =
+        CacheBuilder.newBuilder()
+            .expireAfterAccess(1, TimeUnit.HOURS)
+            .build();
+
+    @Override
+    public boolean tryConsume(String bucketKey, RateLimitProperties.Limit limit) {
+        return buckets.asMap()
+            .computeIfAbsent(bucketKey, key -> newBucket(limit))
+            .tryConsume(1);
+    }
+
+    private static Bucket newBucket(RateLimitProperties.Limit limit) {
+        return Bucket4j.builder()
+            .addLimit(
+                Bandwidth.classic(
+                    limit.capacity(),
+                    Refill.intervally(limit.capacity(), limit.period())
+                )
+            )
+            .build();
+    }
+}
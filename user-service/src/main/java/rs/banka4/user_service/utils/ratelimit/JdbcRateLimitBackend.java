@@ -0,0 +1,174 @@
+package rs.banka4.user_service.utils.ratelimit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * {@link RateLimitBackend} whose buckets are shared by all instances through the
+ * {@code rate_limit_buckets} table, so that a limit holds for the cluster as a whole.
+ *
+ * <p>
+ * Each bucket counts requests in fixed windows of the limit's period. To keep the database off the
+ * hot path, an instance reserves up to {@code prefetch} requests from the current window at once
+ * and hands them out locally. Once the shared window is exhausted, the instance denies requests
+ * until the window ends, again without asking the database. Reserved requests an instance does not
+ * use are lost at the end of the window, so the limit errs on the strict side by at most
+ * {@code prefetch} per instance.
+ * </p>
+ *
+ * <p>
+ * If the database cannot be reached, buckets fall back to {@link InMemoryRateLimitBackend}, which
+ * limits each instance on its own. The instance then stays on the fallback for
+ * {@code fallbackPeriod} before it tries the database again, so that while the database is down
+ * requests do not each wait out a connection timeout.
+ * </p>
+ */
+public class JdbcRateLimitBackend implements RateLimitBackend {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcRateLimitBackend.class);
+
+    /*
+     * A row in a window at or after ours is treated as the current window, so that an instance
+     * with a lagging clock cannot reset it.
+     */
+    private static final String RESERVE_SQL = """
+        INSERT INTO rate_limit_buckets AS b
+            (bucket_key, window_start, expires_at, consumed, last_grant)
+        VALUES (?, ?, ?, ?, ?)
+        ON CONFLICT (bucket_key) DO UPDATE
+           SET last_grant = CASE
+                   WHEN b.window_start >= EXCLUDED.window_start
+                   THEN LEAST(EXCLUDED.last_grant, GREATEST(? - b.consumed, 0))
+                   ELSE EXCLUDED.last_grant
+               END,
+               consumed = CASE
+                   WHEN b.window_start >= EXCLUDED.window_start
+                   THEN b.consumed + LEAST(EXCLUDED.last_grant, GREATEST(? - b.consumed, 0))
+                   ELSE EXCLUDED.consumed
+               END,
+               window_start = GREATEST(b.window_start, EXCLUDED.window_start),
+               expires_at = GREATEST(b.expires_at, EXCLUDED.expires_at)
+        RETURNING last_grant
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long prefetch;
+    private final long fallbackMillis;
+    private final RateLimitBackend fallback = new InMemoryRateLimitBackend();
+    /** Until when buckets go straight to {@link #fallback}, after the database failed. */
+    private volatile long fallbackUntil;
+    private final Cache<String, Reservation> reservations =
+        CacheBuilder.newBuilder()
+            .expireAfterAccess(1, TimeUnit.HOURS)
+            .build();
+
+    public JdbcRateLimitBackend(JdbcTemplate jdbcTemplate, long prefetch, Duration fallbackPeriod) {
+        if (prefetch < 1) throw new IllegalArgumentException("prefetch must be positive");
+        this.jdbcTemplate = jdbcTemplate;
+        this.prefetch = prefetch;
+        this.fallbackMillis = fallbackPeriod.toMillis();
+    }
+
+    @Override
+    public boolean tryConsume(String bucketKey, RateLimitProperties.Limit limit) {
+        final var reservation =
+            reservations.asMap()
+                .computeIfAbsent(bucketKey, key -> new Reservation());
+        final var now = System.currentTimeMillis();
+        if (reservation.tryTake(now)) return true;
+        if (now < fallbackUntil) return fallback.tryConsume(bucketKey, limit);
+
+        synchronized (reservation) {
+            /* Someone may have reserved more, or found the database down, while we waited. */
+            if (reservation.tryTake(now)) return true;
+            if (now < reservation.deniedUntil) return false;
+            if (now < fallbackUntil) return fallback.tryConsume(bucketKey, limit);
+
+            final var periodMillis =
+                limit.period()
+                    .toMillis();
+            final var windowStart = now - now % periodMillis;
+            final var windowEnd = windowStart + periodMillis;
+            final long granted;
+            try {
+                granted = reserve(bucketKey, limit.capacity(), windowStart, windowEnd);
+            } catch (DataAccessException e) {
+                fallbackUntil = System.currentTimeMillis() + fallbackMillis;
+                LOGGER.warn(
+                    "Could not reach the shared rate limit bucket {}, limiting in memory for {} ms",
+                    bucketKey,
+                    fallbackMillis,
+                    e
+                );
+                return fallback.tryConsume(bucketKey, limit);
+            }
+
+            if (granted == 0) {
+                reservation.deniedUntil = windowEnd;
+                return false;
+            }
+            /* Take one for this request right away. */
+            reservation.refill(granted - 1, windowEnd);
+            return true;
+        }
+    }
+
+    /**
+     * Reserves up to {@code prefetch} requests from the shared window starting at
+     * {@code windowStart}.
+     *
+     * @return how many requests were reserved
+     */
+    protected long reserve(String bucketKey, long capacity, long windowStart, long windowEnd) {
+        final var request = Math.min(prefetch, capacity);
+        final Long granted =
+            jdbcTemplate.queryForObject(
+                RESERVE_SQL,
+                Long.class,
+                bucketKey,
+                windowStart,
+                windowEnd,
+                request,
+                request,
+                capacity,
+                capacity
+            );
+        return granted == null ? 0 : granted;
+    }
+
+    /**
+     * Deletes buckets whose window has ended.
+     */
+    @Scheduled(fixedDelayString = "${banka4.rate-limit.purge-interval:PT10M}")
+    public void purgeExpired() {
+        final var purged =
+            jdbcTemplate.update(
+                "DELETE FROM rate_limit_buckets WHERE expires_at < ?",
+                System.currentTimeMillis()
+            );
+        LOGGER.debug("Purged {} expired rate limit buckets", purged);
+    }
+
+    /** Requests this instance has reserved from a shared bucket and not handed out yet. */
+    private static final class Reservation {
+        private final AtomicLong remaining = new AtomicLong();
+        private volatile long validUntil;
+        private long deniedUntil;
+
+        boolean tryTake(long now) {
+            return now < validUntil && remaining.getAndDecrement() > 0;
+        }
+
+        void refill(long requests, long until) {
+            remaining.set(requests);
+            validUntil = until;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package rs.banka4.user_service.utils.ratelimit;
+
+/**
+ * Keeps the token buckets behind {@link rs.banka4.user_service.config.filters.RateLimitingFilter}
+ * and {@link rs.banka4.user_service.config.filters.UserRateLimitingFilter}.
+ */
+public interface RateLimitBackend {
+    /**
+     * Takes one request out of the bucket named {@code bucketKey}, creating the bucket with
+     * {@code limit} if it does not exist yet.
+     *
+     * @return whether the request is within the limit
+     */
+    boolean tryConsume(String bucketKey, RateLimitProperties.Limit limit);
+}
@@ -0,0 +1,68 @@
+package rs.banka4.user_service.utils.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.List;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * Decides which limits apply to a request, per {@link RateLimitProperties}.
+ */
+public final class RateLimitPolicy {
+    /**
+     * The limits that apply to a request.
+     *
+     * @param name names the bucket group, so that each route counts separately
+     * @param perIp limit per client IP
+     * @param perUser limit per authenticated user, or {@code null} for none
+     */
+    public record Limits(
+        String name,
+        RateLimitProperties.Limit perIp,
+        RateLimitProperties.Limit perUser
+    ) {
+    }
+
+    private record CompiledRoute(
+        PathPattern pattern,
+        RateLimitProperties.Route route,
+        Limits limits
+    ) {
+    }
+
+    private final Limits defaults;
+    private final List<CompiledRoute> routes;
+
+    public RateLimitPolicy(RateLimitProperties properties) {
+        this.defaults = new Limits("default", properties.perIp(), properties.perUser());
+        this.routes =
+            properties.routes()
+                .stream()
+                .map(
+                    route -> new CompiledRoute(
+                        PathPatternParser.defaultInstance.parse(route.pattern()),
+                        route,
+                        new Limits(
+                            (route.method() == null ? "" : route.method() + " ")
+                                + route.pattern(),
+                            route.perIp() != null ? route.perIp() : properties.perIp(),
+                            route.perUser() != null ? route.perUser() : properties.perUser()
+                        )
+                    )
+                )
+                .toList();
+    }
+
+    public Limits limitsFor(HttpServletRequest request) {
+        if (routes.isEmpty()) return defaults;
+
+        final var path = PathContainer.parsePath(request.getRequestURI());
+        for (final var compiled : routes) {
+            final var method = compiled.route.method();
+            if (method != null && !method.matches(request.getMethod())) continue;
+            if (compiled.pattern.matches(path)) return compiled.limits;
+        }
+        return defaults;
+    }
+}
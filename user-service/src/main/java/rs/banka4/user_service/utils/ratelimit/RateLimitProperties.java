@@ -0,0 +1,82 @@
+package rs.banka4.user_service.utils.ratelimit;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Request rate limits, under {@code banka4.rate-limit}.
+ *
+ * <p>
+ * Every request is limited per client IP, and, once authenticated, per user. The first of
+ * {@code routes} that matches a request replaces the default limits for it; a limit the route
+ * leaves unset falls back to the default. Each route counts separately from the defaults and from
+ * other routes.
+ * </p>
+ *
+ * @param backend where request counts are kept
+ * @param prefetch how many requests an instance may reserve from a shared bucket at once
+ * @param fallbackPeriod how long an instance limits on its own, without trying the database, after
+ *        it failed to reach a shared bucket
+ * @param perIp default limit per client IP
+ * @param perUser default limit per authenticated user, or {@code null} for none
+ * @param routes route-specific limits, in order of precedence
+ */
+@ConfigurationProperties("banka4.rate-limit")
+public record RateLimitProperties(
+    @DefaultValue("memory") Backend backend,
+    @DefaultValue("20") int prefetch,
+    @DefaultValue("PT30S") Duration fallbackPeriod,
+    Limit perIp,
+    Limit perUser,
+    List<Route> routes
+) {
+    public static final Limit DEFAULT_PER_IP = new Limit(100, Duration.ofMinutes(1));
+    public static final Duration DEFAULT_FALLBACK_PERIOD = Duration.ofSeconds(30);
+
+    public RateLimitProperties {
+        if (fallbackPeriod == null) fallbackPeriod = DEFAULT_FALLBACK_PERIOD;
+        if (perIp == null) perIp = DEFAULT_PER_IP;
+        if (routes == null) routes = List.of();
+    }
+
+    /** The defaults: 100 requests per minute per IP, in memory. */
+    public static RateLimitProperties defaults() {
+        return new RateLimitProperties(Backend.MEMORY, 20, null, null, null, null);
+    }
+
+    public enum Backend {
+        /** Counts are kept by each instance for itself. Only right for a single instance. */
+        MEMORY,
+        /** Counts are shared between instances through the database. */
+        JDBC
+    }
+
+    /**
+     * Allows {@code capacity} requests in every {@code period}.
+     */
+    public record Limit(
+        long capacity,
+        Duration period
+    ) {
+        public Limit {
+            if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+            if (period == null || period.isNegative() || period.isZero())
+                throw new IllegalArgumentException("period must be positive");
+        }
+    }
+
+    /**
+     * @param pattern path pattern, e.g. {@code /auth/**}
+     * @param method HTTP method to match, or {@code null} for any
+     */
+    public record Route(
+        String pattern,
+        HttpMethod method,
+        Limit perIp,
+        Limit perUser
+    ) {
+    }
+}
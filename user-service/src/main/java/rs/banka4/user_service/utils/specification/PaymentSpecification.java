@@ -7,6 +7,8 @@ import org.springframework.data.jpa.domain.Specification;
 import rs.banka4.user_service.domain.account.db.Account;
 import rs.banka4.user_service.domain.transaction.db.Transaction;
 import rs.banka4.user_service.domain.transaction.db.TransactionStatus;
+import rs.banka4.user_service.domain.user.client.db.Client;
+import rs.banka4.user_service.utils.pagination.HistoryCursor;
 
 public class PaymentSpecification {
 
@@ -29,15 +31,28 @@ public class PaymentSpecification {
         };
     }
 
+    /**
+     * Matches transactions made on {@code date}, as the half-open range
+     * {@code [date 00:00, date + 1 00:00)}, which Postgres can use to prune the monthly partitions
+     * of the transactions table.
+     */
     public static Specification<Transaction> hasDate(LocalDate date) {
-        return (root, query, criteriaBuilder) -> date == null
-            ? criteriaBuilder.conjunction()
-            : criteriaBuilder.between(
-                root.get("paymentDateTime"),
-                date.atStartOfDay(),
-                date.plusDays(1)
-                    .atStartOfDay()
+        return (root, query, criteriaBuilder) -> {
+            if (date == null) {
+                return criteriaBuilder.conjunction();
+            }
+            return criteriaBuilder.and(
+                criteriaBuilder.greaterThanOrEqualTo(
+                    root.get("paymentDateTime"),
+                    date.atStartOfDay()
+                ),
+                criteriaBuilder.lessThan(
+                    root.get("paymentDateTime"),
+                    date.plusDays(1)
+                        .atStartOfDay()
+                )
             );
+        };
     }
 
     public static Specification<Transaction> hasFromAccount(Account fromAccount) {
@@ -52,6 +67,46 @@ public class PaymentSpecification {
             : criteriaBuilder.equal(root.get("toAccount"), toAccount);
     }
 
+    public static Specification<Transaction> isFromClient(Client client) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.equal(
+            root.get("fromAccount")
+                .get("client"),
+            client
+        );
+    }
+
+    public static Specification<Transaction> isTransfer() {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.isTrue(root.get("isTransfer"));
+    }
+
+    /**
+     * Matches transactions strictly after {@code cursor} in {@code (paymentDateTime DESC, id DESC)}
+     * order. A {@code null} cursor matches everything.
+     *
+     * <p>
+     * The predicate is {@code paymentDateTime <= X AND (paymentDateTime < X OR id < Y)}. The
+     * leading conjunct is redundant, but unlike the disjunction it can bound a scan of the
+     * {@code (payment_date_time, id)} index and prune the monthly partitions.
+     * </p>
+     */
+    public static Specification<Transaction> isAfterCursor(HistoryCursor cursor) {
+        return (root, query, criteriaBuilder) -> {
+            if (cursor == null) {
+                return criteriaBuilder.conjunction();
+            }
+            return criteriaBuilder.and(
+                criteriaBuilder.lessThanOrEqualTo(
+                    root.get("paymentDateTime"),
+                    cursor.paymentDateTime()
+                ),
+                criteriaBuilder.or(
+                    criteriaBuilder.lessThan(root.get("paymentDateTime"), cursor.paymentDateTime()),
+                    criteriaBuilder.lessThan(root.get("id"), cursor.id())
+                )
+            );
+        };
+    }
+
     public static Specification<Transaction> isNotTransfer() {
         return (root, query, criteriaBuilder) -> criteriaBuilder.isFalse(root.get("isTransfer"));
     }
@@ -0,0 +1,31 @@
+package rs.banka4.user_service.utils.tokens;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link RevocationFeed} that only reaches subscribers within this process. Suitable for a single
+ * instance, and for tests.
+ */
+@Component
+@ConditionalOnProperty(
+    name = "banka4.revocations.feed",
+    havingValue = "local",
+    matchIfMissing = true
+)
+public class LocalRevocationFeed implements RevocationFeed {
+    private final List<Consumer<Revocation>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(Revocation revocation) {
+        subscribers.forEach(subscriber -> subscriber.accept(revocation));
+    }
+
+    @Override
+    public void subscribe(Consumer<Revocation> subscriber) {
+        subscribers.add(subscriber);
+    }
+}
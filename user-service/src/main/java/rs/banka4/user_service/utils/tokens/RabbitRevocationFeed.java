@@ -0,0 +1,57 @@
+package rs.banka4.user_service.utils.tokens;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import rs.banka4.user_service.config.RabbitMqConfig;
+
+/**
+ * {@link RevocationFeed} over a RabbitMQ fanout exchange. Every instance binds its own
+ * auto-deleted queue to the exchange, so each revocation reaches all of them.
+ */
+@Component
+@ConditionalOnProperty(
+    name = "banka4.revocations.feed",
+    havingValue = "rabbit"
+)
+public class RabbitRevocationFeed implements RevocationFeed {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RabbitRevocationFeed.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final List<Consumer<Revocation>> subscribers = new CopyOnWriteArrayList<>();
+
+    public RabbitRevocationFeed(RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    @Override
+    public void publish(Revocation revocation) {
+        try {
+            rabbitTemplate.convertAndSend(
+                RabbitMqConfig.REVOCATIONS_EXCHANGE_NAME,
+                "",
+                revocation
+            );
+        } catch (AmqpException e) {
+            /* Other instances will pick it up on their next reload. */
+            LOGGER.warn("Could not publish token revocation", e);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<Revocation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @RabbitListener(queues = "#{tokenRevocationQueue.name}")
+    public void receive(Revocation revocation) {
+        subscribers.forEach(subscriber -> subscriber.accept(revocation));
+    }
+}
@@ -0,0 +1,15 @@
+package rs.banka4.user_service.utils.tokens;
+
+import rs.banka4.rafeisen.common.utils.jwt.TokenDigest;
+
+/**
+ * A token revocation, as passed between instances over a {@link RevocationFeed}.
+ *
+ * @param digest digest of the revoked token
+ * @param expiresAtMillis wall-clock time at which the token expires
+ */
+public record Revocation(
+    TokenDigest digest,
+    long expiresAtMillis
+) {
+}
@@ -0,0 +1,18 @@
+package rs.banka4.user_service.utils.tokens;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries token revocations to every instance of the service, so that each can keep its
+ * {@link TokenRevocationIndex} current without reading the database.
+ *
+ * <p>
+ * Delivery is best-effort: the periodic reload from the database catches up on anything a feed
+ * drops. Subscribers may also see their own revocations, and must tolerate duplicates.
+ * </p>
+ */
+public interface RevocationFeed {
+    void publish(Revocation revocation);
+
+    void subscribe(Consumer<Revocation> subscriber);
+}
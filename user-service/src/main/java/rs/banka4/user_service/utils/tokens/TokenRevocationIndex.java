@@ -0,0 +1,108 @@
+package rs.banka4.user_service.utils.tokens;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import rs.banka4.rafeisen.common.utils.jwt.TokenDigest;
+
+/**
+ * In-memory set of revoked token digests, fronted by a Bloom filter.
+ *
+ * <p>
+ * Almost every token that gets checked was never revoked, and for those the Bloom filter answers
+ * on its own without touching the exact set. Only its false positives, plus the revoked tokens
+ * themselves, fall through to the exact lookup.
+ * </p>
+ *
+ * <p>
+ * Reads are lock-free. Writes are rare (a logout, or a purge every few minutes) and are
+ * serialized, so that a rebuild cannot lose an entry added while it was in progress.
+ * </p>
+ */
+public final class TokenRevocationIndex {
+    private static final Funnel<TokenDigest> DIGEST_FUNNEL =
+        (digest, sink) -> sink.putLong(digest.a())
+            .putLong(digest.b())
+            .putLong(digest.c())
+            .putLong(digest.d());
+
+    private final int minimumCapacity;
+    private final double falsePositiveRate;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * @param minimumCapacity number of entries the Bloom filter is sized for, at least
+     * @param falsePositiveRate desired false positive rate of the Bloom filter while it holds no
+     *        more entries than it was sized for
+     */
+    public TokenRevocationIndex(int minimumCapacity, double falsePositiveRate) {
+        if (minimumCapacity < 1)
+            throw new IllegalArgumentException("minimumCapacity must be positive");
+        this.minimumCapacity = minimumCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.snapshot = newSnapshot(Map.of());
+    }
+
+    /**
+     * @return whether the token with the given digest was revoked.
+     */
+    public boolean isRevoked(TokenDigest digest) {
+        final var current = snapshot;
+        return current.filter.mightContain(digest) && current.expiries.containsKey(digest);
+    }
+
+    /**
+     * Records a revocation. Adding the same digest again only keeps the later expiry.
+     *
+     * @param expiresAtMillis wall-clock time after which the token is rejected anyway, and the
+     *        entry may be dropped
+     */
+    public synchronized void add(TokenDigest digest, long expiresAtMillis) {
+        var current = snapshot;
+        final var isNew = !current.expiries.containsKey(digest);
+        if (isNew && current.expiries.size() >= current.capacity) {
+            /* Past its capacity the filter's false positive rate climbs fast, so grow it. */
+            current = newSnapshot(current.expiries);
+            snapshot = current;
+        }
+        current.expiries.merge(digest, expiresAtMillis, Math::max);
+        current.filter.put(digest);
+    }
+
+    /**
+     * Replaces the contents of the index with {@code revoked}, keeping entries that were added in
+     * the meantime and have not expired by {@code nowMillis}. Sheds the expired entries the Bloom
+     * filter would otherwise keep answering for.
+     */
+    public synchronized void rebuild(Map<TokenDigest, Long> revoked, long nowMillis) {
+        final var merged = new ConcurrentHashMap<>(revoked);
+        snapshot.expiries.forEach((digest, expiresAt) -> {
+            if (expiresAt > nowMillis) merged.merge(digest, expiresAt, Math::max);
+        });
+        snapshot = newSnapshot(merged);
+    }
+
+    /**
+     * @return number of revoked tokens in the index.
+     */
+    public int size() {
+        return snapshot.expiries.size();
+    }
+
+    private Snapshot newSnapshot(Map<TokenDigest, Long> entries) {
+        final var capacity = Math.max(minimumCapacity, 2 * entries.size());
+        final var filter = BloomFilter.create(DIGEST_FUNNEL, capacity, falsePositiveRate);
+        entries.keySet()
+            .forEach(filter::put);
+        return new Snapshot(filter, new ConcurrentHashMap<>(entries), capacity);
+    }
+
+    private record Snapshot(
+        BloomFilter<TokenDigest> filter,
+        ConcurrentHashMap<TokenDigest, Long> expiries,
+        int capacity
+    ) {
+    }
+}
@@ -0,0 +1,93 @@
+package rs.banka4.user_service.utils.totp;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.apache.commons.codec.binary.Base32;
+
+/**
+ * Generates and checks RFC 6238 codes, HMAC-SHA1 with six digits, on the hot path of every payment.
+ *
+ * <p>
+ * Produces the same codes as {@code dev.samstevens.totp}'s {@code DefaultCodeGenerator}, but
+ * without looking up a {@link Mac} for every code: each thread keeps one and re-keys it. Secrets
+ * are decoded once, by {@link #decodeSecret(String)}, and passed around as raw keys.
+ * </p>
+ */
+public final class TotpCodeGenerator {
+    private static final String ALGORITHM = "HmacSHA1";
+    private static final int DIGITS = 6;
+    private static final int MODULUS = 1_000_000;
+
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private TotpCodeGenerator() {
+    }
+
+    /**
+     * @return the raw key of a Base32-encoded secret, decoded as leniently as the TOTP library
+     *         does.
+     */
+    public static byte[] decodeSecret(String secret) {
+        return new Base32().decode(secret);
+    }
+
+    /**
+     * @return the code for the given time step.
+     */
+    public static String generate(byte[] key, long step) {
+        final var mac = MAC.get();
+        final byte[] hash;
+        try {
+            mac.init(new SecretKeySpec(key, ALGORITHM));
+            hash =
+                mac.doFinal(
+                    ByteBuffer.allocate(Long.BYTES)
+                        .putLong(step)
+                        .array()
+                );
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+
+        /* Dynamic truncation, RFC 4226 section 5.3. */
+        final var offset = hash[hash.length - 1] & 0xf;
+        final var binary =
+            ((hash[offset] & 0x7f) << 24)
+                | ((hash[offset + 1] & 0xff) << 16)
+                | ((hash[offset + 2] & 0xff) << 8)
+                | (hash[offset + 3] & 0xff);
+
+        final var code = Integer.toString(binary % MODULUS);
+        return "0".repeat(DIGITS - code.length()) + code;
+    }
+
+    /**
+     * Finds the time step, within {@code window} steps of {@code currentStep} either way, whose
+     * code is {@code code}. Compares in constant time.
+     *
+     * @return the matching step, or {@code -1} if there is none
+     */
+    public static long findStep(byte[] key, String code, long currentStep, int window) {
+        if (code == null || code.length() != DIGITS) return -1;
+        final var given = code.getBytes(StandardCharsets.US_ASCII);
+
+        long match = -1;
+        for (long step = currentStep - window; step <= currentStep + window; step++) {
+            final var expected =
+                generate(key, step)
+                    .getBytes(StandardCharsets.US_ASCII);
+            if (MessageDigest.isEqual(expected, given)) match = step;
+        }
+        return match;
+    }
+}
@@ -0,0 +1,81 @@
+package rs.banka4.user_service.utils.transactions;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps monthly partitions of the {@code transactions} table created ahead of time. Rows that fall
+ * outside of every monthly partition land in {@code transactions_default}, which is expected to
+ * stay empty; creating partitions early keeps it that way. Should rows for a month reach the
+ * default partition anyway, they are moved into the month's partition when it is created.
+ *
+ * <p>
+ * A month that cannot be created is logged and counted in
+ * {@code banka4.transactions.partitions.failures}, and the remaining months are still attempted,
+ * so a single bad month neither blocks startup nor the months after it.
+ * </p>
+ */
+@Service
+public class TransactionPartitionScheduler {
+    private static final Logger LOGGER =
+        LoggerFactory.getLogger(TransactionPartitionScheduler.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter failures;
+    private final int monthsAhead;
+
+    public TransactionPartitionScheduler(
+        JdbcTemplate jdbcTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${banka4.transactions.partitions-ahead:3}") int monthsAhead
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.failures =
+            Counter.builder("banka4.transactions.partitions.failures")
+                .description("Monthly transactions partitions that could not be created")
+                .register(meterRegistry);
+        this.monthsAhead = monthsAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        createUpcomingPartitions();
+    }
+
+    /**
+     * Ensures partitions exist for the current month and the next {@code monthsAhead} months.
+     * Runs daily at 2 AM. Safe to run concurrently from several instances.
+     */
+    @Scheduled(cron = "0 0 2 * * ?")
+    public void createUpcomingPartitions() {
+        LocalDate month =
+            LocalDate.now()
+                .withDayOfMonth(1);
+        for (int i = 0; i <= monthsAhead; i++) {
+            final var partitionMonth = month.plusMonths(i);
+            try {
+                Boolean created =
+                    jdbcTemplate.queryForObject(
+                        "SELECT create_transactions_partition(?)",
+                        Boolean.class,
+                        partitionMonth
+                    );
+                if (Boolean.TRUE.equals(created))
+                    LOGGER.info("Created transactions partition for {}", partitionMonth);
+            } catch (DataAccessException e) {
+                failures.increment();
+                LOGGER.error("Could not create transactions partition for {}", partitionMonth, e);
+            }
+        }
+    }
+}
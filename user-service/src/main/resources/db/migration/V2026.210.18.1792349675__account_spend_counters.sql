@@ -0,0 +1,36 @@
+-- Per-account running totals of outgoing payments, used for daily and monthly
+-- limit checks instead of summing over the transactions table.
+CREATE TABLE account_spend_counters
+(
+    account_id   UUID           NOT NULL,
+    period       VARCHAR(10)    NOT NULL,
+    period_start DATE           NOT NULL,
+    amount       DECIMAL(19, 4) NOT NULL,
+    CONSTRAINT pk_account_spend_counters
+        PRIMARY KEY (account_id, period, period_start),
+    CONSTRAINT fk_account_spend_counters_on_account
+        FOREIGN KEY (account_id) REFERENCES accounts (id)
+);
+
+-- Seed the currently open periods from existing history.  Only the main
+-- payment rows count; the bank-internal FEE-/CONV-/TRF- legs and transfers
+-- between own accounts are not spending.
+INSERT INTO account_spend_counters (account_id, period, period_start, amount)
+SELECT from_account_id, 'DAY', CURRENT_DATE, SUM(from_amount)
+  FROM transactions
+ WHERE payment_date_time >= CURRENT_DATE
+   AND NOT is_transfer
+   AND COALESCE(reference_number, '') NOT LIKE 'FEE-%'
+   AND COALESCE(reference_number, '') NOT LIKE 'CONV-%'
+   AND COALESCE(reference_number, '') NOT LIKE 'TRF-%'
+ GROUP BY from_account_id;
+
+INSERT INTO account_spend_counters (account_id, period, period_start, amount)
+SELECT from_account_id, 'MONTH', CAST(date_trunc('month', CURRENT_DATE) AS DATE), SUM(from_amount)
+  FROM transactions
+ WHERE payment_date_time >= date_trunc('month', CURRENT_DATE)
+   AND NOT is_transfer
+   AND COALESCE(reference_number, '') NOT LIKE 'FEE-%'
+   AND COALESCE(reference_number, '') NOT LIKE 'CONV-%'
+   AND COALESCE(reference_number, '') NOT LIKE 'TRF-%'
+ GROUP BY from_account_id;
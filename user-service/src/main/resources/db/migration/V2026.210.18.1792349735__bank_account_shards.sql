@@ -0,0 +1,13 @@
+-- Sharded sub-ledger for bank-owned accounts.  Movements on bank accounts are
+-- added to one of several shard rows and periodically folded into
+-- accounts.balance, so the bank's per-currency accounts stop being a single
+-- hot row that every FX payment and fee has to lock.
+CREATE TABLE bank_account_shards
+(
+    account_id    UUID           NOT NULL,
+    shard         INTEGER        NOT NULL,
+    balance_delta DECIMAL(19, 4) NOT NULL,
+    CONSTRAINT pk_bank_account_shards PRIMARY KEY (account_id, shard),
+    CONSTRAINT fk_bank_account_shards_on_account
+        FOREIGN KEY (account_id) REFERENCES accounts (id)
+);
@@ -0,0 +1,26 @@
+-- Append-only double-entry journal.  Each movement of money is recorded as a
+-- debit and a credit sharing a journal_id.  Client account balances are
+-- folded in from the journal by a projector; entries with a NULL
+-- projected_at are still pending.
+CREATE SEQUENCE ledger_entries_seq INCREMENT BY 50;
+
+CREATE TABLE ledger_entries
+(
+    id           BIGINT         NOT NULL,
+    journal_id   UUID           NOT NULL,
+    account_id   UUID           NOT NULL,
+    direction    VARCHAR(6)     NOT NULL,
+    amount       DECIMAL(19, 4) NOT NULL,
+    currency     VARCHAR(3)     NOT NULL,
+    created_at   TIMESTAMP      NOT NULL,
+    projected_at TIMESTAMP,
+    CONSTRAINT pk_ledger_entries PRIMARY KEY (id),
+    CONSTRAINT fk_ledger_entries_on_account
+        FOREIGN KEY (account_id) REFERENCES accounts (id),
+    CONSTRAINT ck_ledger_entries_direction CHECK (direction IN ('DEBIT', 'CREDIT')),
+    CONSTRAINT ck_ledger_entries_amount CHECK (amount > 0)
+);
+
+CREATE INDEX idx_ledger_entries_account ON ledger_entries (account_id);
+CREATE INDEX idx_ledger_entries_journal ON ledger_entries (journal_id);
+CREATE INDEX idx_ledger_entries_pending ON ledger_entries (id) WHERE projected_at IS NULL;
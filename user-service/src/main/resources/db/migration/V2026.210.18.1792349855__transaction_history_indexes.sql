@@ -0,0 +1,10 @@
+-- Indexes backing keyset pagination of transaction histories, which are read
+-- newest first in (payment_date_time, id) order.
+CREATE INDEX idx_transactions_history
+    ON transactions (payment_date_time DESC, id DESC);
+
+CREATE INDEX idx_transactions_from_account_history
+    ON transactions (from_account_id, payment_date_time DESC, id DESC);
+
+CREATE INDEX idx_transactions_to_account_history
+    ON transactions (to_account_id, payment_date_time DESC, id DESC);
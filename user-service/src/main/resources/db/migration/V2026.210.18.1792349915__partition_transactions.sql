@@ -0,0 +1,99 @@
+-- Range-partition transactions by payment_date_time month.  Queries that
+-- bound payment_date_time (date filters, limit seeding, history pages read
+-- newest first) only touch the partitions they need.
+--
+-- Partitioned tables require unique constraints to include the partition key,
+-- so the primary key becomes (id, payment_date_time) and transaction_number is
+-- unique per timestamp.  Both are random UUIDs generated by the application.
+
+ALTER TABLE transactions
+    RENAME TO transactions_legacy;
+
+CREATE TABLE transactions
+(
+    LIKE transactions_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS
+) PARTITION BY RANGE (payment_date_time);
+
+-- Creates the partition holding the month of month_start, unless it exists.
+-- Called by the application to create partitions ahead of time.
+CREATE OR REPLACE FUNCTION create_transactions_partition(month_start DATE)
+    RETURNS BOOLEAN
+    LANGUAGE plpgsql
+AS
+$$
+DECLARE
+    from_ts        TIMESTAMP := date_trunc('month', month_start);
+    to_ts          TIMESTAMP := date_trunc('month', month_start) + INTERVAL '1 month';
+    partition_name TEXT      := format('transactions_p%s', to_char(from_ts, 'YYYY_MM'));
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE format(
+        'CREATE TABLE %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+        partition_name, from_ts, to_ts
+    );
+    RETURN TRUE;
+EXCEPTION
+    -- Another instance created it concurrently.
+    WHEN duplicate_table THEN
+        RETURN FALSE;
+END
+$$;
+
+-- Catches rows outside of all monthly partitions, so inserts never fail if
+-- the maintenance job falls behind.  Expected to stay empty.
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+
+DO
+$$
+    DECLARE
+        month DATE := COALESCE(
+            (SELECT date_trunc('month', MIN(payment_date_time)) FROM transactions_legacy),
+            date_trunc('month', CURRENT_DATE)
+        );
+    BEGIN
+        WHILE month <= date_trunc('month', CURRENT_DATE) + INTERVAL '3 months'
+            LOOP
+                PERFORM create_transactions_partition(month);
+                month := month + INTERVAL '1 month';
+            END LOOP;
+    END
+$$;
+
+INSERT INTO transactions
+SELECT *
+  FROM transactions_legacy;
+
+DROP TABLE transactions_legacy;
+
+ALTER TABLE transactions
+    ADD CONSTRAINT pk_transactions PRIMARY KEY (id, payment_date_time);
+
+ALTER TABLE transactions
+    ADD CONSTRAINT uq_transactions_number UNIQUE (transaction_number, payment_date_time);
+
+ALTER TABLE transactions
+    ADD CONSTRAINT fk_from_account FOREIGN KEY (from_account_id) REFERENCES accounts (id);
+
+ALTER TABLE transactions
+    ADD CONSTRAINT fk_to_account FOREIGN KEY (to_account_id) REFERENCES accounts (id);
+
+ALTER TABLE transactions
+    ADD CONSTRAINT fk_from_currency FOREIGN KEY (from_currency_code) REFERENCES currencies (code);
+
+ALTER TABLE transactions
+    ADD CONSTRAINT fk_to_currency FOREIGN KEY (to_currency_code) REFERENCES currencies (code);
+
+ALTER TABLE transactions
+    ADD CONSTRAINT fk_fee_currency FOREIGN KEY (fee_currency_code) REFERENCES currencies (code);
+
+CREATE INDEX idx_transactions_history
+    ON transactions (payment_date_time DESC, id DESC);
+
+CREATE INDEX idx_transactions_from_account_history
+    ON transactions (from_account_id, payment_date_time DESC, id DESC);
+
+CREATE INDEX idx_transactions_to_account_history
+    ON transactions (to_account_id, payment_date_time DESC, id DESC);
@@ -0,0 +1,15 @@
+-- Transactional outbox for RabbitMQ notifications.  Rows are written in the
+-- same transaction as the business change that triggers them and deleted by
+-- the relay once the broker has confirmed the publish.
+CREATE SEQUENCE notification_outbox_seq INCREMENT BY 50;
+
+CREATE TABLE notification_outbox
+(
+    id           BIGINT       NOT NULL,
+    exchange     VARCHAR(255) NOT NULL,
+    routing_key  VARCHAR(255) NOT NULL,
+    payload_type VARCHAR(255) NOT NULL,
+    payload      TEXT         NOT NULL,
+    created_at   TIMESTAMP    NOT NULL,
+    CONSTRAINT pk_notification_outbox PRIMARY KEY (id)
+);
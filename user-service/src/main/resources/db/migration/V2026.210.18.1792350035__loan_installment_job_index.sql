@@ -0,0 +1,4 @@
+-- Supports keyset-paging installment IDs by status and due date for the
+-- scheduled loan jobs.
+CREATE INDEX idx_loan_installments_status_due_id
+    ON loan_installments (payment_status, expected_due_date, id);
@@ -0,0 +1,14 @@
+-- Leases for scheduled jobs, so that only one instance runs a given job (or
+-- job shard) at a time.  fencing_token increases on every acquisition; work
+-- done under a lease checks that its token is still current.  completed_run
+-- records the last run key (e.g. the date) that finished, so that instances
+-- whose cron fires a little later do not run it again.
+CREATE TABLE job_leases
+(
+    job_name      VARCHAR(255) NOT NULL,
+    owner         VARCHAR(255) NOT NULL,
+    fencing_token BIGINT       NOT NULL,
+    lease_until   TIMESTAMP    NOT NULL,
+    completed_run VARCHAR(64),
+    CONSTRAINT pk_job_leases PRIMARY KEY (job_name)
+);
@@ -0,0 +1,14 @@
+-- One row per monthly repricing of variable-rate loans.
+CREATE TABLE loan_repricing_runs
+(
+    id                    UUID         NOT NULL,
+    run_key               VARCHAR(64)  NOT NULL,
+    interest_rate_variant DECIMAL      NOT NULL,
+    loans_repriced        INTEGER      NOT NULL,
+    installments_repriced INTEGER      NOT NULL,
+    started_at            TIMESTAMP    NOT NULL,
+    finished_at           TIMESTAMP    NOT NULL,
+    CONSTRAINT pk_loan_repricing_runs PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_loans_interest_type_status ON loans (interest_type, status);
@@ -0,0 +1,21 @@
+-- Revoked tokens, by SHA-256 digest of the raw JWT, kept only until the token would have expired
+-- anyway.
+CREATE TABLE revoked_tokens
+(
+    digest     BYTEA                    NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    revoked_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_revoked_tokens PRIMARY KEY (digest)
+);
+
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
+
+-- The old table kept raw tokens forever.  Their expiry is unknown, so keep them for the longest
+-- a refresh token lives.
+INSERT INTO revoked_tokens (digest, expires_at, revoked_at)
+SELECT sha256(convert_to(token, 'UTF8')), now() + INTERVAL '7 days', now()
+  FROM tokens
+ WHERE token IS NOT NULL
+ON CONFLICT DO NOTHING;
+
+DROP TABLE tokens;
@@ -0,0 +1,13 @@
+-- Shared rate limit buckets, counting requests in fixed windows.  Times are epoch milliseconds, as
+-- seen by the instances.  Losing the counts in a crash only resets the limits, so skip the WAL.
+CREATE UNLOGGED TABLE rate_limit_buckets
+(
+    bucket_key   VARCHAR(255) NOT NULL,
+    window_start BIGINT       NOT NULL,
+    expires_at   BIGINT       NOT NULL,
+    consumed     BIGINT       NOT NULL,
+    last_grant   BIGINT       NOT NULL,
+    CONSTRAINT pk_rate_limit_buckets PRIMARY KEY (bucket_key)
+);
+
+CREATE INDEX idx_rate_limit_buckets_expires_at ON rate_limit_buckets (expires_at);
@@ -0,0 +1,56 @@
+-- create_transactions_partition used CREATE TABLE ... PARTITION OF, which
+-- fails if transactions_default already holds rows for that month (when the
+-- maintenance job fell behind, or for back-dated payments).  Build the
+-- partition as a standalone table instead, move the month's rows out of the
+-- default partition into it and only then attach it.
+
+CREATE OR REPLACE FUNCTION create_transactions_partition(month_start DATE)
+    RETURNS BOOLEAN
+    LANGUAGE plpgsql
+AS
+$$
+DECLARE
+    from_ts        TIMESTAMP := date_trunc('month', month_start);
+    to_ts          TIMESTAMP := date_trunc('month', month_start) + INTERVAL '1 month';
+    partition_name TEXT      := format('transactions_p%s', to_char(from_ts, 'YYYY_MM'));
+    moved          BIGINT;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE format(
+        'CREATE TABLE %I (LIKE transactions INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+        partition_name
+    );
+
+    -- Keep rows for this month from landing in the default partition until
+    -- the new partition is attached.
+    LOCK TABLE transactions_default IN EXCLUSIVE MODE;
+
+    EXECUTE format(
+        'WITH moved AS (
+             DELETE FROM transactions_default
+              WHERE payment_date_time >= %L AND payment_date_time < %L
+          RETURNING *
+         )
+         INSERT INTO %I
+         SELECT * FROM moved',
+        from_ts, to_ts, partition_name
+    );
+    GET DIAGNOSTICS moved = ROW_COUNT;
+    IF moved > 0 THEN
+        RAISE WARNING 'Moved % rows from transactions_default into %', moved, partition_name;
+    END IF;
+
+    EXECUTE format(
+        'ALTER TABLE transactions ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+        partition_name, from_ts, to_ts
+    );
+    RETURN TRUE;
+EXCEPTION
+    -- Another instance created it concurrently.
+    WHEN duplicate_table THEN
+        RETURN FALSE;
+END
+$$;
@@ -0,0 +1,57 @@
+-- Stores the part of each installment that repays principal, so that what is
+-- still owed on a loan is the sum over its unpaid installments rather than
+-- something recovered by replaying the schedule.
+ALTER TABLE loan_installments
+    ADD COLUMN principal_amount DECIMAL;
+
+-- Backfill loans that have their full amortization schedule by replaying it
+-- forwards from the loan amount, the way AmortizationEngine built it: each
+-- period pays its cent-rounded interest on the balance and the rest of the
+-- installment off the balance, and the last period pays off what is left.
+-- Installments created one at a time for older loans are left without one.
+WITH RECURSIVE schedule AS (
+    SELECT li.id,
+           li.loan_id,
+           li.installment_amount,
+           row_number() OVER (PARTITION BY li.loan_id ORDER BY li.expected_due_date, li.id)
+                                 AS period,
+           l.repayment_period    AS term,
+           ROUND(l.amount, 2)    AS amount,
+           CASE
+               WHEN COALESCE(li.interest_rate_amount, l.base_interest_rate) IS NULL THEN 0
+               ELSE ROUND(
+                   (COALESCE(li.interest_rate_amount, l.base_interest_rate) + m.margin) / 1200,
+                   12
+               )
+           END                   AS monthly_rate
+      FROM loan_installments li
+      JOIN loans l ON l.id = li.loan_id
+      JOIN bank_margins m ON m.type = l.type
+     WHERE l.repayment_period = (SELECT count(*)
+                                   FROM loan_installments c
+                                  WHERE c.loan_id = l.id)
+), replay (id, loan_id, period, principal_amount, balance) AS (
+    SELECT s.id, s.loan_id, s.period, p.principal_amount, s.amount - p.principal_amount
+      FROM schedule s
+     CROSS JOIN LATERAL (
+         SELECT CASE
+                    WHEN s.period = s.term THEN s.amount
+                    ELSE LEAST(s.installment_amount - ROUND(s.amount * s.monthly_rate, 2), s.amount)
+                END AS principal_amount
+         ) p
+     WHERE s.period = 1
+    UNION ALL
+    SELECT s.id, s.loan_id, s.period, p.principal_amount, r.balance - p.principal_amount
+      FROM replay r
+      JOIN schedule s ON s.loan_id = r.loan_id AND s.period = r.period + 1
+     CROSS JOIN LATERAL (
+         SELECT CASE
+                    WHEN s.period = s.term THEN r.balance
+                    ELSE LEAST(s.installment_amount - ROUND(r.balance * s.monthly_rate, 2), r.balance)
+                END AS principal_amount
+         ) p
+)
+UPDATE loan_installments li
+   SET principal_amount = r.principal_amount
+  FROM replay r
+ WHERE li.id = r.id;
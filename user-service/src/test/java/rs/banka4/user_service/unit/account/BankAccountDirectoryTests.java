@@ -0,0 +1,132 @@
+package rs.banka4.user_service.unit.account;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import rs.banka4.rafeisen.common.currency.CurrencyCode;
+import rs.banka4.user_service.domain.account.db.Account;
+import rs.banka4.user_service.domain.company.db.Company;
+import rs.banka4.user_service.domain.currency.db.Currency;
+import rs.banka4.user_service.exceptions.account.AccountNotFound;
+import rs.banka4.user_service.repositories.AccountRepository;
+import rs.banka4.user_service.repositories.CompanyRepository;
+import rs.banka4.user_service.service.impl.BankAccountServiceImpl;
+
+public class BankAccountDirectoryTests {
+
+    @Mock
+    private CompanyRepository companyRepository;
+    @Mock
+    private AccountRepository accountRepository;
+    @InjectMocks
+    private BankAccountServiceImpl bankAccountService;
+
+    private Company bank;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bank = new Company();
+        bank.setName("Raffeisen Bank");
+        when(companyRepository.findByName("Raffeisen Bank")).thenReturn(Optional.of(bank));
+    }
+
+    private static Account bankAccount(CurrencyCode.Code code) {
+        Currency currency = new Currency();
+        currency.setCode(code);
+        Account account = new Account();
+        account.setId(UUID.randomUUID());
+        account.setCurrency(currency);
+        return account;
+    }
+
+    @Test
+    void testLookupUsesDirectoryAfterFirstBuild() {
+        Account rsd = bankAccount(CurrencyCode.Code.RSD);
+        Account eur = bankAccount(CurrencyCode.Code.EUR);
+        when(accountRepository.findAllByCompany(bank)).thenReturn(List.of(rsd, eur));
+        when(accountRepository.findById(rsd.getId())).thenReturn(Optional.of(rsd));
+        when(accountRepository.findById(eur.getId())).thenReturn(Optional.of(eur));
+
+        assertSame(rsd, bankAccountService.getBankAccountForCurrency(CurrencyCode.Code.RSD));
+        assertSame(eur, bankAccountService.getBankAccountForCurrency(CurrencyCode.Code.EUR));
+        assertSame(rsd, bankAccountService.getBankAccountForCurrency(CurrencyCode.Code.RSD));
+
+        verify(accountRepository, times(1)).findAllByCompany(bank);
+    }
+
+    @Test
+    void testRebuildRacingAnInvalidationIsNotKept() {
+        Account rsd = bankAccount(CurrencyCode.Code.RSD);
+        when(accountRepository.findAllByCompany(bank)).thenAnswer(invocation -> {
+            /* A bank account changes while the first rebuild is reading them. */
+            bankAccountService.invalidateBankAccountDirectory();
+            return List.of(rsd);
+        })
+            .thenReturn(List.of(rsd));
+
+        bankAccountService.getBankAccountDirectory();
+        bankAccountService.getBankAccountDirectory();
+        bankAccountService.getBankAccountDirectory();
+
+        /* The first map was dropped; the second was kept. */
+        verify(accountRepository, times(2)).findAllByCompany(bank);
+    }
+
+    @Test
+    void testMissingCurrencyRebuildsOnceThenThrows() {
+        when(accountRepository.findAllByCompany(bank)).thenReturn(
+            List.of(bankAccount(CurrencyCode.Code.RSD))
+        );
+
+        assertThrows(
+            AccountNotFound.class,
+            () -> bankAccountService.getBankAccountForCurrency(CurrencyCode.Code.USD)
+        );
+
+        verify(accountRepository, times(2)).findAllByCompany(bank);
+    }
+
+    @Test
+    void testStaleEntryInvalidatesDirectory() {
+        Account rsd = bankAccount(CurrencyCode.Code.RSD);
+        when(accountRepository.findAllByCompany(bank)).thenReturn(List.of(rsd));
+        when(accountRepository.findById(rsd.getId())).thenReturn(Optional.empty());
+
+        assertThrows(
+            AccountNotFound.class,
+            () -> bankAccountService.getBankAccountForCurrency(CurrencyCode.Code.RSD)
+        );
+        bankAccountService.getBankAccountDirectory();
+
+        verify(accountRepository, times(2)).findAllByCompany(bank);
+        verify(accountRepository, times(1)).findById(any());
+    }
+
+    @Test
+    void testBankAccountsAreRecognisedByOwnership() {
+        Account listed = bankAccount(CurrencyCode.Code.RSD);
+        Account unlisted = bankAccount(CurrencyCode.Code.RSD);
+        listed.setCompany(bank);
+        unlisted.setCompany(bank);
+        when(accountRepository.findAllByCompany(bank)).thenReturn(List.of(listed, unlisted));
+
+        Account companyAccount = bankAccount(CurrencyCode.Code.RSD);
+        companyAccount.setCompany(new Company());
+        Account personalAccount = bankAccount(CurrencyCode.Code.RSD);
+
+        assertTrue(bankAccountService.isBankAccount(listed));
+        assertTrue(bankAccountService.isBankAccount(unlisted));
+        assertFalse(bankAccountService.isBankAccount(companyAccount));
+        assertFalse(bankAccountService.isBankAccount(personalAccount));
+    }
+}
@@ -0,0 +1,88 @@
+package rs.banka4.user_service.unit.account;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import rs.banka4.user_service.domain.account.db.Account;
+import rs.banka4.user_service.repositories.BankAccountShardRepository;
+import rs.banka4.user_service.service.impl.BankLedgerService;
+
+public class BankLedgerServiceTests {
+
+    @Mock
+    private BankAccountShardRepository shardRepository;
+
+    private BankLedgerService bankLedgerService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bankLedgerService = new BankLedgerService(shardRepository, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static Account bankAccount() {
+        Account account = new Account();
+        account.setId(UUID.randomUUID());
+        return account;
+    }
+
+    @Test
+    void testPostOutsideTransactionWritesImmediately() {
+        Account account = bankAccount();
+
+        bankLedgerService.post(account, BigDecimal.TEN);
+
+        verify(shardRepository).addDelta(
+            eq(account.getId()),
+            intThat(shard -> shard >= 0 && shard < 8),
+            eq(BigDecimal.TEN)
+        );
+    }
+
+    @Test
+    void testPostInsideTransactionIsBufferedUntilCommit() {
+        Account rsd = bankAccount();
+        Account eur = bankAccount();
+        TransactionSynchronizationManager.initSynchronization();
+
+        bankLedgerService.post(rsd, BigDecimal.TEN);
+        bankLedgerService.post(rsd, BigDecimal.ONE.negate());
+        bankLedgerService.post(eur, BigDecimal.ONE);
+        bankLedgerService.post(eur, BigDecimal.ONE.negate());
+
+        verify(shardRepository, never()).addDelta(any(), anyInt(), any());
+
+        for (
+            TransactionSynchronization sync : TransactionSynchronizationManager
+                .getSynchronizations()
+        ) {
+            sync.beforeCommit(false);
+            sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        verify(shardRepository).addDelta(eq(rsd.getId()), anyInt(), eq(BigDecimal.valueOf(9)));
+        verify(shardRepository, never()).addDelta(eq(eur.getId()), anyInt(), any());
+    }
+
+    @Test
+    void testZeroDeltaIsIgnored() {
+        bankLedgerService.post(bankAccount(), BigDecimal.ZERO);
+
+        verifyNoInteractions(shardRepository);
+    }
+}
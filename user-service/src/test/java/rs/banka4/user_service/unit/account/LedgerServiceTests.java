@@ -0,0 +1,154 @@
+package rs.banka4.user_service.unit.account;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.InOrder;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import rs.banka4.rafeisen.common.currency.CurrencyCode;
+import rs.banka4.user_service.domain.account.db.Account;
+import rs.banka4.user_service.domain.account.db.LedgerDirection;
+import rs.banka4.user_service.domain.account.db.LedgerEntry;
+import rs.banka4.user_service.generator.TransactionObjectMother;
+import rs.banka4.user_service.repositories.LedgerEntryRepository;
+import rs.banka4.user_service.service.impl.BankAccountServiceImpl;
+import rs.banka4.user_service.service.impl.LedgerService;
+
+public class LedgerServiceTests {
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+    @Mock
+    private BankAccountServiceImpl bankAccountService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LedgerService ledgerService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ledgerService = new LedgerService(
+                ledgerEntryRepository,
+                bankAccountService,
+                transactionManager,
+                100
+            );
+    }
+
+    private static Account account(CurrencyCode.Code code, long balance) {
+        Account account = new Account();
+        account.setId(UUID.randomUUID());
+        account.setCurrency(TransactionObjectMother.generateCurrency(code));
+        account.setBalance(BigDecimal.valueOf(balance));
+        account.setAvailableBalance(BigDecimal.valueOf(balance));
+        return account;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<LedgerEntry> capturePostedEntries() {
+        ArgumentCaptor<List<LedgerEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ledgerEntryRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    void testTransferAppendsPairAndHoldsDebit() {
+        Account from = account(CurrencyCode.Code.RSD, 1000);
+        Account to = account(CurrencyCode.Code.RSD, 500);
+
+        UUID journalId = ledgerService.transfer(from, to, BigDecimal.valueOf(100));
+
+        List<LedgerEntry> entries = capturePostedEntries();
+        assertEquals(2, entries.size());
+        LedgerEntry debit = entries.get(0);
+        LedgerEntry credit = entries.get(1);
+        assertEquals(LedgerDirection.DEBIT, debit.getDirection());
+        assertEquals(from.getId(), debit.getAccountId());
+        assertEquals(LedgerDirection.CREDIT, credit.getDirection());
+        assertEquals(to.getId(), credit.getAccountId());
+        entries.forEach(entry -> {
+            assertEquals(journalId, entry.getJournalId());
+            assertNull(entry.getProjectedAt());
+        });
+
+        /* Only the hold is applied immediately; booked balances wait for the projector. */
+        assertEquals(BigDecimal.valueOf(900), from.getAvailableBalance());
+        assertEquals(BigDecimal.valueOf(1000), from.getBalance());
+        assertEquals(BigDecimal.valueOf(500), to.getAvailableBalance());
+        assertEquals(BigDecimal.valueOf(500), to.getBalance());
+    }
+
+    @Test
+    void testBankLegGoesToBankLedgerAndIsPreProjected() {
+        Account from = account(CurrencyCode.Code.EUR, 1000);
+        Account bank = account(CurrencyCode.Code.EUR, 100000);
+        when(bankAccountService.isBankAccount(bank)).thenReturn(true);
+
+        ledgerService.transfer(from, bank, BigDecimal.TEN);
+
+        verify(bankAccountService).creditBankAccount(bank, BigDecimal.TEN);
+        List<LedgerEntry> entries = capturePostedEntries();
+        assertNull(
+            entries.get(0)
+                .getProjectedAt()
+        );
+        assertNotNull(
+            entries.get(1)
+                .getProjectedAt()
+        );
+        assertEquals(BigDecimal.valueOf(100000), bank.getAvailableBalance());
+    }
+
+    @Test
+    void testTransferRejectsCurrencyMismatch() {
+        Account from = account(CurrencyCode.Code.EUR, 1000);
+        Account to = account(CurrencyCode.Code.USD, 1000);
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ledgerService.transfer(from, to, BigDecimal.TEN)
+        );
+        verifyNoInteractions(ledgerEntryRepository);
+    }
+
+    @Test
+    void testProjectDrainsUntilEmpty() {
+        List<Long> first = List.of(1L, 2L, 3L);
+        List<Long> second = List.of(4L);
+        when(ledgerEntryRepository.lockNextBatch(100)).thenReturn(first, second, List.of());
+        when(ledgerEntryRepository.project(first)).thenReturn(3);
+        when(ledgerEntryRepository.project(second)).thenReturn(1);
+
+        ledgerService.project();
+
+        verify(ledgerEntryRepository, times(3)).lockNextBatch(100);
+        verify(ledgerEntryRepository, times(2)).project(anyList());
+        /* Each batch commits on its own. */
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void testProjectLocksAccountsBeforeUpdatingThem() {
+        List<Long> batch = List.of(1L, 2L);
+        when(ledgerEntryRepository.lockNextBatch(100)).thenReturn(batch, List.of());
+        when(ledgerEntryRepository.project(batch)).thenReturn(2);
+
+        ledgerService.project();
+
+        InOrder inOrder = inOrder(ledgerEntryRepository);
+        inOrder.verify(ledgerEntryRepository)
+            .lockAccountsOf(batch);
+        inOrder.verify(ledgerEntryRepository)
+            .project(batch);
+    }
+}
@@ -5,7 +5,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
-import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.EnumSet;
 import java.util.Optional;
 import java.util.UUID;
@@ -28,6 +28,7 @@ import rs.banka4.user_service.repositories.EmployeeRepository;
 import rs.banka4.user_service.repositories.UserTotpSecretRepository;
 import rs.banka4.user_service.service.abstraction.JwtService;
 import rs.banka4.user_service.service.impl.TotpServiceImpl;
+import rs.banka4.user_service.utils.totp.TotpCodeGenerator;
 
 public class TotpServiceImplTest {
     private JwtService jwtService;
@@ -36,6 +37,8 @@ public class TotpServiceImplTest {
     private EmployeeRepository employeeRepository;
     private TotpServiceImpl totpService;
 
+    private static final UUID USER_ID = UUID.fromString("2366c6cb-5598-4872-8271-c968af8e3326");
+
     private final String testSecret = "TEST_SECRET_1234567890";
 
     @BeforeEach
@@ -45,15 +48,17 @@ public class TotpServiceImplTest {
                 jwtService = mock(JwtService.class),
                 repository = mock(UserTotpSecretRepository.class),
                 clientRepository = mock(ClientRepository.class),
-                employeeRepository = mock(EmployeeRepository.class)
+                employeeRepository = mock(EmployeeRepository.class),
+                Duration.ofMinutes(1)
             );
+        when(jwtService.extractUserId(any())).thenReturn(USER_ID);
     }
 
     private AuthenticatedBankUserAuthentication makeAuthentication(UserType userType) {
         return new AuthenticatedBankUserAuthentication(
             new AuthenticatedBankUserPrincipal(
                 userType,
-                UUID.fromString("2366c6cb-5598-4872-8271-c968af8e3326")
+                USER_ID
             ),
             "token",
             EnumSet.noneOf(Privilege.class)
@@ -126,6 +131,54 @@ public class TotpServiceImplTest {
         );
     }
 
+    @Test
+    void validate_sameCodeTwice_rejectsReplay() throws Exception {
+        // Arrange
+        UserTotpSecret activeTotp =
+            new UserTotpSecret(UUID.randomUUID(), testSecret, null, null, true);
+        when(repository.findByClient_Id(any())).thenReturn(Optional.of(activeTotp));
+        String validCode = generateCodeForSecret(testSecret);
+
+        // Act & Assert
+        assertThat(totpService.validate("Bearer validToken", validCode)).isTrue();
+        assertThat(totpService.validate("Bearer validToken", validCode)).isFalse();
+    }
+
+    @Test
+    void validate_repeatedChecks_readSecretOnce() throws Exception {
+        // Arrange
+        UserTotpSecret activeTotp =
+            new UserTotpSecret(UUID.randomUUID(), testSecret, null, null, true);
+        when(repository.findByClient_Id(any())).thenReturn(Optional.of(activeTotp));
+
+        // Act
+        totpService.validate("Bearer validToken", "000000");
+        totpService.validate("Bearer validToken", "111111");
+        totpService.validate("Bearer validToken", "222222");
+
+        // Assert
+        verify(repository, times(1)).findByClient_Id(USER_ID);
+    }
+
+    @Test
+    void validate_afterRegenerate_reloadsSecret() throws Exception {
+        // Arrange
+        final var auth = makeAuthentication(UserType.CLIENT);
+        Client client =
+            ClientObjectMother.generateClient(UUID.randomUUID(), "5ujtruje@example.com");
+        UserTotpSecret totp = new UserTotpSecret(UUID.randomUUID(), testSecret, client, null, true);
+        when(clientRepository.findById(any())).thenReturn(Optional.of(client));
+        when(repository.findByClient_Id(any())).thenReturn(Optional.of(totp));
+        totpService.validate("Bearer validToken", "000000");
+
+        // Act
+        totpService.regenerateSecret(auth);
+
+        // Assert
+        assertThatThrownBy(() -> totpService.validate("Bearer validToken", "000000"))
+            .isInstanceOf(NotActiveTotpException.class);
+    }
+
     // ------------------------- regenerateSecret Tests -------------------------
     @Test
     void regenerateSecret_clientExistingSecret_updatesSecret() {
@@ -175,10 +228,10 @@ public class TotpServiceImplTest {
     }
 
     // ------------------------- Helper Methods -------------------------
-    private String generateCodeForSecret(String secret) throws Exception {
-        Method method =
-            TotpServiceImpl.class.getDeclaredMethod("generateCodeFromSecret", String.class);
-        method.setAccessible(true);
-        return (String) method.invoke(totpService, secret);
+    private String generateCodeForSecret(String secret) {
+        return TotpCodeGenerator.generate(
+            TotpCodeGenerator.decodeSecret(secret),
+            System.currentTimeMillis() / 1000 / 30
+        );
     }
 }
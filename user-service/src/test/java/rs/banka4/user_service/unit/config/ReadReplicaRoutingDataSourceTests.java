@@ -0,0 +1,72 @@
+package rs.banka4.user_service.unit.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import rs.banka4.user_service.config.datasource.ReadReplicaRoutingDataSource;
+
+public class ReadReplicaRoutingDataSourceTests {
+
+    @Mock
+    private DataSource primary;
+    @Mock
+    private DataSource replica;
+    @Mock
+    private Connection primaryConnection;
+    @Mock
+    private Connection replicaConnection;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReadReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        meterRegistry = new SimpleMeterRegistry();
+        dataSource = new ReadReplicaRoutingDataSource(primary, replica, meterRegistry);
+        dataSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testReadWriteWorkUsesPrimary() throws Exception {
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertEquals(
+            1.0,
+            meterRegistry.get("banka4.datasource.routed.connections")
+                .tag("target", "primary")
+                .counter()
+                .count()
+        );
+    }
+
+    @Test
+    void testReadOnlyTransactionUsesReplica() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(replicaConnection, dataSource.getConnection());
+        assertEquals(
+            1.0,
+            meterRegistry.get("banka4.datasource.routed.connections")
+                .tag("target", "replica")
+                .counter()
+                .count()
+        );
+    }
+}
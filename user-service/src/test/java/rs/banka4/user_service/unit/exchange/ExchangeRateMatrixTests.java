@@ -0,0 +1,89 @@
+package rs.banka4.user_service.unit.exchange;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rs.banka4.rafeisen.common.currency.CurrencyCode;
+import rs.banka4.user_service.domain.exchange.dtos.ExchangeRate;
+import rs.banka4.user_service.domain.exchange.dtos.ExchangeRateDto;
+import rs.banka4.user_service.utils.exchange.ExchangeRateMatrix;
+
+public class ExchangeRateMatrixTests {
+
+    private ExchangeRateMatrix matrix;
+
+    @BeforeEach
+    void setUp() {
+        ExchangeRateDto dto =
+            new ExchangeRateDto(
+                "",
+                0,
+                "",
+                0,
+                0,
+                Map.of(
+                    CurrencyCode.Code.EUR,
+                    new ExchangeRate(
+                        "RSD",
+                        "EUR",
+                        new BigDecimal("118"),
+                        new BigDecimal("117"),
+                        new BigDecimal("116")
+                    ),
+                    CurrencyCode.Code.USD,
+                    new ExchangeRate(
+                        "RSD",
+                        "USD",
+                        new BigDecimal("110"),
+                        new BigDecimal("108"),
+                        new BigDecimal("106")
+                    )
+                )
+            );
+        matrix = ExchangeRateMatrix.from(dto, 0);
+    }
+
+    @Test
+    void testRsdToForeignUsesBuyRate() {
+        assertEquals(
+            new BigDecimal("10.00"),
+            matrix.convert(new BigDecimal("1180"), CurrencyCode.Code.RSD, CurrencyCode.Code.EUR)
+        );
+    }
+
+    @Test
+    void testForeignToRsdUsesSellRate() {
+        assertEquals(
+            new BigDecimal("1160.00"),
+            matrix.convert(BigDecimal.TEN, CurrencyCode.Code.EUR, CurrencyCode.Code.RSD)
+        );
+    }
+
+    @Test
+    void testForeignToForeignCrossesThroughRsd() {
+        // 110 EUR -> 12760 RSD -> 116 USD
+        assertEquals(
+            new BigDecimal("116.00"),
+            matrix.convert(new BigDecimal("110"), CurrencyCode.Code.EUR, CurrencyCode.Code.USD)
+        );
+    }
+
+    @Test
+    void testSameCurrencyIsIdentity() {
+        assertEquals(
+            new BigDecimal("12.35"),
+            matrix.convert(new BigDecimal("12.345"), CurrencyCode.Code.USD, CurrencyCode.Code.USD)
+        );
+    }
+
+    @Test
+    void testMissingRateThrows() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> matrix.convert(BigDecimal.ONE, CurrencyCode.Code.RSD, CurrencyCode.Code.JPY)
+        );
+    }
+}
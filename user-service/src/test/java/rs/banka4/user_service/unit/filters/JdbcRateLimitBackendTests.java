@@ -0,0 +1,76 @@
+package rs.banka4.user_service.unit.filters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import rs.banka4.user_service.utils.ratelimit.JdbcRateLimitBackend;
+import rs.banka4.user_service.utils.ratelimit.RateLimitProperties;
+
+public class JdbcRateLimitBackendTests {
+    private static final RateLimitProperties.Limit LIMIT =
+        new RateLimitProperties.Limit(25, Duration.ofHours(1));
+
+    /* Stands in for the shared table: one bucket, in one window. */
+    private long sharedRemaining = LIMIT.capacity();
+    private boolean databaseDown = false;
+    private final List<Long> reservations = new ArrayList<>();
+    private int attempts = 0;
+
+    private final JdbcRateLimitBackend backend =
+        new JdbcRateLimitBackend(mock(JdbcTemplate.class), 10, Duration.ofMinutes(1)) {
+            @Override
+            protected long reserve(
+                String bucketKey,
+                long capacity,
+                long windowStart,
+                long windowEnd
+            ) {
+                attempts++;
+                if (databaseDown) throw new DataAccessResourceFailureException("down");
+                final var granted = Math.min(10, sharedRemaining);
+                sharedRemaining -= granted;
+                reservations.add(granted);
+                return granted;
+            }
+        };
+
+    @Test
+    void testRequestsAreServedFromReservationsUntilTheSharedBucketIsEmpty() {
+        int allowed = 0;
+        for (int i = 0; i < 40; i++)
+            if (backend.tryConsume("ip:default:127.0.0.1", LIMIT)) allowed++;
+
+        assertThat(allowed).isEqualTo(25);
+        /* Three reservations and a single refusal, not one query per request. */
+        assertThat(reservations).containsExactly(10L, 10L, 5L, 0L);
+    }
+
+    @Test
+    void testBucketsFallBackToMemoryWhenTheDatabaseIsDown() {
+        databaseDown = true;
+
+        int allowed = 0;
+        for (int i = 0; i < 40; i++)
+            if (backend.tryConsume("ip:default:127.0.0.1", LIMIT)) allowed++;
+
+        assertThat(allowed).isEqualTo(25);
+    }
+
+    @Test
+    void testTheDatabaseIsNotRetriedRightAfterItFailed() {
+        databaseDown = true;
+
+        for (int i = 0; i < 40; i++)
+            backend.tryConsume("ip:default:127.0.0.1", LIMIT);
+        backend.tryConsume("ip:default:127.0.0.2", LIMIT);
+
+        /* Only the first request waited on the database; the rest went straight to memory. */
+        assertThat(attempts).isEqualTo(1);
+    }
+}
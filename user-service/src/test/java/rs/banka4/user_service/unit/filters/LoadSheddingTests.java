@@ -0,0 +1,99 @@
+package rs.banka4.user_service.unit.filters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import rs.banka4.rafeisen.common.utils.concurrency.ConcurrencyLimiter;
+import rs.banka4.rafeisen.common.utils.concurrency.GradientConcurrencyLimit;
+import rs.banka4.rafeisen.common.utils.concurrency.LoadSheddingFilter;
+import rs.banka4.rafeisen.common.utils.concurrency.RequestPriority;
+import rs.banka4.rafeisen.common.utils.concurrency.RequestPriorityRules;
+
+public class LoadSheddingTests {
+    private final ConcurrencyLimiter limiter =
+        new ConcurrencyLimiter(new GradientConcurrencyLimit(4, 4, 4, 1.5));
+    private final LoadSheddingFilter filter =
+        new LoadSheddingFilter(
+            limiter,
+            new RequestPriorityRules()
+                .exempt("/actuator/**")
+                .rule(HttpMethod.POST, "/transaction/**", RequestPriority.CRITICAL)
+                .rule(HttpMethod.GET, "/transaction/**", RequestPriority.LOW),
+            2
+        );
+
+    @Test
+    public void testRequestsPassWhileBelowTheLimit() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/transaction/history");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(chain.getRequest()).isSameAs(request);
+        assertThat(limiter.getInflight()).isZero();
+    }
+
+    @Test
+    public void testHistoryIsShedWhilePaymentsFlow() throws ServletException, IOException {
+        /* Two requests in flight fill the low priority share of a limit of four. */
+        limiter.tryAcquire(RequestPriority.NORMAL);
+        limiter.tryAcquire(RequestPriority.NORMAL);
+
+        MockHttpServletRequest history = new MockHttpServletRequest("GET", "/transaction/history");
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        MockFilterChain historyChain = new MockFilterChain();
+        filter.doFilter(history, shed, historyChain);
+
+        assertThat(historyChain.getRequest()).isNull();
+        assertThat(shed.getStatus()).isEqualTo(503);
+        assertThat(shed.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(shed.getContentAsString()).contains("ServiceOverloaded");
+
+        MockHttpServletRequest payment = new MockHttpServletRequest("POST", "/transaction/payment");
+        MockFilterChain paymentChain = new MockFilterChain();
+        filter.doFilter(payment, new MockHttpServletResponse(), paymentChain);
+
+        assertThat(paymentChain.getRequest()).isSameAs(payment);
+    }
+
+    @Test
+    public void testAsyncRequestsHoldTheirPermitUntilComplete() throws ServletException,
+        IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/transaction/export");
+        request.setAsyncSupported(true);
+        FilterChain streaming = (req, res) -> req.startAsync();
+
+        filter.doFilter(request, new MockHttpServletResponse(), streaming);
+
+        /* The request thread is back, but the export is still being written. */
+        assertThat(limiter.getInflight()).isEqualTo(1);
+
+        request.getAsyncContext()
+            .complete();
+
+        assertThat(limiter.getInflight()).isZero();
+    }
+
+    @Test
+    public void testHealthChecksAreNeverShed() throws ServletException, IOException {
+        for (int i = 0; i < 4; i++)
+            limiter.tryAcquire(RequestPriority.CRITICAL);
+
+        MockHttpServletRequest health = new MockHttpServletRequest("GET", "/actuator/health");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(health, response, chain);
+
+        assertThat(chain.getRequest()).isSameAs(health);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(limiter.getInflight()).isEqualTo(4);
+    }
+}
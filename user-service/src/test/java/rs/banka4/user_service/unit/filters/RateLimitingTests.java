@@ -6,21 +6,57 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
 import org.springframework.mock.web.MockFilterChain;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import rs.banka4.rafeisen.common.exceptions.RateLimitExceeded;
+import rs.banka4.rafeisen.common.security.AuthenticatedBankUserPrincipal;
+import rs.banka4.rafeisen.common.security.UserType;
 import rs.banka4.user_service.config.filters.RateLimitingFilter;
+import rs.banka4.user_service.config.filters.UserRateLimitingFilter;
+import rs.banka4.user_service.utils.ratelimit.InMemoryRateLimitBackend;
+import rs.banka4.user_service.utils.ratelimit.RateLimitProperties;
 
 public class RateLimitingTests {
 
     private RateLimitingFilter rateLimitingFilter;
+    private UserRateLimitingFilter userRateLimitingFilter;
 
     @BeforeEach
     public void setUp() {
-        rateLimitingFilter = new RateLimitingFilter();
+        final var backend = new InMemoryRateLimitBackend();
+        final var properties =
+            new RateLimitProperties(
+                RateLimitProperties.Backend.MEMORY,
+                20,
+                null,
+                null,
+                new RateLimitProperties.Limit(50, Duration.ofMinutes(1)),
+                List.of(
+                    new RateLimitProperties.Route(
+                        "/auth/**",
+                        HttpMethod.POST,
+                        new RateLimitProperties.Limit(5, Duration.ofMinutes(1)),
+                        null
+                    )
+                )
+            );
+        rateLimitingFilter = new RateLimitingFilter(backend, properties);
+        userRateLimitingFilter = new UserRateLimitingFilter(backend, properties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
@@ -54,4 +90,111 @@ public class RateLimitingTests {
             rateLimitingFilter.doFilterInternal(request, blockedResponse, new MockFilterChain());
         });
     }
+
+    @Test
+    public void testRateLimitingAppliesRouteLimitSeparately() throws ServletException, IOException {
+        MockHttpServletRequest login = new MockHttpServletRequest("POST", "/auth/client/login");
+        login.setRemoteAddr("127.0.0.1");
+
+        for (int i = 0; i < 5; i++) {
+            rateLimitingFilter.doFilterInternal(
+                login,
+                new MockHttpServletResponse(),
+                new MockFilterChain()
+            );
+        }
+
+        assertThrows(
+            RateLimitExceeded.class,
+            () -> rateLimitingFilter.doFilterInternal(
+                login,
+                new MockHttpServletResponse(),
+                new MockFilterChain()
+            )
+        );
+
+        /* Other routes have their own buckets. */
+        MockHttpServletRequest other = new MockHttpServletRequest("GET", "/client/me");
+        other.setRemoteAddr("127.0.0.1");
+        rateLimitingFilter.doFilterInternal(
+            other,
+            new MockHttpServletResponse(),
+            new MockFilterChain()
+        );
+    }
+
+    @Test
+    public void testRateLimitingLimitsUsersAcrossAddresses() throws ServletException, IOException {
+        final var principal =
+            new AuthenticatedBankUserPrincipal(UserType.CLIENT, UUID.randomUUID());
+        SecurityContextHolder.getContext()
+            .setAuthentication(new TestingAuthenticationToken(principal, null));
+
+        for (int i = 0; i < 50; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/client/me");
+            request.setRemoteAddr("10.0.0." + i);
+            userRateLimitingFilter.doFilterInternal(
+                request,
+                new MockHttpServletResponse(),
+                new MockFilterChain()
+            );
+        }
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/client/me");
+        request.setRemoteAddr("10.0.1.1");
+        assertThrows(
+            RateLimitExceeded.class,
+            () -> userRateLimitingFilter.doFilterInternal(
+                request,
+                new MockHttpServletResponse(),
+                new MockFilterChain()
+            )
+        );
+    }
+
+    @Test
+    public void testRateLimitingIgnoresForwardedForHeader() throws ServletException, IOException {
+        for (int i = 0; i < 100; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.setRemoteAddr("127.0.0.1");
+            request.addHeader("X-Forwarded-For", "203.0.113." + i);
+            rateLimitingFilter.doFilterInternal(
+                request,
+                new MockHttpServletResponse(),
+                new MockFilterChain()
+            );
+        }
+
+        /* A fresh header does not make a fresh client. */
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("127.0.0.1");
+        request.addHeader("X-Forwarded-For", "198.51.100.1");
+        assertThrows(
+            RateLimitExceeded.class,
+            () -> rateLimitingFilter.doFilterInternal(
+                request,
+                new MockHttpServletResponse(),
+                new MockFilterChain()
+            )
+        );
+    }
+
+    @Test
+    public void testRateLimitingLeavesUsersToUserFilter() throws ServletException, IOException {
+        final var principal =
+            new AuthenticatedBankUserPrincipal(UserType.CLIENT, UUID.randomUUID());
+        SecurityContextHolder.getContext()
+            .setAuthentication(new TestingAuthenticationToken(principal, null));
+
+        /* Per-IP limiting runs before authentication, so users only count in the user filter. */
+        for (int i = 0; i < 60; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/client/me");
+            request.setRemoteAddr("10.0.0." + i);
+            rateLimitingFilter.doFilterInternal(
+                request,
+                new MockHttpServletResponse(),
+                new MockFilterChain()
+            );
+        }
+    }
 }
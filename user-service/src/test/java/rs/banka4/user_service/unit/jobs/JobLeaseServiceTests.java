@@ -0,0 +1,75 @@
+package rs.banka4.user_service.unit.jobs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import rs.banka4.user_service.utils.jobs.JobLease;
+import rs.banka4.user_service.utils.jobs.JobLeaseLostException;
+import rs.banka4.user_service.utils.jobs.JobLeaseService;
+
+public class JobLeaseServiceTests {
+    private static final JobLease LEASE = new JobLease("test-job", 3);
+
+    private Optional<JobLease> acquired = Optional.of(LEASE);
+    private final List<String> released = new ArrayList<>();
+
+    /* The SQL itself needs Postgres; here we only check how runOnce uses the lease. */
+    private final JobLeaseService service =
+        new JobLeaseService(mock(JdbcTemplate.class), Duration.ofMinutes(2)) {
+            @Override
+            public Optional<JobLease> tryAcquire(String jobName, String runKey) {
+                return acquired;
+            }
+
+            @Override
+            public void release(JobLease lease, String completedRun) {
+                released.add(completedRun);
+            }
+        };
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testJobRunsAndCompletesWhenLeaseIsAcquired() {
+        List<JobLease> seen = new ArrayList<>();
+
+        boolean ran = service.runOnce("test-job", "2025-03-01", seen::add);
+
+        assertThat(ran).isTrue();
+        assertThat(seen).containsExactly(LEASE);
+        assertThat(released).containsExactly("2025-03-01");
+    }
+
+    @Test
+    void testJobIsSkippedWhenLeaseIsHeldElsewhere() {
+        acquired = Optional.empty();
+        List<JobLease> seen = new ArrayList<>();
+
+        boolean ran = service.runOnce("test-job", "2025-03-01", seen::add);
+
+        assertThat(ran).isFalse();
+        assertThat(seen).isEmpty();
+        assertThat(released).isEmpty();
+    }
+
+    @Test
+    void testRunIsNotCompletedWhenLeaseIsLost() {
+        boolean ran =
+            service.runOnce("test-job", "2025-03-01", lease -> {
+                throw new JobLeaseLostException(lease);
+            });
+
+        assertThat(ran).isTrue();
+        assertThat(released).containsExactly((String) null);
+    }
+}
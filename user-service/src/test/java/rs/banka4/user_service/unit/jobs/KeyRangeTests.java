@@ -0,0 +1,65 @@
+package rs.banka4.user_service.unit.jobs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import rs.banka4.user_service.utils.jobs.KeyRange;
+
+public class KeyRangeTests {
+    @Test
+    void testSingleShardCoversEverything() {
+        assertThat(KeyRange.split(1)).containsExactly(KeyRange.ALL);
+    }
+
+    @Test
+    void testShardsAreContiguous() {
+        List<KeyRange> shards = KeyRange.split(8);
+
+        assertThat(shards).hasSize(8);
+        assertThat(
+            shards.get(0)
+                .after()
+        ).isEqualTo(KeyRange.ALL.after());
+        assertThat(
+            shards.get(7)
+                .upTo()
+        ).isEqualTo(KeyRange.ALL.upTo());
+        for (int i = 1; i < shards.size(); i++) {
+            assertThat(
+                shards.get(i)
+                    .after()
+            ).isEqualTo(
+                shards.get(i - 1)
+                    .upTo()
+            );
+        }
+    }
+
+    @Test
+    void testShardBoundariesAreEvenlySpaced() {
+        List<KeyRange> shards = KeyRange.split(4);
+
+        assertThat(
+            shards.get(0)
+                .upTo()
+                .toString()
+        ).isEqualTo("3fffffff-ffff-ffff-ffff-ffffffffffff");
+        assertThat(
+            shards.get(1)
+                .upTo()
+                .toString()
+        ).isEqualTo("7fffffff-ffff-ffff-ffff-ffffffffffff");
+        assertThat(
+            shards.get(2)
+                .upTo()
+                .toString()
+        ).isEqualTo("bfffffff-ffff-ffff-ffff-ffffffffffff");
+    }
+
+    @Test
+    void testNonPositiveShardCountIsRejected() {
+        assertThatThrownBy(() -> KeyRange.split(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,64 @@
+package rs.banka4.user_service.unit.jobs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import rs.banka4.user_service.utils.jobs.JobLease;
+import rs.banka4.user_service.utils.jobs.JobLeaseService;
+import rs.banka4.user_service.utils.jobs.KeyRange;
+import rs.banka4.user_service.utils.jobs.ShardedJobExecutor;
+
+public class ShardedJobExecutorTests {
+    private final Map<String, String> released = new HashMap<>();
+
+    /* Every shard lease is free; record how each one was released. */
+    private final JobLeaseService jobLeaseService =
+        new JobLeaseService(mock(JdbcTemplate.class), Duration.ofMinutes(2)) {
+            @Override
+            public Optional<JobLease> tryAcquire(String jobName, String runKey) {
+                return Optional.of(new JobLease(jobName, 1));
+            }
+
+            @Override
+            public void release(JobLease lease, String completedRun) {
+                released.put(lease.jobName(), completedRun);
+            }
+        };
+
+    private final ShardedJobExecutor executor = new ShardedJobExecutor(jobLeaseService, 4);
+
+    @AfterEach
+    void tearDown() {
+        jobLeaseService.shutdown();
+    }
+
+    @Test
+    void testFailingShardDoesNotSkipTheOthers() {
+        final KeyRange failing =
+            KeyRange.split(4)
+                .get(0);
+        final List<KeyRange> ran = new ArrayList<>();
+
+        executor.run("test-job", "2025-03-01", (range, lease) -> {
+            ran.add(range);
+            if (range.equals(failing)) throw new IllegalStateException("boom");
+        });
+
+        assertThat(ran).containsExactlyInAnyOrderElementsOf(KeyRange.split(4));
+        /* Only the failed shard is left to be retried. */
+        assertThat(released).hasSize(4)
+            .containsEntry("test-job#0", null)
+            .containsEntry("test-job#1", "2025-03-01")
+            .containsEntry("test-job#2", "2025-03-01")
+            .containsEntry("test-job#3", "2025-03-01");
+    }
+}
@@ -0,0 +1,130 @@
+package rs.banka4.user_service.unit.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rs.banka4.user_service.domain.loan.db.BankMargin;
+import rs.banka4.user_service.domain.loan.db.Loan;
+import rs.banka4.user_service.domain.loan.db.LoanInstallment;
+import rs.banka4.user_service.domain.loan.db.LoanType;
+import rs.banka4.user_service.domain.loan.db.PaymentStatus;
+import rs.banka4.user_service.domain.loan.dtos.AmortizationPeriodDto;
+import rs.banka4.user_service.domain.loan.dtos.AmortizationScheduleDto;
+import rs.banka4.user_service.repositories.BankMarginRepository;
+import rs.banka4.user_service.utils.loans.AmortizationEngine;
+import rs.banka4.user_service.utils.loans.LoanRateUtil;
+
+@ExtendWith(MockitoExtension.class)
+public class AmortizationEngineTests {
+    private static final LocalDate FIRST_DUE = LocalDate.of(2025, 1, 31);
+
+    @Mock
+    private BankMarginRepository bankMarginRepository;
+
+    private LoanRateUtil loanRateUtil;
+    private AmortizationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        loanRateUtil = new LoanRateUtil(bankMarginRepository);
+        engine = new AmortizationEngine(loanRateUtil);
+    }
+
+    @Test
+    void testScheduleRepaysPrincipalExactly() {
+        BigDecimal principal = new BigDecimal("100000.00");
+
+        AmortizationScheduleDto schedule =
+            engine.schedule(principal, new BigDecimal("0.005"), 12, FIRST_DUE);
+
+        List<AmortizationPeriodDto> periods = schedule.periods();
+        assertThat(periods).hasSize(12);
+        assertThat(schedule.monthlyInstallment()).isEqualByComparingTo("8606.64");
+        assertThat(
+            periods.get(0)
+                .interest()
+        ).isEqualByComparingTo("500.00");
+        assertThat(
+            periods.get(11)
+                .remainingBalance()
+        ).isEqualByComparingTo("0");
+        assertThat(
+            periods.stream()
+                .map(AmortizationPeriodDto::principal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+        ).isEqualByComparingTo(principal);
+        assertThat(schedule.totalRepayment()).isEqualByComparingTo(
+            principal.add(schedule.totalInterest())
+        );
+    }
+
+    @Test
+    void testDueDatesKeepDayOfMonth() {
+        AmortizationScheduleDto schedule =
+            engine.schedule(new BigDecimal("1200"), BigDecimal.ZERO, 3, FIRST_DUE);
+
+        assertThat(schedule.periods()).extracting(AmortizationPeriodDto::dueDate)
+            .containsExactly(
+                LocalDate.of(2025, 1, 31),
+                LocalDate.of(2025, 2, 28),
+                LocalDate.of(2025, 3, 31)
+            );
+        assertThat(schedule.periods()).extracting(AmortizationPeriodDto::installment)
+            .allSatisfy(amount -> assertThat(amount).isEqualByComparingTo("400"));
+    }
+
+    @Test
+    void testScheduleForLoanUsesAnnualPercentRate() {
+        BankMargin margin = new BankMargin();
+        margin.setMargin(new BigDecimal("1.20"));
+        when(bankMarginRepository.findBankMarginByType(LoanType.CASH)).thenReturn(
+            Optional.of(margin)
+        );
+        Loan loan = new Loan();
+        loan.setAmount(new BigDecimal("50000"));
+        loan.setRepaymentPeriod(24);
+        loan.setBaseInterestRate(new BigDecimal("4.80"));
+        loan.setType(LoanType.CASH);
+
+        AmortizationScheduleDto schedule = engine.scheduleFor(loan, FIRST_DUE);
+
+        /* 6% a year is half a percent a month. */
+        assertThat(
+            schedule.periods()
+                .get(0)
+                .interest()
+        ).isEqualByComparingTo("250.00");
+        List<LoanInstallment> planned = engine.plannedInstallments(loan, schedule);
+        assertThat(planned).hasSize(24)
+            .allSatisfy(installment -> {
+                assertThat(installment.getLoan()).isSameAs(loan);
+                assertThat(installment.getPaymentStatus()).isEqualTo(PaymentStatus.UNPAID);
+            });
+        /* The principal parts add up to the loan amount. */
+        assertThat(
+            planned.stream()
+                .map(LoanInstallment::getPrincipalAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+        ).isEqualByComparingTo(loan.getAmount());
+    }
+
+    @Test
+    void testAnnuityFactorIsCached() {
+        LoanRateUtil.AnnuityFactor first =
+            loanRateUtil.annuityFactor(new BigDecimal("0.0050"), BigInteger.valueOf(360));
+        LoanRateUtil.AnnuityFactor second =
+            loanRateUtil.annuityFactor(new BigDecimal("0.005"), BigInteger.valueOf(360));
+
+        assertThat(second).isSameAs(first);
+    }
+}
@@ -0,0 +1,215 @@
+package rs.banka4.user_service.unit.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import rs.banka4.user_service.domain.loan.db.LoanInstallment;
+import rs.banka4.user_service.domain.loan.db.PaymentStatus;
+import rs.banka4.user_service.repositories.AccountRepository;
+import rs.banka4.user_service.repositories.LoanInstallmentRepository;
+import rs.banka4.user_service.utils.jobs.JobLease;
+import rs.banka4.user_service.utils.jobs.JobLeaseLostException;
+import rs.banka4.user_service.utils.jobs.JobLeaseService;
+import rs.banka4.user_service.utils.jobs.KeyRange;
+import rs.banka4.user_service.utils.loans.InstallmentJobRunner;
+import rs.banka4.user_service.utils.loans.InstallmentSelection;
+
+public class InstallmentJobRunnerTests {
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 1);
+    private static final InstallmentSelection SELECTION =
+        InstallmentSelection.dueOn(PaymentStatus.UNPAID, TODAY);
+
+    private final UUID a = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+    private final UUID b = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+    private final UUID c = UUID.fromString("00000000-0000-0000-0000-00000000000c");
+    private final Map<UUID, LoanInstallment> installments = Map.of(a, of(a), b, of(b), c, of(c));
+
+    private LoanInstallmentRepository loanInstallmentRepository;
+    private AccountRepository accountRepository;
+    private JobLeaseService jobLeaseService;
+    private SimpleMeterRegistry meterRegistry;
+    private InstallmentJobRunner runner;
+
+    private static LoanInstallment of(UUID id) {
+        LoanInstallment installment = new LoanInstallment();
+        installment.setId(id);
+        return installment;
+    }
+
+    @BeforeEach
+    void setUp() {
+        loanInstallmentRepository = mock(LoanInstallmentRepository.class);
+        accountRepository = mock(AccountRepository.class);
+        jobLeaseService = mock(JobLeaseService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        runner =
+            new InstallmentJobRunner(
+                loanInstallmentRepository,
+                accountRepository,
+                jobLeaseService,
+                mock(PlatformTransactionManager.class),
+                meterRegistry,
+                2,
+                2
+            );
+
+        when(
+            loanInstallmentRepository.findIdsAfter(
+                "UNPAID",
+                TODAY,
+                TODAY,
+                KeyRange.ALL.after(),
+                KeyRange.ALL.upTo(),
+                2
+            )
+        ).thenReturn(List.of(a, b));
+        when(
+            loanInstallmentRepository.findIdsAfter(
+                "UNPAID",
+                TODAY,
+                TODAY,
+                b,
+                KeyRange.ALL.upTo(),
+                2
+            )
+        ).thenReturn(List.of(c));
+        when(
+            loanInstallmentRepository.lockClaimable(anyCollection(), eq("UNPAID"), any(), any())
+        ).thenAnswer(invocation -> List.copyOf(invocation.<Collection<UUID>>getArgument(0)));
+        when(loanInstallmentRepository.findAllWithLoanByIdIn(anyCollection())).thenAnswer(
+            invocation -> invocation.<Collection<UUID>>getArgument(0)
+                .stream()
+                .map(installments::get)
+                .toList()
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        runner.shutdown();
+    }
+
+    @Test
+    void testEveryChunkIsProcessed() {
+        Set<UUID> seen = ConcurrentHashMap.newKeySet();
+
+        InstallmentJobRunner.JobResult result =
+            runner.run("test-job", SELECTION, installment -> seen.add(installment.getId()));
+
+        assertThat(seen).containsExactlyInAnyOrder(a, b, c);
+        assertThat(result.processed()).isEqualTo(3);
+        assertThat(result.failed()).isZero();
+        assertThat(
+            meterRegistry.get("banka4.loans.jobs.installments")
+                .tags("job", "test-job", "outcome", "processed")
+                .counter()
+                .count()
+        ).isEqualTo(3.0);
+    }
+
+    @Test
+    void testFailedChunkIsRetriedPerInstallment() {
+        Set<UUID> committed = ConcurrentHashMap.newKeySet();
+
+        InstallmentJobRunner.JobResult result =
+            runner.run("test-job", SELECTION, installment -> {
+                if (installment.getId()
+                    .equals(b)) throw new IllegalStateException("poison");
+                committed.add(installment.getId());
+            });
+
+        assertThat(result.failed()).isEqualTo(1);
+        assertThat(result.processed()).isEqualTo(2);
+        assertThat(committed).contains(a, c)
+            .doesNotContain(b);
+    }
+
+    @Test
+    void testAccountsAreLockedBeforeInstallmentsAreLoaded() {
+        runner.run("test-job", SELECTION, installment -> {
+        });
+
+        InOrder order = inOrder(loanInstallmentRepository, accountRepository);
+        order.verify(loanInstallmentRepository)
+            .lockClaimable(List.of(a, b), "UNPAID", TODAY, TODAY);
+        order.verify(accountRepository)
+            .lockAllByLoanInstallmentIdIn(List.of(a, b));
+        order.verify(loanInstallmentRepository)
+            .findAllWithLoanByIdIn(List.of(a, b));
+    }
+
+    @Test
+    void testAccountsAreNotLockedWhenNothingIsClaimed() {
+        when(
+            loanInstallmentRepository.lockClaimable(anyCollection(), eq("UNPAID"), any(), any())
+        ).thenReturn(List.of());
+
+        InstallmentJobRunner.JobResult result = runner.run("test-job", SELECTION, installment -> {
+        });
+
+        assertThat(result.processed()).isZero();
+        verify(accountRepository, never())
+            .lockAllByLoanInstallmentIdIn(anyCollection());
+    }
+
+    @Test
+    void testRowsLockedElsewhereAreSkipped() {
+        when(
+            loanInstallmentRepository.lockClaimable(anyCollection(), eq("UNPAID"), any(), any())
+        ).thenAnswer(
+            invocation -> invocation.<Collection<UUID>>getArgument(0)
+                .stream()
+                .filter(id -> !id.equals(a))
+                .collect(Collectors.toList())
+        );
+        Set<UUID> seen = ConcurrentHashMap.newKeySet();
+
+        InstallmentJobRunner.JobResult result =
+            runner.run("test-job", SELECTION, installment -> seen.add(installment.getId()));
+
+        assertThat(seen).containsExactlyInAnyOrder(b, c);
+        assertThat(result.processed()).isEqualTo(2);
+    }
+
+    @Test
+    void testRunStopsWhenLeaseIsLost() {
+        JobLease lease = new JobLease("test-job#0", 7);
+        doThrow(new JobLeaseLostException(lease)).when(jobLeaseService)
+            .checkFence(lease);
+        Set<UUID> seen = ConcurrentHashMap.newKeySet();
+
+        assertThatThrownBy(
+            () -> runner.run(
+                "test-job",
+                SELECTION,
+                KeyRange.ALL,
+                lease,
+                installment -> seen.add(installment.getId())
+            )
+        ).isInstanceOf(JobLeaseLostException.class);
+        assertThat(seen).isEmpty();
+    }
+}
@@ -4,9 +4,11 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,19 +16,22 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.context.ApplicationContext;
 import rs.banka4.rafeisen.common.currency.CurrencyCode;
 import rs.banka4.user_service.domain.account.db.Account;
 import rs.banka4.user_service.domain.auth.dtos.NotificationTransferDto;
 import rs.banka4.user_service.domain.currency.db.Currency;
 import rs.banka4.user_service.domain.loan.db.*;
 import rs.banka4.user_service.domain.user.client.db.Client;
-import rs.banka4.user_service.repositories.AccountRepository;
 import rs.banka4.user_service.repositories.LoanInstallmentRepository;
 import rs.banka4.user_service.repositories.LoanRepository;
 import rs.banka4.user_service.service.impl.BankAccountServiceImpl;
+import rs.banka4.user_service.service.impl.LedgerService;
+import rs.banka4.user_service.service.impl.NotificationOutbox;
 import rs.banka4.user_service.service.impl.TransactionServiceImpl;
+import rs.banka4.user_service.utils.jobs.KeyRange;
+import rs.banka4.user_service.utils.jobs.ShardedJobExecutor;
+import rs.banka4.user_service.utils.loans.InstallmentJobRunner;
+import rs.banka4.user_service.utils.loans.InstallmentSelection;
 import rs.banka4.user_service.utils.loans.LoanInstallmentScheduler;
 import rs.banka4.user_service.utils.loans.LoanRateUtil;
 
@@ -40,10 +45,10 @@ class LoanInstallmentSchedulerTest {
     private LoanRepository loanRepository;
 
     @Mock
-    private AccountRepository accountRepository;
+    private LedgerService ledgerService;
 
     @Mock
-    private RabbitTemplate rabbitTemplate;
+    private NotificationOutbox notificationOutbox;
 
     @Mock
     private LoanInstallmentScheduler loanInstallmentSchedulerService;
@@ -52,7 +57,10 @@ class LoanInstallmentSchedulerTest {
     private LoanRateUtil loanRateUtil;
 
     @Mock
-    private ApplicationContext applicationContext;
+    private InstallmentJobRunner installmentJobRunner;
+
+    @Mock
+    private ShardedJobExecutor shardedJobExecutor;
 
     @Mock
     private BankAccountServiceImpl bankAccountService;
@@ -105,9 +113,25 @@ class LoanInstallmentSchedulerTest {
                 .minusDays(3)
         );
         installment.setInterestRateAmount(loan.getBaseInterestRate());
-        when(applicationContext.getBean(LoanInstallmentScheduler.class)).thenReturn(
-            loanInstallmentScheduler
-        );
+    }
+
+    /**
+     * Makes the job run as a single unfenced shard, and the job runner apply the job's action to
+     * {@code installment} when run with the given selection.
+     */
+    private void runJobOn(String job, InstallmentSelection selection) {
+        doAnswer(invocation -> {
+            invocation.<BiConsumer<KeyRange, ?>>getArgument(2)
+                .accept(KeyRange.ALL, null);
+            return null;
+        }).when(shardedJobExecutor)
+            .run(eq(job), anyString(), any());
+        when(installmentJobRunner.run(eq(job), eq(selection), eq(KeyRange.ALL), isNull(), any()))
+            .thenAnswer(invocation -> {
+                invocation.<Consumer<LoanInstallment>>getArgument(4)
+                    .accept(installment);
+                return new InstallmentJobRunner.JobResult(1, 0, Duration.ZERO);
+            });
     }
 
 
@@ -116,12 +140,10 @@ class LoanInstallmentSchedulerTest {
         Account bankAccount = new Account();
         bankAccount.setBalance(new BigDecimal("10000"));
 
-        when(
-            loanInstallmentRepository.findByExpectedDueDateAndPaymentStatus(
-                LocalDate.now(),
-                PaymentStatus.UNPAID
-            )
-        ).thenReturn(List.of(installment));
+        runJobOn(
+            "process-due-installments",
+            InstallmentSelection.dueOn(PaymentStatus.UNPAID, LocalDate.now())
+        );
         when(
             bankAccountService.getBankAccountForCurrency(
                 account.getCurrency()
@@ -134,15 +156,10 @@ class LoanInstallmentSchedulerTest {
         assertEquals(BigDecimal.ZERO, loan.getRemainingDebt());
         assertEquals(PaymentStatus.PAID, installment.getPaymentStatus());
         assertEquals(LoanStatus.PAID_OFF, loan.getStatus());
-        verify(accountRepository).save(account);
-        verify(accountRepository).save(bankAccount);
+        verify(ledgerService).transfer(account, bankAccount, installment.getInstallmentAmount());
         verify(loanRepository).save(loan);
         verify(loanInstallmentRepository).save(installment);
-        verify(rabbitTemplate).convertAndSend(
-            anyString(),
-            anyString(),
-            any(NotificationTransferDto.class)
-        );
+        verify(notificationOutbox).enqueue(any(NotificationTransferDto.class));
         verify(transactionService).createBankTransferTransaction(
             account,
             bankAccount,
@@ -162,13 +179,15 @@ class LoanInstallmentSchedulerTest {
                 .minusDays(2)
         );
 
-        when(
-            loanInstallmentRepository.findRecentDelayedInstallments(
+        runJobOn(
+            "retry-delayed-installments",
+            new InstallmentSelection(
                 PaymentStatus.DELAYED,
                 LocalDate.now()
-                    .minusDays(3)
+                    .minusDays(2),
+                LocalDate.now()
             )
-        ).thenReturn(List.of(installment));
+        );
         when(
             bankAccountService.getBankAccountForCurrency(
                 account.getCurrency()
@@ -178,15 +197,13 @@ class LoanInstallmentSchedulerTest {
 
         loanInstallmentScheduler.retryDelayedInstallments();
 
-        verify(loanInstallmentRepository, times(1)).findRecentDelayedInstallments(
-            PaymentStatus.DELAYED,
-            LocalDate.now()
-                .minusDays(3)
-        );
         verify(loanInstallmentRepository, times(1)).save(installment);
         verify(loanRepository, times(1)).save(loan);
-        verify(accountRepository, times(1)).save(account);
-        verify(accountRepository, times(1)).save(bankAccount);
+        verify(ledgerService, times(1)).transfer(
+            account,
+            bankAccount,
+            installment.getInstallmentAmount()
+        );
         verify(transactionService).createBankTransferTransaction(
             account,
             bankAccount,
@@ -204,22 +221,18 @@ class LoanInstallmentSchedulerTest {
             loan.getRemainingDebt(),
             "Loan remaining debt should be zero after payment"
         );
-        assertEquals(
-            new BigDecimal("4000"),
-            account.getAvailableBalance(),
-            "Account balance should be updated after payment"
-        );
     }
 
     @Test
     void testApplyLatePaymentPenalties_ShouldApplyPenalty() {
-        when(
-            loanInstallmentRepository.findByPaymentStatusAndExpectedDueDate(
+        runJobOn(
+            "apply-late-payment-penalties",
+            InstallmentSelection.dueOn(
                 PaymentStatus.DELAYED,
                 LocalDate.now()
                     .minusDays(3)
             )
-        ).thenReturn(List.of(installment));
+        );
 
         loanInstallmentScheduler.applyLatePaymentPenalties();
 
@@ -243,11 +256,7 @@ class LoanInstallmentSchedulerTest {
         );
 
         verify(loanRepository).save(savedInstallment.getLoan());
-        verify(rabbitTemplate).convertAndSend(
-            anyString(),
-            anyString(),
-            any(NotificationTransferDto.class)
-        );
+        verify(notificationOutbox).enqueue(any(NotificationTransferDto.class));
     }
 
 }
@@ -5,6 +5,7 @@ import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.math.RoundingMode;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -84,4 +85,20 @@ class LoanRateUtilTest {
 
         assertEquals(new BigDecimal("10000.0000000000"), result);
     }
+
+    @Test
+    void testAnnuityFactor_MatchesCalculateMonthly() {
+        BigDecimal loanAmount = BigDecimal.valueOf(250000);
+        BigDecimal monthlyInterestRate = new BigDecimal("0.004");
+        BigInteger numberOfInstallments = BigInteger.valueOf(240);
+
+        LoanRateUtil.AnnuityFactor factor =
+            loanRateUtil.annuityFactor(monthlyInterestRate, numberOfInstallments);
+
+        assertEquals(
+            loanRateUtil.calculateMonthly(loanAmount, monthlyInterestRate, numberOfInstallments),
+            loanAmount.multiply(factor.numerator())
+                .divide(factor.denominator(), 10, RoundingMode.HALF_UP)
+        );
+    }
 }
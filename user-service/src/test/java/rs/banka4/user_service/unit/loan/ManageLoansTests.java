@@ -6,6 +6,7 @@ import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,16 +18,19 @@ import rs.banka4.rafeisen.common.exceptions.jwt.Unauthorized;
 import rs.banka4.user_service.domain.account.db.Account;
 import rs.banka4.user_service.domain.currency.db.Currency;
 import rs.banka4.user_service.domain.loan.db.Loan;
+import rs.banka4.user_service.domain.loan.db.LoanInstallment;
 import rs.banka4.user_service.domain.loan.db.LoanStatus;
+import rs.banka4.user_service.domain.loan.dtos.AmortizationScheduleDto;
 import rs.banka4.user_service.exceptions.loan.LoanAlreadyJudged;
 import rs.banka4.user_service.exceptions.loan.LoanNotFound;
-import rs.banka4.user_service.repositories.AccountRepository;
 import rs.banka4.user_service.repositories.LoanInstallmentRepository;
 import rs.banka4.user_service.repositories.LoanRepository;
 import rs.banka4.user_service.service.abstraction.JwtService;
 import rs.banka4.user_service.service.impl.BankAccountServiceImpl;
+import rs.banka4.user_service.service.impl.LedgerService;
 import rs.banka4.user_service.service.impl.LoanServiceImpl;
 import rs.banka4.user_service.service.impl.TransactionServiceImpl;
+import rs.banka4.user_service.utils.loans.AmortizationEngine;
 
 public class ManageLoansTests {
     @BeforeEach
@@ -45,7 +49,9 @@ public class ManageLoansTests {
     @Mock
     private TransactionServiceImpl transactionService;
     @Mock
-    private AccountRepository accountRepository;
+    private LedgerService ledgerService;
+    @Mock
+    private AmortizationEngine amortizationEngine;
     @InjectMocks
     private LoanServiceImpl loanService;
 
@@ -126,6 +132,22 @@ public class ManageLoansTests {
         when(bankAccountService.getBankAccountForCurrency(currency.getCode())).thenReturn(
             bankAccount
         );
+        AmortizationScheduleDto schedule =
+            new AmortizationScheduleDto(
+                new BigDecimal("340.02"),
+                new BigDecimal("20.06"),
+                new BigDecimal("1020.06"),
+                List.of()
+            );
+        when(
+            amortizationEngine.scheduleFor(
+                loan,
+                LocalDate.now()
+                    .plusMonths(1)
+            )
+        ).thenReturn(schedule);
+        List<LoanInstallment> planned = List.of(new LoanInstallment(), new LoanInstallment());
+        when(amortizationEngine.plannedInstallments(loan, schedule)).thenReturn(planned);
 
         loanService.approveLoan(loanNumber, "jwt");
 
@@ -141,9 +163,11 @@ public class ManageLoansTests {
                 .plusMonths(3)
         );
         assertEquals(LoanStatus.APPROVED, loan.getStatus());
+        assertEquals(new BigDecimal("340.02"), loan.getMonthlyInstallment());
+        assertEquals(new BigDecimal("1020.06"), loan.getRemainingDebt());
         verify(loanRepository).save(loan);
-        verify(accountRepository).save(bankAccount);
-        verify(accountRepository).save(userAccount);
+        verify(loanInstallmentRepository).saveAll(planned);
+        verify(ledgerService).transfer(bankAccount, userAccount, loan.getAmount());
         verify(transactionService).createBankTransferTransaction(
             bankAccount,
             userAccount,
@@ -0,0 +1,258 @@
+package rs.banka4.user_service.unit.loan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import rs.banka4.user_service.domain.loan.db.BankMargin;
+import rs.banka4.user_service.domain.loan.db.LoanRepricingRun;
+import rs.banka4.user_service.domain.loan.db.LoanType;
+import rs.banka4.user_service.domain.loan.dtos.AmortizationPeriodDto;
+import rs.banka4.user_service.domain.loan.dtos.AmortizationScheduleDto;
+import rs.banka4.user_service.repositories.BankMarginRepository;
+import rs.banka4.user_service.repositories.LoanRepricingRunRepository;
+import rs.banka4.user_service.utils.jobs.JobLease;
+import rs.banka4.user_service.utils.jobs.JobLeaseService;
+import rs.banka4.user_service.utils.loans.AmortizationEngine;
+import rs.banka4.user_service.utils.loans.LoanRateUtil;
+import rs.banka4.user_service.utils.loans.VariableRateRepricer;
+
+@ExtendWith(MockitoExtension.class)
+public class VariableRateRepricerTests {
+    private static final LocalDate FIRST_DUE = LocalDate.of(2025, 1, 1);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private BankMarginRepository bankMarginRepository;
+
+    @Mock
+    private LoanRepricingRunRepository loanRepricingRunRepository;
+
+    @Mock
+    private JobLeaseService jobLeaseService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LoanRateUtil loanRateUtil;
+    private AmortizationEngine amortizationEngine;
+    private VariableRateRepricer repricer;
+
+    @BeforeEach
+    void setUp() {
+        loanRateUtil = new LoanRateUtil(bankMarginRepository);
+        amortizationEngine = new AmortizationEngine(loanRateUtil);
+        repricer =
+            new VariableRateRepricer(
+                jdbcTemplate,
+                loanRateUtil,
+                amortizationEngine,
+                loanRepricingRunRepository,
+                jobLeaseService,
+                transactionManager
+            );
+        when(loanRepricingRunRepository.save(any())).thenAnswer(
+            invocation -> invocation.getArgument(0)
+        );
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPartPaidLoanIsRepricedFromOutstandingPrincipal() throws SQLException {
+        givenMargin("1.20");
+        UUID loanId = UUID.randomUUID();
+        /* Twelve periods at 3.00 + 1.20 %, of which the first four are paid. */
+        AmortizationScheduleDto original =
+            amortizationEngine.schedule(
+                new BigDecimal("120000.00"),
+                loanRateUtil.monthlyRate(new BigDecimal("3.00"), LoanType.MORTGAGE),
+                12,
+                FIRST_DUE
+            );
+        List<AmortizationPeriodDto> unpaid =
+            original.periods()
+                .subList(4, 12);
+        BigDecimal outstanding =
+            unpaid.stream()
+                .map(AmortizationPeriodDto::principal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<UUID> installmentIds = new ArrayList<>();
+        List<ResultSet> rows = new ArrayList<>();
+        for (AmortizationPeriodDto period : unpaid) {
+            UUID id = UUID.randomUUID();
+            installmentIds.add(id);
+            rows.add(installmentRow(loanId, id, outstanding, period));
+        }
+        givenLoans(List.of(loanId), rows);
+        AtomicReference<Object[]> args = captureUpdate(1, 8);
+
+        LoanRepricingRun run = repricer.reprice("2025-05", new BigDecimal("0.50"), null);
+
+        AmortizationScheduleDto expected =
+            amortizationEngine.schedule(
+                original.periods()
+                    .get(3)
+                    .remainingBalance(),
+                loanRateUtil.monthlyRate(new BigDecimal("3.50"), LoanType.MORTGAGE),
+                8,
+                unpaid.get(0)
+                    .dueDate()
+            );
+        BigDecimal owedBefore =
+            unpaid.stream()
+                .map(AmortizationPeriodDto::installment)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<Object> written = Arrays.asList(args.get());
+        assertThat(written.subList(0, 3)).containsExactly(
+            loanId,
+            expected.monthlyInstallment(),
+            expected.totalRepayment()
+                .subtract(owedBefore)
+        );
+        for (int i = 0; i < 8; i++) {
+            AmortizationPeriodDto period =
+                expected.periods()
+                    .get(i);
+            assertThat(written.subList(3 + i * 4, 7 + i * 4)).containsExactly(
+                installmentIds.get(i),
+                period.installment(),
+                period.principal(),
+                new BigDecimal("3.50")
+            );
+        }
+        assertThat(run.getLoansRepriced()).isEqualTo(1);
+        assertThat(run.getInstallmentsRepriced()).isEqualTo(8);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRatesAreLookedUpOncePerTypeAndRate() throws SQLException {
+        givenMargin("1.20");
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        AmortizationPeriodDto period =
+            new AmortizationPeriodDto(
+                1,
+                FIRST_DUE,
+                new BigDecimal("1000.00"),
+                new BigDecimal("990.00"),
+                new BigDecimal("10.00"),
+                BigDecimal.ZERO
+            );
+        givenLoans(
+            List.of(first, second),
+            List.of(
+                installmentRow(first, UUID.randomUUID(), period.principal(), period),
+                installmentRow(second, UUID.randomUUID(), period.principal(), period)
+            )
+        );
+        captureUpdate(2, 2);
+        JobLease lease = new JobLease("apply-variable-rates", 4);
+
+        LoanRepricingRun run = repricer.reprice("2025-03", new BigDecimal("0.50"), lease);
+
+        /* Once for the chunk and once for recording the run, each in its own transaction. */
+        verify(jobLeaseService, times(2)).checkFence(lease);
+        verify(transactionManager, times(2)).commit(any());
+        /* Both loans move to the same rate. */
+        verify(bankMarginRepository).findBankMarginByType(LoanType.MORTGAGE);
+        assertThat(run.getRunKey()).isEqualTo("2025-03");
+        assertThat(run.getLoansRepriced()).isEqualTo(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRunIsRecordedEvenWithNoVariableLoans() {
+        when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(Object[].class)))
+            .thenReturn(List.of());
+
+        LoanRepricingRun run = repricer.reprice("2025-03", BigDecimal.ONE, null);
+
+        verify(jdbcTemplate, never()).queryForObject(
+            anyString(),
+            any(RowMapper.class),
+            any(Object[].class)
+        );
+        assertThat(run.getLoansRepriced()).isZero();
+        assertThat(run.getInterestRateVariant()).isEqualTo(BigDecimal.ONE);
+    }
+
+    private void givenMargin(String margin) {
+        BankMargin bankMargin = new BankMargin();
+        bankMargin.setMargin(new BigDecimal(margin));
+        when(bankMarginRepository.findBankMarginByType(LoanType.MORTGAGE)).thenReturn(
+            Optional.of(bankMargin)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenLoans(List<UUID> loanIds, List<ResultSet> rows) {
+        when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(Object[].class)))
+            .thenReturn(loanIds);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+            .thenAnswer(invocation -> {
+                RowMapper<Object> mapper = invocation.getArgument(1);
+                List<Object> mapped = new ArrayList<>();
+                for (int i = 0; i < rows.size(); i++)
+                    mapped.add(mapper.mapRow(rows.get(i), i));
+                return mapped;
+            });
+    }
+
+    @SuppressWarnings("unchecked")
+    private AtomicReference<Object[]> captureUpdate(int loans, int installments) {
+        AtomicReference<Object[]> args = new AtomicReference<>();
+        when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class), any(Object[].class)))
+            .thenAnswer(invocation -> {
+                args.set((Object[]) invocation.getRawArguments()[2]);
+                return new int[] {
+                    loans,
+                    installments
+                };
+            });
+        return args;
+    }
+
+    private static ResultSet installmentRow(
+        UUID loanId,
+        UUID id,
+        BigDecimal outstandingPrincipal,
+        AmortizationPeriodDto period
+    ) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject("loan_id", UUID.class)).thenReturn(loanId);
+        when(rs.getString("type")).thenReturn("MORTGAGE");
+        when(rs.getBigDecimal("base_interest_rate")).thenReturn(new BigDecimal("3.00"));
+        when(rs.getBigDecimal("outstanding_principal")).thenReturn(outstandingPrincipal);
+        when(rs.getObject("id", UUID.class)).thenReturn(id);
+        when(rs.getBigDecimal("installment_amount")).thenReturn(period.installment());
+        when(rs.getObject("expected_due_date", LocalDate.class)).thenReturn(period.dueDate());
+        return rs;
+    }
+}
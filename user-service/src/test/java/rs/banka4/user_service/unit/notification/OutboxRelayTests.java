@@ -0,0 +1,111 @@
+package rs.banka4.user_service.unit.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import rs.banka4.user_service.config.RabbitMqConfig;
+import rs.banka4.user_service.domain.notification.db.OutboxMessage;
+import rs.banka4.user_service.repositories.OutboxMessageRepository;
+import rs.banka4.user_service.utils.notifications.OutboxRelay;
+
+public class OutboxRelayTests {
+    private OutboxMessageRepository outboxMessageRepository;
+    private RabbitTemplate rabbitTemplate;
+    private PlatformTransactionManager transactionManager;
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxMessageRepository = mock(OutboxMessageRepository.class);
+        rabbitTemplate = mock(RabbitTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        outboxRelay =
+            new OutboxRelay(
+                outboxMessageRepository,
+                rabbitTemplate,
+                transactionManager,
+                2,
+                Duration.ofSeconds(1)
+            );
+
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class))).thenAnswer(
+            invocation -> invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0)
+                .doInRabbit(rabbitTemplate)
+        );
+    }
+
+    private static OutboxMessage message(long id) {
+        return OutboxMessage.builder()
+            .id(id)
+            .exchange(RabbitMqConfig.EXCHANGE_NAME)
+            .routingKey(RabbitMqConfig.ROUTING_KEY)
+            .payloadType("rs.banka4.user_service.domain.auth.dtos.NotificationTransferDto")
+            .payload("{\"topic\":\"loan-penalty\"}")
+            .createdAt(LocalDateTime.now())
+            .build();
+    }
+
+    @Test
+    void testRelayPublishesConfirmsAndDeletesUntilEmpty() {
+        List<OutboxMessage> first = List.of(message(1), message(2));
+        List<OutboxMessage> second = List.of(message(3));
+        when(outboxMessageRepository.lockNextBatch(2)).thenReturn(first, second);
+
+        outboxRelay.relay();
+
+        ArgumentCaptor<Message> sent = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate, times(3)).send(
+            eq(RabbitMqConfig.EXCHANGE_NAME),
+            eq(RabbitMqConfig.ROUTING_KEY),
+            sent.capture()
+        );
+        assertThat(new String(sent.getValue().getBody(), StandardCharsets.UTF_8)).isEqualTo(
+            "{\"topic\":\"loan-penalty\"}"
+        );
+        assertThat(
+            sent.getValue()
+                .getMessageProperties()
+                .getHeaders()
+        ).containsEntry(
+            "__TypeId__",
+            "rs.banka4.user_service.domain.auth.dtos.NotificationTransferDto"
+        );
+        verify(rabbitTemplate, times(2)).waitForConfirmsOrDie(1000L);
+        verify(outboxMessageRepository).deleteAllInBatch(first);
+        verify(outboxMessageRepository).deleteAllInBatch(second);
+    }
+
+    @Test
+    void testRelayKeepsRowsWhenBrokerDoesNotConfirm() {
+        List<OutboxMessage> batch = List.of(message(1));
+        when(outboxMessageRepository.lockNextBatch(2)).thenReturn(batch);
+        doThrow(new AmqpException("nack")).when(rabbitTemplate)
+            .waitForConfirmsOrDie(anyLong());
+
+        outboxRelay.relay();
+
+        verify(outboxMessageRepository, never()).deleteAllInBatch(any());
+        verify(transactionManager).rollback(any());
+    }
+}
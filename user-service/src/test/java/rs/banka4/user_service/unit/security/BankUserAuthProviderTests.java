@@ -0,0 +1,96 @@
+package rs.banka4.user_service.unit.security;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import rs.banka4.rafeisen.common.security.UserType;
+import rs.banka4.user_service.domain.user.client.db.Client;
+import rs.banka4.user_service.repositories.ClientRepository;
+import rs.banka4.user_service.repositories.EmployeeRepository;
+import rs.banka4.user_service.security.BankUserAuthProvider;
+import rs.banka4.user_service.security.LoginAttemptLimiter;
+import rs.banka4.user_service.security.PreAuthBankUserAuthentication;
+import rs.banka4.user_service.security.UnauthenticatedBankUserPrincipal;
+import rs.banka4.user_service.utils.passwords.PasswordHasher;
+
+@ExtendWith(MockitoExtension.class)
+public class BankUserAuthProviderTests {
+    @Mock
+    private ClientRepository clientRepository;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private LoginAttemptLimiter loginAttemptLimiter;
+
+    @InjectMocks
+    private BankUserAuthProvider provider;
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testUnknownAccountsAreNotCounted() {
+        when(clientRepository.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> provider.authenticate(login("nobody@example.com")))
+            .isInstanceOf(UsernameNotFoundException.class);
+
+        verify(loginAttemptLimiter, never()).recordFailure(any(), any(), any());
+    }
+
+    @Test
+    void testWrongPasswordIsCountedForTheClientAddress() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("203.0.113.7");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        Client client =
+            Client.builder()
+                .password("hash")
+                .build();
+        when(clientRepository.findByEmail("client@example.com")).thenReturn(Optional.of(client));
+        when(passwordHasher.matches("wrong", "hash")).thenReturn(false);
+
+        assertThatThrownBy(() -> provider.authenticate(login("client@example.com")))
+            .isInstanceOf(BadCredentialsException.class);
+
+        verify(loginAttemptLimiter).checkNotLocked(
+            UserType.CLIENT,
+            "client@example.com",
+            "203.0.113.7"
+        );
+        verify(loginAttemptLimiter).recordFailure(
+            UserType.CLIENT,
+            "client@example.com",
+            "203.0.113.7"
+        );
+    }
+
+    private static PreAuthBankUserAuthentication login(String email) {
+        return new PreAuthBankUserAuthentication(
+            new UnauthenticatedBankUserPrincipal(UserType.CLIENT, email),
+            "wrong"
+        );
+    }
+}
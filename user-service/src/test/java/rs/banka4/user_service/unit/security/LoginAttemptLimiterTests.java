@@ -0,0 +1,111 @@
+package rs.banka4.user_service.unit.security;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.base.Ticker;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import rs.banka4.rafeisen.common.security.UserType;
+import rs.banka4.user_service.exceptions.user.TooManyLoginAttempts;
+import rs.banka4.user_service.security.LoginAttemptLimiter;
+
+public class LoginAttemptLimiterTests {
+    private static final String ADDRESS = "203.0.113.7";
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final LoginAttemptLimiter limiter =
+        new LoginAttemptLimiter(
+            3,
+            6,
+            Duration.ofMinutes(15),
+            1000,
+            new Ticker() {
+                @Override
+                public long read() {
+                    return nanos.get();
+                }
+            }
+        );
+
+    @Test
+    void testAccountIsLockedAfterTooManyFailures() {
+        for (int i = 0; i < 3; i++) {
+            limiter.checkNotLocked(UserType.CLIENT, "client@example.com", ADDRESS);
+            limiter.recordFailure(UserType.CLIENT, "client@example.com", ADDRESS);
+        }
+
+        assertThatThrownBy(
+            () -> limiter.checkNotLocked(UserType.CLIENT, "Client@Example.com", ADDRESS)
+        ).isInstanceOf(TooManyLoginAttempts.class);
+        /* Other accounts, and the same email as another user type, are unaffected. */
+        assertThatCode(() -> limiter.checkNotLocked(UserType.CLIENT, "other@example.com", ADDRESS))
+            .doesNotThrowAnyException();
+        assertThatCode(
+            () -> limiter.checkNotLocked(UserType.EMPLOYEE, "client@example.com", ADDRESS)
+        ).doesNotThrowAnyException();
+    }
+
+    @Test
+    void testLockoutIsPerClientAddress() {
+        for (int i = 0; i < 3; i++)
+            limiter.recordFailure(UserType.CLIENT, "client@example.com", ADDRESS);
+
+        /* The owner, elsewhere, can still log in. */
+        assertThatCode(
+            () -> limiter.checkNotLocked(UserType.CLIENT, "client@example.com", "198.51.100.2")
+        ).doesNotThrowAnyException();
+    }
+
+    @Test
+    void testAccountIsLockedEverywhereAfterFailuresFromManyAddresses() {
+        for (int i = 0; i < 6; i++)
+            limiter.recordFailure(UserType.CLIENT, "client@example.com", "198.51.100." + i);
+
+        assertThatThrownBy(
+            () -> limiter.checkNotLocked(UserType.CLIENT, "client@example.com", ADDRESS)
+        ).isInstanceOf(TooManyLoginAttempts.class);
+
+        nanos.addAndGet(Duration.ofMinutes(15)
+            .toNanos());
+
+        assertThatCode(
+            () -> limiter.checkNotLocked(UserType.CLIENT, "client@example.com", ADDRESS)
+        ).doesNotThrowAnyException();
+    }
+
+    @Test
+    void testLockoutRunsFromTheFirstFailure() {
+        for (int i = 0; i < 3; i++) {
+            limiter.recordFailure(UserType.CLIENT, "client@example.com", ADDRESS);
+            nanos.addAndGet(Duration.ofMinutes(4)
+                .toNanos());
+        }
+        /* Failing again while locked out does not extend the lockout. */
+        limiter.recordFailure(UserType.CLIENT, "client@example.com", ADDRESS);
+        assertThatThrownBy(
+            () -> limiter.checkNotLocked(UserType.CLIENT, "client@example.com", ADDRESS)
+        ).isInstanceOf(TooManyLoginAttempts.class);
+
+        nanos.addAndGet(Duration.ofMinutes(3)
+            .toNanos());
+
+        assertThatCode(
+            () -> limiter.checkNotLocked(UserType.CLIENT, "client@example.com", ADDRESS)
+        ).doesNotThrowAnyException();
+    }
+
+    @Test
+    void testSuccessfulLoginClearsFailures() {
+        limiter.recordFailure(UserType.EMPLOYEE, "employee@example.com", ADDRESS);
+        limiter.recordFailure(UserType.EMPLOYEE, "employee@example.com", ADDRESS);
+        limiter.recordSuccess(UserType.EMPLOYEE, "employee@example.com", ADDRESS);
+        limiter.recordFailure(UserType.EMPLOYEE, "employee@example.com", ADDRESS);
+        limiter.recordFailure(UserType.EMPLOYEE, "employee@example.com", ADDRESS);
+
+        assertThatCode(
+            () -> limiter.checkNotLocked(UserType.EMPLOYEE, "employee@example.com", ADDRESS)
+        ).doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,106 @@
+package rs.banka4.user_service.unit.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import rs.banka4.user_service.exceptions.user.PasswordHashingOverloaded;
+import rs.banka4.user_service.utils.passwords.PasswordHasher;
+
+public class PasswordHasherTests {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    /* Matches "password", and blocks on "slow" until released. */
+    private final PasswordEncoder encoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "{test}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            if ("slow".contentEquals(rawPassword)) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread()
+                        .interrupt();
+                }
+            }
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    };
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHasher hasher =
+        new PasswordHasher(encoder, 1, 1, Duration.ofSeconds(5), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hasher.shutdown();
+    }
+
+    @Test
+    void testHashesRunOnThePool() {
+        assertThat(hasher.matches("password", "{test}password")).isTrue();
+        assertThat(hasher.matches("wrong", "{test}password")).isFalse();
+        assertThat(hasher.encode("password")).isEqualTo("{test}password");
+
+        assertThat(
+            meterRegistry.get("banka4.passwords.hash")
+                .tag("operation", "matches")
+                .timer()
+                .count()
+        ).isEqualTo(2);
+    }
+
+    @Test
+    void testHashesBeyondTheQueueAreRejectedImmediately() throws Exception {
+        /* One hash occupies the only thread, and a second fills the queue. */
+        final var running = CompletableFuture.supplyAsync(() -> hasher.matches("slow", "x"));
+        started.await();
+        final var queued = CompletableFuture.supplyAsync(() -> hasher.matches("password", "x"));
+        while (
+            meterRegistry.get("banka4.passwords.queue.depth")
+                .gauge()
+                .value() < 1
+        ) Thread.onSpinWait();
+
+        assertThatThrownBy(() -> hasher.matches("password", "{test}password"))
+            .isInstanceOf(PasswordHashingOverloaded.class);
+        assertThat(
+            meterRegistry.get("banka4.passwords.rejected")
+                .counter()
+                .count()
+        ).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get()).isFalse();
+        assertThat(queued.get()).isFalse();
+    }
+
+    @Test
+    void testHashesThatWaitTooLongAreRejected() throws Exception {
+        final var impatient =
+            new PasswordHasher(encoder, 1, 4, Duration.ofMillis(50), meterRegistry);
+        try {
+            CompletableFuture.runAsync(() -> impatient.matches("slow", "x"));
+            started.await();
+
+            assertThatThrownBy(() -> impatient.matches("password", "{test}password"))
+                .isInstanceOf(PasswordHashingOverloaded.class);
+        } finally {
+            release.countDown();
+            impatient.shutdown();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package rs.banka4.user_service.unit.tokens;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import rs.banka4.rafeisen.common.utils.jwt.TokenDigest;
+import rs.banka4.user_service.utils.tokens.TokenRevocationIndex;
+
+public class TokenRevocationIndexTests {
+    private static final long NOW = 1_000_000L;
+
+    private final TokenRevocationIndex index = new TokenRevocationIndex(16, 0.001);
+
+    @Test
+    void testAddedTokenIsRevoked() {
+        index.add(TokenDigest.of("revoked"), NOW + 1000);
+
+        assertThat(index.isRevoked(TokenDigest.of("revoked"))).isTrue();
+        assertThat(index.isRevoked(TokenDigest.of("not-revoked"))).isFalse();
+    }
+
+    @Test
+    void testIndexGrowsPastItsCapacity() {
+        for (int i = 0; i < 100; i++)
+            index.add(TokenDigest.of("token-" + i), NOW + 1000);
+
+        assertThat(index.size()).isEqualTo(100);
+        for (int i = 0; i < 100; i++)
+            assertThat(index.isRevoked(TokenDigest.of("token-" + i))).isTrue();
+    }
+
+    @Test
+    void testRebuildReplacesContentsButKeepsUnexpiredLocalEntries() {
+        index.add(TokenDigest.of("expired"), NOW - 1);
+        index.add(TokenDigest.of("added-meanwhile"), NOW + 1000);
+
+        Map<TokenDigest, Long> stored = new HashMap<>();
+        stored.put(TokenDigest.of("stored"), NOW + 1000);
+        index.rebuild(stored, NOW);
+
+        assertThat(index.isRevoked(TokenDigest.of("stored"))).isTrue();
+        assertThat(index.isRevoked(TokenDigest.of("added-meanwhile"))).isTrue();
+        assertThat(index.isRevoked(TokenDigest.of("expired"))).isFalse();
+        assertThat(index.size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,68 @@
+package rs.banka4.user_service.unit.tokens;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import rs.banka4.rafeisen.common.exceptions.jwt.RefreshTokenRevoked;
+import rs.banka4.rafeisen.common.utils.jwt.TokenDigest;
+import rs.banka4.user_service.service.impl.TokenServiceImpl;
+import rs.banka4.user_service.utils.tokens.LocalRevocationFeed;
+import rs.banka4.user_service.utils.tokens.Revocation;
+import rs.banka4.user_service.utils.tokens.RevocationFeed;
+
+public class TokenServiceTests {
+    private static final Instant EXPIRES_AT = Instant.now()
+        .plusSeconds(3600);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final RevocationFeed feed = new LocalRevocationFeed();
+    private final TokenServiceImpl tokenService =
+        new TokenServiceImpl(jdbcTemplate, feed, 16, 0.001);
+
+    @BeforeEach
+    void setUp() {
+        /* The table starts out empty; the query mock simply reports no rows. */
+        tokenService.load();
+    }
+
+    @Test
+    void testRevokedTokenIsReportedWithoutQueryingAgain() {
+        when(jdbcTemplate.update(anyString(), any(byte[].class), any())).thenReturn(1);
+
+        tokenService.invalidateToken("refresh-token", EXPIRES_AT);
+
+        assertThat(tokenService.isRevoked("refresh-token")).isTrue();
+        assertThat(tokenService.isRevoked("other-token")).isFalse();
+    }
+
+    @Test
+    void testRevokingTwiceThrows() {
+        when(jdbcTemplate.update(anyString(), any(byte[].class), any())).thenReturn(0);
+
+        assertThrows(
+            RefreshTokenRevoked.class,
+            () -> tokenService.invalidateToken("refresh-token", EXPIRES_AT)
+        );
+        assertThat(tokenService.isRevoked("refresh-token")).isFalse();
+    }
+
+    @Test
+    void testRevocationsFromOtherInstancesAreApplied() {
+        feed.publish(
+            new Revocation(TokenDigest.of("revoked-elsewhere"), EXPIRES_AT.toEpochMilli())
+        );
+
+        assertThat(tokenService.isRevoked("revoked-elsewhere")).isTrue();
+        verify(jdbcTemplate, never()).update(anyString(), any(byte[].class), any());
+    }
+}
@@ -0,0 +1,192 @@
+package rs.banka4.user_service.unit.transaction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import rs.banka4.user_service.domain.account.db.Account;
+import rs.banka4.user_service.domain.transaction.db.Transaction;
+import rs.banka4.user_service.domain.transaction.dtos.TransactionExportFormat;
+import rs.banka4.user_service.domain.user.client.db.Client;
+import rs.banka4.user_service.exceptions.account.NotAccountOwner;
+import rs.banka4.user_service.generator.AccountObjectMother;
+import rs.banka4.user_service.generator.ClientObjectMother;
+import rs.banka4.user_service.generator.TransactionObjectMother;
+import rs.banka4.user_service.repositories.AccountRepository;
+import rs.banka4.user_service.repositories.TransactionRepository;
+import rs.banka4.user_service.service.abstraction.JwtService;
+import rs.banka4.user_service.service.impl.BankAccountServiceImpl;
+import rs.banka4.user_service.service.impl.TransactionExportService;
+
+public class TransactionExportServiceTests {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private JwtService jwtService;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private BankAccountServiceImpl bankAccountService;
+
+    private TransactionExportService exportService;
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        exportService =
+            new TransactionExportService(
+                transactionRepository,
+                accountRepository,
+                jwtService,
+                entityManager,
+                new ObjectMapper().findAndRegisterModules(),
+                transactionManager,
+                bankAccountService
+            );
+        transaction =
+            TransactionObjectMother.generateBasicTransaction(
+                AccountObjectMother.generateBasicFromAccount(),
+                AccountObjectMother.generateBasicToAccount()
+            );
+        when(transactionRepository.streamAll(any(), any())).thenAnswer(
+            invocation -> Stream.of(transaction)
+        );
+    }
+
+    private String export(TransactionExportFormat format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.write(Specification.where(null), format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testCsvExportQuotesAndDetaches() {
+        transaction.setPaymentPurpose("Rent, \"March\"");
+
+        String csv = export(TransactionExportFormat.CSV);
+
+        String[] lines = csv.split("\r\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("id,transactionNumber,"));
+        assertTrue(lines[1].contains(",\"Rent, \"\"March\"\"\","));
+        verify(entityManager).detach(transaction);
+    }
+
+    @Test
+    void testCsvExportNeutralisesFormulas() {
+        transaction.setRecipient("@SUM(A1:A9)");
+        transaction.setPaymentPurpose("=1+2");
+
+        String csv = export(TransactionExportFormat.CSV);
+
+        String[] lines = csv.split("\r\n");
+        assertTrue(lines[1].contains(",'@SUM(A1:A9),"));
+        assertTrue(lines[1].contains(",'=1+2,"));
+    }
+
+    @Test
+    void testNdjsonExportWritesOneObjectPerLine() {
+        String ndjson = export(TransactionExportFormat.NDJSON);
+
+        String[] lines = ndjson.split("\n");
+        assertEquals(1, lines.length);
+        assertTrue(lines[0].startsWith("{"));
+        assertTrue(lines[0].contains("\"transactionNumber\":\"1265463698391\""));
+    }
+
+    @Test
+    void testClientCannotExportForeignAccount() {
+        Account account = AccountObjectMother.generateBasicToAccount();
+        when(accountRepository.findAccountByAccountNumber("123")).thenReturn(Optional.of(account));
+        when(jwtService.extractRole("token")).thenReturn("client");
+        when(jwtService.extractUserId("token")).thenReturn(UUID.randomUUID());
+
+        assertThrows(
+            NotAccountOwner.class,
+            () -> exportService.export(
+                "token",
+                "123",
+                null,
+                null,
+                null,
+                TransactionExportFormat.CSV
+            )
+        );
+        verifyNoInteractions(transactionRepository);
+    }
+
+    /**
+     * Runs a client's export of their own account, and reports whether the filter it ran with
+     * excluded the internal fee, conversion and transfer rows.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean clientExportHidesSpecialTransactions(boolean bankOwner) throws Exception {
+        UUID userId = UUID.randomUUID();
+        Client client = ClientObjectMother.generateClient(userId, "client@example.com");
+        Account account = AccountObjectMother.generateBasicFromAccount();
+        account.setClient(client);
+        when(accountRepository.findAccountByAccountNumber("123")).thenReturn(Optional.of(account));
+        when(jwtService.extractRole("token")).thenReturn("client");
+        when(jwtService.extractUserId("token")).thenReturn(userId);
+        when(bankAccountService.getBankOwner()).thenReturn(
+            bankOwner
+                ? client
+                : ClientObjectMother.generateClient(UUID.randomUUID(), "bank@example.com")
+        );
+
+        exportService.export("token", "123", null, null, null, TransactionExportFormat.CSV)
+            .writeTo(new ByteArrayOutputStream());
+
+        ArgumentCaptor<Specification<Transaction>> filter =
+            ArgumentCaptor.forClass(Specification.class);
+        verify(transactionRepository).streamAll(filter.capture(), any());
+        CriteriaBuilder criteriaBuilder = mock(CriteriaBuilder.class, RETURNS_MOCKS);
+        filter.getValue()
+            .toPredicate(
+                mock(Root.class, RETURNS_MOCKS),
+                mock(CriteriaQuery.class),
+                criteriaBuilder
+            );
+        return mockingDetails(criteriaBuilder).getInvocations()
+            .stream()
+            .anyMatch(
+                invocation -> invocation.getMethod()
+                    .getName()
+                    .equals("notLike")
+                    && "FEE-%".equals(invocation.getArgument(1))
+            );
+    }
+
+    @Test
+    void testClientExportHidesSpecialTransactions() throws Exception {
+        assertTrue(clientExportHidesSpecialTransactions(false));
+    }
+
+    @Test
+    void testBankOwnerExportIncludesSpecialTransactions() throws Exception {
+        assertFalse(clientExportHidesSpecialTransactions(true));
+    }
+}
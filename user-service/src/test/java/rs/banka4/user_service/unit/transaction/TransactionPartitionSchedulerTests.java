@@ -0,0 +1,78 @@
+package rs.banka4.user_service.unit.transaction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import rs.banka4.user_service.utils.transactions.TransactionPartitionScheduler;
+
+public class TransactionPartitionSchedulerTests {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionPartitionScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new TransactionPartitionScheduler(jdbcTemplate, meterRegistry, 2);
+    }
+
+    @Test
+    void testCreatesCurrentAndUpcomingMonths() {
+        LocalDate month =
+            LocalDate.now()
+                .withDayOfMonth(1);
+
+        scheduler.createUpcomingPartitions();
+
+        for (int i = 0; i <= 2; i++) {
+            verify(jdbcTemplate).queryForObject(
+                "SELECT create_transactions_partition(?)",
+                Boolean.class,
+                month.plusMonths(i)
+            );
+        }
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testFailedMonthIsCountedAndTheRestStillCreated() {
+        LocalDate month =
+            LocalDate.now()
+                .withDayOfMonth(1);
+        when(
+            jdbcTemplate.queryForObject(
+                "SELECT create_transactions_partition(?)",
+                Boolean.class,
+                month
+            )
+        ).thenThrow(new DataIntegrityViolationException("partition constraint violated"));
+
+        scheduler.onStartup();
+
+        for (int i = 1; i <= 2; i++) {
+            verify(jdbcTemplate).queryForObject(
+                "SELECT create_transactions_partition(?)",
+                Boolean.class,
+                month.plusMonths(i)
+            );
+        }
+        assertEquals(
+            1.0,
+            meterRegistry.counter("banka4.transactions.partitions.failures")
+                .count()
+        );
+    }
+}
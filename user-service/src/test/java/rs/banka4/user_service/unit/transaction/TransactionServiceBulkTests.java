@@ -0,0 +1,229 @@
+package rs.banka4.user_service.unit.transaction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.Authentication;
+import rs.banka4.rafeisen.common.currency.CurrencyCode;
+import rs.banka4.user_service.domain.account.db.Account;
+import rs.banka4.user_service.domain.account.db.SpendPeriod;
+import rs.banka4.user_service.domain.transaction.dtos.BulkPaymentItemDto;
+import rs.banka4.user_service.domain.transaction.dtos.BulkPaymentResultDto;
+import rs.banka4.user_service.domain.currency.db.Currency;
+import rs.banka4.user_service.domain.transaction.dtos.CreateBulkPaymentDto;
+import rs.banka4.user_service.domain.user.client.db.Client;
+import rs.banka4.user_service.exceptions.account.AccountNotFound;
+import rs.banka4.user_service.exceptions.authenticator.NotValidTotpException;
+import rs.banka4.user_service.generator.AccountObjectMother;
+import rs.banka4.user_service.generator.ClientObjectMother;
+import rs.banka4.user_service.repositories.AccountRepository;
+import rs.banka4.user_service.repositories.ClientContactRepository;
+import rs.banka4.user_service.repositories.ClientRepository;
+import rs.banka4.user_service.repositories.SpendCounterRepository;
+import rs.banka4.user_service.repositories.TransactionRepository;
+import rs.banka4.user_service.service.abstraction.JwtService;
+import rs.banka4.user_service.service.impl.BankAccountServiceImpl;
+import rs.banka4.user_service.service.impl.ExchangeRateService;
+import rs.banka4.user_service.service.impl.LedgerService;
+import rs.banka4.user_service.service.impl.TotpServiceImpl;
+import rs.banka4.user_service.service.impl.TransactionServiceImpl;
+
+public class TransactionServiceBulkTests {
+
+    private static final UUID CLIENT_ID = UUID.fromString("9df5e618-f21d-48a7-a7a4-ac55ea8bec97");
+
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private ClientRepository clientRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private SpendCounterRepository spendCounterRepository;
+    @Mock
+    private ClientContactRepository clientContactRepository;
+    @Mock
+    private JwtService jwtService;
+    @Mock
+    private Authentication authentication;
+    @Mock
+    private TotpServiceImpl totpService;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private ExchangeRateService exchangeRateService;
+    @Mock
+    private LedgerService ledgerService;
+    @Mock
+    private BankAccountServiceImpl bankAccountService;
+    @InjectMocks
+    private TransactionServiceImpl transactionService;
+
+    private Client client;
+    private Account fromAccount;
+    private Account toAccount;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(authentication.getCredentials()).thenReturn("mocked-token");
+        when(totpService.validate(anyString(), eq("123123"))).thenReturn(true);
+        when(jwtService.extractUserId(anyString())).thenReturn(CLIENT_ID);
+
+        client = ClientObjectMother.generateClient(CLIENT_ID, "markezaa@example.com");
+        fromAccount = AccountObjectMother.generateBasicFromAccount();
+        toAccount = AccountObjectMother.generateBasicToAccount();
+        fromAccount.setId(UUID.randomUUID());
+        toAccount.setId(UUID.randomUUID());
+        client.setAccounts(Set.of(fromAccount));
+
+        when(clientRepository.findById(CLIENT_ID)).thenReturn(Optional.of(client));
+        when(accountRepository.lockAllByAccountNumberIn(anyCollection())).thenReturn(
+            List.of(fromAccount, toAccount)
+        );
+        when(spendCounterRepository.findById(any())).thenReturn(Optional.empty());
+    }
+
+    private static BulkPaymentItemDto item(String toAccount, long amount) {
+        return new BulkPaymentItemDto(
+            toAccount,
+            BigDecimal.valueOf(amount),
+            "Pera Perić",
+            "240",
+            "1176926",
+            "Plata"
+        );
+    }
+
+    @Test
+    void testBulkPaymentRejectsItemsIndividually() {
+        // Arrange
+        CreateBulkPaymentDto dto =
+            new CreateBulkPaymentDto(
+                fromAccount.getAccountNumber(),
+                List.of(
+                    item(toAccount.getAccountNumber(), 100),
+                    item("000000000000000", 100),
+                    item(toAccount.getAccountNumber(), 950)
+                ),
+                "123123"
+            );
+
+        // Act
+        BulkPaymentResultDto result = transactionService.createBulkPayment(authentication, dto);
+
+        // Assert
+        assertEquals(1, result.executed());
+        assertEquals(2, result.rejected());
+        assertNotNull(
+            result.results()
+                .get(0)
+                .transaction()
+        );
+        assertEquals(
+            "AccountNotFound",
+            result.results()
+                .get(1)
+                .errorCode()
+        );
+        assertEquals(
+            "ExceededDailyLimit",
+            result.results()
+                .get(2)
+                .errorCode()
+        );
+        verify(ledgerService, times(1)).transfer(fromAccount, toAccount, BigDecimal.valueOf(100));
+        verify(accountRepository, times(1)).lockAllByAccountNumberIn(anyCollection());
+        verify(totpService, times(1)).validate(anyString(), anyString());
+        verify(spendCounterRepository).increment(
+            eq(fromAccount.getId()),
+            eq(SpendPeriod.DAY.name()),
+            any(),
+            eq(BigDecimal.valueOf(100))
+        );
+    }
+
+    @Test
+    void testBulkPaymentLeavesNothingBehindWhenALaterLegFails() {
+        // Arrange: RSD -> EUR, but the bank has no EUR account to pay out of
+        toAccount.setCurrency(
+            new Currency(CurrencyCode.Code.EUR, "Euro", "EUR", "European currency", true)
+        );
+        Account rsdBankAccount = AccountObjectMother.generateBasicToAccount();
+        rsdBankAccount.setId(UUID.randomUUID());
+        when(exchangeRateService.calculateFee(any())).thenReturn(BigDecimal.ONE);
+        when(exchangeRateService.convertCurrency(any(), any(), any())).thenReturn(BigDecimal.TEN);
+        when(bankAccountService.getBankAccountForCurrency(CurrencyCode.Code.RSD)).thenReturn(
+            rsdBankAccount
+        );
+        when(bankAccountService.getBankAccountForCurrency(CurrencyCode.Code.EUR)).thenThrow(
+            new AccountNotFound()
+        );
+        CreateBulkPaymentDto dto =
+            new CreateBulkPaymentDto(
+                fromAccount.getAccountNumber(),
+                List.of(item(toAccount.getAccountNumber(), 100)),
+                "123123"
+            );
+
+        // Act
+        BulkPaymentResultDto result = transactionService.createBulkPayment(authentication, dto);
+
+        // Assert: the amount and fee legs resolve first, yet none of them is written
+        assertEquals(0, result.executed());
+        assertEquals(
+            "AccountNotFound",
+            result.results()
+                .get(0)
+                .errorCode()
+        );
+        verify(ledgerService, never()).transfer(any(), any(), any());
+        verify(transactionRepository, never()).save(any());
+        verify(spendCounterRepository, never()).increment(any(), any(), any(), any());
+    }
+
+    @Test
+    void testBulkPaymentUnknownSourceAccount() {
+        when(accountRepository.lockAllByAccountNumberIn(anyCollection())).thenReturn(
+            List.of(toAccount)
+        );
+        CreateBulkPaymentDto dto =
+            new CreateBulkPaymentDto(
+                fromAccount.getAccountNumber(),
+                List.of(item(toAccount.getAccountNumber(), 100)),
+                "123123"
+            );
+
+        assertThrows(
+            AccountNotFound.class,
+            () -> transactionService.createBulkPayment(authentication, dto)
+        );
+    }
+
+    @Test
+    void testBulkPaymentInvalidTotp() {
+        CreateBulkPaymentDto dto =
+            new CreateBulkPaymentDto(
+                fromAccount.getAccountNumber(),
+                List.of(item(toAccount.getAccountNumber(), 100)),
+                "000000"
+            );
+
+        assertThrows(
+            NotValidTotpException.class,
+            () -> transactionService.createBulkPayment(authentication, dto)
+        );
+        verify(accountRepository, never()).lockAllByAccountNumberIn(anyCollection());
+    }
+}
@@ -4,17 +4,23 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.core.Authentication;
 import rs.banka4.user_service.domain.account.db.Account;
+import rs.banka4.user_service.domain.account.db.SpendCounter;
+import rs.banka4.user_service.domain.account.db.SpendCounterId;
+import rs.banka4.user_service.domain.account.db.SpendPeriod;
 import rs.banka4.user_service.domain.transaction.dtos.CreatePaymentDto;
 import rs.banka4.user_service.domain.transaction.dtos.CreateTransferDto;
 import rs.banka4.user_service.domain.transaction.dtos.TransactionDto;
@@ -24,6 +30,7 @@ import rs.banka4.user_service.exceptions.account.AccountNotFound;
 import rs.banka4.user_service.exceptions.account.NotAccountOwner;
 import rs.banka4.user_service.exceptions.transaction.ClientCannotPayToOwnAccount;
 import rs.banka4.user_service.exceptions.transaction.ClientCannotTransferToSameAccount;
+import rs.banka4.user_service.exceptions.transaction.ExceededDailyLimit;
 import rs.banka4.user_service.exceptions.transaction.InsufficientFunds;
 import rs.banka4.user_service.generator.AccountObjectMother;
 import rs.banka4.user_service.generator.ClientObjectMother;
@@ -31,9 +38,11 @@ import rs.banka4.user_service.generator.TransactionObjectMother;
 import rs.banka4.user_service.repositories.AccountRepository;
 import rs.banka4.user_service.repositories.ClientContactRepository;
 import rs.banka4.user_service.repositories.ClientRepository;
+import rs.banka4.user_service.repositories.SpendCounterRepository;
 import rs.banka4.user_service.repositories.TransactionRepository;
 import rs.banka4.user_service.service.abstraction.JwtService;
 import rs.banka4.user_service.service.impl.ExchangeRateService;
+import rs.banka4.user_service.service.impl.LedgerService;
 import rs.banka4.user_service.service.impl.TotpServiceImpl;
 import rs.banka4.user_service.service.impl.TransactionServiceImpl;
 
@@ -61,6 +70,10 @@ public class TransactionServiceCreateTests {
     private TransactionServiceImpl transactionService;
     @Mock
     private ClientContactRepository clientContactRepository;
+    @Mock
+    private SpendCounterRepository spendCounterRepository;
+    @Mock
+    private LedgerService ledgerService;
 
     @BeforeEach
     void setUp() {
@@ -97,12 +110,7 @@ public class TransactionServiceCreateTests {
             Optional.of(toAccount)
         );
         when(transactionMapper.toDto(any())).thenReturn(transactionDto);
-        when(transactionRepository.getTotalDailyTransactions(any(), any())).thenReturn(
-            BigDecimal.ZERO
-        );
-        when(transactionRepository.getTotalMonthlyTransactions(any(), anyInt())).thenReturn(
-            BigDecimal.ZERO
-        );
+        when(spendCounterRepository.findById(any())).thenReturn(Optional.empty());
 
         // Act
         TransactionDto result =
@@ -118,6 +126,65 @@ public class TransactionServiceCreateTests {
         assertEquals(createPaymentDto.referenceNumber(), result.referenceNumber());
         assertEquals(createPaymentDto.paymentPurpose(), result.paymentPurpose());
         verify(transactionRepository, times(1)).save(any());
+        verify(spendCounterRepository).increment(
+            eq(fromAccount.getId()),
+            eq(SpendPeriod.DAY.name()),
+            any(),
+            eq(createPaymentDto.fromAmount())
+        );
+        verify(spendCounterRepository).increment(
+            eq(fromAccount.getId()),
+            eq(SpendPeriod.MONTH.name()),
+            any(),
+            eq(createPaymentDto.fromAmount())
+        );
+    }
+
+    @Test
+    void testCreateTransactionExceededDailyLimit() {
+        // Arrange
+        CreatePaymentDto createPaymentDto = TransactionObjectMother.generateBasicCreatePaymentDto();
+        Client client =
+            ClientObjectMother.generateClient(
+                UUID.fromString("9df5e618-f21d-48a7-a7a4-ac55ea8bec97"),
+                "markezaa@example.com"
+            );
+        Account fromAccount = AccountObjectMother.generateBasicFromAccount();
+        Account toAccount = AccountObjectMother.generateBasicToAccount();
+        fromAccount.setId(UUID.randomUUID());
+        toAccount.setId(UUID.randomUUID());
+
+        client.setAccounts(Set.of(fromAccount));
+
+        when(jwtService.extractUserId(anyString())).thenReturn(
+            UUID.fromString("9df5e618-f21d-48a7-a7a4-ac55ea8bec97")
+        );
+        when(clientRepository.findById(client.getId())).thenReturn(Optional.of(client));
+        when(accountRepository.findAccountByAccountNumber(createPaymentDto.fromAccount()))
+            .thenReturn(Optional.of(fromAccount));
+        when(accountRepository.findAccountByAccountNumber(createPaymentDto.toAccount())).thenReturn(
+            Optional.of(toAccount)
+        );
+        when(spendCounterRepository.findById(any())).thenReturn(Optional.empty());
+        when(
+            spendCounterRepository.findById(
+                SpendCounterId.of(fromAccount.getId(), SpendPeriod.DAY, LocalDate.now())
+            )
+        ).thenReturn(
+            Optional.of(
+                new SpendCounter(
+                    SpendCounterId.of(fromAccount.getId(), SpendPeriod.DAY, LocalDate.now()),
+                    fromAccount.getDailyLimit()
+                )
+            )
+        );
+
+        // Act & Assert
+        assertThrows(
+            ExceededDailyLimit.class,
+            () -> transactionService.createTransaction(authentication, createPaymentDto)
+        );
+        verify(spendCounterRepository, never()).increment(any(), any(), any(), any());
     }
 
     @Test
@@ -134,7 +201,8 @@ public class TransactionServiceCreateTests {
         fromAccount.setId(UUID.randomUUID());
         toAccount.setId(UUID.randomUUID());
 
-        fromAccount.setBalance(BigDecimal.valueOf(0.50)); // Insufficient funds
+        fromAccount.setBalance(BigDecimal.valueOf(0.50));
+        fromAccount.setAvailableBalance(BigDecimal.valueOf(0.50)); // Insufficient funds
         client.setAccounts(Set.of(fromAccount));
 
         when(jwtService.extractUserId(anyString())).thenReturn(
@@ -285,6 +353,44 @@ public class TransactionServiceCreateTests {
         verify(transactionRepository, times(1)).save(any());
     }
 
+    @Test
+    void testCreateTransferLocksAccountsInDatabaseOrder() {
+        // Arrange
+        CreateTransferDto createTransferDto =
+            TransactionObjectMother.generateBasicCreateTransferDto();
+        Client client =
+            ClientObjectMother.generateClient(
+                UUID.fromString("9df5e618-f21d-48a7-a7a4-ac55ea8bec97"),
+                "markezaa@example.com"
+            );
+        Account fromAccount = AccountObjectMother.generateBasicFromAccount();
+        Account toAccount = AccountObjectMother.generateBasicToAccount();
+        /* Signed comparison would put the first one before the second. */
+        fromAccount.setId(UUID.fromString("80000000-0000-0000-0000-000000000000"));
+        toAccount.setId(UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff"));
+
+        client.setAccounts(Set.of(fromAccount, toAccount));
+
+        when(jwtService.extractUserId(anyString())).thenReturn(
+            UUID.fromString("9df5e618-f21d-48a7-a7a4-ac55ea8bec97")
+        );
+        when(clientRepository.findById(client.getId())).thenReturn(Optional.of(client));
+        when(accountRepository.findAccountByAccountNumber(createTransferDto.fromAccount()))
+            .thenReturn(Optional.of(fromAccount));
+        when(accountRepository.findAccountByAccountNumber(createTransferDto.toAccount()))
+            .thenReturn(Optional.of(toAccount));
+
+        // Act
+        transactionService.createTransfer(authentication, createTransferDto);
+
+        // Assert
+        InOrder inOrder = inOrder(entityManager);
+        inOrder.verify(entityManager)
+            .lock(toAccount, LockModeType.PESSIMISTIC_WRITE);
+        inOrder.verify(entityManager)
+            .lock(fromAccount, LockModeType.PESSIMISTIC_WRITE);
+    }
+
     @Test
     void testCreateTransactionClientCannotPayToOwnAccount() {
         // Arrange
@@ -5,6 +5,7 @@ import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -27,7 +28,9 @@ import rs.banka4.user_service.domain.currency.db.Currency;
 import rs.banka4.user_service.domain.transaction.db.Transaction;
 import rs.banka4.user_service.domain.transaction.db.TransactionStatus;
 import rs.banka4.user_service.domain.transaction.dtos.TransactionDto;
+import rs.banka4.user_service.domain.transaction.dtos.TransactionHistoryPageDto;
 import rs.banka4.user_service.domain.transaction.mapper.TransactionMapper;
+import rs.banka4.user_service.exceptions.InvalidCursor;
 import rs.banka4.user_service.exceptions.transaction.TransactionNotFound;
 import rs.banka4.user_service.generator.AccountObjectMother;
 import rs.banka4.user_service.generator.TransactionObjectMother;
@@ -37,6 +40,7 @@ import rs.banka4.user_service.repositories.TransactionRepository;
 import rs.banka4.user_service.service.abstraction.JwtService;
 import rs.banka4.user_service.service.impl.BankAccountServiceImpl;
 import rs.banka4.user_service.service.impl.TransactionServiceImpl;
+import rs.banka4.user_service.utils.pagination.HistoryCursor;
 
 public class TransactionServiceGetTests {
 
@@ -387,4 +391,90 @@ public class TransactionServiceGetTests {
             () -> transactionService.getTransactionById(token, transactionId)
         );
     }
+
+    @Test
+    void testGetTransferHistoryReturnsCursorWhenMoreRowsExist() {
+        // Arrange
+        String token = "mocked-token";
+        Account fromAccount = AccountObjectMother.generateBasicFromAccount();
+        Account toAccount = AccountObjectMother.generateBasicToAccount();
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Transaction transaction =
+                TransactionObjectMother.generateBasicTransaction(fromAccount, toAccount);
+            transaction.setId(UUID.randomUUID());
+            rows.add(transaction);
+        }
+
+        when(clientRepository.findById(any())).thenReturn(
+            Optional.ofNullable(fromAccount.getClient())
+        );
+        when(transactionRepository.findBy(any(Specification.class), any())).thenReturn(rows);
+
+        // Act
+        TransactionHistoryPageDto page =
+            transactionService.getTransferHistoryForClient(token, null, 2);
+
+        // Assert
+        assertEquals(
+            2,
+            page.content()
+                .size()
+        );
+        HistoryCursor next = HistoryCursor.decode(page.nextCursor());
+        assertEquals(
+            rows.get(1)
+                .getId(),
+            next.id()
+        );
+        assertEquals(
+            rows.get(1)
+                .getPaymentDateTime(),
+            next.paymentDateTime()
+        );
+    }
+
+    @Test
+    void testGetTransferHistoryLastPageHasNoCursor() {
+        // Arrange
+        String token = "mocked-token";
+        Account fromAccount = AccountObjectMother.generateBasicFromAccount();
+        Transaction transaction =
+            TransactionObjectMother.generateBasicTransaction(
+                fromAccount,
+                AccountObjectMother.generateBasicToAccount()
+            );
+
+        when(clientRepository.findById(any())).thenReturn(
+            Optional.ofNullable(fromAccount.getClient())
+        );
+        when(transactionRepository.findBy(any(Specification.class), any())).thenReturn(
+            List.of(transaction)
+        );
+
+        // Act
+        TransactionHistoryPageDto page =
+            transactionService.getTransferHistoryForClient(token, null, 10);
+
+        // Assert
+        assertEquals(
+            1,
+            page.content()
+                .size()
+        );
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void testHistoryCursorRoundTrip() {
+        HistoryCursor cursor =
+            new HistoryCursor(
+                LocalDateTime.of(2025, 3, 15, 10, 30, 0, 123456000),
+                UUID.randomUUID()
+            );
+
+        assertEquals(cursor, HistoryCursor.decode(cursor.encode()));
+        assertNull(HistoryCursor.decode(null));
+        assertThrows(InvalidCursor.class, () -> HistoryCursor.decode("not a cursor!"));
+    }
 }
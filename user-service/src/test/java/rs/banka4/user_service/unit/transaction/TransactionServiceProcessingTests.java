@@ -18,6 +18,7 @@ import rs.banka4.user_service.repositories.AccountRepository;
 import rs.banka4.user_service.repositories.TransactionRepository;
 import rs.banka4.user_service.service.impl.BankAccountServiceImpl;
 import rs.banka4.user_service.service.impl.ExchangeRateService;
+import rs.banka4.user_service.service.impl.LedgerService;
 import rs.banka4.user_service.service.impl.TransactionServiceImpl;
 
 public class TransactionServiceProcessingTests {
@@ -30,6 +31,8 @@ public class TransactionServiceProcessingTests {
     private ExchangeRateService exchangeRateService;
     @Mock
     private BankAccountServiceImpl bankAccountServiceImpl;
+    @Mock
+    private LedgerService ledgerService;
     @InjectMocks
     private TransactionServiceImpl transactionService;
 
@@ -44,6 +47,7 @@ public class TransactionServiceProcessingTests {
         Account fromAccount = new Account();
         fromAccount.setCurrency(TransactionObjectMother.generateCurrency(CurrencyCode.Code.RSD));
         fromAccount.setBalance(BigDecimal.valueOf(1000));
+        fromAccount.setAvailableBalance(BigDecimal.valueOf(1000));
 
         Account toAccount = new Account();
         toAccount.setCurrency(TransactionObjectMother.generateCurrency(CurrencyCode.Code.RSD));
@@ -64,8 +68,8 @@ public class TransactionServiceProcessingTests {
 
         // Assert
         assertNotNull(transaction);
-        assertEquals(BigDecimal.valueOf(900), fromAccount.getBalance());
-        assertEquals(BigDecimal.valueOf(600), toAccount.getBalance());
+        verify(ledgerService).transfer(fromAccount, toAccount, amount);
+        verifyNoInteractions(bankAccountServiceImpl);
         verify(transactionRepository, times(1)).save(any(Transaction.class));
     }
 
@@ -75,6 +79,7 @@ public class TransactionServiceProcessingTests {
         Account fromAccount = new Account();
         fromAccount.setCurrency(TransactionObjectMother.generateCurrency(CurrencyCode.Code.RSD));
         fromAccount.setBalance(BigDecimal.valueOf(1000));
+        fromAccount.setAvailableBalance(BigDecimal.valueOf(1000));
 
         Account toAccount = new Account();
         toAccount.setCurrency(TransactionObjectMother.generateCurrency(CurrencyCode.Code.USD));
@@ -119,8 +124,9 @@ public class TransactionServiceProcessingTests {
 
         // Assert
         assertNotNull(transaction);
-        assertEquals(BigDecimal.valueOf(890), fromAccount.getBalance());
-        assertEquals(BigDecimal.valueOf(501), toAccount.getBalance());
+        verify(ledgerService).transfer(fromAccount, rsdBankAccount, amount);
+        verify(ledgerService).transfer(fromAccount, rsdBankAccount, BigDecimal.valueOf(10));
+        verify(ledgerService).transfer(usdBankAccount, toAccount, BigDecimal.valueOf(1));
         verify(transactionRepository, times(5)).save(any(Transaction.class));
     }
 
@@ -130,6 +136,7 @@ public class TransactionServiceProcessingTests {
         Account fromAccount = new Account();
         fromAccount.setCurrency(TransactionObjectMother.generateCurrency(CurrencyCode.Code.USD));
         fromAccount.setBalance(BigDecimal.valueOf(1000));
+        fromAccount.setAvailableBalance(BigDecimal.valueOf(1000));
 
         Account toAccount = new Account();
         toAccount.setCurrency(TransactionObjectMother.generateCurrency(CurrencyCode.Code.RSD));
@@ -174,8 +181,9 @@ public class TransactionServiceProcessingTests {
 
         // Assert
         assertNotNull(transaction);
-        assertEquals(BigDecimal.valueOf(890), fromAccount.getBalance());
-        assertEquals(BigDecimal.valueOf(1500), toAccount.getBalance());
+        verify(ledgerService).transfer(fromAccount, usdBankAccount, amount);
+        verify(ledgerService).transfer(fromAccount, usdBankAccount, BigDecimal.valueOf(10));
+        verify(ledgerService).transfer(rsdBankAccount, toAccount, BigDecimal.valueOf(1000));
         verify(transactionRepository, times(5)).save(any(Transaction.class));
     }
 
@@ -185,6 +193,7 @@ public class TransactionServiceProcessingTests {
         Account fromAccount = new Account();
         fromAccount.setCurrency(TransactionObjectMother.generateCurrency(CurrencyCode.Code.EUR));
         fromAccount.setBalance(BigDecimal.valueOf(1000));
+        fromAccount.setAvailableBalance(BigDecimal.valueOf(1000));
 
         Account toAccount = new Account();
         toAccount.setCurrency(TransactionObjectMother.generateCurrency(CurrencyCode.Code.USD));
@@ -214,10 +223,6 @@ public class TransactionServiceProcessingTests {
         eurBankAccount.setCurrency(TransactionObjectMother.generateCurrency(CurrencyCode.Code.EUR));
         eurBankAccount.setBalance(BigDecimal.valueOf(1000));
 
-        Account rsdBankAccount = new Account();
-        rsdBankAccount.setCurrency(TransactionObjectMother.generateCurrency(CurrencyCode.Code.RSD));
-        rsdBankAccount.setBalance(BigDecimal.valueOf(1000));
-
         Account usdBankAccount = new Account();
         usdBankAccount.setCurrency(TransactionObjectMother.generateCurrency(CurrencyCode.Code.USD));
         usdBankAccount.setBalance(BigDecimal.valueOf(1000));
@@ -225,9 +230,6 @@ public class TransactionServiceProcessingTests {
         when(bankAccountServiceImpl.getBankAccountForCurrency(CurrencyCode.Code.EUR)).thenReturn(
             eurBankAccount
         );
-        when(bankAccountServiceImpl.getBankAccountForCurrency(CurrencyCode.Code.RSD)).thenReturn(
-            rsdBankAccount
-        );
         when(bankAccountServiceImpl.getBankAccountForCurrency(CurrencyCode.Code.USD)).thenReturn(
             usdBankAccount
         );
@@ -243,8 +245,14 @@ public class TransactionServiceProcessingTests {
 
         // Assert
         assertNotNull(transaction);
-        assertEquals(BigDecimal.valueOf(880), fromAccount.getBalance());
-        assertEquals(BigDecimal.valueOf(501), toAccount.getBalance());
-        verify(transactionRepository, times(8)).save(any(Transaction.class));
+        verify(ledgerService).transfer(fromAccount, eurBankAccount, amount);
+        verify(ledgerService).transfer(fromAccount, eurBankAccount, BigDecimal.valueOf(20));
+        verify(ledgerService).transfer(usdBankAccount, toAccount, BigDecimal.valueOf(1));
+        /* Every leg goes through the journal. */
+        verify(bankAccountServiceImpl, never()).creditBankAccount(any(), any());
+        verify(bankAccountServiceImpl, never()).debitBankAccount(any(), any());
+        /* Two transfer rows, the fee, one EUR -> USD conversion and the payment itself. */
+        verify(transactionRepository, times(5)).save(any(Transaction.class));
+        verify(bankAccountServiceImpl, never()).getBankAccountForCurrency(CurrencyCode.Code.RSD);
     }
 }
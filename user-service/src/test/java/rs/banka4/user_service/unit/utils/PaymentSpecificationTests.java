@@ -0,0 +1,81 @@
+package rs.banka4.user_service.unit.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import rs.banka4.user_service.domain.transaction.db.Transaction;
+import rs.banka4.user_service.utils.pagination.HistoryCursor;
+import rs.banka4.user_service.utils.specification.PaymentSpecification;
+
+public class PaymentSpecificationTests {
+
+    @Mock
+    private Root<Transaction> root;
+    @Mock
+    private CriteriaQuery<?> query;
+    @Mock
+    private CriteriaBuilder criteriaBuilder;
+    @Mock
+    private Path<Object> paymentDateTime;
+    @Mock
+    private Path<Object> id;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(root.get("paymentDateTime")).thenReturn(paymentDateTime);
+        when(root.get("id")).thenReturn(id);
+    }
+
+    @Test
+    @SuppressWarnings({
+        "unchecked", "rawtypes"
+    })
+    void testCursorPredicateHasAnIndexBound() {
+        HistoryCursor cursor =
+            new HistoryCursor(LocalDateTime.of(2026, 3, 14, 12, 0), UUID.randomUUID());
+        Predicate bound = mock(Predicate.class);
+        Predicate before = mock(Predicate.class);
+        Predicate lowerId = mock(Predicate.class);
+        Predicate seek = mock(Predicate.class);
+        Predicate expected = mock(Predicate.class);
+        when(criteriaBuilder.lessThanOrEqualTo((Path) paymentDateTime, cursor.paymentDateTime()))
+            .thenReturn(bound);
+        when(criteriaBuilder.lessThan((Path) paymentDateTime, cursor.paymentDateTime())).thenReturn(
+            before
+        );
+        when(criteriaBuilder.lessThan((Path) id, cursor.id())).thenReturn(lowerId);
+        when(criteriaBuilder.or(before, lowerId)).thenReturn(seek);
+        when(criteriaBuilder.and(bound, seek)).thenReturn(expected);
+
+        Predicate predicate =
+            PaymentSpecification.isAfterCursor(cursor)
+                .toPredicate(root, query, criteriaBuilder);
+
+        /* paymentDateTime <= X AND (paymentDateTime < X OR id < Y) */
+        assertSame(expected, predicate);
+    }
+
+    @Test
+    void testNullCursorMatchesEverything() {
+        Predicate conjunction = mock(Predicate.class);
+        when(criteriaBuilder.conjunction()).thenReturn(conjunction);
+
+        assertSame(
+            conjunction,
+            PaymentSpecification.isAfterCursor(null)
+                .toPredicate(root, query, criteriaBuilder)
+        );
+    }
+}
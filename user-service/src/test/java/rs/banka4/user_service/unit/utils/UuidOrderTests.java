@@ -0,0 +1,26 @@
+package rs.banka4.user_service.unit.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import rs.banka4.user_service.utils.UuidOrder;
+
+public class UuidOrderTests {
+    @Test
+    void testOrderIsUnsigned() {
+        UUID low = UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff");
+        UUID high = UUID.fromString("80000000-0000-0000-0000-000000000000");
+        UUID higherLow = UUID.fromString("80000000-0000-0000-8000-000000000000");
+
+        assertThat(UuidOrder.UNSIGNED.compare(low, high)).isNegative();
+        assertThat(UuidOrder.UNSIGNED.compare(high, higherLow)).isNegative();
+        assertThat(UuidOrder.UNSIGNED.compare(high, high)).isZero();
+        assertThat(Stream.of(higherLow, high, low).sorted(UuidOrder.UNSIGNED)).containsExactly(
+            low,
+            high,
+            higherLow
+        );
+    }
+}